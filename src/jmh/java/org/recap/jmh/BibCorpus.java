@@ -0,0 +1,122 @@
+package org.recap.jmh;
+
+import org.apache.commons.io.IOUtils;
+import org.recap.model.jpa.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The bundled marc xml bibs the benchmarks run over, each with the number of holdings and items an indexed bib of its size has.
+ * The huge bib is a serial whose hundreds of items are spread over its holdings.
+ */
+public enum BibCorpus {
+
+    SMALL("small-bib.xml", 1, 1),
+    MEDIAN("median-bib.xml", 1, 3),
+    HUGE("huge-serial-bib.xml", 4, 100);
+
+    private static final String HOLDINGS_RESOURCE = "holdings.xml";
+
+    private final String bibResource;
+
+    private final int holdingsCount;
+
+    private final int itemsPerHoldings;
+
+    BibCorpus(String bibResource, int holdingsCount, int itemsPerHoldings) {
+        this.bibResource = bibResource;
+        this.holdingsCount = holdingsCount;
+        this.itemsPerHoldings = itemsPerHoldings;
+    }
+
+    /**
+     * This method builds the bibliographic entity of the corpus bib, linked to its holdings and items as they are fetched for indexing.
+     *
+     * @return the bibliographic entity
+     * @throws IOException the io exception
+     */
+    public BibliographicEntity newBibliographicEntity() throws IOException {
+        InstitutionEntity institutionEntity = new InstitutionEntity();
+        institutionEntity.setInstitutionId(1);
+        institutionEntity.setInstitutionCode("PUL");
+
+        Date now = new Date();
+        BibliographicEntity bibliographicEntity = new BibliographicEntity();
+        bibliographicEntity.setBibliographicId(1);
+        bibliographicEntity.setContent(readResource(bibResource));
+        bibliographicEntity.setOwningInstitutionId(1);
+        bibliographicEntity.setOwningInstitutionBibId(name() + "-bib");
+        bibliographicEntity.setInstitutionEntity(institutionEntity);
+        bibliographicEntity.setCreatedBy("jmh");
+        bibliographicEntity.setCreatedDate(now);
+        bibliographicEntity.setLastUpdatedBy("jmh");
+        bibliographicEntity.setLastUpdatedDate(now);
+        bibliographicEntity.setCatalogingStatus("Complete");
+
+        ItemStatusEntity itemStatusEntity = new ItemStatusEntity();
+        itemStatusEntity.setStatusCode("Available");
+        CollectionGroupEntity collectionGroupEntity = new CollectionGroupEntity();
+        collectionGroupEntity.setCollectionGroupCode("Shared");
+
+        byte[] holdingsContent = readResource(HOLDINGS_RESOURCE);
+        List<HoldingsEntity> holdingsEntities = new ArrayList<>();
+        List<ItemEntity> itemEntities = new ArrayList<>();
+        for (int holdingsNum = 0; holdingsNum < holdingsCount; holdingsNum++) {
+            HoldingsEntity holdingsEntity = new HoldingsEntity();
+            holdingsEntity.setHoldingsId(holdingsNum + 1);
+            holdingsEntity.setContent(holdingsContent);
+            holdingsEntity.setOwningInstitutionId(1);
+            holdingsEntity.setOwningInstitutionHoldingsId(name() + "-holdings-" + holdingsNum);
+            holdingsEntity.setInstitutionEntity(institutionEntity);
+            holdingsEntity.setCreatedBy("jmh");
+            holdingsEntity.setCreatedDate(now);
+            holdingsEntity.setLastUpdatedBy("jmh");
+            holdingsEntity.setLastUpdatedDate(now);
+            holdingsEntity.setBibliographicEntities(Collections.singletonList(bibliographicEntity));
+
+            List<ItemEntity> holdingsItemEntities = new ArrayList<>();
+            for (int itemNum = 0; itemNum < itemsPerHoldings; itemNum++) {
+                int itemId = itemEntities.size() + 1;
+                ItemEntity itemEntity = new ItemEntity();
+                itemEntity.setItemId(itemId);
+                itemEntity.setOwningInstitutionItemId(name() + "-item-" + itemId);
+                itemEntity.setOwningInstitutionId(1);
+                itemEntity.setBarcode(String.valueOf(32101000000000L + itemId));
+                itemEntity.setCustomerCode("PA");
+                itemEntity.setCallNumber("JA1 .J65");
+                itemEntity.setCallNumberType("0");
+                itemEntity.setVolumePartYear("v." + itemId);
+                itemEntity.setCopyNumber(1);
+                itemEntity.setUseRestrictions("In Library Use");
+                itemEntity.setCatalogingStatus("Complete");
+                itemEntity.setInstitutionEntity(institutionEntity);
+                itemEntity.setItemStatusEntity(itemStatusEntity);
+                itemEntity.setCollectionGroupEntity(collectionGroupEntity);
+                itemEntity.setCreatedBy("jmh");
+                itemEntity.setCreatedDate(now);
+                itemEntity.setLastUpdatedBy("jmh");
+                itemEntity.setLastUpdatedDate(now);
+                itemEntity.setHoldingsEntities(Collections.singletonList(holdingsEntity));
+                itemEntity.setBibliographicEntities(Collections.singletonList(bibliographicEntity));
+                holdingsItemEntities.add(itemEntity);
+            }
+            holdingsEntity.setItemEntities(holdingsItemEntities);
+            holdingsEntities.add(holdingsEntity);
+            itemEntities.addAll(holdingsItemEntities);
+        }
+        bibliographicEntity.setHoldingsEntities(holdingsEntities);
+        bibliographicEntity.setItemEntities(itemEntities);
+        return bibliographicEntity;
+    }
+
+    private byte[] readResource(String resource) throws IOException {
+        try (InputStream inputStream = BibCorpus.class.getResourceAsStream(resource)) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.recap.jmh;
+
+import org.marc4j.marc.Record;
+import org.openjdk.jmh.annotations.*;
+import org.recap.util.BibJSONUtil;
+import org.recap.util.MarcUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading the marc xml of a bib into marc4j records, through a string with marc4j's MarcXmlReader as indexing used to, against
+ * reading it from the content bytes with the StAX reader, with and without the tag filter of the bib document.
+ * Run through the jmh gradle task, which also reports the allocation rate of each reader with the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MarcXmlReaderBenchmark {
+
+    @Param
+    private BibCorpus corpus;
+
+    private byte[] content;
+
+    private MarcUtil marcUtil;
+
+    /**
+     * Reads the marc xml content of the corpus bib.
+     *
+     * @throws Exception the exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        content = corpus.newBibliographicEntity().getContent();
+        marcUtil = new MarcUtil();
+    }
+
+    /**
+     * Decodes the content to a string and reads it with marc4j's MarcXmlReader.
+     *
+     * @return the records
+     */
+    @Benchmark
+    public List<Record> marcXmlReaderFromString() {
+        return marcUtil.convertMarcXmlToRecord(new String(content));
+    }
+
+    /**
+     * Reads the content bytes with the StAX reader, keeping every field.
+     *
+     * @return the records
+     */
+    @Benchmark
+    public List<Record> staxReaderFromBytes() {
+        return marcUtil.convertMarcXmlToRecord(content);
+    }
+
+    /**
+     * Reads the content bytes with the StAX reader, keeping only the fields of the tags the bib document reads.
+     *
+     * @return the records
+     */
+    @Benchmark
+    public List<Record> staxReaderFromBytesWithTagFilter() {
+        return marcUtil.convertMarcXmlToRecord(content, BibJSONUtil::readsBibTag);
+    }
+}
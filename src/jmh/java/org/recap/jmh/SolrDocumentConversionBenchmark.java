@@ -0,0 +1,164 @@
+package org.recap.jmh;
+
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.recap.model.jpa.BibliographicEntity;
+import org.recap.model.jpa.HoldingsEntity;
+import org.recap.model.jpa.ItemEntity;
+import org.recap.model.solr.Bib;
+import org.recap.model.solr.Holdings;
+import org.recap.model.solr.Item;
+import org.recap.util.BibJSONUtil;
+import org.recap.util.HoldingsJSONUtil;
+import org.recap.util.ItemJSONUtil;
+import org.recap.util.SolrDocumentWriter;
+import org.springframework.data.solr.core.SolrTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the stages of turning a bib with its holdings and items into the solr documents sent for indexing.
+ * Every benchmark does its stage for the whole corpus bib, so one operation is one bib and the scores of the stages can be compared.
+ * Run through the jmh gradle task, which also reports the allocation rate of each stage with the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SolrDocumentConversionBenchmark {
+
+    private static final String SOLR_URL = "http://localhost:8983/solr";
+
+    @Param
+    private BibCorpus corpus;
+
+    private BibliographicEntity bibliographicEntity;
+
+    private List<HoldingsEntity> holdingsEntities;
+
+    private List<ItemEntity> itemEntities;
+
+    private BibJSONUtil bibJSONUtil;
+
+    private HoldingsJSONUtil holdingsJSONUtil;
+
+    private ItemJSONUtil itemJSONUtil;
+
+    private SolrTemplate solrTemplate;
+
+    private SolrDocumentWriter<Bib> bibDocumentWriter;
+
+    private SolrDocumentWriter<Holdings> holdingsDocumentWriter;
+
+    private SolrDocumentWriter<Item> itemDocumentWriter;
+
+    private Bib bib;
+
+    private List<Holdings> holdingsList;
+
+    private List<Item> items;
+
+    /**
+     * Builds the corpus entities and the solr beans of the conversion stage. The solr template only converts beans here, its client is never called.
+     *
+     * @throws Exception the exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        bibliographicEntity = corpus.newBibliographicEntity();
+        holdingsEntities = bibliographicEntity.getHoldingsEntities();
+        itemEntities = bibliographicEntity.getItemEntities();
+        bibJSONUtil = new BibJSONUtil();
+        holdingsJSONUtil = new HoldingsJSONUtil();
+        itemJSONUtil = new ItemJSONUtil();
+        solrTemplate = new SolrTemplate(new HttpSolrClient(SOLR_URL));
+        solrTemplate.afterPropertiesSet();
+        bibDocumentWriter = SolrDocumentWriter.forClass(Bib.class);
+        holdingsDocumentWriter = SolrDocumentWriter.forClass(Holdings.class);
+        itemDocumentWriter = SolrDocumentWriter.forClass(Item.class);
+
+        bib = bibJSONUtil.generateBibForIndex(bibliographicEntity, null, null);
+        holdingsList = new ArrayList<>();
+        for (HoldingsEntity holdingsEntity : holdingsEntities) {
+            holdingsList.add(holdingsJSONUtil.generateHoldingsForIndex(holdingsEntity));
+        }
+        items = new ArrayList<>();
+        for (ItemEntity itemEntity : itemEntities) {
+            Item item = itemJSONUtil.generateItemForIndex(itemEntity);
+            item.setTitleSort(bib.getTitleSort());
+            items.add(item);
+        }
+    }
+
+    /**
+     * The whole conversion as the indexing run does it, from the bib entity to the bib document with its holdings and item child documents.
+     *
+     * @return the bib solr input document
+     */
+    @Benchmark
+    public SolrInputDocument generateBibAndItemsForIndex() {
+        return bibJSONUtil.generateBibAndItemsForIndex(bibliographicEntity, solrTemplate, null, null);
+    }
+
+    /**
+     * Generates the holdings beans of the bib.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void generateHoldingsForIndex(Blackhole blackhole) {
+        for (HoldingsEntity holdingsEntity : holdingsEntities) {
+            blackhole.consume(holdingsJSONUtil.generateHoldingsForIndex(holdingsEntity));
+        }
+    }
+
+    /**
+     * Generates the item beans of the bib.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void generateItemForIndex(Blackhole blackhole) {
+        for (ItemEntity itemEntity : itemEntities) {
+            blackhole.consume(itemJSONUtil.generateItemForIndex(itemEntity));
+        }
+    }
+
+    /**
+     * Converts the already generated bib, holdings and item beans of the bib to solr input documents.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void convertBeanToSolrInputDocument(Blackhole blackhole) {
+        blackhole.consume(solrTemplate.convertBeanToSolrInputDocument(bib));
+        for (Holdings holdings : holdingsList) {
+            blackhole.consume(solrTemplate.convertBeanToSolrInputDocument(holdings));
+        }
+        for (Item item : items) {
+            blackhole.consume(solrTemplate.convertBeanToSolrInputDocument(item));
+        }
+    }
+
+    /**
+     * Writes the already generated bib, holdings and item beans of the bib to solr input documents with the solr document writers.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void writeSolrInputDocument(Blackhole blackhole) {
+        blackhole.consume(bibDocumentWriter.write(bib));
+        for (Holdings holdings : holdingsList) {
+            blackhole.consume(holdingsDocumentWriter.write(holdings));
+        }
+        for (Item item : items) {
+            blackhole.consume(itemDocumentWriter.write(item));
+        }
+    }
+}
@@ -28,6 +28,7 @@ public final class RecapConstants {
     public static final String PUBLISHER = "Publisher";
     public static final String TITLE_STARTS_WITH= "TitleStartsWith";
     public static final String TITLE_SORT= "Title_sort";
+    public static final String UNIQUE_KEY = "id";
     public static final String BARCODE = "Barcode";
     public static final String CALL_NUMBER = "CallNumber_search";
     public static final String NOTES = "Notes";
@@ -124,6 +125,8 @@ public final class RecapConstants {
     public static final String UNDER_SCORE = "_";
     public static final String CSV_EXTENSION = ".csv";
     public static final String MATCHING_BIB_IDS = "matchingBibIds";
+    public static final String QUEUE_RUN_ID = "queueRunId";
+    public static final String QUEUE_RUN_SEQUENCE = "queueRunSequence";
     public static final String MATCHING_REPORTS_SEND_EMAIL = "sendEmailForMatchingReports";
     public static final String ACCESSION_REPORTS_SEND_EMAIL = "sendEmailForAccessionReports";
 
@@ -195,6 +198,7 @@ public final class RecapConstants {
     //Search Response Types
     public static final String SEARCH_SUCCESS_RESPONSE = "SuccessResponse";
     public static final String SEARCH_ERROR_RESPONSE = "ErrorResponse";
+    public static final String SEARCH_QUERY_TIMINGS = "QueryTimings";
 
 
     public static final String SOLR_CORE = "solrCore";
@@ -232,6 +236,8 @@ public final class RecapConstants {
     public static final String DEACCESSION_SUCCESSFUL = "The item has been successfully deaccessioned.";
     public static final String DEACCESSION_FAILED = "Deaccessioning the item failed";
     public static final int BARCODE_LIMIT = 10;
+    public static final int SOLR_CURSOR_PAGE_SIZE = 1000;
+    public static final String EXPORT_REQUEST_HANDLER = "/export";
     public static final String ACCESSION_SUCCESS = "One or more records were successfully accessioned.";
     public static final String ACCESSION_DUMMY_RECORD = "Dummy record created";
 
@@ -1,10 +1,16 @@
 package org.recap.admin;
 
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.GenericSolrRequest;
 import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.response.CoreAdminResponse;
+import org.apache.solr.common.params.CommonAdminParams;
 import org.apache.solr.common.params.CoreAdminParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.recap.RecapConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +22,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Created by pvsubrah on 6/12/16.
@@ -26,6 +35,18 @@ public class SolrAdmin {
 
     private static final Logger logger = LoggerFactory.getLogger(SolrAdmin.class);
 
+    private static final String RUNNING_STATUS = "running";
+
+    private static final String COMPLETED_STATUS = "completed";
+
+    private static final long MIN_STATUS_BACKOFF_MILLIS = 100;
+
+    private static final long MAX_STATUS_BACKOFF_MILLIS = 5000;
+
+    private static final int MAX_STATUS_FAILURES = 10;
+
+    private static final String FILTER_CACHE = "filterCache";
+
     @Value("${solr.configsets.dir}")
     private String configSetsDir;
 
@@ -111,6 +132,81 @@ public class SolrAdmin {
         }
     }
 
+    /**
+     * This method submits the merge of the solr cores into the main core as an asynchronous request, and returns without waiting for the merge to finish.
+     *
+     * @param coreNames the core names
+     * @return the async request id, or null if the merge could not be submitted
+     */
+    public String mergeCoresAsync(List<String> coreNames) {
+        String requestId = "merge-" + UUID.randomUUID().toString();
+        List<String> indexDirs = new ArrayList<>();
+        for (String coreName : coreNames) {
+            indexDirs.add(solrHome + File.separator + coreName + File.separator + "data" + File.separator + "index");
+        }
+        CoreAdminRequest.MergeIndexes mergeIndexesRequest = new AsyncMergeIndexesRequest(requestId);
+        mergeIndexesRequest.setCoreName(solrParentCore);
+        mergeIndexesRequest.setIndexDirs(indexDirs);
+        mergeIndexesRequest.setSrcCores(new ArrayList<>(coreNames));
+        try {
+            mergeIndexesRequest.process(solrAdminClient);
+            logger.info("Submitted merge of cores {} with request id : {}", coreNames, requestId);
+            return requestId;
+        } catch (SolrServerException | IOException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+        }
+        return null;
+    }
+
+    /**
+     * This method waits for the asynchronous merge with the given request id to finish and commits the main core.
+     * The request status is polled with an exponential backoff.
+     *
+     * @param requestId the async request id
+     * @return true if the merge completed
+     * @throws InterruptedException the interrupted exception
+     */
+    public boolean awaitMerge(String requestId) throws InterruptedException {
+        if (null == requestId) {
+            return false;
+        }
+        long backoffMillis = MIN_STATUS_BACKOFF_MILLIS;
+        int statusFailures = 0;
+        String status = getRequestStatus(requestId);
+        while (RUNNING_STATUS.equals(status) || (null == status && ++statusFailures < MAX_STATUS_FAILURES)) {
+            Thread.sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, MAX_STATUS_BACKOFF_MILLIS);
+            status = getRequestStatus(requestId);
+        }
+        logger.info("Merge request {} finished with status : {}", requestId, status);
+        if (!COMPLETED_STATUS.equals(status)) {
+            return false;
+        }
+        try {
+            solrClient.commit();
+        } catch (SolrServerException | IOException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the status of the asynchronous core admin request with the given request id, which is running, completed, failed or notfound.
+     *
+     * @param requestId the async request id
+     * @return the request status, or null if the status could not be read
+     */
+    public String getRequestStatus(String requestId) {
+        CoreAdminRequest requestStatusRequest = new RequestStatusRequest(requestId);
+        try {
+            CoreAdminResponse coreAdminResponse = requestStatusRequest.process(solrAdminClient);
+            return (String) coreAdminResponse.getResponse().get("STATUS");
+        } catch (SolrServerException | IOException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+        }
+        return null;
+    }
+
     /**
      * This method is used to unload solr cores.
      *
@@ -221,4 +317,78 @@ public class SolrAdmin {
         }
         return null;
     }
+
+    /**
+     * Gets the statistics of the filter cache of the main core, such as its lookups, hits, hit ratio, inserts and evictions,
+     * through the mbeans admin handler. The cumulative statistics cover every searcher since the core was loaded.
+     *
+     * @return the filter cache stats by name, empty if they could not be read
+     */
+    public Map<String, Object> getFilterCacheStats() {
+        Map<String, Object> filterCacheStats = new LinkedHashMap<>();
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set("cat", "CACHE");
+        params.set("key", FILTER_CACHE);
+        params.set("stats", true);
+        try {
+            NamedList<Object> response = new GenericSolrRequest(SolrRequest.METHOD.GET, "/admin/mbeans", params).process(solrClient).getResponse();
+            Object stats = response.findRecursive("solr-mbeans", "CACHE", FILTER_CACHE, "stats");
+            if (stats instanceof NamedList) {
+                for (Map.Entry<String, ?> stat : (NamedList<?>) stats) {
+                    filterCacheStats.put(String.valueOf(stat.getKey()), stat.getValue());
+                }
+            } else if (stats instanceof Map) {
+                for (Map.Entry<?, ?> stat : ((Map<?, ?>) stats).entrySet()) {
+                    filterCacheStats.put(String.valueOf(stat.getKey()), stat.getValue());
+                }
+            }
+            logger.info("Filter cache stats of core {} : {}", solrParentCore, filterCacheStats);
+        } catch (SolrServerException | IOException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+        }
+        return filterCacheStats;
+    }
+
+    /**
+     * The merge indexes request, submitted as an asynchronous request with the given request id.
+     */
+    private static class AsyncMergeIndexesRequest extends CoreAdminRequest.MergeIndexes {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String requestId;
+
+        AsyncMergeIndexesRequest(String requestId) {
+            this.requestId = requestId;
+        }
+
+        @Override
+        public SolrParams getParams() {
+            ModifiableSolrParams params = new ModifiableSolrParams(super.getParams());
+            params.set(CommonAdminParams.ASYNC, requestId);
+            return params;
+        }
+    }
+
+    /**
+     * The request for the status of the asynchronous core admin request with the given request id.
+     */
+    private static class RequestStatusRequest extends CoreAdminRequest {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String requestId;
+
+        RequestStatusRequest(String requestId) {
+            this.requestId = requestId;
+        }
+
+        @Override
+        public SolrParams getParams() {
+            ModifiableSolrParams params = new ModifiableSolrParams();
+            params.set(CoreAdminParams.ACTION, CoreAdminParams.CoreAdminAction.REQUESTSTATUS.toString());
+            params.set(CoreAdminParams.REQUESTID, requestId);
+            return params;
+        }
+    }
 }
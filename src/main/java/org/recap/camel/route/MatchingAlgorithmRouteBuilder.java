@@ -4,6 +4,7 @@ import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
 import org.recap.RecapConstants;
 import org.recap.camel.processor.MatchingAlgorithmProcessor;
+import org.recap.service.QueueCompletionTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,12 +19,14 @@ public class MatchingAlgorithmRouteBuilder {
     private static final Logger logger = LoggerFactory.getLogger(MatchingAlgorithmRouteBuilder.class);
 
     /**
-     * This method instantiates a new route builder to save matching reports in database.
+     * This method instantiates a new route builder to save matching reports in database. The batches processed from the queues the
+     * matching algorithm waits on are acknowledged to the queue completion tracker, whether they were saved or failed.
      *
-     * @param camelContext the camel context
+     * @param camelContext           the camel context
+     * @param queueCompletionTracker the queue completion tracker
      */
     @Autowired
-    public MatchingAlgorithmRouteBuilder(CamelContext camelContext) {
+    public MatchingAlgorithmRouteBuilder(CamelContext camelContext, QueueCompletionTracker queueCompletionTracker) {
         try {
 
             camelContext.addRoutes(new RouteBuilder() {
@@ -31,6 +34,7 @@ public class MatchingAlgorithmRouteBuilder {
                 public void configure() throws Exception {
                     from("scsbactivemq:queue:saveMatchingMatchPointsQ?concurrentConsumers=10")
                             .routeId("saveMatchingQ")
+                            .onCompletion().bean(queueCompletionTracker, "acknowledge").end()
                             .bean(MatchingAlgorithmProcessor.class,"saveMatchingMatchPointEntity");
                 }
             });
@@ -39,6 +43,7 @@ public class MatchingAlgorithmRouteBuilder {
                 @Override
                 public void configure() throws Exception {
                     from("scsbactivemq:queue:saveMatchingBibsQ?concurrentConsumers=10")
+                            .onCompletion().bean(queueCompletionTracker, "acknowledge").end()
                             .bean(MatchingAlgorithmProcessor.class,"saveMatchingBibEntity");
                 }
             });
@@ -57,6 +62,7 @@ public class MatchingAlgorithmRouteBuilder {
                 public void configure() throws Exception {
                     from("scsbactivemq:queue:updateItemsQ?concurrentConsumers=10")
                             .routeId("updateItemsQ")
+                            .onCompletion().bean(queueCompletionTracker, "acknowledge").end()
                             .bean(MatchingAlgorithmProcessor.class, "updateItemEntity");
                 }
             });
@@ -66,6 +72,7 @@ public class MatchingAlgorithmRouteBuilder {
                 public void configure() throws Exception {
                     from("scsbactivemq:queue:updateMatchingBibEntityQ?concurrentConsumers=10")
                             .routeId("updateMatchingBibQ")
+                            .onCompletion().bean(queueCompletionTracker, "acknowledge").end()
                             .bean(MatchingAlgorithmProcessor.class, "updateMatchingBibEntity");
                 }
             });
@@ -348,65 +348,14 @@ public class MatchingAlgorithmController {
     }
 
     private void runReportsForMatchingAlgorithm(Integer batchSize) throws InterruptedException {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        Map<String, Integer> matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForOCLCandISBN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
+        Map<String, Integer> matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForMatchingBibClusters(batchSize);
+        Integer pulMatchingCount = matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
+        Integer culMatchingCount = matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
+        Integer nyplMatchingCount = matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
         stopWatch.stop();
-        getLogger().info("Time taken to save OCLC&ISBN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForOCLCAndISSN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save OCLC&ISSN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForOCLCAndLCCN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save OCLC&LCCN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForISBNAndISSN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save ISBN&ISSN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForISBNAndLCCN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save ISBN&LCCN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForISSNAndLCCN(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save ISSN&LCCN Combination Reports : " + stopWatch.getTotalTimeSeconds());
-        stopWatch = new StopWatch();
-        stopWatch.start();
-        matchingCountsMap = getMatchingAlgorithmHelperService().populateReportsForSingleMatch(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        stopWatch.stop();
-        getLogger().info("Time taken to save Single Matching Reports : " + stopWatch.getTotalTimeSeconds());
+        getLogger().info("Time taken to save Multi Match and Single Match Reports : " + stopWatch.getTotalTimeSeconds());
 
         getMatchingAlgorithmHelperService().saveMatchingSummaryCount(pulMatchingCount, culMatchingCount, nyplMatchingCount);
     }
@@ -423,14 +372,14 @@ public class MatchingAlgorithmController {
         StringBuilder response = new StringBuilder();
         StopWatch stopwatch = new StopWatch();
         stopwatch.start();
-        MatchingCounter.reset();
-        getMatchingAlgorithmUpdateCGDService().getItemsCountForSerialsMatching(Integer.valueOf(getMatchingAlgoBatchSize()));
-        getLogger().info("Total PUL Shared Serial Items in Matching : " + MatchingCounter.getPulCGDUpdatedSharedCount());
-        getLogger().info("Total CUL Shared Serial Items in Matching : " + MatchingCounter.getCulCGDUpdatedSharedCount());
-        getLogger().info("Total NYPL Shared Serial Items in Matching : " + MatchingCounter.getNyplCGDUpdatedSharedCount());
-        response.append("PUL Shared Serial Items Count : ").append(MatchingCounter.getPulCGDUpdatedSharedCount()).append("\n");
-        response.append("CUL Shared Serial Items Count : ").append(MatchingCounter.getCulCGDUpdatedSharedCount()).append("\n");
-        response.append("NYPL Shared Serial Items Count : ").append(MatchingCounter.getNyplCGDUpdatedSharedCount());
+        MatchingCounter matchingCounter = getMatchingAlgorithmUpdateCGDService().getItemsCountForSerialsMatching(Integer.valueOf(getMatchingAlgoBatchSize()));
+        for (Map.Entry<String, Long> sharedCount : matchingCounter.snapshot(MatchingCounter.Kind.CGD_UPDATED_SHARED).entrySet()) {
+            getLogger().info("Total " + sharedCount.getKey() + " Shared Serial Items in Matching : " + sharedCount.getValue());
+            if (response.length() > 0) {
+                response.append("\n");
+            }
+            response.append(sharedCount.getKey()).append(" Shared Serial Items Count : ").append(sharedCount.getValue());
+        }
         stopwatch.stop();
         getLogger().info("Total Time taken to get the serial items count : " + stopwatch.getTotalTimeSeconds() + " seconds");
         return response.toString();
@@ -162,6 +162,17 @@ public class SolrIndexController {
         return StringUtils.isBlank(status) ? "Index process initiated!" : status;
     }
 
+    /**
+     * This method returns the filter cache statistics of the main core, to see how often the search filter queries are served from the cache.
+     *
+     * @return the filter cache stats
+     */
+    @ResponseBody
+    @RequestMapping(value = "/solrIndexer/filterCacheStats", method = RequestMethod.GET)
+    public Map<String, Object> filterCacheStats() {
+        return solrAdmin.getFilterCacheStats();
+    }
+
     /**
      * This method is used to perform indexing by using bibliographic id.
      *
@@ -1,5 +1,7 @@
 package org.recap.controller.swagger;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.annotations.*;
 import org.recap.RecapConstants;
 import org.recap.model.search.DataDumpSearchResult;
@@ -7,11 +9,18 @@ import org.recap.model.search.SearchRecordsRequest;
 import org.recap.model.search.SearchRecordsResponse;
 import org.recap.model.search.SearchResultRow;
 import org.recap.util.SearchRecordsUtil;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -24,9 +33,20 @@ public class SearchRecordRestController {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchRecordRestController.class);
 
+    private static final String EXPORT_CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private static final String EXPORT_COMPLETE = "complete";
+
+    private static final String EXPORT_ERROR = "error";
+
     @Autowired
     private SearchRecordsUtil searchRecordsUtil=new SearchRecordsUtil();
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     /**
      * Gets SearchRecordsUtil object.
      *
@@ -52,7 +72,7 @@ public class SearchRecordRestController {
             searchRecordsRequest.setFieldValue(searchRecordsRequest.getFieldValue().toUpperCase());
         }
         try {
-            List<SearchResultRow> searchResultRows = searchRecordsUtil.searchRecords(searchRecordsRequest);
+            List<SearchResultRow> searchResultRows = searchRecordsUtil.searchRecords(searchRecordsRequest, searchRecordsResponse.getQueryTimings());
             searchRecordsResponse.setSearchResultRows(searchResultRows);
             searchRecordsResponse.setTotalBibRecordsCount(searchRecordsRequest.getTotalBibRecordsCount());
             searchRecordsResponse.setTotalItemRecordsCount(searchRecordsRequest.getTotalItemRecordsCount());
@@ -70,6 +90,8 @@ public class SearchRecordRestController {
     /**
      * This method searches books based on the given search records request parameter and returns a list of DataDumpSearchResult which contains only bib ids and their corresponding item ids.
      *
+     * The pages are fetched with a solr cursor, the nextCursorMark of the response is passed as the cursorMark of the request for the next page.
+     *
      * @param searchRecordsRequest the search records request
      * @return the responseMap.
      */
@@ -83,6 +105,7 @@ public class SearchRecordRestController {
             dataDumpSearchResults = getSearchRecordsUtil().searchRecordsForDataDump(searchRecordsRequest);
             responseMap.put("totalPageCount", searchRecordsRequest.getTotalPageCount());
             responseMap.put("totalRecordsCount", searchRecordsRequest.getTotalRecordsCount());
+            responseMap.put("nextCursorMark", searchRecordsRequest.getNextCursorMark());
             responseMap.put("dataDumpSearchResults", dataDumpSearchResults);
         } catch (Exception e) {
             logger.error(RecapConstants.LOG_ERROR,e);
@@ -91,6 +114,55 @@ public class SearchRecordRestController {
     }
 
 
+    /**
+     * This method exports all the records of the data dump for the given search records request in one response, one DataDumpSearchResult
+     * json per line. Every result is written out as soon as its bib is read from solr, through a fixed size buffer, so the memory used does
+     * not grow with the size of the data dump. The last line is {"complete":true} once every result is written, or {"complete":false,"error":...}
+     * if the export failed after the first results were sent, so a client can tell a complete export from a truncated one.
+     *
+     * @param searchRecordsRequest the search records request
+     * @param response             the http servlet response
+     * @throws IOException the io exception
+     */
+    @RequestMapping(value="/exportRecords", method = RequestMethod.POST)
+    @ApiOperation(value = "exportRecords",notes = "Export all the data dump records in ReCAP as json lines - Using Method Post, Request data is String", nickname = "exportRecords", consumes="application/json")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Successful Export")})
+    public void exportRecords(@ApiParam(value = "Paramerters for Exporting Records" , required = true, name="requestJson") @RequestBody SearchRecordsRequest searchRecordsRequest,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType(EXPORT_CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectWriter objectWriter = objectMapper.writerFor(DataDumpSearchResult.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        String errorMessage;
+        try {
+            getSearchRecordsUtil().exportRecordsForDataDump(searchRecordsRequest, dataDumpSearchResult -> {
+                writer.write(objectWriter.writeValueAsString(dataDumpSearchResult));
+                writer.write('\n');
+            });
+            errorMessage = searchRecordsRequest.getErrorMessage();
+            if (errorMessage != null && !response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, errorMessage);
+                return;
+            }
+        } catch (Exception e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+                return;
+            }
+            errorMessage = String.valueOf(e.getMessage());
+        }
+        Map<String, Object> exportEnd = new LinkedHashMap<>();
+        exportEnd.put(EXPORT_COMPLETE, errorMessage == null);
+        if (errorMessage != null) {
+            exportEnd.put(EXPORT_ERROR, errorMessage);
+        }
+        writer.write(objectMapper.writeValueAsString(exportEnd));
+        writer.write('\n');
+        writer.flush();
+    }
+
     /**
      * This method searches books based on the given search parameters and returns a list of search result row.
      *
@@ -149,4 +221,16 @@ public class SearchRecordRestController {
         }
         return searchResultRows;
     }
+
+    /**
+     * This method returns the hit, miss and eviction counts of the search result cache.
+     *
+     * @return the search result cache stats
+     */
+    @RequestMapping(value="/searchResultCacheStats", method = RequestMethod.GET)
+    @ApiOperation(value = "searchResultCacheStats",notes = "Hit, miss and eviction counts of the search result cache", nickname = "searchResultCacheStats")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Successful")})
+    public Map<String, Object> searchResultCacheStats() {
+        return searchResultCache.getStats();
+    }
 }
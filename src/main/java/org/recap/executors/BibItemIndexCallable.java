@@ -1,86 +1,93 @@
 package org.recap.executors;
 
-import org.apache.camel.ProducerTemplate;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.solr.client.solrj.impl.HttpSolrClient;
-import org.apache.solr.common.SolrInputDocument;
 import org.recap.RecapConstants;
 import org.recap.model.jpa.BibliographicEntity;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
-import org.recap.repository.jpa.HoldingsDetailsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.solr.core.SolrTemplate;
-import org.springframework.util.CollectionUtils;
+import org.springframework.data.util.CloseableIterator;
 
-import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * Created by chenchulakshmig on 21/6/16.
  */
-public class BibItemIndexCallable implements Callable {
+public class BibItemIndexCallable implements Callable<Integer> {
 
     private static final Logger logger = LoggerFactory.getLogger(BibItemIndexCallable.class);
 
     private final int pageNum;
     private final int docsPerPage;
     private String coreName;
-    private String solrURL;
+    private IndexingPipeline indexingPipeline;
     private Integer owningInstitutionId;
     private Date fromDate;
     private BibliographicDetailsRepository bibliographicDetailsRepository;
-    private HoldingsDetailsRepository holdingsDetailsRepository;
-    private ProducerTemplate producerTemplate;
-    private SolrTemplate solrTemplate;
     private String partialIndexType;
     private Map<String, Object> partialIndexMap;
+    private Integer fromBibId;
+    private Integer toBibId;
 
     /**
      * This method instantiates a new bib item index callable.
      *
-     * @param solrURL                        the solr url
+     * @param indexingPipeline               the indexing pipeline
      * @param coreName                       the core name
      * @param pageNum                        the page num
      * @param docsPerPage                    the docs per page
      * @param bibliographicDetailsRepository the bibliographic details repository
-     * @param holdingsDetailsRepository      the holdings details repository
      * @param owningInstitutionId            the owning institution id
      * @param fromDate                       the from date
-     * @param producerTemplate               the producer template
-     * @param solrTemplate                   the solr template
      * @param partialIndexType               the partial index type
      * @param partialIndexMap                the partial index map
      */
-    public BibItemIndexCallable(String solrURL, String coreName, int pageNum, int docsPerPage, BibliographicDetailsRepository bibliographicDetailsRepository, HoldingsDetailsRepository holdingsDetailsRepository, Integer owningInstitutionId,
-                                Date fromDate, ProducerTemplate producerTemplate, SolrTemplate solrTemplate, String partialIndexType, Map<String, Object> partialIndexMap) {
+    public BibItemIndexCallable(IndexingPipeline indexingPipeline, String coreName, int pageNum, int docsPerPage, BibliographicDetailsRepository bibliographicDetailsRepository, Integer owningInstitutionId,
+                                Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap) {
         this.coreName = coreName;
-        this.solrURL = solrURL;
+        this.indexingPipeline = indexingPipeline;
         this.pageNum = pageNum;
         this.docsPerPage = docsPerPage;
         this.bibliographicDetailsRepository = bibliographicDetailsRepository;
-        this.holdingsDetailsRepository = holdingsDetailsRepository;
         this.owningInstitutionId = owningInstitutionId;
         this.fromDate = fromDate;
-        this.producerTemplate = producerTemplate;
-        this.solrTemplate = solrTemplate;
         this.partialIndexType = partialIndexType;
         this.partialIndexMap = partialIndexMap;
     }
 
     /**
-     * This method is processed by thread to generate solr input documents and index to solr.
+     * This method instantiates a new bib item index callable which walks the given bibliographic id range with keyset pagination.
+     *
+     * @param indexingPipeline               the indexing pipeline
+     * @param coreName                       the core name
+     * @param docsPerPage                    the fetch size of the cursor
+     * @param fromBibId                      the from bib id (inclusive)
+     * @param toBibId                        the to bib id (inclusive)
+     * @param bibliographicDetailsRepository the bibliographic details repository
+     * @param owningInstitutionId            the owning institution id
+     * @param fromDate                       the from date
+     */
+    public BibItemIndexCallable(IndexingPipeline indexingPipeline, String coreName, int docsPerPage, Integer fromBibId, Integer toBibId, BibliographicDetailsRepository bibliographicDetailsRepository,
+                                Integer owningInstitutionId, Date fromDate) {
+        this(indexingPipeline, coreName, 0, docsPerPage, bibliographicDetailsRepository, owningInstitutionId, fromDate, null, null);
+        this.fromBibId = fromBibId;
+        this.toBibId = toBibId;
+    }
+
+    /**
+     * This method is processed by thread to fetch the bibs and put them into the indexing pipeline, which generates the solr input documents and indexes them to solr.
      * @return
      * @throws Exception
      */
     @Override
-    public Object call() throws Exception {
+    public Integer call() throws Exception {
+        if (null != fromBibId && null != toBibId) {
+            return indexByBibIdRange();
+        }
 
         Page<BibliographicEntity> bibliographicEntities = null;
         if(StringUtils.isNotBlank(partialIndexType) && partialIndexMap != null) {
@@ -109,39 +116,34 @@ public class BibItemIndexCallable implements Callable {
         }
 
         logger.info("Num Bibs Fetched : " + bibliographicEntities.getNumberOfElements());
-        Iterator<BibliographicEntity> iterator = bibliographicEntities.iterator();
-
-
-        ExecutorService executorService = Executors.newFixedThreadPool(50);
-        List<Future> futures = new ArrayList<>();
-        while (iterator.hasNext()) {
-            BibliographicEntity bibliographicEntity = iterator.next();
-            Future submit = executorService.submit(new BibItemRecordSetupCallable(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository, producerTemplate));
-            futures.add(submit);
-        }
-
-        logger.info("Num futures to prepare Bib and Associated data : {} ",futures.size());
+        return indexBibliographicEntities(bibliographicEntities.iterator());
+    }
 
-        List<SolrInputDocument> solrInputDocumentsToIndex = new ArrayList<>();
-        for (Iterator<Future> futureIterator = futures.iterator(); futureIterator.hasNext(); ) {
-            try {
-                Future future = futureIterator.next();
-                SolrInputDocument solrInputDocument = (SolrInputDocument) future.get();
-                if(solrInputDocument != null)
-                    solrInputDocumentsToIndex.add(solrInputDocument);
-            } catch (Exception e) {
-                logger.error(RecapConstants.LOG_ERROR,e);
-            }
+    /**
+     * This method streams the bibs of the bibliographic id range in bibliographic id order over a single cursor into the indexing pipeline,
+     * so that every bib costs the same to fetch and the holdings and items come with the bibs.
+     * @return
+     */
+    private Integer indexByBibIdRange() throws IOException, InterruptedException {
+        Integer numOfBibsFetched;
+        try (CloseableIterator<BibliographicEntity> iterator = bibliographicDetailsRepository.streamBibsByBibIdRange(fromBibId, toBibId, owningInstitutionId, fromDate, docsPerPage)) {
+            numOfBibsFetched = indexBibliographicEntities(iterator);
         }
+        logger.info("Num Bibs fetched from bib id range {} - {} : {}", fromBibId, toBibId, numOfBibsFetched);
+        return numOfBibsFetched;
+    }
 
-        executorService.shutdown();
-
-        if (!CollectionUtils.isEmpty(solrInputDocumentsToIndex)) {
-            SolrTemplate templateForSolr = new SolrTemplate(new HttpSolrClient(solrURL + File.separator + coreName));
-            templateForSolr.setSolrCore(coreName);
-            templateForSolr.saveDocuments(solrInputDocumentsToIndex);
-            templateForSolr.commit();
+    /**
+     * This method puts the given bibliographic entities into the indexing pipeline of the core. It blocks while the pipeline is full.
+     * @param iterator
+     * @return
+     */
+    private Integer indexBibliographicEntities(Iterator<BibliographicEntity> iterator) throws InterruptedException {
+        int numOfBibs = 0;
+        while (iterator.hasNext()) {
+            indexingPipeline.put(coreName, iterator.next());
+            numOfBibs++;
         }
-        return solrInputDocumentsToIndex.size();
+        return numOfBibs;
     }
 }
@@ -1,9 +1,12 @@
 package org.recap.executors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.common.SolrInputDocument;
 import org.recap.RecapConstants;
+import org.recap.model.jpa.BibliographicEntity;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
+import org.recap.util.BibJSONUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.stereotype.Service;
@@ -35,12 +38,34 @@ public class BibItemIndexExecutorService extends IndexExecutorService {
      * @param docsPerPage
      * @param owningInstitutionId
      * @param fromDate
+     * @param partialIndexType
+     * @param partialIndexMap
+     * @param indexingPipeline
      * @return
      */
     @Override
-    public Callable getCallable(String coreName, int pageNum, int docsPerPage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap) {
-        return new BibItemIndexCallable(solrServerProtocol + solrUrl, coreName, pageNum, docsPerPage, bibliographicDetailsRepository, holdingsDetailsRepository,
-                owningInstitutionId, fromDate, producerTemplate, solrTemplate, partialIndexType, partialIndexMap);
+    public Callable getCallable(String coreName, int pageNum, int docsPerPage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap,
+                                IndexingPipeline indexingPipeline) {
+        return new BibItemIndexCallable(indexingPipeline, coreName, pageNum, docsPerPage, bibliographicDetailsRepository,
+                owningInstitutionId, fromDate, partialIndexType, partialIndexMap);
+    }
+
+    /**
+     * Gets the callable class for the thread to process the given bibliographic id range.
+     * @param coreName
+     * @param docsPerPage
+     * @param fromBibId
+     * @param toBibId
+     * @param owningInstitutionId
+     * @param fromDate
+     * @param indexingPipeline
+     * @return
+     */
+    @Override
+    public Callable<Integer> getBibIdRangeCallable(String coreName, int docsPerPage, Integer fromBibId, Integer toBibId, Integer owningInstitutionId, Date fromDate,
+                                                   IndexingPipeline indexingPipeline) {
+        return new BibItemIndexCallable(indexingPipeline, coreName, docsPerPage, fromBibId, toBibId, bibliographicDetailsRepository,
+                owningInstitutionId, fromDate);
     }
 
     /**
@@ -84,6 +109,28 @@ public class BibItemIndexExecutorService extends IndexExecutorService {
         return count.intValue();
     }
 
+    /**
+     * Gets the lowest bibliographic id from database by owning institution id or by using from date.
+     * @param owningInstitutionId
+     * @param fromDate
+     * @return
+     */
+    @Override
+    protected Integer getMinBibId(Integer owningInstitutionId, Date fromDate) {
+        return bibliographicDetailsRepository.getMinBibliographicId(owningInstitutionId, fromDate);
+    }
+
+    /**
+     * Gets the highest bibliographic id from database by owning institution id or by using from date.
+     * @param owningInstitutionId
+     * @param fromDate
+     * @return
+     */
+    @Override
+    protected Integer getMaxBibId(Integer owningInstitutionId, Date fromDate) {
+        return bibliographicDetailsRepository.getMaxBibliographicId(owningInstitutionId, fromDate);
+    }
+
     /**
      * This method sets bibliographic details repository.
      *
@@ -92,4 +139,16 @@ public class BibItemIndexExecutorService extends IndexExecutorService {
     public void setBibliographicDetailsRepository(BibliographicDetailsRepository bibliographicDetailsRepository) {
         this.bibliographicDetailsRepository = bibliographicDetailsRepository;
     }
-}
\ No newline at end of file
+
+    /**
+     * Generates the solr input document of the bib along with its holdings and items.
+     * @param bibliographicEntity
+     * @return
+     */
+    @Override
+    protected SolrInputDocument generateSolrInputDocument(BibliographicEntity bibliographicEntity) {
+        BibJSONUtil bibJSONUtil = new BibJSONUtil();
+        bibJSONUtil.setProducerTemplate(producerTemplate);
+        return bibJSONUtil.generateBibAndItemsForIndex(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository);
+    }
+}
@@ -3,14 +3,18 @@ package org.recap.executors;
 import com.google.common.collect.Lists;
 import org.apache.camel.ProducerTemplate;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.common.SolrInputDocument;
 import org.recap.RecapConstants;
 import org.recap.admin.SolrAdmin;
+import org.recap.model.jpa.BibliographicEntity;
 import org.recap.model.jpa.InstitutionEntity;
 import org.recap.model.solr.SolrIndexRequest;
 import org.recap.repository.jpa.InstitutionDetailsRepository;
 import org.recap.repository.solr.main.BibSolrCrudRepository;
 import org.recap.repository.solr.temp.BibCrudRepositoryMultiCoreSupport;
 import org.recap.util.DateUtil;
+import org.recap.util.FacetCountSnapshot;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +33,8 @@ public abstract class IndexExecutorService {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexExecutorService.class);
 
+    private static final int TEMP_CORE_SET_COUNT = 2;
+
     /**
      * The Solr admin.
      */
@@ -83,6 +89,18 @@ public abstract class IndexExecutorService {
     @Autowired
     DateUtil dateUtil;
 
+    /**
+     * The Facet count snapshot.
+     */
+    @Autowired
+    FacetCountSnapshot facetCountSnapshot;
+
+    /**
+     * The Search result cache.
+     */
+    @Autowired
+    SearchResultCache searchResultCache;
+
     /**
      * This method initiates the solr indexing based on the selected owning institution.
      *
@@ -104,8 +122,10 @@ public abstract class IndexExecutorService {
         Integer totalBibsProcessed = 0;
         boolean isIncremental = StringUtils.isNotBlank(fromDate) ? Boolean.TRUE : Boolean.FALSE;
 
+        SolrCoreClientRegistry solrCoreClientRegistry = getSolrCoreClientRegistry(numThreads);
+        IndexingPipeline indexingPipeline = getIndexingPipeline(solrCoreClientRegistry, docsPerThread);
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
         try {
-            ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
             if (StringUtils.isNotBlank(owningInstitutionCode)) {
                 InstitutionEntity institutionEntity = institutionDetailsRepository.findByInstitutionCode(owningInstitutionCode);
                 if (null != institutionEntity) {
@@ -116,46 +136,51 @@ public abstract class IndexExecutorService {
                 SimpleDateFormat dateFormatter = new SimpleDateFormat(RecapConstants.INCREMENTAL_DATE_FORMAT);
                 from = dateFormatter.parse(fromDate);
             }
-            Integer totalDocCount = getTotalDocCount(owningInstitutionId, from);
-            logger.info("Total Document Count From DB : {}",totalDocCount);
-
-            if (totalDocCount > 0) {
-                int quotient = totalDocCount / (docsPerThread);
-                int remainder = totalDocCount % (docsPerThread);
-                Integer loopCount = remainder == 0 ? quotient : quotient + 1;
-                logger.info("Loop Count Value : {} ",loopCount);
-                logger.info("Commit Indexes Interval : {}",commitIndexesInterval);
+            List<List<String>> coreNameSets = new ArrayList<>();
+            List<String> coreNames = new ArrayList<>();
+            if (!isIncremental) {
+                setupCoreNames(numThreads, coreNameSets);
+                coreNameSets.forEach(coreNames::addAll);
+            }
 
-                Integer callableCountByCommitInterval = commitIndexesInterval / (docsPerThread);
-                if (callableCountByCommitInterval == 0) {
-                    callableCountByCommitInterval = 1;
+            Integer docsPerCallable = docsPerThread;
+            if (solrIndexRequest.isKeysetPaging()) {
+                Integer bibIdSplitStep = solrIndexRequest.getBibIdSplitStep();
+                if (null != bibIdSplitStep && bibIdSplitStep > 0) {
+                    docsPerCallable = bibIdSplitStep;
                 }
+            }
+            Integer callableCountByCommitInterval = commitIndexesInterval / (docsPerCallable);
+            if (callableCountByCommitInterval == 0) {
+                callableCountByCommitInterval = 1;
+            }
+
+            List<Callable<Integer>> callables;
+            if (solrIndexRequest.isKeysetPaging()) {
+                callables = getBibIdRangeCallables(coreNameSets, callableCountByCommitInterval, docsPerThread, docsPerCallable, owningInstitutionId, from, indexingPipeline);
+            } else {
+                callables = getPageCallables(coreNameSets, callableCountByCommitInterval, docsPerThread, owningInstitutionId, from, indexingPipeline);
+            }
+
+            if (!callables.isEmpty()) {
+                logger.info("Loop Count Value : {} ",callables.size());
+                logger.info("Commit Indexes Interval : {}",commitIndexesInterval);
                 logger.info("Number of callables to execute to commit indexes : {}",callableCountByCommitInterval);
 
-                List<String> coreNames = new ArrayList<>();
                 if (!isIncremental) {
-                    setupCoreNames(numThreads, coreNames);
                     solrAdmin.createSolrCores(coreNames);
                 }
 
                 StopWatch stopWatch = new StopWatch();
                 stopWatch.start();
 
-                int coreNum = 0;
-                List<Callable<Integer>> callables = new ArrayList<>();
-                for (int pageNum = 0; pageNum < loopCount; pageNum++) {
-                    if (!isIncremental) {
-                        coreName = coreNames.get(coreNum);
-                        coreNum = coreNum < numThreads - 1 ? coreNum + 1 : 0;
-                    }
-                    Callable callable = getCallable(coreName, pageNum, docsPerThread, owningInstitutionId, from, null, null);
-                    callables.add(callable);
-                }
-
                 int futureCount = 0;
+                String mergeRequestId = null;
+                List<String> mergingCoreNames = null;
                 List<List<Callable<Integer>>> partitions = Lists.partition(new ArrayList<Callable<Integer>>(callables), callableCountByCommitInterval);
-                for (List<Callable<Integer>> partitionCallables : partitions) {
-                    List<Future<Integer>> futures = executorService.invokeAll(partitionCallables);
+                for (int partitionNum = 0; partitionNum < partitions.size(); partitionNum++) {
+                    long numOfBibsIndexedBefore = indexingPipeline.getSubmittedCount();
+                    List<Future<Integer>> futures = executorService.invokeAll(partitions.get(partitionNum));
                     futures
                             .stream()
                             .map(future -> {
@@ -180,31 +205,40 @@ public abstract class IndexExecutorService {
                             logger.error(RecapConstants.LOG_ERROR,e);
                         }
                     }
+                    commitPartition(indexingPipeline, solrCoreClientRegistry);
                     if (!isIncremental) {
-                        solrAdmin.mergeCores(coreNames);
-                        logger.info("Solr core status : " + solrAdmin.getCoresStatus());
-                        while (solrAdmin.getCoresStatus() != 0) {
-                            logger.info("Solr core status : " + solrAdmin.getCoresStatus());
-                        }
-                        deleteTempIndexes(coreNames, solrServerProtocol + solrUrl);
+                        awaitMerge(mergeRequestId, mergingCoreNames);
+                        mergingCoreNames = coreNameSets.get(partitionNum % coreNameSets.size());
+                        mergeRequestId = solrAdmin.mergeCoresAsync(mergingCoreNames);
                     }
-                    logger.info("Num of Bibs Processed and indexed to core {} on commit interval : {} ",coreName,numOfBibsProcessed);
-                    logger.info("Total Num of Bibs Processed and indexed to core {} : {}",coreName,totalBibsProcessed);
+                    logger.info("Num of Bibs fetched on commit interval : {} ",numOfBibsProcessed);
+                    logger.info("Num of Bibs indexed to core {} on commit interval : {} ",coreName,indexingPipeline.getSubmittedCount() - numOfBibsIndexedBefore);
+                    logger.info("Total Num of Bibs indexed to core {} : {}",coreName,indexingPipeline.getSubmittedCount());
                     Long solrBibCount = bibSolrCrudRepository.countByDocType(RecapConstants.BIB);
                     logger.info("Total number of Bibs in Solr in recap core : {}",solrBibCount);
                 }
+                if (!isIncremental) {
+                    awaitMerge(mergeRequestId, mergingCoreNames);
+                }
                 logger.info("Total futures executed: ",futureCount);
                 stopWatch.stop();
                 logger.info("Time taken to fetch {} Bib Records and index to recap core : {} seconds",totalBibsProcessed,stopWatch.getTotalTimeSeconds());
                 if (!isIncremental) {
                     solrAdmin.unLoadCores(coreNames);
                 }
-                executorService.shutdown();
             } else {
                 logger.info("No records found to index for the criteria");
             }
+        } catch (IllegalStateException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+            throw e;
         } catch (Exception e) {
             logger.error(RecapConstants.LOG_ERROR,e);
+        } finally {
+            executorService.shutdown();
+            indexingPipeline.close();
+            solrCoreClientRegistry.close();
+            facetCountSnapshot.refresh();
         }
         stopWatch1.stop();
         logger.info("Total time taken:{} secs",stopWatch1.getTotalTimeSeconds());
@@ -229,8 +263,10 @@ public abstract class IndexExecutorService {
         String coreName = solrCore;
         Integer totalBibsProcessed = 0;
 
+        SolrCoreClientRegistry solrCoreClientRegistry = getSolrCoreClientRegistry(numThreads);
+        IndexingPipeline indexingPipeline = getIndexingPipeline(solrCoreClientRegistry, docsPerThread);
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
         try {
-            ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
             partialIndexMap = populatePartialIndexMap(solrIndexRequest, partialIndexType);
 
             Integer totalDocCount = getTotalDocCountForPartialIndex(partialIndexType, partialIndexMap);
@@ -254,13 +290,14 @@ public abstract class IndexExecutorService {
 
                 List<Callable<Integer>> callables = new ArrayList<>();
                 for (int pageNum = 0; pageNum < loopCount; pageNum++) {
-                    Callable callable = getCallable(coreName, pageNum, docsPerThread, null, null, partialIndexType, partialIndexMap);
+                    Callable callable = getCallable(coreName, pageNum, docsPerThread, null, null, partialIndexType, partialIndexMap, indexingPipeline);
                     callables.add(callable);
                 }
 
                 int futureCount = 0;
                 List<List<Callable<Integer>>> partitions = Lists.partition(new ArrayList<Callable<Integer>>(callables), callableCountByCommitInterval);
                 for (List<Callable<Integer>> partitionCallables : partitions) {
+                    long numOfBibsIndexedBefore = indexingPipeline.getSubmittedCount();
                     List<Future<Integer>> futures = executorService.invokeAll(partitionCallables);
                     futures
                             .stream()
@@ -286,20 +323,29 @@ public abstract class IndexExecutorService {
                             logger.error(RecapConstants.LOG_ERROR,e);
                         }
                     }
-                    logger.info("Num of Bibs Processed and indexed to core {} on commit interval : {} ",coreName,numOfBibsProcessed);
-                    logger.info("Total Num of Bibs Processed and indexed to core {} : {}",coreName,totalBibsProcessed);
+                    commitPartition(indexingPipeline, solrCoreClientRegistry);
+                    logger.info("Num of Bibs fetched on commit interval : {} ",numOfBibsProcessed);
+                    logger.info("Num of Bibs indexed to core {} on commit interval : {} ",coreName,indexingPipeline.getSubmittedCount() - numOfBibsIndexedBefore);
+                    logger.info("Total Num of Bibs indexed to core {} : {}",coreName,indexingPipeline.getSubmittedCount());
                     Long solrBibCount = bibSolrCrudRepository.countByDocType(RecapConstants.BIB);
                     logger.info("Total number of Bibs in Solr in recap core : {}",solrBibCount);
                 }
                 logger.info("Total futures executed: ",futureCount);
                 stopWatch.stop();
                 logger.info("Time taken to fetch {} Bib Records and index to recap core : {} seconds",totalBibsProcessed,stopWatch.getTotalTimeSeconds());
-                executorService.shutdown();
             } else {
                 logger.info("No records found to index for the criteria");
             }
+        } catch (IllegalStateException e) {
+            logger.error(RecapConstants.LOG_ERROR,e);
+            throw e;
         } catch (Exception e) {
             logger.error(RecapConstants.LOG_ERROR,e);
+        } finally {
+            executorService.shutdown();
+            indexingPipeline.close();
+            solrCoreClientRegistry.close();
+            facetCountSnapshot.refresh();
         }
         stopWatch1.stop();
         logger.info("Total time taken:{} secs",stopWatch1.getTotalTimeSeconds());
@@ -351,6 +397,113 @@ public abstract class IndexExecutorService {
         return partialIndexMap;
     }
 
+    /**
+     * This method builds one callable per page of bibs, where each callable fetches its page by offset.
+     * @param coreNameSets
+     * @param callablesPerPartition
+     * @param docsPerThread
+     * @param owningInstitutionId
+     * @param from
+     * @param indexingPipeline
+     * @return
+     */
+    private List<Callable<Integer>> getPageCallables(List<List<String>> coreNameSets, Integer callablesPerPartition, Integer docsPerThread, Integer owningInstitutionId, Date from, IndexingPipeline indexingPipeline) {
+        List<Callable<Integer>> callables = new ArrayList<>();
+        Integer totalDocCount = getTotalDocCount(owningInstitutionId, from);
+        logger.info("Total Document Count From DB : {}",totalDocCount);
+        if (totalDocCount > 0) {
+            int quotient = totalDocCount / (docsPerThread);
+            int remainder = totalDocCount % (docsPerThread);
+            Integer loopCount = remainder == 0 ? quotient : quotient + 1;
+            for (int pageNum = 0; pageNum < loopCount; pageNum++) {
+                Callable callable = getCallable(getCoreName(coreNameSets, callablesPerPartition, pageNum), pageNum, docsPerThread, owningInstitutionId, from, null, null, indexingPipeline);
+                callables.add(callable);
+            }
+        }
+        return callables;
+    }
+
+    /**
+     * This method splits the bibliographic id space between the min and max bib ids into contiguous ranges of the split step,
+     * and builds one callable per range which walks its range with keyset pagination.
+     * @param coreNameSets
+     * @param callablesPerPartition
+     * @param docsPerThread
+     * @param bibIdSplitStep
+     * @param owningInstitutionId
+     * @param from
+     * @param indexingPipeline
+     * @return
+     */
+    private List<Callable<Integer>> getBibIdRangeCallables(List<List<String>> coreNameSets, Integer callablesPerPartition, Integer docsPerThread, Integer bibIdSplitStep, Integer owningInstitutionId, Date from, IndexingPipeline indexingPipeline) {
+        List<Callable<Integer>> callables = new ArrayList<>();
+        Integer minBibId = getMinBibId(owningInstitutionId, from);
+        Integer maxBibId = getMaxBibId(owningInstitutionId, from);
+        logger.info("Bibliographic Id Range From DB : {} - {}",minBibId,maxBibId);
+        if (null != minBibId && null != maxBibId) {
+            int rangeNum = 0;
+            for (long fromBibId = minBibId; fromBibId <= maxBibId; fromBibId += bibIdSplitStep) {
+                int toBibId = (int) Math.min(fromBibId + bibIdSplitStep - 1, maxBibId);
+                Callable<Integer> callable = getBibIdRangeCallable(getCoreName(coreNameSets, callablesPerPartition, rangeNum), docsPerThread, (int) fromBibId, toBibId, owningInstitutionId, from, indexingPipeline);
+                callables.add(callable);
+                rangeNum++;
+            }
+        }
+        return callables;
+    }
+
+    /**
+     * This method assigns the temporary cores to the callables, or the main core when there are no temporary cores.
+     * The partitions of callables alternate between the sets of temporary cores, and the callables of a partition use the cores of its set in round robin.
+     * @param coreNameSets
+     * @param callablesPerPartition
+     * @param callableNum
+     * @return
+     */
+    private String getCoreName(List<List<String>> coreNameSets, int callablesPerPartition, int callableNum) {
+        if (coreNameSets.isEmpty()) {
+            return solrCore;
+        }
+        List<String> coreNames = coreNameSets.get((callableNum / callablesPerPartition) % coreNameSets.size());
+        return coreNames.get(callableNum % coreNames.size());
+    }
+
+    /**
+     * This method waits for the documents of the partition to go through the indexing pipeline and commits them, failing the run
+     * if any document of the run failed to be sent to solr. The cached search results are dropped once the partition is committed.
+     * @param indexingPipeline
+     * @param solrCoreClientRegistry
+     * @throws InterruptedException
+     */
+    private void commitPartition(IndexingPipeline indexingPipeline, SolrCoreClientRegistry solrCoreClientRegistry) throws InterruptedException {
+        indexingPipeline.awaitCompletion();
+        indexingPipeline.logStats();
+        long failedCount = indexingPipeline.getFailedCount();
+        if (failedCount > 0) {
+            throw new IllegalStateException(failedCount + " bibs failed to be sent to solr");
+        }
+        solrCoreClientRegistry.commit();
+        searchResultCache.indexUpdated();
+    }
+
+    /**
+     * This method waits for the merge of the temporary cores into the main core to finish and deletes the indexed data from the temporary cores,
+     * so that they can take the next partition. If the merge was not submitted or did not complete, the temporary cores are kept
+     * with their data and the run fails, so that it can be retried.
+     * @param mergeRequestId
+     * @param coreNames
+     * @throws InterruptedException
+     */
+    private void awaitMerge(String mergeRequestId, List<String> coreNames) throws InterruptedException {
+        if (null != coreNames) {
+            if (null == mergeRequestId || !solrAdmin.awaitMerge(mergeRequestId)) {
+                throw new IllegalStateException("Merge of cores " + coreNames + " into core " + solrCore + " did not complete");
+            }
+            searchResultCache.indexUpdated();
+            deleteTempIndexes(coreNames, solrServerProtocol + solrUrl);
+        }
+    }
+
     /**
      * This method initiates solr indexing.
      *
@@ -386,13 +539,38 @@ public abstract class IndexExecutorService {
     }
 
     /**
-     * To create names for temporary cores.
+     * To get the registry which holds the solr clients of the cores for one indexing run.
+     *
+     * @param numThreads the num threads
+     * @return solr core client registry
+     */
+    protected SolrCoreClientRegistry getSolrCoreClientRegistry(Integer numThreads) {
+        return new SolrCoreClientRegistry(solrServerProtocol + solrUrl, numThreads);
+    }
+
+    /**
+     * To get the pipeline which generates the solr input documents of the fetched bibs on one thread per core and sends them to solr.
+     *
+     * @param solrCoreClientRegistry the solr core client registry
+     * @param queueCapacity          the queue capacity
+     * @return indexing pipeline
+     */
+    protected IndexingPipeline getIndexingPipeline(SolrCoreClientRegistry solrCoreClientRegistry, Integer queueCapacity) {
+        return new IndexingPipeline(solrCoreClientRegistry, this::generateSolrInputDocument, Runtime.getRuntime().availableProcessors(), queueCapacity);
+    }
+
+    /**
+     * To create names for two sets of temporary cores, so that one set can take the next partition while the other is merged into the main core.
      * @param numThreads
-     * @param coreNames
+     * @param coreNameSets
      */
-    private void setupCoreNames(Integer numThreads, List<String> coreNames) {
-        for (int i = 0; i < numThreads; i++) {
-            coreNames.add("temp" + i);
+    private void setupCoreNames(Integer numThreads, List<List<String>> coreNameSets) {
+        for (int setNum = 0; setNum < TEMP_CORE_SET_COUNT; setNum++) {
+            List<String> coreNames = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                coreNames.add("temp" + (setNum * numThreads + i));
+            }
+            coreNameSets.add(coreNames);
         }
     }
 
@@ -415,9 +593,11 @@ public abstract class IndexExecutorService {
      * @param fromDate            the from date
      * @param partialIndexType    the partial index type
      * @param partialIndexMap     the partial index map
+     * @param indexingPipeline    the indexing pipeline of the run
      * @return the callable
      */
-    public abstract Callable getCallable(String coreName, int pageNum, int docsPerpage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap);
+    public abstract Callable getCallable(String coreName, int pageNum, int docsPerpage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap,
+                                         IndexingPipeline indexingPipeline);
 
     /**
      * This method gets the total doc count.
@@ -436,4 +616,45 @@ public abstract class IndexExecutorService {
      * @return the total doc count for partial index
      */
     protected abstract Integer getTotalDocCountForPartialIndex(String partialIndexType, Map<String, Object> partialIndexMap);
-}
\ No newline at end of file
+
+    /**
+     * This method gets the callable which indexes the bibs of the given bibliographic id range using keyset pagination.
+     *
+     * @param coreName            the core name
+     * @param docsPerPage         the docs per page
+     * @param fromBibId           the from bib id (inclusive)
+     * @param toBibId             the to bib id (inclusive)
+     * @param owningInstitutionId the owning institution id
+     * @param fromDate            the from date
+     * @param indexingPipeline    the indexing pipeline of the run
+     * @return the callable
+     */
+    public abstract Callable<Integer> getBibIdRangeCallable(String coreName, int docsPerPage, Integer fromBibId, Integer toBibId, Integer owningInstitutionId, Date fromDate,
+                                                            IndexingPipeline indexingPipeline);
+
+    /**
+     * This method gets the lowest bib id to be indexed.
+     *
+     * @param owningInstitutionId the owning institution id
+     * @param fromDate            the from date
+     * @return the min bib id
+     */
+    protected abstract Integer getMinBibId(Integer owningInstitutionId, Date fromDate);
+
+    /**
+     * This method gets the highest bib id to be indexed.
+     *
+     * @param owningInstitutionId the owning institution id
+     * @param fromDate            the from date
+     * @return the max bib id
+     */
+    protected abstract Integer getMaxBibId(Integer owningInstitutionId, Date fromDate);
+
+    /**
+     * This method generates the solr input document of the given bib along with its holdings and items.
+     *
+     * @param bibliographicEntity the bibliographic entity
+     * @return the solr input document
+     */
+    protected abstract SolrInputDocument generateSolrInputDocument(BibliographicEntity bibliographicEntity);
+}
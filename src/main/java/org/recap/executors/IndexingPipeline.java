@@ -0,0 +1,303 @@
+package org.recap.executors;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.recap.RecapConstants;
+import org.recap.model.jpa.BibliographicEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Staged indexing pipeline of an indexing run. The fetch stage (the index callables) puts the bibs fetched from the database,
+ * the generate stage converts them to solr input documents on as many threads as there are cores, and the submit stage sends
+ * the documents to the solr clients of the cores. The stages are joined by bounded queues, so a slow stage holds back the stages before it.
+ * The documents the submit stage fails to send are counted, so the run can fail the partition instead of committing it without them.
+ * The documents are committed by the run once per partition, not by the submit stage.
+ */
+public class IndexingPipeline implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexingPipeline.class);
+
+    private static final int SUBMIT_BATCH_SIZE = 1000;
+
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long STATS_INTERVAL_SECONDS = 30;
+
+    private final SolrCoreClientRegistry solrCoreClientRegistry;
+
+    private final Function<BibliographicEntity, SolrInputDocument> solrInputDocumentGenerator;
+
+    private final BlockingQueue<IndexingTask<BibliographicEntity>> bibliographicEntityQueue;
+
+    private final BlockingQueue<IndexingTask<SolrInputDocument>> solrInputDocumentQueue;
+
+    private final ExecutorService generateExecutorService;
+
+    private final ExecutorService submitExecutorService;
+
+    private final ScheduledExecutorService statsExecutorService;
+
+    private final StageStats fetchStats = new StageStats("fetch");
+
+    private final StageStats generateStats = new StageStats("generate");
+
+    private final StageStats submitStats = new StageStats("submit");
+
+    private final AtomicLong inFlightCount = new AtomicLong();
+
+    private final Object inFlightMonitor = new Object();
+
+    private final long startTime = System.nanoTime();
+
+    private volatile boolean closed;
+
+    /**
+     * This method instantiates a new indexing pipeline and starts its generate and submit stages.
+     *
+     * @param solrCoreClientRegistry     the solr core client registry
+     * @param solrInputDocumentGenerator the solr input document generator
+     * @param numGenerateThreads         the num generate threads
+     * @param queueCapacity              the capacity of each queue between the stages
+     */
+    public IndexingPipeline(SolrCoreClientRegistry solrCoreClientRegistry, Function<BibliographicEntity, SolrInputDocument> solrInputDocumentGenerator,
+                            int numGenerateThreads, int queueCapacity) {
+        this.solrCoreClientRegistry = solrCoreClientRegistry;
+        this.solrInputDocumentGenerator = solrInputDocumentGenerator;
+        this.bibliographicEntityQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.solrInputDocumentQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.generateExecutorService = Executors.newFixedThreadPool(numGenerateThreads);
+        this.submitExecutorService = Executors.newSingleThreadExecutor();
+        this.statsExecutorService = Executors.newSingleThreadScheduledExecutor();
+        for (int i = 0; i < numGenerateThreads; i++) {
+            generateExecutorService.execute(this::runGenerateStage);
+        }
+        submitExecutorService.execute(this::runSubmitStage);
+        statsExecutorService.scheduleAtFixedRate(this::logStats, STATS_INTERVAL_SECONDS, STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Started indexing pipeline with {} generate threads and queue capacity {}", numGenerateThreads, queueCapacity);
+    }
+
+    /**
+     * This method puts a bib fetched from the database into the pipeline to be indexed to the given core.
+     * It blocks while the generate stage is full.
+     *
+     * @param coreName            the core name
+     * @param bibliographicEntity the bibliographic entity
+     * @throws InterruptedException the interrupted exception
+     */
+    public void put(String coreName, BibliographicEntity bibliographicEntity) throws InterruptedException {
+        inFlightCount.incrementAndGet();
+        long waitStart = System.nanoTime();
+        bibliographicEntityQueue.put(new IndexingTask<>(coreName, bibliographicEntity));
+        fetchStats.processed(1, System.nanoTime() - waitStart);
+    }
+
+    /**
+     * This method blocks until every bib put into the pipeline so far has been sent to solr or has failed.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    public void awaitCompletion() throws InterruptedException {
+        synchronized (inFlightMonitor) {
+            while (inFlightCount.get() > 0) {
+                inFlightMonitor.wait(POLL_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of solr input documents sent to solr.
+     *
+     * @return the submitted count
+     */
+    public long getSubmittedCount() {
+        return submitStats.getProcessedCount();
+    }
+
+    /**
+     * Gets the number of solr input documents which failed to be sent to solr.
+     *
+     * @return the failed count
+     */
+    public long getFailedCount() {
+        return submitStats.getFailedCount();
+    }
+
+    /**
+     * This method logs the throughput and the queue depth of every stage.
+     */
+    public void logStats() {
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        fetchStats.log(elapsedSeconds, -1);
+        generateStats.log(elapsedSeconds, bibliographicEntityQueue.size());
+        submitStats.log(elapsedSeconds, solrInputDocumentQueue.size());
+    }
+
+    /**
+     * This method waits for the bibs in the pipeline to be indexed and stops the stages.
+     */
+    @Override
+    public void close() {
+        try {
+            awaitCompletion();
+        } catch (InterruptedException e) {
+            logger.error(RecapConstants.LOG_ERROR, e);
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        statsExecutorService.shutdownNow();
+        generateExecutorService.shutdown();
+        submitExecutorService.shutdown();
+        logStats();
+    }
+
+    private void runGenerateStage() {
+        while (!closed) {
+            try {
+                IndexingTask<BibliographicEntity> task = bibliographicEntityQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (null != task) {
+                    generate(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void generate(IndexingTask<BibliographicEntity> task) throws InterruptedException {
+        SolrInputDocument solrInputDocument = null;
+        try {
+            solrInputDocument = solrInputDocumentGenerator.apply(task.getPayload());
+        } catch (Exception e) {
+            generateStats.failed(1);
+            logger.error(RecapConstants.LOG_ERROR, e);
+        }
+        if (null != solrInputDocument) {
+            long waitStart = System.nanoTime();
+            solrInputDocumentQueue.put(new IndexingTask<>(task.getCoreName(), solrInputDocument));
+            generateStats.processed(1, System.nanoTime() - waitStart);
+        } else {
+            generateStats.processed(1, 0);
+            completed(1);
+        }
+    }
+
+    private void runSubmitStage() {
+        while (!closed) {
+            try {
+                IndexingTask<SolrInputDocument> task = solrInputDocumentQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (null != task) {
+                    List<IndexingTask<SolrInputDocument>> tasks = new ArrayList<>();
+                    tasks.add(task);
+                    solrInputDocumentQueue.drainTo(tasks, SUBMIT_BATCH_SIZE - 1);
+                    submit(tasks);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void submit(List<IndexingTask<SolrInputDocument>> tasks) {
+        Map<String, List<SolrInputDocument>> solrInputDocumentsByCore = new HashMap<>();
+        for (IndexingTask<SolrInputDocument> task : tasks) {
+            solrInputDocumentsByCore.computeIfAbsent(task.getCoreName(), coreName -> new ArrayList<>()).add(task.getPayload());
+        }
+        for (Map.Entry<String, List<SolrInputDocument>> entry : solrInputDocumentsByCore.entrySet()) {
+            try {
+                solrCoreClientRegistry.getSolrClient(entry.getKey()).add(entry.getValue());
+                submitStats.processed(entry.getValue().size(), 0);
+            } catch (SolrServerException | IOException | RuntimeException e) {
+                submitStats.failed(entry.getValue().size());
+                logger.error(RecapConstants.LOG_ERROR, e);
+            }
+        }
+        completed(tasks.size());
+    }
+
+    private void completed(int count) {
+        if (inFlightCount.addAndGet(-count) <= 0) {
+            synchronized (inFlightMonitor) {
+                inFlightMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A bib or a solr input document on its way to the given core.
+     */
+    private static class IndexingTask<T> {
+
+        private final String coreName;
+
+        private final T payload;
+
+        IndexingTask(String coreName, T payload) {
+            this.coreName = coreName;
+            this.payload = payload;
+        }
+
+        String getCoreName() {
+            return coreName;
+        }
+
+        T getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Counts the records processed by a stage and the time the stage was blocked by the next stage.
+     */
+    private static class StageStats {
+
+        private final String stageName;
+
+        private final LongAdder processedCount = new LongAdder();
+
+        private final LongAdder blockedNanos = new LongAdder();
+
+        private final LongAdder failedCount = new LongAdder();
+
+        StageStats(String stageName) {
+            this.stageName = stageName;
+        }
+
+        void processed(long count, long blockedTime) {
+            processedCount.add(count);
+            blockedNanos.add(blockedTime);
+        }
+
+        void failed(long count) {
+            failedCount.add(count);
+        }
+
+        long getProcessedCount() {
+            return processedCount.sum();
+        }
+
+        long getFailedCount() {
+            return failedCount.sum();
+        }
+
+        void log(double elapsedSeconds, int queueDepth) {
+            long processed = processedCount.sum();
+            logger.info("Indexing stage {} : processed {} ({} per sec), failed {}, blocked on next stage {} secs, input queue depth {}",
+                    stageName, processed, elapsedSeconds > 0 ? Math.round(processed / elapsedSeconds) : 0, failedCount.sum(), Math.round(blockedNanos.sum() / 1e9),
+                    queueDepth < 0 ? "NA" : queueDepth);
+        }
+    }
+}
@@ -4,9 +4,11 @@ import org.apache.camel.ProducerTemplate;
 import org.apache.commons.collections.CollectionUtils;
 import org.recap.RecapConstants;
 import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
+import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.ItemEntity;
 import org.recap.model.jpa.ReportDataEntity;
 import org.recap.repository.jpa.*;
+import org.recap.service.QueueCompletionTracker;
 
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -26,6 +28,8 @@ public class MatchingAlgorithmMonographCGDCallable implements Callable {
     private ItemChangeLogDetailsRepository itemChangeLogDetailsRepository;
     private CollectionGroupDetailsRepository collectionGroupDetailsRepository;
     private ItemDetailsRepository itemDetailsRepository;
+    private MatchingCounter matchingCounter;
+    private QueueCompletionTracker.Run updateItemsRun;
     private boolean isPendingMatch;
 
     /**
@@ -42,11 +46,14 @@ public class MatchingAlgorithmMonographCGDCallable implements Callable {
      * @param collectionGroupDetailsRepository the collection group details repository
      * @param itemDetailsRepository            the item details repository
      * @param isPendingMatch                   the is pending match
+     * @param matchingCounter                  the matching counter of the run
+     * @param updateItemsRun                   the run the items to update are sent through
      */
     public MatchingAlgorithmMonographCGDCallable(ReportDataDetailsRepository reportDataDetailsRepository, BibliographicDetailsRepository bibliographicDetailsRepository,
                                                  int pageNum, Integer batchSize, ProducerTemplate producerTemplate, Map collectionGroupMap, Map institutionMap,
                                                  ItemChangeLogDetailsRepository itemChangeLogDetailsRepository, CollectionGroupDetailsRepository collectionGroupDetailsRepository,
-                                                 ItemDetailsRepository itemDetailsRepository, boolean isPendingMatch) {
+                                                 ItemDetailsRepository itemDetailsRepository, boolean isPendingMatch, MatchingCounter matchingCounter,
+                                                 QueueCompletionTracker.Run updateItemsRun) {
         this.reportDataDetailsRepository = reportDataDetailsRepository;
         this.bibliographicDetailsRepository = bibliographicDetailsRepository;
         this.pageNum = pageNum;
@@ -57,6 +64,8 @@ public class MatchingAlgorithmMonographCGDCallable implements Callable {
         this.itemChangeLogDetailsRepository = itemChangeLogDetailsRepository;
         this.collectionGroupDetailsRepository = collectionGroupDetailsRepository;
         this.itemDetailsRepository = itemDetailsRepository;
+        this.matchingCounter = matchingCounter;
+        this.updateItemsRun = updateItemsRun;
         this.isPendingMatch = isPendingMatch;
     }
 
@@ -89,7 +98,7 @@ public class MatchingAlgorithmMonographCGDCallable implements Callable {
             }
             Set<String> materialTypeSet = new HashSet<>();
             MatchingAlgorithmCGDProcessor matchingAlgorithmCGDProcessor = new MatchingAlgorithmCGDProcessor(bibliographicDetailsRepository, producerTemplate, collectionGroupMap,
-                    institutionMap, itemChangeLogDetailsRepository, RecapConstants.INITIAL_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository);
+                    institutionMap, itemChangeLogDetailsRepository, RecapConstants.INITIAL_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository, matchingCounter, updateItemsRun);
             boolean isMonograph = matchingAlgorithmCGDProcessor.checkForMonographAndPopulateValues(materialTypeSet,useRestrictionMap, itemEntityMap, bibIdList);
             if(isMonograph) {
                 matchingAlgorithmCGDProcessor.updateCGDProcess(useRestrictionMap, itemEntityMap);
@@ -3,9 +3,11 @@ package org.recap.executors;
 import org.apache.camel.ProducerTemplate;
 import org.recap.RecapConstants;
 import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
+import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.ItemEntity;
 import org.recap.model.jpa.ReportDataEntity;
 import org.recap.repository.jpa.*;
+import org.recap.service.QueueCompletionTracker;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,10 +30,13 @@ public class MatchingAlgorithmSerialsCGDCallable implements Callable {
     private ItemChangeLogDetailsRepository itemChangeLogDetailsRepository;
     private CollectionGroupDetailsRepository collectionGroupDetailsRepository;
     private ItemDetailsRepository itemDetailsRepository;
+    private MatchingCounter matchingCounter;
+    private QueueCompletionTracker.Run updateItemsRun;
 
     public MatchingAlgorithmSerialsCGDCallable(ReportDataDetailsRepository reportDataDetailsRepository, BibliographicDetailsRepository bibliographicDetailsRepository, int pageNum, Integer batchSize,
                                                ProducerTemplate producerTemplate, Map collectionGroupMap, Map institutionMap, ItemChangeLogDetailsRepository itemChangeLogDetailsRepository,
-                                               CollectionGroupDetailsRepository collectionGroupDetailsRepository, ItemDetailsRepository itemDetailsRepository) {
+                                               CollectionGroupDetailsRepository collectionGroupDetailsRepository, ItemDetailsRepository itemDetailsRepository, MatchingCounter matchingCounter,
+                                               QueueCompletionTracker.Run updateItemsRun) {
         this.reportDataDetailsRepository = reportDataDetailsRepository;
         this.bibliographicDetailsRepository = bibliographicDetailsRepository;
         this.pageNum = pageNum;
@@ -42,6 +47,8 @@ public class MatchingAlgorithmSerialsCGDCallable implements Callable {
         this.itemChangeLogDetailsRepository = itemChangeLogDetailsRepository;
         this.collectionGroupDetailsRepository = collectionGroupDetailsRepository;
         this.itemDetailsRepository = itemDetailsRepository;
+        this.matchingCounter = matchingCounter;
+        this.updateItemsRun = updateItemsRun;
     }
 
     @Override
@@ -54,7 +61,7 @@ public class MatchingAlgorithmSerialsCGDCallable implements Callable {
             String[] bibIds = bibId.split(",");
             List<Integer> bibIdList = new ArrayList<>();
             MatchingAlgorithmCGDProcessor matchingAlgorithmCGDProcessor = new MatchingAlgorithmCGDProcessor(bibliographicDetailsRepository, producerTemplate, collectionGroupMap,
-                    institutionMap, itemChangeLogDetailsRepository, RecapConstants.INITIAL_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository);
+                    institutionMap, itemChangeLogDetailsRepository, RecapConstants.INITIAL_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository, matchingCounter, updateItemsRun);
             for(int i=0; i< bibIds.length; i++) {
                 bibIdList.add(Integer.valueOf(bibIds[i]));
             }
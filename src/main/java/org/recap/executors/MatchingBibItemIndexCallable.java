@@ -8,9 +8,9 @@ import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
@@ -77,20 +77,21 @@ public class MatchingBibItemIndexCallable implements Callable {
     @Override
     public Object call() throws Exception {
 
-        Page<BibliographicEntity> bibliographicEntities;
-
-        bibliographicEntities = bibliographicDetailsRepository.getBibliographicEntitiesForChangedItems(new PageRequest(pageNum, docsPerPage), operationType, from, to);
-
-        logger.info("Num Bibs Fetched : " + bibliographicEntities.getNumberOfElements());
-        Iterator<BibliographicEntity> iterator = bibliographicEntities.iterator();
+        List<Integer> bibliographicIds = bibliographicDetailsRepository.getBibliographicIdsForChangedItems(new PageRequest(pageNum, docsPerPage), operationType, from, to);
 
+        logger.info("Num Bibs Fetched : " + bibliographicIds.size());
+        if (CollectionUtils.isEmpty(bibliographicIds)) {
+            return 0;
+        }
 
         ExecutorService executorService = Executors.newFixedThreadPool(50);
         List<Future> futures = new ArrayList<>();
-        while (iterator.hasNext()) {
-            BibliographicEntity bibliographicEntity = iterator.next();
-            Future submit = executorService.submit(new BibItemRecordSetupCallable(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository, producerTemplate));
-            futures.add(submit);
+        try (CloseableIterator<BibliographicEntity> iterator = bibliographicDetailsRepository.streamBibsByBibIds(bibliographicIds, docsPerPage)) {
+            while (iterator.hasNext()) {
+                BibliographicEntity bibliographicEntity = iterator.next();
+                Future submit = executorService.submit(new BibItemRecordSetupCallable(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository, producerTemplate));
+                futures.add(submit);
+            }
         }
 
         logger.info("Num futures to prepare Bib and Associated data : {} ",futures.size());
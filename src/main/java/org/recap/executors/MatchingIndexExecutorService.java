@@ -9,6 +9,8 @@ import org.recap.admin.SolrAdmin;
 import org.recap.repository.jpa.InstitutionDetailsRepository;
 import org.recap.repository.solr.main.BibSolrCrudRepository;
 import org.recap.util.DateUtil;
+import org.recap.util.FacetCountSnapshot;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -68,6 +70,12 @@ public abstract class MatchingIndexExecutorService {
     @Autowired
     DateUtil dateUtil;
 
+    @Autowired
+    FacetCountSnapshot facetCountSnapshot;
+
+    @Autowired
+    SearchResultCache searchResultCache;
+
     public Integer indexingForMatchingAlgorithm(String operationType, Date updatedDate) throws InterruptedException {
         StopWatch stopWatch1 = new StopWatch();
         stopWatch1.start();
@@ -144,6 +152,7 @@ public abstract class MatchingIndexExecutorService {
                         //NoOp.
                     }
                     logger.info("Commit future done : {}",future.isDone());
+                    searchResultCache.indexUpdated();
 
                     logger.info("Num of Bibs Processed and indexed to core{} on commit interval : {} ",coreName,numOfBibsProcessed);
                     logger.info("Total Num of Bibs Processed and indexed to core {} : {}",coreName, totalBibsProcessed);
@@ -157,6 +166,8 @@ public abstract class MatchingIndexExecutorService {
             }
         } catch (Exception e) {
             logger.error(RecapConstants.LOG_ERROR,e);
+        } finally {
+            facetCountSnapshot.refresh();
         }
         stopWatch1.stop();
         logger.info("Total time taken: {} secs",stopWatch1.getTotalTimeSeconds());
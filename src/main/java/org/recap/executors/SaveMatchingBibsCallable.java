@@ -11,10 +11,13 @@ import org.recap.RecapConstants;
 import org.recap.model.jpa.MatchingBibEntity;
 import org.recap.model.jpa.MatchingMatchPointsEntity;
 import org.recap.model.search.resolver.BibValueResolver;
+import org.recap.model.search.resolver.ValueResolverDispatch;
 import org.recap.model.search.resolver.impl.Bib.TitleSubFieldAValueResolver;
 import org.recap.model.search.resolver.impl.bib.*;
 import org.recap.model.solr.BibItem;
 import org.recap.repository.jpa.MatchingMatchPointsDetailsRepository;
+import org.recap.service.QueueCompletionTracker;
+import org.recap.util.ConcurrentIntBitSet;
 import org.recap.util.MatchingAlgorithmUtil;
 import org.recap.util.SolrQueryBuilder;
 import org.springframework.data.solr.core.SolrTemplate;
@@ -37,7 +40,10 @@ public class SaveMatchingBibsCallable implements Callable {
     private MatchingAlgorithmUtil matchingAlgorithmUtil;
 
     private List<BibValueResolver> bibValueResolvers;
-    private static Set<Integer> bibIdList;
+
+    private final ValueResolverDispatch<BibValueResolver> bibValueResolverDispatch = new ValueResolverDispatch<>(getBibValueResolvers());
+    private ConcurrentIntBitSet matchingBibIds;
+    private QueueCompletionTracker.Run saveMatchingBibsRun;
 
     /**
      * This method instantiates a new save matching bibs callable.
@@ -57,10 +63,13 @@ public class SaveMatchingBibsCallable implements Callable {
      * @param batchSize                            the batch size
      * @param pageNum                              the page num
      * @param matchingAlgorithmUtil                the matching algorithm util
+     * @param matchingBibIds                       the bib ids already saved by the callables of the run, shared by them
+     * @param saveMatchingBibsRun                  the run the matching bibs are sent through, shared by the callables of the run
      */
     public SaveMatchingBibsCallable(MatchingMatchPointsDetailsRepository matchingMatchPointsDetailsRepository, String matchCriteria,
                                     SolrTemplate solrTemplate,
-                                    ProducerTemplate producer, SolrQueryBuilder solrQueryBuilder, long batchSize, int pageNum, MatchingAlgorithmUtil matchingAlgorithmUtil) {
+                                    ProducerTemplate producer, SolrQueryBuilder solrQueryBuilder, long batchSize, int pageNum, MatchingAlgorithmUtil matchingAlgorithmUtil,
+                                    ConcurrentIntBitSet matchingBibIds, QueueCompletionTracker.Run saveMatchingBibsRun) {
         this.matchingMatchPointsDetailsRepository = matchingMatchPointsDetailsRepository;
         this.matchCriteria = matchCriteria;
         this.solrTemplate = solrTemplate;
@@ -69,6 +78,8 @@ public class SaveMatchingBibsCallable implements Callable {
         this.batchSize = batchSize;
         this.pageNum = pageNum;
         this.matchingAlgorithmUtil = matchingAlgorithmUtil;
+        this.matchingBibIds = matchingBibIds;
+        this.saveMatchingBibsRun = saveMatchingBibsRun;
     }
 
     /**
@@ -92,7 +103,7 @@ public class SaveMatchingBibsCallable implements Callable {
                 BibItem bibItem = new BibItem();
                 populateBibItem(solrDocument, bibItem);
                 Integer bibId = bibItem.getBibId();
-                if (!isBibIdDuplicate(bibId)) {
+                if (matchingBibIds.add(bibId)) {
                     MatchingBibEntity matchingBibEntity = new MatchingBibEntity();
                     matchingBibEntity.setBibId(bibId);
                     matchingBibEntity.setRoot(bibItem.getRoot());
@@ -106,13 +117,11 @@ public class SaveMatchingBibsCallable implements Callable {
                     matchingBibEntity.setMaterialType(bibItem.getLeaderMaterialType());
                     matchingBibEntity.setMatching(matchCriteria);
                     matchingBibEntity.setStatus(RecapConstants.PENDING);
-                    if(addBibIdToList(bibId)) {
-                        matchingBibEntityList.add(matchingBibEntity);
-                    }
+                    matchingBibEntityList.add(matchingBibEntity);
                 }
             }
             if (CollectionUtils.isNotEmpty(matchingBibEntityList)) {
-                producer.sendBody("scsbactivemq:queue:saveMatchingBibsQ", matchingBibEntityList);
+                saveMatchingBibsRun.sendBody(producer, matchingBibEntityList);
                 size = size + matchingBibEntityList.size();
             }
         }
@@ -126,61 +135,7 @@ public class SaveMatchingBibsCallable implements Callable {
      * @param bibItem      the bib item
      */
     public void populateBibItem(SolrDocument solrDocument, BibItem bibItem) {
-        Collection<String> fieldNames = solrDocument.getFieldNames();
-        for (Iterator<String> stringIterator = fieldNames.iterator(); stringIterator.hasNext(); ) {
-            String fieldName = stringIterator.next();
-            Object fieldValue = solrDocument.getFieldValue(fieldName);
-            for (Iterator<BibValueResolver> valueResolverIterator = getBibValueResolvers().iterator(); valueResolverIterator.hasNext(); ) {
-                BibValueResolver valueResolver = valueResolverIterator.next();
-                if (valueResolver.isInterested(fieldName)) {
-                    valueResolver.setValue(bibItem, fieldValue);
-                }
-            }
-        }
-    }
-
-    /**
-     * To add bib id in the bib id list .
-     *
-     * @param bibId the bib id
-     * @return the boolean
-     */
-    public static synchronized boolean addBibIdToList(Integer bibId) {
-        return getBibIdList().add(bibId);
-    }
-
-    /**
-     * Gets bib id list.
-     *
-     * @return the bib id list
-     */
-    public static synchronized Set<Integer> getBibIdList() {
-        if(bibIdList == null) {
-            bibIdList = new HashSet<>();
-        }
-        return bibIdList;
-    }
-
-    /**
-     * Checks whether the bib id is duplicate.
-     *
-     * @param bibId the bib id
-     * @return the boolean
-     */
-    public static synchronized boolean isBibIdDuplicate(Integer bibId) {
-        if(getBibIdList().contains(bibId)) {
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * This method sets bib id list.
-     *
-     * @param bibIdList the bib id list
-     */
-    public static void setBibIdList(Set<Integer> bibIdList) {
-        SaveMatchingBibsCallable.bibIdList = bibIdList;
+        bibValueResolverDispatch.resolve(solrDocument, (valueResolver, fieldValue) -> valueResolver.setValue(bibItem, fieldValue));
     }
 
     /**
@@ -0,0 +1,64 @@
+package org.recap.executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the solr queries of the searches which do not depend on each other concurrently, on a bounded pool of threads kept for searches only.
+ * When the pool and its queue are full the query is run on the searching thread, so a burst of searches slows down instead of failing.
+ */
+@Component
+public class SearchExecutorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchExecutorService.class);
+
+    @Value("${search.executor.threads:16}")
+    private int numThreads;
+
+    @Value("${search.executor.queue.capacity:100}")
+    private int queueCapacity;
+
+    @Value("${search.deadline.millis:30000}")
+    private long deadlineMillis;
+
+    private ThreadPoolExecutor executorService;
+
+    /**
+     * This method starts the search threads pool.
+     */
+    @PostConstruct
+    public void start() {
+        executorService = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("search-query-%d").setDaemon(true).build(), new ThreadPoolExecutor.CallerRunsPolicy());
+        executorService.allowCoreThreadTimeOut(true);
+        logger.info("Started search executor with {} threads, queue capacity {} and deadline {} ms", numThreads, queueCapacity, deadlineMillis);
+    }
+
+    /**
+     * This method stops the search threads pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the query execution of one search, which has to complete within the search deadline from now.
+     *
+     * @return the search query execution
+     */
+    public SearchQueryExecution newSearchQueryExecution() {
+        return new SearchQueryExecution(executorService, deadlineMillis);
+    }
+}
@@ -0,0 +1,137 @@
+package org.recap.executors;
+
+import org.apache.solr.client.solrj.SolrServerException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * The solr queries of one search. Every query runs on the search executor and is timed under its name. The queries submitted run
+ * concurrently, while a query called is waited for straight away. Waiting for any query fails once the deadline of the search has passed,
+ * so the deadline covers every query of the search. Only a query the executor runs on the searching thread, because its pool and queue are
+ * full, is not bounded by the deadline.
+ */
+public class SearchQueryExecution {
+
+    private final ExecutorService executorService;
+
+    private final long deadlineMillis;
+
+    private final long deadline;
+
+    private final Map<String, Long> queryTimings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Instantiates a new search query execution.
+     *
+     * @param executorService the executor service the submitted queries run on
+     * @param deadlineMillis  the time the search has to complete in, in milliseconds
+     */
+    public SearchQueryExecution(ExecutorService executorService, long deadlineMillis) {
+        this.executorService = executorService;
+        this.deadlineMillis = deadlineMillis;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    /**
+     * This method submits the query to run on the search executor.
+     *
+     * @param <T>       the result type
+     * @param queryName the query name the query is timed under
+     * @param query     the query
+     * @return the future result of the query
+     */
+    public <T> Future<T> submit(String queryName, SolrCallable<T> query) {
+        return executorService.submit(() -> time(queryName, query));
+    }
+
+    /**
+     * This method runs the query on the search executor and waits for its result until the deadline of the search.
+     *
+     * @param <T>       the result type
+     * @param queryName the query name the query is timed under
+     * @param query     the query
+     * @return the result of the query
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    public <T> T call(String queryName, SolrCallable<T> query) throws IOException, SolrServerException {
+        return get(submit(queryName, query));
+    }
+
+    private <T> T time(String queryName, SolrCallable<T> query) throws IOException, SolrServerException {
+        long startTime = System.nanoTime();
+        try {
+            return query.call();
+        } finally {
+            queryTimings.put(queryName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+    }
+
+    /**
+     * This method waits for the result of a submitted query until the deadline of the search. The query is cancelled if the deadline passes.
+     *
+     * @param <T>    the result type
+     * @param future the future result of the query
+     * @return the result of the query
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    public <T> T get(Future<T> future) throws IOException, SolrServerException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new SolrServerException("Search did not complete within " + deadlineMillis + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the search query");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof SolrServerException) {
+                throw (SolrServerException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SolrServerException(cause);
+        }
+    }
+
+    /**
+     * Gets the time each query took, in milliseconds, by query name in the order the queries completed.
+     *
+     * @return the query timings
+     */
+    public Map<String, Long> getQueryTimings() {
+        synchronized (queryTimings) {
+            return new LinkedHashMap<>(queryTimings);
+        }
+    }
+
+    /**
+     * A solr query run by a search.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface SolrCallable<T> {
+
+        /**
+         * Runs the query.
+         *
+         * @return the result
+         * @throws IOException         the io exception
+         * @throws SolrServerException the solr server exception
+         */
+        T call() throws IOException, SolrServerException;
+    }
+}
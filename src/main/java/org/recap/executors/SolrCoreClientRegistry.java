@@ -0,0 +1,146 @@
+package org.recap.executors;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.recap.RecapConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds one solr client per core for an indexing run. The clients share one pooled http client and queue the
+ * documents to be sent to solr in the background. The errors of the background updates are counted per core, and a commit fails
+ * once any core has an error, so documents which never reached solr fail the run instead of being dropped. The registry is created
+ * at the start of the run and closed at the end of it.
+ */
+public class SolrCoreClientRegistry implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolrCoreClientRegistry.class);
+
+    private static final int QUEUE_SIZE = 10;
+
+    private static final int THREADS_PER_CORE = 2;
+
+    private final String solrUrl;
+
+    private final CloseableHttpClient httpClient;
+
+    private final Map<String, ConcurrentUpdateSolrClient> solrClients = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+
+    /**
+     * This method instantiates a new solr core client registry.
+     *
+     * @param solrUrl    the solr url
+     * @param numThreads the number of indexing threads
+     */
+    public SolrCoreClientRegistry(String solrUrl, Integer numThreads) {
+        this.solrUrl = solrUrl;
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(HttpClientUtil.PROP_MAX_CONNECTIONS, numThreads * THREADS_PER_CORE * 2);
+        params.set(HttpClientUtil.PROP_MAX_CONNECTIONS_PER_HOST, numThreads * THREADS_PER_CORE * 2);
+        this.httpClient = HttpClientUtil.createClient(params);
+    }
+
+    /**
+     * This method gets the solr client of the given core, creating it on first use.
+     *
+     * @param coreName the core name
+     * @return the solr client
+     */
+    public SolrClient getSolrClient(String coreName) {
+        return solrClients.computeIfAbsent(coreName, this::createSolrClient);
+    }
+
+    /**
+     * Gets the number of background updates of the given core which failed.
+     *
+     * @param coreName the core name
+     * @return the error count
+     */
+    public long getErrorCount(String coreName) {
+        LongAdder errorCount = errorCounts.get(coreName);
+        return null == errorCount ? 0 : errorCount.sum();
+    }
+
+    /**
+     * This method waits for the queued documents of all cores to be sent and hard commits every core.
+     *
+     * @throws IllegalStateException if the documents of a core failed to be sent or the commit of a core failed
+     */
+    public void commit() {
+        for (ConcurrentUpdateSolrClient solrClient : solrClients.values()) {
+            solrClient.blockUntilFinished();
+        }
+        for (Map.Entry<String, ConcurrentUpdateSolrClient> solrClientEntry : solrClients.entrySet()) {
+            String coreName = solrClientEntry.getKey();
+            long errorCount = getErrorCount(coreName);
+            if (errorCount > 0) {
+                throw new IllegalStateException(errorCount + " updates failed to be sent to core " + coreName);
+            }
+            try {
+                solrClientEntry.getValue().commit();
+                logger.info("Committed indexes to core : {}", coreName);
+            } catch (SolrServerException | IOException e) {
+                throw new IllegalStateException("Commit failed for core " + coreName, e);
+            }
+        }
+    }
+
+    /**
+     * This method waits for the queued documents to be sent and releases the solr clients and their connections.
+     */
+    @Override
+    public void close() {
+        for (ConcurrentUpdateSolrClient solrClient : solrClients.values()) {
+            solrClient.blockUntilFinished();
+            solrClient.close();
+        }
+        solrClients.clear();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.error(RecapConstants.LOG_ERROR, e);
+        }
+    }
+
+    private ConcurrentUpdateSolrClient createSolrClient(String coreName) {
+        logger.info("Creating solr client for core : {}", coreName);
+        return new CoreUpdateSolrClient(solrUrl, coreName, httpClient, errorCounts.computeIfAbsent(coreName, key -> new LongAdder()));
+    }
+
+    /**
+     * The solr client of one core, which counts the errors of its background updates in the given error count.
+     */
+    private static class CoreUpdateSolrClient extends ConcurrentUpdateSolrClient {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String coreName;
+
+        private final LongAdder errorCount;
+
+        CoreUpdateSolrClient(String solrUrl, String coreName, CloseableHttpClient httpClient, LongAdder errorCount) {
+            super(solrUrl + File.separator + coreName, httpClient, QUEUE_SIZE, THREADS_PER_CORE);
+            this.coreName = coreName;
+            this.errorCount = errorCount;
+        }
+
+        @Override
+        public void handleError(Throwable ex) {
+            errorCount.increment();
+            logger.error("Error in sending documents to core {} : {}", coreName, ex);
+        }
+    }
+}
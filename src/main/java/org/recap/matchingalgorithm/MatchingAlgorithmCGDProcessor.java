@@ -12,6 +12,7 @@ import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.CollectionGroupDetailsRepository;
 import org.recap.repository.jpa.ItemChangeLogDetailsRepository;
 import org.recap.repository.jpa.ItemDetailsRepository;
+import org.recap.service.QueueCompletionTracker;
 
 import java.util.*;
 
@@ -28,6 +29,8 @@ public class MatchingAlgorithmCGDProcessor {
     private String matchingType;
     private CollectionGroupDetailsRepository collectionGroupDetailsRepository;
     private ItemDetailsRepository itemDetailsRepository;
+    private MatchingCounter matchingCounter;
+    private QueueCompletionTracker.Run updateItemsRun;
 
     /**
      * This method instantiates a new matching algorithm cgd processor.
@@ -40,10 +43,13 @@ public class MatchingAlgorithmCGDProcessor {
      * @param matchingType                     the matching type
      * @param collectionGroupDetailsRepository the collection group details repository
      * @param itemDetailsRepository            the item details repository
+     * @param matchingCounter                  the matching counter of the run
+     * @param updateItemsRun                   the run the items to update are sent through, for the initial matching algorithm
      */
     public MatchingAlgorithmCGDProcessor(BibliographicDetailsRepository bibliographicDetailsRepository, ProducerTemplate producerTemplate, Map collectionGroupMap, Map institutionMap,
                                          ItemChangeLogDetailsRepository itemChangeLogDetailsRepository, String matchingType, CollectionGroupDetailsRepository collectionGroupDetailsRepository,
-                                         ItemDetailsRepository itemDetailsRepository) {
+                                         ItemDetailsRepository itemDetailsRepository, MatchingCounter matchingCounter,
+                                         QueueCompletionTracker.Run updateItemsRun) {
         this.bibliographicDetailsRepository = bibliographicDetailsRepository;
         this.producerTemplate = producerTemplate;
         this.collectionGroupMap = collectionGroupMap;
@@ -52,6 +58,8 @@ public class MatchingAlgorithmCGDProcessor {
         this.matchingType = matchingType;
         this.collectionGroupDetailsRepository = collectionGroupDetailsRepository;
         this.itemDetailsRepository = itemDetailsRepository;
+        this.matchingCounter = matchingCounter;
+        this.updateItemsRun = updateItemsRun;
     }
 
     /**
@@ -98,7 +106,7 @@ public class MatchingAlgorithmCGDProcessor {
         ItemEntity itemEntityToBeShared = getItemToBeSharedBasedOnInitialMatchingDate(itemEntities);
         if(itemEntityToBeShared != null) {
             itemEntityMap.remove(itemEntityToBeShared.getItemId());
-            MatchingCounter.updateCounter(itemEntityToBeShared.getOwningInstitutionId(), false);
+            matchingCounter.updateCounter(itemEntityToBeShared.getOwningInstitutionId(), false);
         } else {
             itemEntities.sort(Comparator.comparing(ItemEntity::getCreatedDate, Comparator.naturalOrder()));
             findAndremoveSharedItem(itemEntityMap, itemEntities);
@@ -130,7 +138,7 @@ public class MatchingAlgorithmCGDProcessor {
         for (Iterator<ItemEntity> iterator = itemEntityMap.values().iterator(); iterator.hasNext(); ) {
             // Items which needs to be changed to open status
             ItemEntity itemEntity = iterator.next();
-            MatchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), true);
+            matchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), true);
             Integer oldCgd = itemEntity.getCollectionGroupId();
             itemEntity.setLastUpdatedDate(new Date());
             itemEntity.setLastUpdatedBy(RecapConstants.GUEST);
@@ -147,7 +155,7 @@ public class MatchingAlgorithmCGDProcessor {
             if(matchingType.equalsIgnoreCase(RecapConstants.ONGOING_MATCHING_ALGORITHM)) {
                 itemDetailsRepository.save(itemEntitiesToUpdate);
             } else {
-                producerTemplate.sendBody("scsbactivemq:queue:updateItemsQ", itemEntitiesToUpdate);
+                updateItemsRun.sendBody(producerTemplate, itemEntitiesToUpdate);
             }
             itemChangeLogDetailsRepository.save(itemChangeLogEntities);
         }
@@ -241,7 +249,7 @@ public class MatchingAlgorithmCGDProcessor {
             for(ItemEntity itemEntity : itemEntities) {
                 if(itemEntity.getCollectionGroupId().equals(collectionGroupMap.get(RecapConstants.SHARED_CGD))) {
                     itemEntityMap.put(itemEntity.getItemId(), itemEntity);
-                    MatchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), true);
+                    matchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), true);
                 }
             }
         }
@@ -315,14 +323,14 @@ public class MatchingAlgorithmCGDProcessor {
 
     private void findItemToBeSharedBasedOnCounter(Map<Integer, ItemEntity> itemEntityMap, Map<Integer, List<ItemEntity>> institutionMap) {
         Set<Integer> owningInstitutions = institutionMap.keySet();
-        Map<Integer, List<Integer>> counterMap = new HashMap<>();
+        Map<Long, List<Integer>> counterMap = new HashMap<>();
         for (Iterator<Integer> iterator = owningInstitutions.iterator(); iterator.hasNext();) {
             Integer institution = iterator.next();
             populateCounterMap(counterMap, institution);
         }
         if(counterMap.size() > 1) {
             // Different Counter Values
-            Integer count = Collections.min(counterMap.keySet());
+            Long count = Collections.min(counterMap.keySet());
             List<Integer> institutionList = counterMap.get(count);
             if(CollectionUtils.isNotEmpty(institutionList)) {
                 // Institution to which item to be remained Shared
@@ -346,34 +354,16 @@ public class MatchingAlgorithmCGDProcessor {
         // Item which needs to remain in Shared status and increment the institution's counter
         ItemEntity itemEntity = itemEntities.get(0);
         itemEntityMap.remove(itemEntity.getItemId());
-        MatchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), false);
+        matchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), false);
         if(matchingType.equalsIgnoreCase(RecapConstants.INITIAL_MATCHING_OPERATION_TYPE)) {
             itemEntity.setInitialMatchingDate(new Date());
-            producerTemplate.sendBody("scsbactivemq:queue:updateItemsQ", itemEntity);
+            updateItemsRun.sendBody(producerTemplate, itemEntity);
         }
     }
 
-    private void populateCounterMap(Map<Integer, List<Integer>> counterMap, Integer institution) {
-        Integer counter = getCounterForGivenInst(institution);
-        if(counterMap.containsKey(counter)) {
-            List<Integer> institutions = new ArrayList<>();
-            institutions.addAll(counterMap.get(counter));
-            institutions.add(institution);
-            counterMap.put(counter, institutions);
-        } else {
-            counterMap.put(counter, Arrays.asList(institution));
-        }
-    }
-
-    private Integer getCounterForGivenInst(Integer institution) {
-        if(institution == 1) {
-            return MatchingCounter.getPulSharedCount();
-        } else if(institution == 2) {
-            return MatchingCounter.getCulSharedCount();
-        } else if(institution == 3) {
-            return MatchingCounter.getNyplSharedCount();
-        }
-        return null;
+    private void populateCounterMap(Map<Long, List<Integer>> counterMap, Integer institution) {
+        Long counter = matchingCounter.get(institution, MatchingCounter.Kind.SHARED);
+        counterMap.computeIfAbsent(counter, key -> new ArrayList<>()).add(institution);
     }
 
     private Integer getUseRestrictionInNumbers(String useRestrictions) {
@@ -0,0 +1,292 @@
+package org.recap.matchingalgorithm;
+
+import org.apache.commons.lang3.StringUtils;
+import org.recap.RecapConstants;
+import org.recap.model.jpa.MatchingBibEntity;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The matching bibs of the matching algorithm, grouped into clusters of bibs sharing a match point value.
+ * <p>
+ * Each bib is put in one group by the match points it was matched on: the first of the pairs OCLC and ISBN, OCLC and ISSN, OCLC and LCCN,
+ * ISBN and ISSN, ISBN and LCCN, ISSN and LCCN it was matched on both points of, for a multi match, or else the only match point it was
+ * matched on, for a single match. Within a group the bibs are clustered on the values of the first match point of the group, a cluster being
+ * the bibs sharing a value and, transitively, the bibs sharing a value with those.
+ * <p>
+ * The bibs are held in int arrays indexed in the order they were added, and every value is interned to the index of the first bib of the group
+ * holding it. The clusters are the connected components of a union find over the bib indexes, so clustering all the bibs is one pass, near
+ * linear in the number of values.
+ */
+public class MatchingBibClusters {
+
+    private static final String[] MATCH_POINTS = {RecapConstants.MATCH_POINT_FIELD_OCLC, RecapConstants.MATCH_POINT_FIELD_ISBN,
+            RecapConstants.MATCH_POINT_FIELD_ISSN, RecapConstants.MATCH_POINT_FIELD_LCCN};
+
+    private static final int OCLC = 0;
+
+    private static final int ISBN = 1;
+
+    private static final int ISSN = 2;
+
+    private static final int LCCN = 3;
+
+    /**
+     * The match points of the groups, in the order a bib is tried against them. A bib of a multi match group is clustered on the first match point.
+     */
+    private static final int[][] GROUPS = {{OCLC, ISBN}, {OCLC, ISSN}, {OCLC, LCCN}, {ISBN, ISSN}, {ISBN, LCCN}, {ISSN, LCCN},
+            {OCLC}, {ISBN}, {ISSN}, {LCCN}};
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+
+    private int[] bibIds = new int[INITIAL_CAPACITY];
+
+    private int[] matchPointMasks = new int[INITIAL_CAPACITY];
+
+    private MatchingBibEntity[] matchingBibEntities = new MatchingBibEntity[INITIAL_CAPACITY];
+
+    /**
+     * Adds a row of the matching bib table. The rows of a bib, one for each match point it was matched on, must be added one after the other.
+     *
+     * @param matchingBibEntity the matching bib entity
+     */
+    public void add(MatchingBibEntity matchingBibEntity) {
+        int matchPointMask = getMatchPointMask(matchingBibEntity.getMatching());
+        int bibId = matchingBibEntity.getBibId();
+        if (size > 0 && bibIds[size - 1] == bibId) {
+            matchPointMasks[size - 1] |= matchPointMask;
+            return;
+        }
+        if (size == bibIds.length) {
+            int capacity = size * 2;
+            bibIds = Arrays.copyOf(bibIds, capacity);
+            matchPointMasks = Arrays.copyOf(matchPointMasks, capacity);
+            matchingBibEntities = Arrays.copyOf(matchingBibEntities, capacity);
+        }
+        bibIds[size] = bibId;
+        matchPointMasks[size] = matchPointMask;
+        matchingBibEntities[size] = matchingBibEntity;
+        size++;
+    }
+
+    /**
+     * Gets the number of bibs added.
+     *
+     * @return the number of bibs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Clusters the bibs and passes each cluster of more than one bib to the consumer, in the order of the first bib added of each cluster.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachCluster(Consumer<MatchingBibCluster> consumer) {
+        int[] groups = new int[size];
+        int[] parents = new int[size];
+        int[] ranks = new int[size];
+        List<Map<String, Integer>> internedValues = new ArrayList<>();
+        for (int group = 0; group < GROUPS.length; group++) {
+            internedValues.add(new HashMap<>());
+        }
+        for (int index = 0; index < size; index++) {
+            parents[index] = index;
+            int group = getGroup(matchPointMasks[index]);
+            groups[index] = group;
+            if (group < 0) {
+                continue;
+            }
+            String value = getMatchPointValue(GROUPS[group][0], matchingBibEntities[index]);
+            if (StringUtils.isBlank(value)) {
+                continue;
+            }
+            Map<String, Integer> groupValues = internedValues.get(group);
+            for (String matchPointValue : value.split(",")) {
+                if (StringUtils.isNotBlank(matchPointValue)) {
+                    Integer firstIndex = groupValues.putIfAbsent(matchPointValue, index);
+                    if (firstIndex != null) {
+                        union(parents, ranks, firstIndex, index);
+                    }
+                }
+            }
+        }
+        internedValues = null;
+
+        int[] roots = new int[size];
+        int[] clusterSizes = new int[size];
+        for (int index = 0; index < size; index++) {
+            roots[index] = find(parents, index);
+            clusterSizes[roots[index]]++;
+        }
+        int[] offsets = parents;
+        Arrays.fill(offsets, -1);
+        int offset = 0;
+        for (int index = 0; index < size; index++) {
+            int root = roots[index];
+            if (offsets[root] < 0) {
+                offsets[root] = offset;
+                offset += clusterSizes[root];
+            }
+        }
+        int[] members = ranks;
+        for (int index = 0; index < size; index++) {
+            members[offsets[roots[index]]++] = index;
+        }
+
+        for (int start = 0; start < size; ) {
+            int clusterSize = clusterSizes[roots[members[start]]];
+            if (clusterSize > 1) {
+                List<MatchingBibEntity> clusterEntities = new ArrayList<>(clusterSize);
+                for (int index = start; index < start + clusterSize; index++) {
+                    clusterEntities.add(matchingBibEntities[members[index]]);
+                }
+                consumer.accept(new MatchingBibCluster(GROUPS[groups[members[start]]], clusterEntities));
+            }
+            start += clusterSize;
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static void union(int[] parents, int[] ranks, int index1, int index2) {
+        int root1 = find(parents, index1);
+        int root2 = find(parents, index2);
+        if (root1 == root2) {
+            return;
+        }
+        if (ranks[root1] < ranks[root2]) {
+            parents[root1] = root2;
+        } else if (ranks[root1] > ranks[root2]) {
+            parents[root2] = root1;
+        } else {
+            parents[root2] = root1;
+            ranks[root1]++;
+        }
+    }
+
+    private static int getMatchPointMask(String matching) {
+        for (int matchPoint = 0; matchPoint < MATCH_POINTS.length; matchPoint++) {
+            if (MATCH_POINTS[matchPoint].equalsIgnoreCase(matching)) {
+                return 1 << matchPoint;
+            }
+        }
+        return 0;
+    }
+
+    private static int getGroup(int matchPointMask) {
+        for (int group = 0; group < GROUPS.length; group++) {
+            int groupMask = 0;
+            for (int matchPoint : GROUPS[group]) {
+                groupMask |= 1 << matchPoint;
+            }
+            if ((matchPointMask & groupMask) == groupMask) {
+                return group;
+            }
+        }
+        return -1;
+    }
+
+    private static String getMatchPointValue(int matchPoint, MatchingBibEntity matchingBibEntity) {
+        switch (matchPoint) {
+            case OCLC:
+                return matchingBibEntity.getOclc();
+            case ISBN:
+                return matchingBibEntity.getIsbn();
+            case ISSN:
+                return matchingBibEntity.getIssn();
+            default:
+                return matchingBibEntity.getLccn();
+        }
+    }
+
+    /**
+     * A cluster of bibs sharing a match point value, of a multi match group or of a single match group.
+     */
+    public static class MatchingBibCluster {
+
+        private final int[] matchPoints;
+
+        private final List<MatchingBibEntity> matchingBibEntities;
+
+        private MatchingBibCluster(int[] matchPoints, List<MatchingBibEntity> matchingBibEntities) {
+            this.matchPoints = matchPoints;
+            this.matchingBibEntities = matchingBibEntities;
+        }
+
+        /**
+         * Tells whether the bibs of the cluster were matched on two match points.
+         *
+         * @return the boolean
+         */
+        public boolean isMultiMatch() {
+            return matchPoints.length > 1;
+        }
+
+        /**
+         * Gets the match points of the group of the cluster, the match point the cluster was made on first.
+         *
+         * @return the match points
+         */
+        public List<String> getMatchPoints() {
+            List<String> matchPointFields = new ArrayList<>(matchPoints.length);
+            for (int matchPoint : matchPoints) {
+                matchPointFields.add(MATCH_POINTS[matchPoint]);
+            }
+            return matchPointFields;
+        }
+
+        /**
+         * Gets the matching bib entities of the cluster, one for each bib.
+         *
+         * @return the matching bib entities
+         */
+        public List<MatchingBibEntity> getMatchingBibEntities() {
+            return matchingBibEntities;
+        }
+
+        /**
+         * Gets the bib ids of the cluster.
+         *
+         * @return the bib ids
+         */
+        public List<Integer> getBibIds() {
+            List<Integer> bibIdList = new ArrayList<>(matchingBibEntities.size());
+            for (MatchingBibEntity matchingBibEntity : matchingBibEntities) {
+                bibIdList.add(matchingBibEntity.getBibId());
+            }
+            return bibIdList;
+        }
+
+        /**
+         * Gets the distinct values of a match point of the group over the bibs of the cluster, comma separated.
+         *
+         * @param matchPointIndex the index of the match point in the match points of the cluster
+         * @return the match point values
+         */
+        public String getMatchPointValues(int matchPointIndex) {
+            Set<String> values = new LinkedHashSet<>();
+            for (MatchingBibEntity matchingBibEntity : matchingBibEntities) {
+                String value = getMatchPointValue(matchPoints[matchPointIndex], matchingBibEntity);
+                if (StringUtils.isNotBlank(value)) {
+                    for (String matchPointValue : value.split(",")) {
+                        if (StringUtils.isNotBlank(matchPointValue)) {
+                            values.add(matchPointValue);
+                        }
+                    }
+                }
+            }
+            return StringUtils.join(values, ",");
+        }
+    }
+}
@@ -1,258 +1,118 @@
 package org.recap.matchingalgorithm;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * Created by angelind on 6/1/17.
+ * The item counters of a run of the matching algorithm, for each partner institution: the shared and open items, and the items the run
+ * updated to shared and to open. A run creates its own counter and hands it to the CGD processors of its callables, so runs never share
+ * counts. The counts are striped LongAdder cells, so the callables counting items on many threads do not contend on a lock.
  */
 public class MatchingCounter {
 
-    private static Integer pulSharedCount;
-    private static Integer culSharedCount;
-    private static Integer nyplSharedCount;
-
-    private static Integer pulOpenCount;
-    private static Integer culOpenCount;
-    private static Integer nyplOpenCount;
-
-    private static Integer pulCGDUpdatedSharedCount;
-    private static Integer culCGDUpdatedSharedCount;
-    private static Integer nyplCGDUpdatedSharedCount;
-
-    private static Integer pulCGDUpdatedOpenCount;
-    private static Integer culCGDUpdatedOpenCount;
-    private static Integer nyplCGDUpdatedOpenCount;
-
-    /**
-     * This method gets pul shared count.
-     *
-     * @return the pul shared count
-     */
-    public static synchronized Integer getPulSharedCount() {
-        return pulSharedCount;
-    }
-
-    /**
-     * This method sets pul shared count.
-     *
-     * @param pulSharedCount the pul shared count
-     */
-    public static synchronized void setPulSharedCount(Integer pulSharedCount) {
-        MatchingCounter.pulSharedCount = pulSharedCount;
-    }
-
-    /**
-     * This method gets cul shared count.
-     *
-     * @return the cul shared count
-     */
-    public static synchronized Integer getCulSharedCount() {
-        return culSharedCount;
-    }
-
-    /**
-     * This method sets cul shared count.
-     *
-     * @param culSharedCount the cul shared count
-     */
-    public static synchronized void setCulSharedCount(Integer culSharedCount) {
-        MatchingCounter.culSharedCount = culSharedCount;
-    }
-
-    /**
-     * This method gets nypl shared count.
-     *
-     * @return the nypl shared count
-     */
-    public static synchronized Integer getNyplSharedCount() {
-        return nyplSharedCount;
-    }
-
-    /**
-     * This method sets nypl shared count.
-     *
-     * @param nyplSharedCount the nypl shared count
-     */
-    public static synchronized void setNyplSharedCount(Integer nyplSharedCount) {
-        MatchingCounter.nyplSharedCount = nyplSharedCount;
-    }
-
-    /**
-     * This method gets pul cgd updated shared count.
-     *
-     * @return the pul cgd updated shared count
-     */
-    public static synchronized Integer getPulCGDUpdatedSharedCount() {
-        return pulCGDUpdatedSharedCount;
-    }
-
     /**
-     * This method sets pul cgd updated shared count.
-     *
-     * @param pulCGDUpdatedSharedCount the pul cgd updated shared count
+     * The kinds of item count kept for each institution.
      */
-    public static synchronized void setPulCGDUpdatedSharedCount(Integer pulCGDUpdatedSharedCount) {
-        MatchingCounter.pulCGDUpdatedSharedCount = pulCGDUpdatedSharedCount;
+    public enum Kind {
+        /**
+         * The shared items of the institution.
+         */
+        SHARED,
+        /**
+         * The open items of the institution.
+         */
+        OPEN,
+        /**
+         * The items of the institution the run kept shared.
+         */
+        CGD_UPDATED_SHARED,
+        /**
+         * The items of the institution the run updated to open.
+         */
+        CGD_UPDATED_OPEN
     }
 
-    /**
-     * This method gets cul cgd updated shared count.
-     *
-     * @return the cul cgd updated shared count
-     */
-    public static synchronized Integer getCulCGDUpdatedSharedCount() {
-        return culCGDUpdatedSharedCount;
-    }
+    private final Map<Integer, String> institutionCodes;
 
-    /**
-     * This method sets cul cgd updated shared count.
-     *
-     * @param culCGDUpdatedSharedCount the cul cgd updated shared count
-     */
-    public static synchronized void setCulCGDUpdatedSharedCount(Integer culCGDUpdatedSharedCount) {
-        MatchingCounter.culCGDUpdatedSharedCount = culCGDUpdatedSharedCount;
-    }
+    private final ConcurrentMap<Integer, LongAdder[]> counters = new ConcurrentHashMap<>();
 
     /**
-     * This method gets nypl cgd updated shared count.
+     * Instantiates a new matching counter, with all counts at zero.
      *
-     * @return the nypl cgd updated shared count
+     * @param institutionCodes the codes of the partner institutions by institution id, in the order of the reports
      */
-    public static synchronized Integer getNyplCGDUpdatedSharedCount() {
-        return nyplCGDUpdatedSharedCount;
-    }
-
-    /**
-     * This method sets nypl cgd updated shared count.
-     *
-     * @param nyplCGDUpdatedSharedCount the nypl cgd updated shared count
-     */
-    public static synchronized void setNyplCGDUpdatedSharedCount(Integer nyplCGDUpdatedSharedCount) {
-        MatchingCounter.nyplCGDUpdatedSharedCount = nyplCGDUpdatedSharedCount;
-    }
-
-    /**
-     * This method gets pul cgd updated open count.
-     *
-     * @return the pul cgd updated open count
-     */
-    public static synchronized Integer getPulCGDUpdatedOpenCount() {
-        return pulCGDUpdatedOpenCount;
-    }
-
-    /**
-     * This method sets pul cgd updated open count.
-     *
-     * @param pulCGDUpdatedOpenCount the pul cgd updated open count
-     */
-    public static synchronized void setPulCGDUpdatedOpenCount(Integer pulCGDUpdatedOpenCount) {
-        MatchingCounter.pulCGDUpdatedOpenCount = pulCGDUpdatedOpenCount;
-    }
-
-    /**
-     * This method gets cul cgd updated open count.
-     *
-     * @return the cul cgd updated open count
-     */
-    public static synchronized Integer getCulCGDUpdatedOpenCount() {
-        return culCGDUpdatedOpenCount;
-    }
-
-    /**
-     * This method sets cul cgd updated open count.
-     *
-     * @param culCGDUpdatedOpenCount the cul cgd updated open count
-     */
-    public static synchronized void setCulCGDUpdatedOpenCount(Integer culCGDUpdatedOpenCount) {
-        MatchingCounter.culCGDUpdatedOpenCount = culCGDUpdatedOpenCount;
-    }
-
-    /**
-     * This method gets nypl cgd updated open count.
-     *
-     * @return the nypl cgd updated open count
-     */
-    public static synchronized Integer getNyplCGDUpdatedOpenCount() {
-        return nyplCGDUpdatedOpenCount;
-    }
-
-    /**
-     * This method sets nypl cgd updated open count.
-     *
-     * @param nyplCGDUpdatedOpenCount the nypl cgd updated open count
-     */
-    public static synchronized void setNyplCGDUpdatedOpenCount(Integer nyplCGDUpdatedOpenCount) {
-        MatchingCounter.nyplCGDUpdatedOpenCount = nyplCGDUpdatedOpenCount;
-    }
-
-    /**
-     * Gets pul open count.
-     *
-     * @return the pul open count
-     */
-    public static synchronized Integer getPulOpenCount() {
-        return pulOpenCount;
+    public MatchingCounter(Map<Integer, String> institutionCodes) {
+        this.institutionCodes = Collections.unmodifiableMap(new LinkedHashMap<>(institutionCodes));
+        for (Integer institutionId : institutionCodes.keySet()) {
+            getCounters(institutionId);
+        }
     }
 
     /**
-     * Sets pul open count.
+     * Gets the codes of the partner institutions by institution id, in the order of the reports.
      *
-     * @param pulOpenCount the pul open count
+     * @return the institution codes
      */
-    public static synchronized void setPulOpenCount(Integer pulOpenCount) {
-        MatchingCounter.pulOpenCount = pulOpenCount;
+    public Map<Integer, String> getInstitutionCodes() {
+        return institutionCodes;
     }
 
     /**
-     * Gets cul open count.
+     * Sets a count, when the run starts. A count being updated by other threads must not be set.
      *
-     * @return the cul open count
+     * @param institutionId the institution id
+     * @param kind          the kind of count
+     * @param value         the value
      */
-    public static synchronized Integer getCulOpenCount() {
-        return culOpenCount;
+    public void set(Integer institutionId, Kind kind, long value) {
+        LongAdder counter = getCounters(institutionId)[kind.ordinal()];
+        counter.reset();
+        counter.add(value);
     }
 
     /**
-     * Sets cul open count.
+     * Gets the current value of a count.
      *
-     * @param culOpenCount the cul open count
+     * @param institutionId the institution id
+     * @param kind          the kind of count
+     * @return the count
      */
-    public static synchronized void setCulOpenCount(Integer culOpenCount) {
-        MatchingCounter.culOpenCount = culOpenCount;
+    public long get(Integer institutionId, Kind kind) {
+        LongAdder[] institutionCounters = counters.get(institutionId);
+        return institutionCounters == null ? 0 : institutionCounters[kind.ordinal()].sum();
     }
 
     /**
-     * Gets nypl open count.
+     * Gets the current value of a count of the institution with the given code.
      *
-     * @return the nypl open count
+     * @param institutionCode the institution code
+     * @param kind            the kind of count
+     * @return the count, 0 for an institution which is not a partner
      */
-    public static synchronized Integer getNyplOpenCount() {
-        return nyplOpenCount;
+    public long get(String institutionCode, Kind kind) {
+        for (Map.Entry<Integer, String> institution : institutionCodes.entrySet()) {
+            if (institution.getValue().equalsIgnoreCase(institutionCode)) {
+                return get(institution.getKey(), kind);
+            }
+        }
+        return 0;
     }
 
     /**
-     * Sets nypl open count.
+     * Takes a snapshot of a count for all the partner institutions. Each count is read once, so the snapshot does not move while a report
+     * is written from it, though the counts of different institutions may be read while items are still being counted.
      *
-     * @param nyplOpenCount the nypl open count
-     */
-    public static synchronized void setNyplOpenCount(Integer nyplOpenCount) {
-        MatchingCounter.nyplOpenCount = nyplOpenCount;
-    }
-
-    /**
-     * Reset.
+     * @param kind the kind of count
+     * @return the counts by institution code, in the order of the reports
      */
-    public static void reset() {
-        pulSharedCount = 0;
-        pulOpenCount = 0;
-        culSharedCount = 0;
-        culOpenCount = 0;
-        nyplSharedCount = 0;
-        nyplOpenCount = 0;
-        pulCGDUpdatedSharedCount = 0;
-        culCGDUpdatedSharedCount = 0;
-        nyplCGDUpdatedSharedCount = 0;
-        pulCGDUpdatedOpenCount = 0;
-        culCGDUpdatedOpenCount = 0;
-        nyplCGDUpdatedOpenCount = 0;
+    public Map<String, Long> snapshot(Kind kind) {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> institution : institutionCodes.entrySet()) {
+            snapshot.put(institution.getValue(), get(institution.getKey(), kind));
+        }
+        return snapshot;
     }
 
     /**
@@ -261,31 +121,28 @@ public class MatchingCounter {
      * @param owningInstitution the owning institution
      * @param isOpen            the is open
      */
-    public static synchronized void updateCounter(Integer owningInstitution, boolean isOpen) {
-        if (owningInstitution == 1) {
-            if(isOpen) {
-                pulCGDUpdatedOpenCount++;
-                pulOpenCount++;
-                pulSharedCount--;
-            } else {
-                pulCGDUpdatedSharedCount++;
-            }
-        } else if (owningInstitution == 2) {
-            if(isOpen) {
-                culCGDUpdatedOpenCount++;
-                culOpenCount++;
-                culSharedCount--;
-            } else {
-                culCGDUpdatedSharedCount++;
-            }
-        } else if (owningInstitution == 3) {
-            if(isOpen) {
-                nyplCGDUpdatedOpenCount++;
-                nyplOpenCount++;
-                nyplSharedCount--;
-            } else {
-                nyplCGDUpdatedSharedCount++;
-            }
+    public void updateCounter(Integer owningInstitution, boolean isOpen) {
+        LongAdder[] institutionCounters = getCounters(owningInstitution);
+        if (isOpen) {
+            institutionCounters[Kind.CGD_UPDATED_OPEN.ordinal()].increment();
+            institutionCounters[Kind.OPEN.ordinal()].increment();
+            institutionCounters[Kind.SHARED.ordinal()].decrement();
+        } else {
+            institutionCounters[Kind.CGD_UPDATED_SHARED.ordinal()].increment();
+        }
+    }
+
+    private LongAdder[] getCounters(Integer institutionId) {
+        LongAdder[] institutionCounters = counters.get(institutionId);
+        if (institutionCounters == null) {
+            institutionCounters = counters.computeIfAbsent(institutionId, key -> {
+                LongAdder[] newCounters = new LongAdder[Kind.values().length];
+                for (int index = 0; index < newCounters.length; index++) {
+                    newCounters[index] = new LongAdder();
+                }
+                return newCounters;
+            });
         }
+        return institutionCounters;
     }
 }
@@ -1,19 +1,18 @@
 package org.recap.matchingalgorithm.service;
 
-import com.google.common.collect.Lists;
 import org.apache.camel.ProducerTemplate;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.recap.RecapConstants;
 import org.recap.executors.SaveMatchingBibsCallable;
+import org.recap.matchingalgorithm.MatchingBibClusters;
 import org.recap.model.jpa.MatchingBibEntity;
 import org.recap.model.jpa.MatchingMatchPointsEntity;
 import org.recap.model.jpa.ReportDataEntity;
 import org.recap.model.jpa.ReportEntity;
 import org.recap.repository.jpa.MatchingBibDetailsRepository;
 import org.recap.repository.jpa.MatchingMatchPointsDetailsRepository;
-import org.recap.service.ActiveMqQueuesInfo;
+import org.recap.service.QueueCompletionTracker;
+import org.recap.util.ConcurrentIntBitSet;
 import org.recap.util.MatchingAlgorithmUtil;
 import org.recap.util.SolrQueryBuilder;
 import org.slf4j.Logger;
@@ -21,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.stereotype.Service;
 
@@ -57,7 +57,7 @@ public class MatchingAlgorithmHelperService {
     private ExecutorService executorService;
 
     @Autowired
-    private ActiveMqQueuesInfo activeMqQueuesInfo;
+    private QueueCompletionTracker queueCompletionTracker;
 
     /**
      * Gets logger.
@@ -122,12 +122,17 @@ public class MatchingAlgorithmHelperService {
         return producerTemplate;
     }
 
-    public ActiveMqQueuesInfo getActiveMqQueuesInfo() {
-        return activeMqQueuesInfo;
+    /**
+     * Gets queue completion tracker.
+     *
+     * @return the queue completion tracker
+     */
+    public QueueCompletionTracker getQueueCompletionTracker() {
+        return queueCompletionTracker;
     }
 
     /**
-     * This method finds the matching records based on the match point field(OCLC,ISBN,ISSN,LCCN).
+     * This method finds the matching records based on the match point field(OCLC,ISBN,ISSN,LCCN), and waits until they are saved.
      *
      * @return the long
      * @throws Exception the exception
@@ -135,38 +140,32 @@ public class MatchingAlgorithmHelperService {
     public long findMatchingAndPopulateMatchPointsEntities() throws Exception {
         List<MatchingMatchPointsEntity> matchingMatchPointsEntities;
         long count = 0;
+        QueueCompletionTracker.Run saveMatchPointsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:saveMatchingMatchPointsQ");
 
         matchingMatchPointsEntities = getMatchingAlgorithmUtil().getMatchingMatchPointsEntity(RecapConstants.MATCH_POINT_FIELD_OCLC);
         count = count + matchingMatchPointsEntities.size();
-        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities);
+        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities, saveMatchPointsRun);
 
         matchingMatchPointsEntities = getMatchingAlgorithmUtil().getMatchingMatchPointsEntity(RecapConstants.MATCH_POINT_FIELD_ISBN);
         count = count + matchingMatchPointsEntities.size();
-        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities);
+        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities, saveMatchPointsRun);
 
         matchingMatchPointsEntities = getMatchingAlgorithmUtil().getMatchingMatchPointsEntity(RecapConstants.MATCH_POINT_FIELD_ISSN);
         count = count + matchingMatchPointsEntities.size();
-        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities);
+        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities, saveMatchPointsRun);
 
         matchingMatchPointsEntities = getMatchingAlgorithmUtil().getMatchingMatchPointsEntity(RecapConstants.MATCH_POINT_FIELD_LCCN);
         count = count + matchingMatchPointsEntities.size();
-        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities);
+        getMatchingAlgorithmUtil().saveMatchingMatchPointEntities(matchingMatchPointsEntities, saveMatchPointsRun);
 
         getLogger().info("Total count : {} " , count);
 
-        Integer saveMatchingMatchPointsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("saveMatchingMatchPointsQ");
-
-        if(saveMatchingMatchPointsQ != null) {
-            while (saveMatchingMatchPointsQ != 0) {
-                Thread.sleep(10000);
-                saveMatchingMatchPointsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("saveMatchingMatchPointsQ");
-            }
-        }
+        getQueueCompletionTracker().awaitCompletion(saveMatchPointsRun);
         return count;
     }
 
     /**
-     * This method is used to populate matching bib records in the database.
+     * This method is used to populate matching bib records in the database, and waits until they are saved.
      *
      * @return the long
      * @throws IOException         the io exception
@@ -174,384 +173,78 @@ public class MatchingAlgorithmHelperService {
      */
     public long populateMatchingBibEntities() throws IOException, SolrServerException, InterruptedException {
         Integer count = 0;
-        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_OCLC);
-        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_ISBN);
-        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_ISSN);
-        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_LCCN);
-        Integer saveMatchingBibsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("saveMatchingBibsQ");
-        if(saveMatchingBibsQ != null) {
-            while (saveMatchingBibsQ != 0) {
-                Thread.sleep(10000);
-                saveMatchingBibsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("saveMatchingBibsQ");
-            }
-        }
+        QueueCompletionTracker.Run saveMatchingBibsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:saveMatchingBibsQ");
+        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_OCLC, saveMatchingBibsRun);
+        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_ISBN, saveMatchingBibsRun);
+        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_ISSN, saveMatchingBibsRun);
+        count = count + fetchAndSaveMatchingBibs(RecapConstants.MATCH_POINT_FIELD_LCCN, saveMatchingBibsRun);
+        getQueueCompletionTracker().awaitCompletion(saveMatchingBibsRun);
         return count;
     }
 
     /**
-     * This method is used to populate reports for oclc and isbn matching combination based on the given batch size.
+     * This method populates the multi match and single match reports of the matching bibs in one pass, from the clusters of bibs sharing a
+     * match point value, and then the reports for the bibs left pending, once the status of the bibs reported from the clusters is updated.
+     * The matching bibs are streamed once, fetching the given batch size.
      *
      * @param batchSize the batch size
      * @return the map
+     * @throws InterruptedException the interrupted exception
      */
-    public Map<String,Integer> populateReportsForOCLCandISBN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForOCLCAndISBN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForOclcAndIsbn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForOCLCAndISBN, batchSize);
-        Map<String, Set<Integer>> oclcAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        getLogger().info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, RecapConstants.MATCH_POINT_FIELD_ISBN);
-            if(org.apache.commons.collections.CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(oclcAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, bibEntityMap);
-            }
-        }
-
-        Set<String> oclcNumberSet = new HashSet<>();
-        for (Iterator<String> iterator = oclcAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String oclc = iterator.next();
-            if(!oclcNumberSet.contains(oclc)) {
-                StringBuilder oclcNumbers  = new StringBuilder();
-                StringBuilder isbns = new StringBuilder();
-                oclcNumberSet.add(oclc);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = oclcAndBibIdMap.get(oclc);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    oclcNumbers.append(StringUtils.isNotBlank(oclcNumbers.toString()) ? "," : "").append(matchingBibEntity.getOclc());
-                    isbns.append(StringUtils.isNotBlank(isbns.toString()) ? "," : "").append(matchingBibEntity.getIsbn());
-                    String[] oclcList = oclcNumbers.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(oclcAndBibIdMap, oclcNumberSet, oclc, RecapConstants.MATCH_POINT_FIELD_OCLC, oclcList, bibEntityMap, oclcNumbers));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.OCLC_CRITERIA, RecapConstants.ISBN_CRITERIA, oclcNumbers.toString(), isbns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
-        }
-
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
+    public Map<String,Integer> populateReportsForMatchingBibClusters(Integer batchSize) throws InterruptedException {
+        MatchingBibClusters matchingBibClusters = loadMatchingBibClusters(batchSize);
+        getLogger().info("Total matching bibs : {} ", matchingBibClusters.size());
+
+        Map<String, Integer> countsMap = new HashMap<>();
+        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, 0);
+        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, 0);
+        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, 0);
+        QueueCompletionTracker.Run updateMatchingBibsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:updateMatchingBibEntityQ");
+        matchingBibClusters.forEachCluster(matchingBibCluster -> addMatchingCounts(countsMap, saveReportsForCluster(matchingBibCluster, updateMatchingBibsRun)));
+        getQueueCompletionTracker().awaitCompletion(updateMatchingBibsRun);
+
+        addMatchingCounts(countsMap, populateReportsForPendingMatches(batchSize));
         return countsMap;
     }
 
     /**
-     * This method is used to populate reports for oclc and issn combination.
+     * This method loads all the matching bibs, ordered by bib id so that the rows of a bib are added together.
      *
      * @param batchSize the batch size
-     * @return the map
-     */
-    public Map<String,Integer> populateReportsForOCLCAndISSN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForOCLCAndISSN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForOclcAndIssn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForOCLCAndISSN, batchSize);
-        Map<String, Set<Integer>> oclcAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        logger.info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, RecapConstants.MATCH_POINT_FIELD_ISSN);
-            if(org.apache.commons.collections.CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(oclcAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, bibEntityMap);
-            }
-        }
-
-        Set<String> oclcNumberSet = new HashSet<>();
-        for (Iterator<String> iterator = oclcAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String oclc = iterator.next();
-            if(!oclcNumberSet.contains(oclc)) {
-                StringBuilder oclcNumbers  = new StringBuilder();
-                StringBuilder issns = new StringBuilder();
-                oclcNumberSet.add(oclc);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = oclcAndBibIdMap.get(oclc);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    oclcNumbers.append(StringUtils.isNotBlank(oclcNumbers.toString()) ? "," : "").append(matchingBibEntity.getOclc());
-                    issns.append(StringUtils.isNotBlank(issns.toString()) ? "," : "").append(matchingBibEntity.getIssn());
-                    String[] oclcList = oclcNumbers.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(oclcAndBibIdMap, oclcNumberSet, oclc, RecapConstants.MATCH_POINT_FIELD_OCLC, oclcList, bibEntityMap, oclcNumbers));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.OCLC_CRITERIA, RecapConstants.ISSN_CRITERIA, oclcNumbers.toString(), issns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
-        }
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
-    }
-
-    /**
-     * This method is used to populate reports for oclc and lccn combination.
-     *
-     * @param batchSize the batch size
-     * @return the map
-     */
-    public Map<String,Integer> populateReportsForOCLCAndLCCN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForOCLCAndLCCN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForOclcAndLccn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForOCLCAndLCCN, batchSize);
-        Map<String, Set<Integer>> oclcAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        logger.info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, RecapConstants.MATCH_POINT_FIELD_LCCN);
-            if(CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(oclcAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_OCLC, bibEntityMap);
-            }
-        }
-
-        Set<String> oclcNumberSet = new HashSet<>();
-        for (Iterator<String> iterator = oclcAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String oclc = iterator.next();
-            if(!oclcNumberSet.contains(oclc)) {
-                StringBuilder oclcNumbers  = new StringBuilder();
-                StringBuilder lccns = new StringBuilder();
-                oclcNumberSet.add(oclc);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = oclcAndBibIdMap.get(oclc);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    oclcNumbers.append(StringUtils.isNotBlank(oclcNumbers.toString()) ? "," : "").append(matchingBibEntity.getOclc());
-                    lccns.append(StringUtils.isNotBlank(lccns.toString()) ? "," : "").append(matchingBibEntity.getLccn());
-                    String[] oclcList = oclcNumbers.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(oclcAndBibIdMap, oclcNumberSet, oclc, RecapConstants.MATCH_POINT_FIELD_OCLC, oclcList, bibEntityMap, oclcNumbers));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.OCLC_CRITERIA, RecapConstants.LCCN_CRITERIA, oclcNumbers.toString(), lccns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
-        }
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
-    }
-
-    /**
-     * This method is used to populate reports for isbn and issn combination.
-     *
-     * @param batchSize the batch size
-     * @return the map
+     * @return the matching bib clusters
      */
-    public Map<String,Integer> populateReportsForISBNAndISSN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForISBNAndISSN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForIsbnAndIssn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForISBNAndISSN, batchSize);
-        Map<String, Set<Integer>> isbnAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        logger.info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_ISBN, RecapConstants.MATCH_POINT_FIELD_ISSN);
-            if(CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(isbnAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_ISBN, bibEntityMap);
-            }
-        }
-
-        Set<String> isbnSet = new HashSet<>();
-        for (Iterator<String> iterator = isbnAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String isbn = iterator.next();
-            if(!isbnSet.contains(isbn)) {
-                StringBuilder isbns  = new StringBuilder();
-                StringBuilder issns = new StringBuilder();
-                isbnSet.add(isbn);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = isbnAndBibIdMap.get(isbn);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    isbns.append(StringUtils.isNotBlank(isbns.toString()) ? "," : "").append(matchingBibEntity.getIsbn());
-                    issns.append(StringUtils.isNotBlank(issns.toString()) ? "," : "").append(matchingBibEntity.getIssn());
-                    String[] isbnList = isbns.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(isbnAndBibIdMap, isbnSet, isbn, RecapConstants.MATCH_POINT_FIELD_ISBN, isbnList, bibEntityMap, isbns));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.ISBN_CRITERIA, RecapConstants.ISSN_CRITERIA, isbns.toString(), issns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
+    public MatchingBibClusters loadMatchingBibClusters(Integer batchSize) {
+        MatchingBibClusters matchingBibClusters = new MatchingBibClusters();
+        Sort sort = new Sort(Sort.Direction.ASC, "bibId", "id");
+        Page<MatchingBibEntity> matchingBibEntities = getMatchingBibDetailsRepository().findAll(new PageRequest(0, batchSize, sort));
+        int totalPages = matchingBibEntities.getTotalPages();
+        matchingBibEntities.getContent().forEach(matchingBibClusters::add);
+        for(int pageNum = 1; pageNum < totalPages; pageNum++) {
+            matchingBibEntities = getMatchingBibDetailsRepository().findAll(new PageRequest(pageNum, batchSize, sort));
+            matchingBibEntities.getContent().forEach(matchingBibClusters::add);
         }
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
+        return matchingBibClusters;
     }
 
-    /**
-     * This method is used to populate reports for isbn and lccn combination.
-     *
-     * @param batchSize the batch size
-     * @return the map
-     */
-    public Map<String,Integer> populateReportsForISBNAndLCCN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForISBNAndLCCN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForIsbnAndLccn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForISBNAndLCCN, batchSize);
-        Map<String, Set<Integer>> isbnAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        logger.info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_ISBN, RecapConstants.MATCH_POINT_FIELD_LCCN);
-            if(CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(isbnAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_ISBN, bibEntityMap);
-            }
-        }
-
-        Set<String> isbnSet = new HashSet<>();
-        for (Iterator<String> iterator = isbnAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String isbn = iterator.next();
-            if(!isbnSet.contains(isbn)) {
-                StringBuilder isbns  = new StringBuilder();
-                StringBuilder lccns = new StringBuilder();
-                isbnSet.add(isbn);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = isbnAndBibIdMap.get(isbn);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    isbns.append(StringUtils.isNotBlank(isbns.toString()) ? "," : "").append(matchingBibEntity.getIsbn());
-                    lccns.append(StringUtils.isNotBlank(lccns.toString()) ? "," : "").append(matchingBibEntity.getLccn());
-                    String[] isbnList = isbns.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(isbnAndBibIdMap, isbnSet, isbn, RecapConstants.MATCH_POINT_FIELD_ISBN, isbnList, bibEntityMap, isbns));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.ISBN_CRITERIA, RecapConstants.LCCN_CRITERIA, isbns.toString(), lccns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
+    private Map<String, Integer> saveReportsForCluster(MatchingBibClusters.MatchingBibCluster matchingBibCluster, QueueCompletionTracker.Run updateMatchingBibsRun) {
+        List<String> matchPoints = matchingBibCluster.getMatchPoints();
+        if (matchingBibCluster.isMultiMatch()) {
+            return getMatchingAlgorithmUtil().populateAndSaveReportEntity(matchingBibCluster.getMatchingBibEntities(),
+                    getCriteria(matchPoints.get(0)), getCriteria(matchPoints.get(1)), matchingBibCluster.getMatchPointValues(0), matchingBibCluster.getMatchPointValues(1),
+                    updateMatchingBibsRun);
         }
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
+        return getMatchingAlgorithmUtil().saveReportForSingleMatch(matchingBibCluster.getMatchPointValues(0), matchingBibCluster.getMatchingBibEntities(),
+                matchPoints.get(0), false, updateMatchingBibsRun);
     }
 
-    /**
-     * This method is used to populate reports for issn and lccn combination.
-     *
-     * @param batchSize the batch size
-     * @return the map
-     */
-    public Map<String,Integer> populateReportsForISSNAndLCCN(Integer batchSize) {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        List<Integer> multiMatchBibIdsForISSNAndLCCN = getMatchingBibDetailsRepository().getMultiMatchBibIdsForIssnAndLccn();
-        List<List<Integer>> multipleMatchBibIds = Lists.partition(multiMatchBibIdsForISSNAndLCCN, batchSize);
-        Map<String, Set<Integer>> issnAndBibIdMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-
-        logger.info(RecapConstants.TOTAL_BIB_ID_PARTITION_LIST , multipleMatchBibIds.size());
-        for(List<Integer> bibIds : multipleMatchBibIds) {
-            List<MatchingBibEntity> bibEntitiesBasedOnBibIds = getMatchingBibDetailsRepository().getMultiMatchBibEntitiesBasedOnBibIds(bibIds, RecapConstants.MATCH_POINT_FIELD_ISSN, RecapConstants.MATCH_POINT_FIELD_LCCN);
-            if(CollectionUtils.isNotEmpty(bibEntitiesBasedOnBibIds)) {
-                getMatchingAlgorithmUtil().populateBibIdWithMatchingCriteriaValue(issnAndBibIdMap, bibEntitiesBasedOnBibIds, RecapConstants.MATCH_POINT_FIELD_ISSN, bibEntityMap);
-            }
-        }
-
-        Set<String> issnSet = new HashSet<>();
-        for (Iterator<String> iterator = issnAndBibIdMap.keySet().iterator(); iterator.hasNext(); ) {
-            String issn = iterator.next();
-            if(!issnSet.contains(issn)) {
-                StringBuilder issns  = new StringBuilder();
-                StringBuilder lccns = new StringBuilder();
-                issnSet.add(issn);
-                Set<Integer> tempBibIds = new HashSet<>();
-                Set<Integer> bibIds = issnAndBibIdMap.get(issn);
-                tempBibIds.addAll(bibIds);
-                for(Integer bibId : bibIds) {
-                    MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                    issns.append(StringUtils.isNotBlank(issns.toString()) ? "," : "").append(matchingBibEntity.getIssn());
-                    lccns.append(StringUtils.isNotBlank(lccns.toString()) ? "," : "").append(matchingBibEntity.getLccn());
-                    String[] issnList = issns.toString().split(",");
-                    tempBibIds.addAll(getMatchingAlgorithmUtil().getBibIdsForCriteriaValue(issnAndBibIdMap, issnSet, issn, RecapConstants.MATCH_POINT_FIELD_ISSN, issnList, bibEntityMap, issns));
-                }
-                Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().populateAndSaveReportEntity(tempBibIds, bibEntityMap, RecapConstants.ISSN_CRITERIA, RecapConstants.LCCN_CRITERIA, issns.toString(), lccns.toString());
-                pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-                culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-                nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-            }
-        }
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
+    private String getCriteria(String matchPoint) {
+        return RecapConstants.MATCH_POINT_FIELD_OCLC.equals(matchPoint) ? RecapConstants.OCLC_CRITERIA : matchPoint;
     }
 
-    /**
-     * This method is used to populate reports for single match.
-     *
-     * @param batchSize the batch size
-     * @return the map
-     */
-    public Map<String,Integer> populateReportsForSingleMatch(Integer batchSize) throws InterruptedException {
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        Map<String, Integer> matchingCountsMap = getMatchingAlgorithmUtil().getSingleMatchBibsAndSaveReport(batchSize, RecapConstants.MATCH_POINT_FIELD_OCLC);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        matchingCountsMap = getMatchingAlgorithmUtil().getSingleMatchBibsAndSaveReport(batchSize, RecapConstants.MATCH_POINT_FIELD_ISBN);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        matchingCountsMap = getMatchingAlgorithmUtil().getSingleMatchBibsAndSaveReport(batchSize, RecapConstants.MATCH_POINT_FIELD_ISSN);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-        matchingCountsMap = getMatchingAlgorithmUtil().getSingleMatchBibsAndSaveReport(batchSize, RecapConstants.MATCH_POINT_FIELD_LCCN);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-
-        Integer saveMatchingBibsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateMatchingBibEntityQ");
-        if(saveMatchingBibsQ != null) {
-            while (saveMatchingBibsQ != 0) {
-                Thread.sleep(10000);
-                saveMatchingBibsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateMatchingBibEntityQ");
-            }
-        }
-
-        matchingCountsMap = populateReportsForPendingMatches(batchSize);
-        pulMatchingCount = pulMatchingCount + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT);
-        culMatchingCount = culMatchingCount + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT);
-        nyplMatchingCount = nyplMatchingCount + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT);
-
-        Map countsMap = new HashMap();
-        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, pulMatchingCount);
-        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, culMatchingCount);
-        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, nyplMatchingCount);
-        return countsMap;
+    private void addMatchingCounts(Map<String, Integer> countsMap, Map<String, Integer> matchingCountsMap) {
+        countsMap.put(RecapConstants.PUL_MATCHING_COUNT, countsMap.get(RecapConstants.PUL_MATCHING_COUNT) + matchingCountsMap.get(RecapConstants.PUL_MATCHING_COUNT));
+        countsMap.put(RecapConstants.CUL_MATCHING_COUNT, countsMap.get(RecapConstants.CUL_MATCHING_COUNT) + matchingCountsMap.get(RecapConstants.CUL_MATCHING_COUNT));
+        countsMap.put(RecapConstants.NYPL_MATCHING_COUNT, countsMap.get(RecapConstants.NYPL_MATCHING_COUNT) + matchingCountsMap.get(RecapConstants.NYPL_MATCHING_COUNT));
     }
 
     /**
@@ -628,25 +321,26 @@ public class MatchingAlgorithmHelperService {
     }
 
     /**
-     * This method is used to fetch and save matching bibs.
+     * This method is used to fetch and save matching bibs. The callables of the run share one set of the bib ids saved, so a bib found by
+     * several pages of the match criteria is saved once, and the next run starts from an empty set.
      *
-     * @param matchCriteria the match criteria
+     * @param matchCriteria       the match criteria
+     * @param saveMatchingBibsRun the run the matching bibs are sent through
      * @return the integer
      * @throws SolrServerException the solr server exception
      * @throws IOException         the io exception
      */
-    public Integer fetchAndSaveMatchingBibs(String matchCriteria) throws SolrServerException, IOException {
+    public Integer fetchAndSaveMatchingBibs(String matchCriteria, QueueCompletionTracker.Run saveMatchingBibsRun) throws SolrServerException, IOException {
         long batchSize = 300;
         Integer size = 0;
         long countBasedOnCriteria = getMatchingMatchPointsDetailsRepository().countBasedOnCriteria(matchCriteria);
-        SaveMatchingBibsCallable saveMatchingBibsCallable = new SaveMatchingBibsCallable();
-        saveMatchingBibsCallable.setBibIdList(new HashSet<>());
+        ConcurrentIntBitSet matchingBibIds = new ConcurrentIntBitSet();
         int totalPagesCount = (int) (countBasedOnCriteria / batchSize);
         ExecutorService executor = getExecutorService(50);
         List<Callable<Integer>> callables = new ArrayList<>();
         for (int pageNum = 0; pageNum < totalPagesCount + 1; pageNum++) {
             Callable callable = new SaveMatchingBibsCallable(getMatchingMatchPointsDetailsRepository(), matchCriteria, getSolrTemplate(),
-                    getProducerTemplate(), getSolrQueryBuilder(), batchSize, pageNum, getMatchingAlgorithmUtil());
+                    getProducerTemplate(), getSolrQueryBuilder(), batchSize, pageNum, getMatchingAlgorithmUtil(), matchingBibIds, saveMatchingBibsRun);
             callables.add(callable);
         }
 
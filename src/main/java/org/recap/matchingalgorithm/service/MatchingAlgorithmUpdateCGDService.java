@@ -12,7 +12,7 @@ import org.recap.executors.MatchingAlgorithmSerialsCGDCallable;
 import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.*;
 import org.recap.repository.jpa.*;
-import org.recap.service.ActiveMqQueuesInfo;
+import org.recap.service.QueueCompletionTracker;
 import org.recap.util.MatchingAlgorithmUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +57,7 @@ public class MatchingAlgorithmUpdateCGDService {
     private ItemDetailsRepository itemDetailsRepository;
 
     @Autowired
-    private ActiveMqQueuesInfo activeMqQueuesInfo;
+    private QueueCompletionTracker queueCompletionTracker;
 
     /**
      * Gets report data details repository.
@@ -100,8 +100,13 @@ public class MatchingAlgorithmUpdateCGDService {
         return logger;
     }
 
-    public ActiveMqQueuesInfo getActiveMqQueuesInfo() {
-        return activeMqQueuesInfo;
+    /**
+     * Gets queue completion tracker.
+     *
+     * @return the queue completion tracker
+     */
+    public QueueCompletionTracker getQueueCompletionTracker() {
+        return queueCompletionTracker;
     }
 
     private ExecutorService executorService;
@@ -118,38 +123,32 @@ public class MatchingAlgorithmUpdateCGDService {
     public void updateCGDProcessForMonographs(Integer batchSize) throws IOException, SolrServerException, InterruptedException {
         getLogger().info("Start CGD Process For Monographs.");
 
-        getMatchingAlgorithmUtil().populateMatchingCounter();
+        MatchingCounter matchingCounter = getMatchingAlgorithmUtil().populateMatchingCounter();
         ExecutorService executor = getExecutorService(50);
 
-        processCallablesForMonographs(batchSize, executor, false);
-
-        Integer updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
+        QueueCompletionTracker.Run updateItemsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ");
+        processCallablesForMonographs(batchSize, executor, false, matchingCounter, updateItemsRun);
+        getQueueCompletionTracker().awaitCompletion(updateItemsRun);
 
-        if(updateItemsQ != null) {
-            while (updateItemsQ != 0) {
-                Thread.sleep(10000);
-                updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-            }
-        }
+        QueueCompletionTracker.Run pendingUpdateItemsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ");
+        processCallablesForMonographs(batchSize, executor, true, matchingCounter, pendingUpdateItemsRun);
 
-        processCallablesForMonographs(batchSize, executor, true);
+        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_MONOGRAPH, matchingCounter);
 
-        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_MONOGRAPH);
+        logFinalCounterValues(matchingCounter);
 
-        logger.info("PUL Final Counter Value:{} " , MatchingCounter.getPulSharedCount());
-        logger.info("CUL Final Counter Value: {}" , MatchingCounter.getCulSharedCount());
-        logger.info("NYPL Final Counter Value: {}" , MatchingCounter.getNyplSharedCount());
+        getQueueCompletionTracker().awaitCompletion(pendingUpdateItemsRun);
+        executor.shutdown();
+    }
 
-        if(updateItemsQ != null){
-            while (updateItemsQ != 0) {
-                Thread.sleep(10000);
-                updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-            }
+    private void logFinalCounterValues(MatchingCounter matchingCounter) {
+        for (Map.Entry<String, Long> sharedCount : matchingCounter.snapshot(MatchingCounter.Kind.SHARED).entrySet()) {
+            logger.info("{} Final Counter Value: {}", sharedCount.getKey(), sharedCount.getValue());
         }
-        executor.shutdown();
     }
 
-    private void processCallablesForMonographs(Integer batchSize, ExecutorService executor, boolean isPendingMatch) {
+    private void processCallablesForMonographs(Integer batchSize, ExecutorService executor, boolean isPendingMatch, MatchingCounter matchingCounter,
+                                               QueueCompletionTracker.Run updateItemsRun) {
         List<Callable<Integer>> callables = new ArrayList<>();
         long countOfRecordNum;
         if(isPendingMatch) {
@@ -162,7 +161,7 @@ public class MatchingAlgorithmUpdateCGDService {
         logger.info("Total Pages : {}" , totalPagesCount);
         for(int pageNum = 0; pageNum < totalPagesCount + 1; pageNum++) {
             Callable callable = new MatchingAlgorithmMonographCGDCallable(getReportDataDetailsRepository(), getBibliographicDetailsRepository(), pageNum, batchSize, getProducerTemplate(),
-                    getCollectionGroupMap(), getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository(),isPendingMatch);
+                    getCollectionGroupMap(), getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository(),isPendingMatch, matchingCounter, updateItemsRun);
             callables.add(callable);
         }
         Map<String, List<Integer>> unProcessedRecordNumberMap = executeCallables(executor, callables);
@@ -185,9 +184,10 @@ public class MatchingAlgorithmUpdateCGDService {
     public void updateCGDProcessForSerials(Integer batchSize) throws IOException, SolrServerException, InterruptedException {
         logger.info("Start CGD Process For Serials.");
 
-        getMatchingAlgorithmUtil().populateMatchingCounter();
+        MatchingCounter matchingCounter = getMatchingAlgorithmUtil().populateMatchingCounter();
 
         ExecutorService executor = getExecutorService(50);
+        QueueCompletionTracker.Run updateItemsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ");
         List<Callable<Integer>> callables = new ArrayList<>();
         long countOfRecordNum = getReportDataDetailsRepository().getCountOfRecordNumForMatchingSerials(RecapConstants.BIB_ID);
         logger.info("Total Records : {}", countOfRecordNum);
@@ -195,24 +195,16 @@ public class MatchingAlgorithmUpdateCGDService {
         logger.info("Total Pages : {}" , totalPagesCount);
         for(int pageNum=0; pageNum < totalPagesCount + 1; pageNum++) {
             Callable callable = new MatchingAlgorithmSerialsCGDCallable(getReportDataDetailsRepository(), getBibliographicDetailsRepository(), pageNum, batchSize, getProducerTemplate(), getCollectionGroupMap(),
-                    getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository());
+                    getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository(), matchingCounter, updateItemsRun);
             callables.add(callable);
         }
         getFutures(executor, callables);
 
-        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_SERIAL);
+        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_SERIAL, matchingCounter);
 
-        logger.info("PUL Final Counter Value:{} " , MatchingCounter.getPulSharedCount());
-        logger.info("CUL Final Counter Value: {}" , MatchingCounter.getCulSharedCount());
-        logger.info("NYPL Final Counter Value: {}" , MatchingCounter.getNyplSharedCount());
+        logFinalCounterValues(matchingCounter);
 
-        Integer updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-        if(updateItemsQ != null){
-            while (updateItemsQ != 0) {
-                Thread.sleep(10000);
-                updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-            }
-        }
+        getQueueCompletionTracker().awaitCompletion(updateItemsRun);
 
         executor.shutdown();
     }
@@ -227,9 +219,10 @@ public class MatchingAlgorithmUpdateCGDService {
     public void updateCGDProcessForMVMs(Integer batchSize) throws IOException, SolrServerException, InterruptedException {
         logger.info("Start CGD Process For MVMs.");
 
-        getMatchingAlgorithmUtil().populateMatchingCounter();
+        MatchingCounter matchingCounter = getMatchingAlgorithmUtil().populateMatchingCounter();
 
         ExecutorService executor = getExecutorService(50);
+        QueueCompletionTracker.Run updateItemsRun = getQueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ");
         List<Callable<Integer>> callables = new ArrayList<>();
         long countOfRecordNum = getReportDataDetailsRepository().getCountOfRecordNumForMatchingMVMs(RecapConstants.BIB_ID);
         logger.info("Total Records : {}", countOfRecordNum);
@@ -237,25 +230,16 @@ public class MatchingAlgorithmUpdateCGDService {
         logger.info("Total Pages : {}" , totalPagesCount);
         for(int pageNum=0; pageNum < totalPagesCount + 1; pageNum++) {
             Callable callable = new MatchingAlgorithmMVMsCGDCallable(getReportDataDetailsRepository(), getBibliographicDetailsRepository(), pageNum, batchSize, getProducerTemplate(), getCollectionGroupMap(),
-                    getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository());
+                    getInstitutionEntityMap(), getItemChangeLogDetailsRepository(), getCollectionGroupDetailsRepository(), getItemDetailsRepository(), matchingCounter, updateItemsRun);
             callables.add(callable);
         }
         getFutures(executor, callables);
 
-        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_MVM);
+        getMatchingAlgorithmUtil().saveCGDUpdatedSummaryReport(RecapConstants.MATCHING_SUMMARY_MVM, matchingCounter);
 
-        logger.info("PUL Final Counter Value:{} " , MatchingCounter.getPulSharedCount());
-        logger.info("CUL Final Counter Value: {}" , MatchingCounter.getCulSharedCount());
-        logger.info("NYPL Final Counter Value: {}" , MatchingCounter.getNyplSharedCount());
+        logFinalCounterValues(matchingCounter);
 
-        Integer updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-
-        if(updateItemsQ != null) {
-            while (updateItemsQ != 0) {
-                Thread.sleep(10000);
-                updateItemsQ = getActiveMqQueuesInfo().getActivemqQueuesInfo("updateItemsQ");
-            }
-        }
+        getQueueCompletionTracker().awaitCompletion(updateItemsRun);
 
         executor.shutdown();
     }
@@ -320,11 +304,13 @@ public class MatchingAlgorithmUpdateCGDService {
     }
 
     /**
-     * This method gets items count for serials matching.
+     * This method gets items count for serials matching, counting the shared items of the serials as items kept shared.
      *
      * @param batchSize the batch size
+     * @return the matching counter of the count
      */
-    public void getItemsCountForSerialsMatching(Integer batchSize) {
+    public MatchingCounter getItemsCountForSerialsMatching(Integer batchSize) {
+        MatchingCounter matchingCounter = getMatchingAlgorithmUtil().getMatchingCounter();
         long countOfRecordNum = getReportDataDetailsRepository().getCountOfRecordNumForMatchingSerials(RecapConstants.BIB_ID);
         logger.info("Total Records : {}", countOfRecordNum);
         int totalPagesCount = (int) (countOfRecordNum / batchSize);
@@ -334,12 +320,13 @@ public class MatchingAlgorithmUpdateCGDService {
             List<ReportDataEntity> reportDataEntities =  getReportDataDetailsRepository().getReportDataEntityForMatchingSerials(RecapConstants.BIB_ID, from, batchSize);
             List<List<ReportDataEntity>> reportDataEntityList = Lists.partition(reportDataEntities, 1000);
             for(List<ReportDataEntity> dataEntityList : reportDataEntityList) {
-                updateMatchingCounter(pageNum, dataEntityList);
+                updateMatchingCounter(pageNum, dataEntityList, matchingCounter);
             }
         }
+        return matchingCounter;
     }
 
-    private void updateMatchingCounter(int pageNum, List<ReportDataEntity> dataEntityList) {
+    private void updateMatchingCounter(int pageNum, List<ReportDataEntity> dataEntityList, MatchingCounter matchingCounter) {
         List<Integer> bibIds = new ArrayList<>();
         for(ReportDataEntity reportDataEntity : dataEntityList) {
             List<String> bibIdList = Arrays.asList(reportDataEntity.getHeaderValue().split(","));
@@ -350,7 +337,7 @@ public class MatchingAlgorithmUpdateCGDService {
         for(BibliographicEntity bibliographicEntity : bibliographicEntities) {
             for(ItemEntity itemEntity : bibliographicEntity.getItemEntities()) {
                 if(itemEntity.getCollectionGroupId().equals(getCollectionGroupMap().get(RecapConstants.SHARED_CGD))) {
-                    MatchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), false);
+                    matchingCounter.updateCounter(itemEntity.getOwningInstitutionId(), false);
                 }
             }
         }
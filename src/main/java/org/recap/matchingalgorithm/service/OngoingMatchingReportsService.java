@@ -24,6 +24,7 @@ import org.recap.util.CsvUtil;
 import org.recap.util.DateUtil;
 import org.recap.util.OngoingMatchingAlgorithmReportGenerator;
 import org.recap.util.SolrQueryBuilder;
+import org.recap.util.SolrResultIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -230,18 +231,9 @@ public class OngoingMatchingReportsService {
                 RecapConstants.IS_DELETED_ITEM, RecapConstants.ITEM_CATALOGING_STATUS};
         solrQueryForChildDocuments.setFields(fieldNameList);
         solrQueryForChildDocuments.setSort(RecapConstants.DOCTYPE, SolrQuery.ORDER.asc);
-        QueryResponse queryResponse = null;
+        Map<Integer, String> holdingsMap = new HashMap<>();
         try {
-            queryResponse = getSolrTemplate().getSolrClient().query(solrQueryForChildDocuments);
-            SolrDocumentList solrDocuments = queryResponse.getResults();
-            if (solrDocuments.getNumFound() > 10) {
-                solrQueryForChildDocuments.setRows((int) solrDocuments.getNumFound());
-                queryResponse = getSolrTemplate().getSolrClient().query(solrQueryForChildDocuments);
-                solrDocuments = queryResponse.getResults();
-            }
-            Map<Integer, String> holdingsMap = new HashMap<>();
-            for (Iterator<SolrDocument> iterator = solrDocuments.iterator(); iterator.hasNext(); ) {
-                SolrDocument solrChildDocument =  iterator.next();
+            SolrResultIterator.forEachDocument(getSolrTemplate().getSolrClient(), solrQueryForChildDocuments, solrChildDocument -> {
                 String docType = (String) solrChildDocument.getFieldValue(RecapConstants.DOCTYPE);
                 if(docType.equalsIgnoreCase(RecapConstants.HOLDINGS)) {
                     holdingsMap.put((Integer) solrChildDocument.getFieldValue(RecapConstants.HOLDING_ID),
@@ -265,7 +257,7 @@ public class OngoingMatchingReportsService {
                         matchingSerialAndMVMReportsList.add(matchingSerialAndMVMReports);
                     }
                 }
-            }
+            });
         }catch (Exception e) {
             getLogger().error("Exception : {}", e);
         }
@@ -275,9 +267,10 @@ public class OngoingMatchingReportsService {
     /**
      * Populate summary report list.
      *
+     * @param matchingCounter the matching counter of the run, holding the counts before matching
      * @return the list
      */
-    public List<MatchingSummaryReport> populateSummaryReport() {
+    public List<MatchingSummaryReport> populateSummaryReport(MatchingCounter matchingCounter) {
         List<MatchingSummaryReport> matchingSummaryReports = new ArrayList<>();
         Iterable<InstitutionEntity> institutionEntities = getInstitutionDetailsRepository().findByInstitutionCodeNotIn(Arrays.asList("HTC"));
         for (Iterator<InstitutionEntity> iterator = institutionEntities.iterator(); iterator.hasNext(); ) {
@@ -285,16 +278,8 @@ public class OngoingMatchingReportsService {
             String institutionCode = institutionEntity.getInstitutionCode();
             MatchingSummaryReport matchingSummaryReport = new MatchingSummaryReport();
             matchingSummaryReport.setInstitution(institutionCode);
-            if(institutionCode.equalsIgnoreCase(RecapConstants.PRINCETON)) {
-                matchingSummaryReport.setOpenItemsBeforeMatching(String.valueOf(MatchingCounter.getPulOpenCount()));
-                matchingSummaryReport.setSharedItemsBeforeMatching(String.valueOf(MatchingCounter.getPulSharedCount()));
-            } else if(institutionCode.equalsIgnoreCase(RecapConstants.COLUMBIA)) {
-                matchingSummaryReport.setSharedItemsBeforeMatching(String.valueOf(MatchingCounter.getCulSharedCount()));
-                matchingSummaryReport.setOpenItemsBeforeMatching(String.valueOf(MatchingCounter.getCulOpenCount()));
-            } else if(institutionCode.equalsIgnoreCase(RecapConstants.NYPL)) {
-                matchingSummaryReport.setOpenItemsBeforeMatching(String.valueOf(MatchingCounter.getNyplOpenCount()));
-                matchingSummaryReport.setSharedItemsBeforeMatching(String.valueOf(MatchingCounter.getNyplSharedCount()));
-            }
+            matchingSummaryReport.setOpenItemsBeforeMatching(String.valueOf(matchingCounter.get(institutionCode, MatchingCounter.Kind.OPEN)));
+            matchingSummaryReport.setSharedItemsBeforeMatching(String.valueOf(matchingCounter.get(institutionCode, MatchingCounter.Kind.SHARED)));
             matchingSummaryReports.add(matchingSummaryReport);
         }
         return matchingSummaryReports;
@@ -304,8 +289,9 @@ public class OngoingMatchingReportsService {
      * Generate summary report.
      *
      * @param matchingSummaryReports the matching summary reports
+     * @param matchingCounter        the matching counter of the run, holding the counts after matching
      */
-    public void generateSummaryReport(List<MatchingSummaryReport> matchingSummaryReports) {
+    public void generateSummaryReport(List<MatchingSummaryReport> matchingSummaryReports, MatchingCounter matchingCounter) {
         SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
         Integer bibCount = 0;
         Integer itemCount = 0;
@@ -325,18 +311,8 @@ public class OngoingMatchingReportsService {
             for(MatchingSummaryReport matchingSummaryReport : matchingSummaryReports) {
                 matchingSummaryReport.setTotalBibs(String.valueOf(bibCount));
                 matchingSummaryReport.setTotalItems(String.valueOf(itemCount));
-                String openItemsAfterMatching = "";
-                String sharedItemsAfterMatching = "";
-                if(matchingSummaryReport.getInstitution().equalsIgnoreCase(RecapConstants.PRINCETON)) {
-                    openItemsAfterMatching = String.valueOf(MatchingCounter.getPulOpenCount());
-                    sharedItemsAfterMatching = String.valueOf(MatchingCounter.getPulSharedCount());
-                } else if(matchingSummaryReport.getInstitution().equalsIgnoreCase(RecapConstants.COLUMBIA)) {
-                    openItemsAfterMatching = String.valueOf(MatchingCounter.getCulOpenCount());
-                    sharedItemsAfterMatching = String.valueOf(MatchingCounter.getCulSharedCount());
-                } else if(matchingSummaryReport.getInstitution().equalsIgnoreCase(RecapConstants.NYPL)) {
-                    openItemsAfterMatching = String.valueOf(MatchingCounter.getNyplOpenCount());
-                    sharedItemsAfterMatching = String.valueOf(MatchingCounter.getNyplSharedCount());
-                }
+                String openItemsAfterMatching = String.valueOf(matchingCounter.get(matchingSummaryReport.getInstitution(), MatchingCounter.Kind.OPEN));
+                String sharedItemsAfterMatching = String.valueOf(matchingCounter.get(matchingSummaryReport.getInstitution(), MatchingCounter.Kind.SHARED));
                 String openItemsDiff = String.valueOf(Integer.valueOf(openItemsAfterMatching) - Integer.valueOf(matchingSummaryReport.getOpenItemsBeforeMatching()));
                 String sharedItemsDiff = String.valueOf(Integer.valueOf(sharedItemsAfterMatching) - Integer.valueOf(matchingSummaryReport.getSharedItemsBeforeMatching()));
                 matchingSummaryReport.setOpenItemsDiff(openItemsDiff);
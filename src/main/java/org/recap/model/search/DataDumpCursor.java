@@ -0,0 +1,69 @@
+package org.recap.model.search;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the solr cursor marks of a data dump page. A data dump page can take more than one query, so the cursor mark handed to the caller
+ * joins the cursor marks of all the queries of the page, in the order the queries are run. Solr cursor marks never contain the separator.
+ */
+public class DataDumpCursor {
+
+    private static final String CURSOR_MARK_SEPARATOR = ",";
+
+    private final String[] cursorMarks;
+
+    private final boolean skipToPageNumber;
+
+    private final List<String> nextCursorMarks = new ArrayList<>();
+
+    /**
+     * Instantiates a new data dump cursor.
+     *
+     * @param cursorMark       the cursor mark of the page, or blank for a search without cursor mark
+     * @param skipToPageNumber whether a query without cursor mark starts from the page number of the request
+     */
+    public DataDumpCursor(String cursorMark, boolean skipToPageNumber) {
+        this.cursorMarks = StringUtils.isBlank(cursorMark) ? new String[0] : StringUtils.split(cursorMark, CURSOR_MARK_SEPARATOR);
+        this.skipToPageNumber = skipToPageNumber;
+    }
+
+    /**
+     * Gets the cursor mark of the next query of the page.
+     *
+     * @return the cursor mark, or null if the page has none for the query
+     */
+    public String nextQueryCursorMark() {
+        int queryIndex = nextCursorMarks.size();
+        return queryIndex < cursorMarks.length ? cursorMarks[queryIndex] : null;
+    }
+
+    /**
+     * Adds the cursor mark of the next page which solr returned for the query.
+     *
+     * @param nextCursorMark the next cursor mark
+     */
+    public void addNextCursorMark(String nextCursorMark) {
+        nextCursorMarks.add(nextCursorMark);
+    }
+
+    /**
+     * Gets the cursor mark of the next page, for all the queries of the page.
+     *
+     * @return the next cursor mark
+     */
+    public String getNextCursorMark() {
+        return nextCursorMarks.isEmpty() ? null : StringUtils.join(nextCursorMarks, CURSOR_MARK_SEPARATOR);
+    }
+
+    /**
+     * Is skip to page number boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isSkipToPageNumber() {
+        return skipToPageNumber;
+    }
+}
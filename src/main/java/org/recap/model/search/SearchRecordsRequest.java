@@ -86,6 +86,12 @@ public class SearchRecordsRequest implements Serializable {
 
     private boolean sortIncompleteRecords = false;
 
+    @ApiModelProperty(name= "cursorMark", value= "Cursor Mark Of The Page To Search, From The nextCursorMark Of The Previous Page",position = 23)
+    private String cursorMark;
+
+    @ApiModelProperty(name= "nextCursorMark", value= "Cursor Mark Of The Next Page",position = 24)
+    private String nextCursorMark;
+
 
     /**
      * Instantiates a new search records request.
@@ -551,6 +557,7 @@ public class SearchRecordsRequest implements Serializable {
         this.totalRecordsCount = String.valueOf(0);
         this.showTotalCount = false;
         this.errorMessage = null;
+        this.nextCursorMark = null;
     }
 
 
@@ -590,4 +597,40 @@ public class SearchRecordsRequest implements Serializable {
     public void setSortIncompleteRecords(boolean sortIncompleteRecords) {
         this.sortIncompleteRecords = sortIncompleteRecords;
     }
+
+    /**
+     * Gets the cursor mark of the page to search. A search with a cursor mark pages with a solr cursor instead of the page number.
+     *
+     * @return the cursor mark
+     */
+    public String getCursorMark() {
+        return cursorMark;
+    }
+
+    /**
+     * Sets the cursor mark of the page to search.
+     *
+     * @param cursorMark the cursor mark
+     */
+    public void setCursorMark(String cursorMark) {
+        this.cursorMark = cursorMark;
+    }
+
+    /**
+     * Gets the cursor mark of the page after the searched page.
+     *
+     * @return the next cursor mark
+     */
+    public String getNextCursorMark() {
+        return nextCursorMark;
+    }
+
+    /**
+     * Sets the cursor mark of the page after the searched page.
+     *
+     * @param nextCursorMark the next cursor mark
+     */
+    public void setNextCursorMark(String nextCursorMark) {
+        this.nextCursorMark = nextCursorMark;
+    }
 }
@@ -1,7 +1,9 @@
 package org.recap.model.search;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by rajeshbabuk on 2/1/17.
@@ -15,6 +17,7 @@ public class SearchRecordsResponse {
     private String totalRecordsCount = "0";
     private boolean showTotalCount;
     private String errorMessage;
+    private Map<String, Long> queryTimings = new LinkedHashMap<>();
 
     /**
      * Gets search result rows.
@@ -141,4 +144,22 @@ public class SearchRecordsResponse {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    /**
+     * Gets the time each solr query of the search took, in milliseconds, by query name.
+     *
+     * @return the query timings
+     */
+    public Map<String, Long> getQueryTimings() {
+        return queryTimings;
+    }
+
+    /**
+     * Sets the time each solr query of the search took, in milliseconds, by query name.
+     *
+     * @param queryTimings the query timings
+     */
+    public void setQueryTimings(Map<String, Long> queryTimings) {
+        this.queryTimings = queryTimings;
+    }
 }
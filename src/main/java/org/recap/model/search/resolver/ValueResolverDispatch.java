@@ -0,0 +1,92 @@
+package org.recap.model.search.resolver;
+
+import org.apache.solr.client.solrj.beans.DocumentObjectBinder;
+import org.apache.solr.client.solrj.beans.Field;
+import org.apache.solr.common.SolrDocument;
+import org.recap.model.solr.Bib;
+import org.recap.model.solr.BibItem;
+import org.recap.model.solr.Holdings;
+import org.recap.model.solr.Item;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Looks up the value resolvers of a solr field by its name instead of asking every resolver of the set whether it is interested in the field.
+ * The resolvers of every field name of the solr schema are found once, when the dispatch is built for a resolver set, and kept in an immutable map.
+ * A field name outside the schema is still resolved by asking every resolver, so a field always gets the same resolvers, in the same order,
+ * as the resolver loops gave it. A dispatch can be shared between threads.
+ *
+ * @param <R> the value resolver type
+ */
+public class ValueResolverDispatch<R extends ValueResolver> {
+
+    private static final Set<String> SOLR_FIELD_NAMES = getSolrFieldNames(Bib.class, BibItem.class, Holdings.class, Item.class);
+
+    private final List<R> valueResolvers;
+
+    private final Map<String, List<R>> valueResolversByFieldName;
+
+    /**
+     * Instantiates a new value resolver dispatch for the given resolvers.
+     *
+     * @param valueResolvers the value resolvers
+     */
+    public ValueResolverDispatch(List<R> valueResolvers) {
+        this.valueResolvers = Collections.unmodifiableList(new ArrayList<>(valueResolvers));
+        Map<String, List<R>> resolversByFieldName = new HashMap<>();
+        for (String fieldName : SOLR_FIELD_NAMES) {
+            resolversByFieldName.put(fieldName, findValueResolvers(fieldName));
+        }
+        this.valueResolversByFieldName = Collections.unmodifiableMap(resolversByFieldName);
+    }
+
+    /**
+     * Gets the value resolvers which are interested in the given field.
+     *
+     * @param fieldName the field name
+     * @return the value resolvers
+     */
+    public List<R> getValueResolvers(String fieldName) {
+        List<R> resolvers = valueResolversByFieldName.get(fieldName);
+        return resolvers != null ? resolvers : findValueResolvers(fieldName);
+    }
+
+    /**
+     * This method passes the value of every field of the solr document to the resolvers of the field.
+     *
+     * @param solrDocument the solr document
+     * @param valueSetter  sets a field value through a resolver
+     */
+    public void resolve(SolrDocument solrDocument, BiConsumer<R, Object> valueSetter) {
+        for (Map.Entry<String, Object> field : solrDocument) {
+            List<R> resolvers = getValueResolvers(field.getKey());
+            for (int i = 0; i < resolvers.size(); i++) {
+                valueSetter.accept(resolvers.get(i), field.getValue());
+            }
+        }
+    }
+
+    private List<R> findValueResolvers(String fieldName) {
+        List<R> resolvers = new ArrayList<>();
+        for (R valueResolver : valueResolvers) {
+            if (valueResolver.isInterested(fieldName)) {
+                resolvers.add(valueResolver);
+            }
+        }
+        return resolvers.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(resolvers);
+    }
+
+    private static Set<String> getSolrFieldNames(Class<?>... solrBeanClasses) {
+        Set<String> fieldNames = new HashSet<>(Arrays.asList("_root_", "_version_"));
+        for (Class<?> solrBeanClass : solrBeanClasses) {
+            for (java.lang.reflect.Field field : solrBeanClass.getDeclaredFields()) {
+                Field solrField = field.getAnnotation(Field.class);
+                if (solrField != null) {
+                    fieldNames.add(DocumentObjectBinder.DEFAULT.equals(solrField.value()) ? field.getName() : solrField.value());
+                }
+            }
+        }
+        return fieldNames;
+    }
+}
@@ -34,6 +34,9 @@ public class SolrIndexRequest {
     private String endRequestId;
     private String fromDate;
 
+    private boolean keysetPaging;
+    private Integer bibIdSplitStep;
+
 
     /**
      * Gets doc type.
@@ -466,4 +469,40 @@ public class SolrIndexRequest {
     public void setFromDate(String fromDate) {
         this.fromDate = fromDate;
     }
+
+    /**
+     * Is keyset paging boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
+
+    /**
+     * Sets keyset paging.
+     *
+     * @param keysetPaging the keyset paging
+     */
+    public void setKeysetPaging(boolean keysetPaging) {
+        this.keysetPaging = keysetPaging;
+    }
+
+    /**
+     * Gets bib id split step.
+     *
+     * @return the bib id split step
+     */
+    public Integer getBibIdSplitStep() {
+        return bibIdSplitStep;
+    }
+
+    /**
+     * Sets bib id split step.
+     *
+     * @param bibIdSplitStep the bib id split step
+     */
+    public void setBibIdSplitStep(Integer bibIdSplitStep) {
+        this.bibIdSplitStep = bibIdSplitStep;
+    }
 }
@@ -20,7 +20,7 @@ import java.util.List;
  * Created by pvsubrah on 6/10/16.
  */
 @RepositoryRestResource(collectionResourceRel = "bibliographic", path = "bibliographic")
-public interface BibliographicDetailsRepository extends JpaRepository<BibliographicEntity, BibliographicPK> {
+public interface BibliographicDetailsRepository extends JpaRepository<BibliographicEntity, BibliographicPK>, CustomBibliographicDetailsRepository {
 
     /**
      * Gets the count the number of bibs by using IsDeleted field which has false.
@@ -225,6 +225,19 @@ public interface BibliographicDetailsRepository extends JpaRepository<Bibliograp
             "WHERE ITEMS.itemId IN (SELECT recordId FROM ItemChangeLogEntity where operationType=?1 and updated_date between ?2 and ?3))")
     Page<BibliographicEntity> getBibliographicEntitiesForChangedItems(Pageable pageable, String operationType, Date from, Date to);
 
+    /**
+     * Gets bibliographic ids of the bibs for changed items based on the operation type and date.
+     *
+     * @param pageable      the pageable
+     * @param operationType the operation type
+     * @param from          the from date
+     * @param to            the to date
+     * @return the bibliographic ids for changed items
+     */
+    @Query(value = "SELECT DISTINCT BIB.bibliographicId FROM BibliographicEntity as BIB INNER JOIN BIB.itemEntities AS ITEMS " +
+            "WHERE ITEMS.itemId IN (SELECT recordId FROM ItemChangeLogEntity where operationType=?1 and updated_date between ?2 and ?3) ORDER BY BIB.bibliographicId")
+    List<Integer> getBibliographicIdsForChangedItems(Pageable pageable, String operationType, Date from, Date to);
+
     /**
      * Gets count of bibliographic entities for changed items based on the operation type and date.
      *
@@ -299,4 +312,26 @@ public interface BibliographicDetailsRepository extends JpaRepository<Bibliograp
     @Query(value = "SELECT BIB FROM BibliographicEntity as BIB WHERE BIB.lastUpdatedDate BETWEEN :lastUpdatedDateFrom and :lastUpdatedDateTo")
     Page<BibliographicEntity> getBibsBasedOnDateRange(Pageable pageable, @Param("lastUpdatedDateFrom") Date lastUpdatedDateFrom, @Param("lastUpdatedDateTo") Date lastUpdatedDateTo);
 
+    /**
+     * Gets the lowest bibliographic id for the given owning institution id and last updated date. Null parameters are not applied as filters.
+     *
+     * @param owningInstitutionId the owning institution id
+     * @param lastUpdatedDate     the last updated date
+     * @return the min bibliographic id
+     */
+    @Query(value = "SELECT MIN(BIB.bibliographicId) FROM BibliographicEntity as BIB WHERE (:owningInstitutionId IS NULL OR BIB.owningInstitutionId = :owningInstitutionId) " +
+            "AND (:lastUpdatedDate IS NULL OR BIB.lastUpdatedDate > :lastUpdatedDate)")
+    Integer getMinBibliographicId(@Param("owningInstitutionId") Integer owningInstitutionId, @Param("lastUpdatedDate") Date lastUpdatedDate);
+
+    /**
+     * Gets the highest bibliographic id for the given owning institution id and last updated date. Null parameters are not applied as filters.
+     *
+     * @param owningInstitutionId the owning institution id
+     * @param lastUpdatedDate     the last updated date
+     * @return the max bibliographic id
+     */
+    @Query(value = "SELECT MAX(BIB.bibliographicId) FROM BibliographicEntity as BIB WHERE (:owningInstitutionId IS NULL OR BIB.owningInstitutionId = :owningInstitutionId) " +
+            "AND (:lastUpdatedDate IS NULL OR BIB.lastUpdatedDate > :lastUpdatedDate)")
+    Integer getMaxBibliographicId(@Param("owningInstitutionId") Integer owningInstitutionId, @Param("lastUpdatedDate") Date lastUpdatedDate);
+
 }
\ No newline at end of file
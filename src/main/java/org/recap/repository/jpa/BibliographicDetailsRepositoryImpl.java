@@ -0,0 +1,108 @@
+package org.recap.repository.jpa;
+
+import com.google.common.collect.Lists;
+import org.hibernate.FlushMode;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.recap.model.jpa.BibliographicEntity;
+import org.springframework.data.util.CloseableIterator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Hibernate scroll based implementation of the streaming reads of bibliographic entity graphs.
+ */
+public class BibliographicDetailsRepositoryImpl implements CustomBibliographicDetailsRepository {
+
+    private static final String BIB_HOLDINGS_ITEM_QUERY = "SELECT BIB, HOLDINGS, ITEM FROM BibliographicEntity as BIB " +
+            "LEFT JOIN FETCH BIB.institutionEntity " +
+            "LEFT JOIN BIB.holdingsEntities as HOLDINGS LEFT JOIN FETCH HOLDINGS.institutionEntity " +
+            "LEFT JOIN HOLDINGS.itemEntities as ITEM LEFT JOIN FETCH ITEM.institutionEntity LEFT JOIN FETCH ITEM.itemStatusEntity LEFT JOIN FETCH ITEM.collectionGroupEntity ";
+
+    private static final String BIB_HOLDINGS_ITEM_ORDER_BY = " ORDER BY BIB.bibliographicId, HOLDINGS.holdingsId, ITEM.itemId";
+
+    private static final String ITEM_LINKS_QUERY = "SELECT ITEM.itemId, BIB.bibliographicId, HOLDINGS.holdingsId FROM BibliographicEntity as BIB " +
+            "JOIN BIB.itemEntities as ITEM LEFT JOIN ITEM.holdingsEntities as HOLDINGS WHERE ITEM.itemId IN (:itemIds)";
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public CloseableIterator<BibliographicEntity> streamBibsByBibIdRange(Integer fromBibId, Integer toBibId, Integer owningInstitutionId, Date lastUpdatedDate, int fetchSize) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Session session = getReadOnlySession(entityManager);
+        Query query = session.createQuery(BIB_HOLDINGS_ITEM_QUERY + "WHERE BIB.bibliographicId BETWEEN :fromBibId AND :toBibId " +
+                "AND (:owningInstitutionId IS NULL OR BIB.owningInstitutionId = :owningInstitutionId) " +
+                "AND (:lastUpdatedDate IS NULL OR BIB.lastUpdatedDate > :lastUpdatedDate)" + BIB_HOLDINGS_ITEM_ORDER_BY);
+        query.setParameter("fromBibId", fromBibId);
+        query.setParameter("toBibId", toBibId);
+        query.setParameter("owningInstitutionId", owningInstitutionId);
+        query.setParameter("lastUpdatedDate", lastUpdatedDate);
+        return scroll(entityManager, query, fetchSize);
+    }
+
+    @Override
+    public CloseableIterator<BibliographicEntity> streamBibsByBibIds(List<Integer> bibliographicIds, int fetchSize) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Session session = getReadOnlySession(entityManager);
+        Query query = session.createQuery(BIB_HOLDINGS_ITEM_QUERY + "WHERE BIB.bibliographicId IN (:bibliographicIds)" + BIB_HOLDINGS_ITEM_ORDER_BY);
+        query.setParameterList("bibliographicIds", bibliographicIds);
+        return scroll(entityManager, query, fetchSize);
+    }
+
+    /**
+     * This method gets a hibernate session which never flushes, so the assembled collections are never written back.
+     * @param entityManager
+     * @return
+     */
+    private Session getReadOnlySession(EntityManager entityManager) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+
+    /**
+     * This method opens a forward only cursor for the query.
+     * @param entityManager
+     * @param query
+     * @param fetchSize
+     * @return
+     */
+    private CloseableIterator<BibliographicEntity> scroll(EntityManager entityManager, Query query, int fetchSize) {
+        query.setReadOnly(true);
+        query.setFetchSize(fetchSize);
+        return new BibliographicEntityScrollIterator(entityManager, query.scroll(ScrollMode.FORWARD_ONLY), this::findItemLinks);
+    }
+
+    /**
+     * This method finds the bibs and holdings of the items, as rows of item id, bibliographic id and holdings id. It runs on an entity
+     * manager of its own, as the connection of the stream is held by its open cursor.
+     * @param itemIds
+     * @return
+     */
+    private List<Object[]> findItemLinks(Collection<Integer> itemIds) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Object[]> itemLinks = new ArrayList<>();
+            for (List<Integer> itemIdList : Lists.partition(new ArrayList<>(itemIds), BibliographicEntityScrollIterator.ITEM_CHUNK_SIZE)) {
+                Query query = getReadOnlySession(entityManager).createQuery(ITEM_LINKS_QUERY);
+                query.setReadOnly(true);
+                query.setParameterList("itemIds", itemIdList);
+                for (Object itemLink : query.list()) {
+                    itemLinks.add((Object[]) itemLink);
+                }
+            }
+            return itemLinks;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
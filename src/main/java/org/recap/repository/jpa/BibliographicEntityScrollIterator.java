@@ -0,0 +1,184 @@
+package org.recap.repository.jpa;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.recap.model.jpa.BibliographicEntity;
+import org.recap.model.jpa.HoldingsEntity;
+import org.recap.model.jpa.ItemEntity;
+import org.springframework.data.util.CloseableIterator;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Assembles bibliographic entities with their holdings and items from the rows of a forward only cursor. The bibs are read a chunk at a
+ * time, and the bibs and holdings of all the items of the chunk are loaded with one query, so no collection of the assembled entities is
+ * lazily loaded.
+ */
+class BibliographicEntityScrollIterator implements CloseableIterator<BibliographicEntity> {
+
+    static final int BIB_CHUNK_SIZE = 100;
+
+    static final int ITEM_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    private final ScrollableResults scrollableResults;
+
+    private final Function<Collection<Integer>, List<Object[]>> itemLinksLoader;
+
+    private final Deque<BibliographicEntity> bibliographicEntities = new ArrayDeque<>();
+
+    private Object[] pendingRow;
+
+    private boolean closed;
+
+    /**
+     * This method instantiates a new bibliographic entity scroll iterator over rows of bib, holdings and item ordered by bibliographic id.
+     *
+     * @param entityManager     the entity manager
+     * @param scrollableResults the scrollable results
+     * @param itemLinksLoader   loads the rows of item id, bibliographic id and holdings id of the given item ids
+     */
+    BibliographicEntityScrollIterator(EntityManager entityManager, ScrollableResults scrollableResults,
+                                      Function<Collection<Integer>, List<Object[]>> itemLinksLoader) {
+        this.entityManager = entityManager;
+        this.scrollableResults = scrollableResults;
+        this.itemLinksLoader = itemLinksLoader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (bibliographicEntities.isEmpty() && !closed) {
+            assembleNextChunk();
+            if (bibliographicEntities.isEmpty()) {
+                close();
+            }
+        }
+        return !bibliographicEntities.isEmpty();
+    }
+
+    @Override
+    public BibliographicEntity next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return bibliographicEntities.poll();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            scrollableResults.close();
+            entityManager.close();
+        }
+    }
+
+    /**
+     * This method assembles the next bibs, until the chunk has BIB_CHUNK_SIZE bibs or ITEM_CHUNK_SIZE items, and sets the bibs and holdings
+     * of every item of the chunk. A bib or holdings of an item which is not in the chunk, as for an item shared by bibs, is set as an entity
+     * holding only its id.
+     */
+    private void assembleNextChunk() {
+        Map<Integer, BibliographicEntity> bibliographicEntityMap = new HashMap<>();
+        Map<Integer, HoldingsEntity> holdingsEntityMap = new HashMap<>();
+        Map<Integer, ItemEntity> itemEntityMap = new LinkedHashMap<>();
+        BibliographicEntity bibliographicEntity;
+        while (bibliographicEntities.size() < BIB_CHUNK_SIZE && itemEntityMap.size() < ITEM_CHUNK_SIZE
+                && null != (bibliographicEntity = assembleNextBibliographicEntity())) {
+            bibliographicEntities.add(bibliographicEntity);
+            bibliographicEntityMap.put(bibliographicEntity.getBibliographicId(), bibliographicEntity);
+            for (HoldingsEntity holdingsEntity : bibliographicEntity.getHoldingsEntities()) {
+                holdingsEntityMap.put(holdingsEntity.getHoldingsId(), holdingsEntity);
+            }
+            for (ItemEntity itemEntity : bibliographicEntity.getItemEntities()) {
+                itemEntityMap.put(itemEntity.getItemId(), itemEntity);
+            }
+        }
+        if (itemEntityMap.isEmpty()) {
+            return;
+        }
+        Map<Integer, Map<Integer, BibliographicEntity>> itemBibliographicEntityMap = new HashMap<>();
+        Map<Integer, Map<Integer, HoldingsEntity>> itemHoldingsEntityMap = new HashMap<>();
+        for (Object[] itemLink : itemLinksLoader.apply(itemEntityMap.keySet())) {
+            Integer itemId = (Integer) itemLink[0];
+            Integer bibliographicId = (Integer) itemLink[1];
+            itemBibliographicEntityMap.computeIfAbsent(itemId, id -> new LinkedHashMap<>())
+                    .putIfAbsent(bibliographicId, bibliographicEntityMap.computeIfAbsent(bibliographicId, this::getBibliographicEntityOfId));
+            Integer holdingsId = (Integer) itemLink[2];
+            if (null != holdingsId) {
+                itemHoldingsEntityMap.computeIfAbsent(itemId, id -> new LinkedHashMap<>())
+                        .putIfAbsent(holdingsId, holdingsEntityMap.computeIfAbsent(holdingsId, this::getHoldingsEntityOfId));
+            }
+        }
+        for (ItemEntity itemEntity : itemEntityMap.values()) {
+            itemEntity.setBibliographicEntities(new ArrayList<>(itemBibliographicEntityMap.getOrDefault(itemEntity.getItemId(), Collections.emptyMap()).values()));
+            itemEntity.setHoldingsEntities(new ArrayList<>(itemHoldingsEntityMap.getOrDefault(itemEntity.getItemId(), Collections.emptyMap()).values()));
+        }
+    }
+
+    private BibliographicEntity getBibliographicEntityOfId(Integer bibliographicId) {
+        BibliographicEntity bibliographicEntity = new BibliographicEntity();
+        bibliographicEntity.setBibliographicId(bibliographicId);
+        return bibliographicEntity;
+    }
+
+    private HoldingsEntity getHoldingsEntityOfId(Integer holdingsId) {
+        HoldingsEntity holdingsEntity = new HoldingsEntity();
+        holdingsEntity.setHoldingsId(holdingsId);
+        return holdingsEntity;
+    }
+
+    /**
+     * This method reads the rows of the next bib, sets its holdings and items, and detaches it from the session,
+     * so the session does not grow with the cursor and the bib can be handed over to other threads.
+     * @return
+     */
+    private BibliographicEntity assembleNextBibliographicEntity() {
+        Object[] row = null != pendingRow ? pendingRow : nextRow();
+        pendingRow = null;
+        if (null == row) {
+            return null;
+        }
+        BibliographicEntity bibliographicEntity = (BibliographicEntity) row[0];
+        Map<Integer, HoldingsEntity> holdingsEntityMap = new LinkedHashMap<>();
+        Map<Integer, List<ItemEntity>> itemEntityMap = new HashMap<>();
+        Map<Integer, ItemEntity> bibItemEntityMap = new LinkedHashMap<>();
+        addRow(row, holdingsEntityMap, itemEntityMap, bibItemEntityMap);
+        while (null != (row = nextRow())) {
+            if (!bibliographicEntity.getBibliographicId().equals(((BibliographicEntity) row[0]).getBibliographicId())) {
+                pendingRow = row;
+                break;
+            }
+            addRow(row, holdingsEntityMap, itemEntityMap, bibItemEntityMap);
+        }
+        entityManager.unwrap(Session.class).clear();
+
+        for (HoldingsEntity holdingsEntity : holdingsEntityMap.values()) {
+            holdingsEntity.setItemEntities(itemEntityMap.get(holdingsEntity.getHoldingsId()));
+        }
+        bibliographicEntity.setHoldingsEntities(new ArrayList<>(holdingsEntityMap.values()));
+        bibliographicEntity.setItemEntities(new ArrayList<>(bibItemEntityMap.values()));
+        return bibliographicEntity;
+    }
+
+    private void addRow(Object[] row, Map<Integer, HoldingsEntity> holdingsEntityMap, Map<Integer, List<ItemEntity>> itemEntityMap,
+                        Map<Integer, ItemEntity> bibItemEntityMap) {
+        HoldingsEntity holdingsEntity = (HoldingsEntity) row[1];
+        if (null != holdingsEntity) {
+            holdingsEntityMap.putIfAbsent(holdingsEntity.getHoldingsId(), holdingsEntity);
+            List<ItemEntity> itemEntities = itemEntityMap.computeIfAbsent(holdingsEntity.getHoldingsId(), holdingsId -> new ArrayList<>());
+            ItemEntity itemEntity = (ItemEntity) row[2];
+            if (null != itemEntity) {
+                itemEntities.add(itemEntity);
+                bibItemEntityMap.putIfAbsent(itemEntity.getItemId(), itemEntity);
+            }
+        }
+    }
+
+    private Object[] nextRow() {
+        return scrollableResults.next() ? scrollableResults.get() : null;
+    }
+}
@@ -0,0 +1,37 @@
+package org.recap.repository.jpa;
+
+import org.recap.model.jpa.BibliographicEntity;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streaming reads of bibliographic entity graphs.
+ */
+public interface CustomBibliographicDetailsRepository {
+
+    /**
+     * This method streams the bibs of the given bibliographic id range with their holdings and items, ordered by bibliographic id.
+     * The bibs, holdings and items are read in one joined pass over a forward only cursor and each bib is assembled as its rows arrive.
+     * Null owning institution id and last updated date are not applied as filters. The returned iterator must be closed by the caller.
+     *
+     * @param fromBibId           the from bib id (inclusive)
+     * @param toBibId             the to bib id (inclusive)
+     * @param owningInstitutionId the owning institution id
+     * @param lastUpdatedDate     the last updated date
+     * @param fetchSize           the fetch size
+     * @return the closeable iterator
+     */
+    CloseableIterator<BibliographicEntity> streamBibsByBibIdRange(Integer fromBibId, Integer toBibId, Integer owningInstitutionId, Date lastUpdatedDate, int fetchSize);
+
+    /**
+     * This method streams the bibs of the given bibliographic ids with their holdings and items, ordered by bibliographic id.
+     * The returned iterator must be closed by the caller.
+     *
+     * @param bibliographicIds the bibliographic ids
+     * @param fetchSize        the fetch size
+     * @return the closeable iterator
+     */
+    CloseableIterator<BibliographicEntity> streamBibsByBibIds(List<Integer> bibliographicIds, int fetchSize);
+}
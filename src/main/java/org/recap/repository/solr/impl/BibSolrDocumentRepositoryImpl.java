@@ -3,15 +3,20 @@ package org.recap.repository.solr.impl;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.recap.RecapConstants;
+import org.recap.executors.SearchExecutorService;
+import org.recap.executors.SearchQueryExecution;
 import org.recap.model.search.SearchRecordsRequest;
 import org.recap.model.search.resolver.BibValueResolver;
 import org.recap.model.search.resolver.HoldingsValueResolver;
 import org.recap.model.search.resolver.ItemValueResolver;
+import org.recap.model.search.resolver.ValueResolverDispatch;
 import org.recap.model.search.resolver.impl.bib.*;
 import org.recap.model.search.resolver.impl.bib.DocTypeValueResolver;
 import org.recap.model.search.resolver.impl.bib.IdValueResolver;
@@ -21,10 +26,15 @@ import org.recap.model.solr.BibItem;
 import org.recap.model.solr.Holdings;
 import org.recap.model.solr.Item;
 import org.recap.repository.solr.main.CustomDocumentRepository;
+import org.recap.util.FacetCountSnapshot;
+import org.recap.util.SearchQueryTemplate;
+import org.recap.util.SearchResultCache;
 import org.recap.util.SolrQueryBuilder;
+import org.recap.util.SolrResultIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -33,6 +43,9 @@ import java.io.IOException;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Created by rajeshbabuk on 8/7/16.
@@ -42,44 +55,105 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(BibSolrDocumentRepositoryImpl.class);
 
+    private static final String BIB_QUERY = "bibs";
+
+    private static final String ITEM_QUERY = "items";
+
+    private static final String ITEM_COUNT_QUERY = "itemCount";
+
+    private static final String BIB_COUNT_QUERY = "bibCount";
+
+    private static final String BIB_CHILDREN_QUERY = "bibChildren";
+
+    private static final String ITEM_BIBS_AND_HOLDINGS_QUERY = "itemBibsAndHoldings";
+
     @Resource
     private SolrTemplate solrTemplate;
 
     @Autowired
     private SolrQueryBuilder solrQueryBuilder;
 
+    @Autowired
+    private SearchExecutorService searchExecutorService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private FacetCountSnapshot facetCountSnapshot;
+
+    @Value("${search.child.doc.transformer.enabled:true}")
+    private boolean childDocTransformerEnabled;
+
+    @Value("${search.child.doc.transformer.limit:1000}")
+    private int childDocTransformerLimit;
+
     private List<BibValueResolver> bibValueResolvers;
 
     private List<ItemValueResolver> itemValueResolvers;
 
     private List<HoldingsValueResolver> holdingsValueResolvers;
 
+    private final ValueResolverDispatch<BibValueResolver> bibValueResolverDispatch = new ValueResolverDispatch<>(getBibValueResolvers());
+
+    private final ValueResolverDispatch<ItemValueResolver> itemValueResolverDispatch = new ValueResolverDispatch<>(getItemValueResolvers());
+
+    private final ValueResolverDispatch<HoldingsValueResolver> holdingsValueResolverDispatch = new ValueResolverDispatch<>(getHoldingsValueResolvers());
+
     @Override
     public Map<String,Object> search(SearchRecordsRequest searchRecordsRequest) {
         List<BibItem> bibItems = new ArrayList<>();
         Map<String, Object> response = new HashMap<>();
+        String searchResultCacheKey = searchResultCache.getKey(searchRecordsRequest);
+        long indexGeneration = searchResultCache.getIndexGeneration();
+        List<BibItem> cachedBibItems = searchResultCache.get(searchResultCacheKey, searchRecordsRequest);
+        if (cachedBibItems != null) {
+            response.put(RecapConstants.SEARCH_SUCCESS_RESPONSE, cachedBibItems);
+            response.put(RecapConstants.SEARCH_QUERY_TIMINGS, new LinkedHashMap<String, Long>());
+            return response;
+        }
+        SearchQueryExecution searchQueryExecution = searchExecutorService.newSearchQueryExecution();
         try {
             if (isEmptyField(searchRecordsRequest)) {
                 searchRecordsRequest.setShowTotalCount(true);
                 searchRecordsRequest.setFieldName(RecapConstants.ALL_FIELDS);
-                bibItems = searchByBib(searchRecordsRequest);
+                SearchQueryTemplate searchQueryTemplate = solrQueryBuilder.compileSearchQuery(searchRecordsRequest);
+                Future<QueryResponse> bibQueryResponse = submitQuery(searchQueryExecution, BIB_QUERY, getQueryForBibs(searchRecordsRequest, searchQueryTemplate));
+                Future<QueryResponse> itemQueryResponse = submitQuery(searchQueryExecution, ITEM_QUERY, getQueryForItems(searchRecordsRequest, searchQueryTemplate));
+                bibItems = getBibItemsByBib(searchRecordsRequest, searchQueryExecution.get(bibQueryResponse), null, searchQueryExecution);
                 if(CollectionUtils.isEmpty(bibItems)) {
-                    bibItems = searchByItem(searchRecordsRequest);
+                    bibItems = getBibItemsByItem(searchRecordsRequest, searchQueryExecution.get(itemQueryResponse), null, searchQueryExecution);
+                } else {
+                    itemQueryResponse.cancel(true);
                 }
                 searchRecordsRequest.setFieldName("");
             } else if (isItemField(searchRecordsRequest)) {
-                bibItems = searchByItem(searchRecordsRequest);
+                bibItems = searchByItem(searchRecordsRequest, solrQueryBuilder.compileSearchQuery(searchRecordsRequest), searchQueryExecution);
             } else {
-                bibItems = searchByBib(searchRecordsRequest);
+                bibItems = searchByBib(searchRecordsRequest, solrQueryBuilder.compileSearchQuery(searchRecordsRequest), searchQueryExecution);
             }
             response.put(RecapConstants.SEARCH_SUCCESS_RESPONSE, bibItems);
+            if (CollectionUtils.isNotEmpty(bibItems)) {
+                searchResultCache.put(searchResultCacheKey, indexGeneration, searchRecordsRequest, bibItems);
+            }
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
             response.put(RecapConstants.SEARCH_ERROR_RESPONSE, e.getMessage());
         }
+        Map<String, Long> queryTimings = searchQueryExecution.getQueryTimings();
+        response.put(RecapConstants.SEARCH_QUERY_TIMINGS, queryTimings);
+        logger.debug("Search query timings in ms : {}", queryTimings);
         return response;
     }
 
+    @Override
+    public Map<String,Object> searchByCursor(SearchRecordsRequest searchRecordsRequest) {
+        if (StringUtils.isBlank(searchRecordsRequest.getCursorMark())) {
+            searchRecordsRequest.setCursorMark(CursorMarkParams.CURSOR_MARK_START);
+        }
+        return search(searchRecordsRequest);
+    }
+
     private boolean isEmptyField(SearchRecordsRequest searchRecordsRequest) {
         if (StringUtils.isBlank(searchRecordsRequest.getFieldName()) && StringUtils.isNotBlank(searchRecordsRequest.getFieldValue())) {
             return true;
@@ -87,86 +161,181 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
         return false;
     }
 
-    private List<BibItem> searchByItem(SearchRecordsRequest searchRecordsRequest) throws SolrServerException, IOException {
-        List<BibItem> bibItems = new ArrayList<>();
-        SolrQuery queryForChildAndParentCriteria = solrQueryBuilder.getQueryForChildAndParentCriteria(searchRecordsRequest);
-        queryForChildAndParentCriteria.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
-        queryForChildAndParentCriteria.setRows(searchRecordsRequest.getPageSize());
+    private Future<QueryResponse> submitQuery(SearchQueryExecution searchQueryExecution, String queryName, SolrQuery solrQuery) {
+        return searchQueryExecution.submit(queryName, () -> solrTemplate.getSolrClient().query(solrQuery));
+    }
+
+    /**
+     * Submits the count query of a search, unless the search has no search text and its count is in the facet count snapshot.
+     * The count of such a search is kept in the snapshot once counted.
+     */
+    private Future<Long> submitCount(SearchQueryExecution searchQueryExecution, String queryName, String docType, SolrQuery countQuery,
+                                     SearchRecordsRequest searchRecordsRequest) {
+        String facetCountKey = facetCountSnapshot.getKey(docType, searchRecordsRequest);
+        Long count = facetCountSnapshot.getCount(facetCountKey);
+        if (count != null) {
+            return CompletableFuture.completedFuture(count);
+        }
+        long indexGeneration = facetCountSnapshot.getIndexGeneration();
+        return searchQueryExecution.submit(queryName, () -> {
+            long numFound = solrTemplate.getSolrClient().query(countQuery).getResults().getNumFound();
+            facetCountSnapshot.putCount(facetCountKey, indexGeneration, numFound);
+            return numFound;
+        });
+    }
+
+    private SolrQuery getQueryForItems(SearchRecordsRequest searchRecordsRequest, SearchQueryTemplate searchQueryTemplate) {
+        SolrQuery queryForChildAndParentCriteria = searchQueryTemplate.getQueryForItems();
         if (searchRecordsRequest.isSortIncompleteRecords()){
-            queryForChildAndParentCriteria.setSort(RecapConstants.ITEM_CREATED_DATE, SolrQuery.ORDER.desc);
+            setPage(queryForChildAndParentCriteria, searchRecordsRequest, RecapConstants.ITEM_CREATED_DATE, SolrQuery.ORDER.desc);
         }
         else {
-            queryForChildAndParentCriteria.setSort(RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+            setPage(queryForChildAndParentCriteria, searchRecordsRequest, RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+        }
+        return queryForChildAndParentCriteria;
+    }
+
+    private SolrQuery getQueryForBibs(SearchRecordsRequest searchRecordsRequest, SearchQueryTemplate searchQueryTemplate) {
+        SolrQuery queryForParentAndChildCriteria = searchQueryTemplate.getQueryForBibs();
+        setPage(queryForParentAndChildCriteria, searchRecordsRequest, RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+        if (childDocTransformerEnabled) {
+            queryForParentAndChildCriteria.setFields("*", solrQueryBuilder.getChildDocumentTransformer(searchRecordsRequest.isDeleted(),
+                    searchRecordsRequest.getCatalogingStatus(), childDocTransformerLimit));
+        }
+        return queryForParentAndChildCriteria;
+    }
+
+    private void setPage(SolrQuery solrQuery, SearchRecordsRequest searchRecordsRequest, String sortField, SolrQuery.ORDER order) {
+        if (StringUtils.isNotBlank(searchRecordsRequest.getCursorMark())) {
+            solrQueryBuilder.setCursorPage(solrQuery, sortField, order, searchRecordsRequest.getCursorMark(), searchRecordsRequest.getPageSize());
+        } else {
+            solrQuery.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
+            solrQuery.setRows(searchRecordsRequest.getPageSize());
+            solrQuery.setSort(sortField, order);
         }
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForChildAndParentCriteria);
+    }
+
+    private List<BibItem> searchByItem(SearchRecordsRequest searchRecordsRequest, SearchQueryTemplate searchQueryTemplate,
+                                       SearchQueryExecution searchQueryExecution) throws SolrServerException, IOException {
+        Future<QueryResponse> itemQueryResponse = submitQuery(searchQueryExecution, ITEM_QUERY, getQueryForItems(searchRecordsRequest, searchQueryTemplate));
+        Future<Long> bibCount = null;
+        if(!searchRecordsRequest.getFieldName().equalsIgnoreCase(RecapConstants.ALL_FIELDS)) {
+            bibCount = submitCount(searchQueryExecution, BIB_COUNT_QUERY, RecapConstants.BIB, searchQueryTemplate.getCountQueryForBibs(), searchRecordsRequest);
+        }
+        return getBibItemsByItem(searchRecordsRequest, searchQueryExecution.get(itemQueryResponse), bibCount, searchQueryExecution);
+    }
+
+    private List<BibItem> getBibItemsByItem(SearchRecordsRequest searchRecordsRequest, QueryResponse queryResponse, Future<Long> bibCount,
+                                            SearchQueryExecution searchQueryExecution) throws SolrServerException, IOException {
+        List<BibItem> bibItems = new ArrayList<>();
+        searchRecordsRequest.setNextCursorMark(queryResponse.getNextCursorMark());
         SolrDocumentList itemSolrDocumentList = queryResponse.getResults();
         if (CollectionUtils.isNotEmpty(itemSolrDocumentList)) {
-            setCountsByItem(searchRecordsRequest, itemSolrDocumentList);
+            setCountsByItem(searchRecordsRequest, itemSolrDocumentList, bibCount, searchQueryExecution);
+            List<Item> items = new ArrayList<>();
             for (Iterator<SolrDocument> iterator = itemSolrDocumentList.iterator(); iterator.hasNext(); ) {
                 SolrDocument itemSolrDocument = iterator.next();
-                Item item = getItem(itemSolrDocument);
-                bibItems.addAll(getBibItemsAndHoldings(item, searchRecordsRequest.isDeleted(), searchRecordsRequest.getCatalogingStatus()));
+                items.add(getItem(itemSolrDocument));
             }
+            bibItems.addAll(searchQueryExecution.call(ITEM_BIBS_AND_HOLDINGS_QUERY,
+                    () -> getBibItemsAndHoldings(items, searchRecordsRequest.isDeleted(), searchRecordsRequest.getCatalogingStatus())));
+        } else if (bibCount != null) {
+            bibCount.cancel(true);
         }
         return bibItems;
     }
 
-    private List<BibItem> searchByBib(SearchRecordsRequest searchRecordsRequest) throws SolrServerException, IOException {
+    private List<BibItem> searchByBib(SearchRecordsRequest searchRecordsRequest, SearchQueryTemplate searchQueryTemplate,
+                                      SearchQueryExecution searchQueryExecution) throws SolrServerException, IOException {
+        Future<QueryResponse> bibQueryResponse = submitQuery(searchQueryExecution, BIB_QUERY, getQueryForBibs(searchRecordsRequest, searchQueryTemplate));
+        Future<Long> itemCount = null;
+        if(!searchRecordsRequest.getFieldName().equalsIgnoreCase(RecapConstants.ALL_FIELDS)) {
+            itemCount = submitCount(searchQueryExecution, ITEM_COUNT_QUERY, RecapConstants.ITEM, searchQueryTemplate.getCountQueryForItems(), searchRecordsRequest);
+        }
+        return getBibItemsByBib(searchRecordsRequest, searchQueryExecution.get(bibQueryResponse), itemCount, searchQueryExecution);
+    }
+
+    private List<BibItem> getBibItemsByBib(SearchRecordsRequest searchRecordsRequest, QueryResponse queryResponse, Future<Long> itemCount,
+                                           SearchQueryExecution searchQueryExecution) throws SolrServerException, IOException {
         List<BibItem> bibItems = new ArrayList<>();
-        SolrQuery queryForParentAndChildCriteria = solrQueryBuilder.getQueryForParentAndChildCriteria(searchRecordsRequest);
-        queryForParentAndChildCriteria.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
-        queryForParentAndChildCriteria.setRows(searchRecordsRequest.getPageSize());
-        queryForParentAndChildCriteria.setSort(RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForParentAndChildCriteria);
+        boolean isDeleted = searchRecordsRequest.isDeleted();
+        String catalogingStatus = searchRecordsRequest.getCatalogingStatus();
+        searchRecordsRequest.setNextCursorMark(queryResponse.getNextCursorMark());
         SolrDocumentList bibSolrDocumentList = queryResponse.getResults();
         if(CollectionUtils.isNotEmpty(bibSolrDocumentList)) {
-            setCountsByBib(searchRecordsRequest, bibSolrDocumentList);
+            setCountsByBib(searchRecordsRequest, bibSolrDocumentList, itemCount, searchQueryExecution);
+            Map<String, BibItem> bibItemsWithoutChildren = new LinkedHashMap<>();
             for (Iterator<SolrDocument> iterator = bibSolrDocumentList.iterator(); iterator.hasNext(); ) {
                 SolrDocument bibSolrDocument = iterator.next();
                 BibItem bibItem = new BibItem();
                 populateBibItem(bibSolrDocument, bibItem);
-                populateItemHoldingsInfo(bibItem, searchRecordsRequest.isDeleted(), searchRecordsRequest.getCatalogingStatus());
+                List<SolrDocument> childDocuments = bibSolrDocument.getChildDocuments();
+                if (childDocTransformerEnabled && (childDocuments == null || childDocuments.size() < childDocTransformerLimit)) {
+                    if (childDocuments != null) {
+                        for (SolrDocument childDocument : childDocuments) {
+                            addItemHoldingsInfo(bibItem, childDocument, isDeleted, catalogingStatus);
+                        }
+                    }
+                } else {
+                    bibItemsWithoutChildren.put(bibItem.getRoot(), bibItem);
+                }
                 bibItems.add(bibItem);
             }
+            if (!bibItemsWithoutChildren.isEmpty()) {
+                searchQueryExecution.call(BIB_CHILDREN_QUERY, () -> {
+                    populateItemHoldingsInfo(bibItemsWithoutChildren, isDeleted, catalogingStatus);
+                    return bibItemsWithoutChildren;
+                });
+            }
+        } else if (itemCount != null) {
+            itemCount.cancel(true);
         }
         return bibItems;
     }
 
-    private List<BibItem> getBibItemsAndHoldings(Item item, boolean isDeleted, String catalogingStatus) {
+    /**
+     * Gets a bib item for every given item, with the bib and the holdings of the item. The bibs and holdings of all the items are fetched
+     * with one query for the distinct bibs of the items, so a bib shared by several items is fetched only once.
+     *
+     * @param items            the items
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     * @return the bib items in the order of the items
+     */
+    private List<BibItem> getBibItemsAndHoldings(List<Item> items, boolean isDeleted, String catalogingStatus) {
         List<BibItem> bibItems = new ArrayList<>();
-        SolrQuery solrQueryForBib = solrQueryBuilder.getSolrQueryForBibItem("_root_:" + item.getRoot());
-        QueryResponse queryResponse = null;
+        Set<String> rootIds = new LinkedHashSet<>();
+        for (Item item : items) {
+            rootIds.add(item.getRoot());
+        }
+        Map<String, SolrDocument> bibSolrDocuments = new HashMap<>();
+        Map<String, List<SolrDocument>> holdingsSolrDocuments = new HashMap<>();
         try {
-            queryResponse = solrTemplate.getSolrClient().query(solrQueryForBib);
-            SolrDocumentList solrDocuments = queryResponse.getResults();
-            if(solrDocuments.getNumFound() > 10 ) {
-                solrQueryForBib.setRows((int) solrDocuments.getNumFound());
-                queryResponse = solrTemplate.getSolrClient().query(solrQueryForBib);
-                solrDocuments = queryResponse.getResults();
-            }
-            BibItem bibItem = new BibItem();
-            for (Iterator<SolrDocument> iterator = solrDocuments.iterator(); iterator.hasNext(); ) {
-                SolrDocument solrDocument = iterator.next();
+            queryAllPages(solrQueryBuilder.getSolrQueryForBibsAndHoldings(rootIds, isDeleted, catalogingStatus), solrDocument -> {
+                String rootId = (String) solrDocument.getFieldValue(RecapConstants.ROOT);
                 String docType = (String) solrDocument.getFieldValue(RecapConstants.DOCTYPE);
                 if (docType.equalsIgnoreCase(RecapConstants.BIB)) {
-                    boolean isDeletedBib = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_BIB);
-                    String bibCatalogingStatus = (String) solrDocument.getFieldValue(RecapConstants.BIB_CATALOGING_STATUS);
-                    if (isDeletedBib == isDeleted && catalogingStatus.equals(bibCatalogingStatus)) {
-                        populateBibItem(solrDocument, bibItem);
-                        bibItem.setItems(Arrays.asList(item));
-                    }
+                    bibSolrDocuments.put(rootId, solrDocument);
                 }
-                if(docType.equalsIgnoreCase(RecapConstants.HOLDINGS)) {
-                    boolean isDeletedHoldings = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_HOLDINGS);
-                    if (isDeletedHoldings == isDeleted) {
-                        Holdings holdings = getHoldings(solrDocument);
-                        bibItem.addHoldings(holdings);
-                    }
+                if (docType.equalsIgnoreCase(RecapConstants.HOLDINGS)) {
+                    holdingsSolrDocuments.computeIfAbsent(rootId, key -> new ArrayList<>()).add(solrDocument);
                 }
-            }
-            bibItems.add(bibItem);
+            });
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
+            return bibItems;
+        }
+        for (Item item : items) {
+            BibItem bibItem = new BibItem();
+            SolrDocument bibSolrDocument = bibSolrDocuments.get(item.getRoot());
+            if (bibSolrDocument != null) {
+                populateBibItem(bibSolrDocument, bibItem);
+                bibItem.setItems(Arrays.asList(item));
+            }
+            for (SolrDocument holdingsSolrDocument : holdingsSolrDocuments.getOrDefault(item.getRoot(), Collections.emptyList())) {
+                bibItem.addHoldings(getHoldings(holdingsSolrDocument));
+            }
+            bibItems.add(bibItem);
         }
         return bibItems;
     }
@@ -179,40 +348,65 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
      * @param catalogingStatus the cataloging status
      */
     public void populateItemHoldingsInfo(BibItem bibItem, boolean isDeleted, String catalogingStatus) {
-        SolrQuery solrQueryForItem = solrQueryBuilder.getSolrQueryForBibItem("_root_:" + bibItem.getRoot());
-        QueryResponse queryResponse = null;
+        populateItemHoldingsInfo(Collections.singletonMap(bibItem.getRoot(), bibItem), isDeleted, catalogingStatus);
+    }
+
+    /**
+     * Populate item holdings info of all the given bib items with one query for their children, paged with a cursor,
+     * instead of a query for each bib item.
+     *
+     * @param bibItemsByRoot   the bib items by their root id
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     */
+    private void populateItemHoldingsInfo(Map<String, BibItem> bibItemsByRoot, boolean isDeleted, String catalogingStatus) {
+        if (bibItemsByRoot.isEmpty()) {
+            return;
+        }
+        SolrQuery solrQueryForChildren = solrQueryBuilder.getSolrQueryForBibChildren(bibItemsByRoot.keySet(), isDeleted, catalogingStatus);
         try {
-            queryResponse = solrTemplate.getSolrClient().query(solrQueryForItem);
-            SolrDocumentList solrDocuments = queryResponse.getResults();
-            if(solrDocuments.getNumFound() > 10 ) {
-                solrQueryForItem.setRows((int) solrDocuments.getNumFound());
-                queryResponse = solrTemplate.getSolrClient().query(solrQueryForItem);
-                solrDocuments = queryResponse.getResults();
-            }
-            for (Iterator<SolrDocument> iterator = solrDocuments.iterator(); iterator.hasNext(); ) {
-                SolrDocument solrDocument = iterator.next();
-                String docType = (String) solrDocument.getFieldValue(RecapConstants.DOCTYPE);
-                if(docType.equalsIgnoreCase(RecapConstants.ITEM)) {
-                    boolean isDeletedItem = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_ITEM);
-                    String itemCatalogingStatus = (String) solrDocument.getFieldValue(RecapConstants.ITEM_CATALOGING_STATUS);
-                    if (isDeletedItem == isDeleted && catalogingStatus.equals(itemCatalogingStatus)) {
-                        Item item = getItem(solrDocument);
-                        bibItem.addItem(item);
-                    }
-                }
-                if(docType.equalsIgnoreCase(RecapConstants.HOLDINGS)) {
-                    boolean isDeletedHoldings = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_HOLDINGS);
-                    if (isDeletedHoldings == isDeleted) {
-                        Holdings holdings = getHoldings(solrDocument);
-                        bibItem.addHoldings(holdings);
-                    }
+            queryAllPages(solrQueryForChildren, solrDocument -> {
+                BibItem bibItem = bibItemsByRoot.get(solrDocument.getFieldValue(RecapConstants.ROOT));
+                if (bibItem != null) {
+                    addItemHoldingsInfo(bibItem, solrDocument, isDeleted, catalogingStatus);
                 }
-            }
+            });
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
         }
     }
 
+    /**
+     * Runs the query page by page with a cursor, posting it since it can hold a long list of ids, and passes every document found to the consumer.
+     *
+     * @param solrQuery        the solr query
+     * @param documentConsumer the document consumer
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    private void queryAllPages(SolrQuery solrQuery, Consumer<SolrDocument> documentConsumer) throws IOException, SolrServerException {
+        SolrResultIterator.forEachDocument(solrTemplate.getSolrClient(), solrQuery, SolrRequest.METHOD.POST, RecapConstants.SOLR_CURSOR_PAGE_SIZE, documentConsumer);
+    }
+
+    private void addItemHoldingsInfo(BibItem bibItem, SolrDocument solrDocument, boolean isDeleted, String catalogingStatus) {
+        String docType = (String) solrDocument.getFieldValue(RecapConstants.DOCTYPE);
+        if(docType.equalsIgnoreCase(RecapConstants.ITEM)) {
+            boolean isDeletedItem = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_ITEM);
+            String itemCatalogingStatus = (String) solrDocument.getFieldValue(RecapConstants.ITEM_CATALOGING_STATUS);
+            if (isDeletedItem == isDeleted && catalogingStatus.equals(itemCatalogingStatus)) {
+                Item item = getItem(solrDocument);
+                bibItem.addItem(item);
+            }
+        }
+        if(docType.equalsIgnoreCase(RecapConstants.HOLDINGS)) {
+            boolean isDeletedHoldings = (boolean) solrDocument.getFieldValue(RecapConstants.IS_DELETED_HOLDINGS);
+            if (isDeletedHoldings == isDeleted) {
+                Holdings holdings = getHoldings(solrDocument);
+                bibItem.addHoldings(holdings);
+            }
+        }
+    }
+
     private boolean isItemField(SearchRecordsRequest searchRecordsRequest) {
         if (StringUtils.isNotBlank(searchRecordsRequest.getFieldName())
                 && (searchRecordsRequest.getFieldName().equalsIgnoreCase(RecapConstants.BARCODE)
@@ -224,44 +418,34 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
         return false;
     }
 
-    private void setCountsByBib(SearchRecordsRequest searchRecordsRequest, SolrDocumentList bibSolrDocuments) throws IOException, SolrServerException {
+    private void setCountsByBib(SearchRecordsRequest searchRecordsRequest, SolrDocumentList bibSolrDocuments, Future<Long> itemCount,
+                                SearchQueryExecution searchQueryExecution) throws IOException, SolrServerException {
         long numFound = bibSolrDocuments.getNumFound();
         String totalBibCount = NumberFormat.getNumberInstance().format(numFound);
         searchRecordsRequest.setTotalBibRecordsCount(totalBibCount);
         searchRecordsRequest.setTotalRecordsCount(totalBibCount);
-        if(!searchRecordsRequest.getFieldName().equalsIgnoreCase(RecapConstants.ALL_FIELDS)) {
-            String totalItemCount = NumberFormat.getNumberInstance().format(getItemCountsForBib(searchRecordsRequest));
+        if(itemCount != null) {
+            String totalItemCount = NumberFormat.getNumberInstance().format(searchQueryExecution.get(itemCount));
             searchRecordsRequest.setTotalItemRecordsCount(totalItemCount);
         }
         int totalPagesCount = (int) Math.ceil((double) numFound / (double) searchRecordsRequest.getPageSize());
         searchRecordsRequest.setTotalPageCount(totalPagesCount);
     }
 
-    private long getItemCountsForBib(SearchRecordsRequest searchRecordsRequest) throws IOException, SolrServerException {
-        SolrQuery queryForChildAndParentCriteria = solrQueryBuilder.getCountQueryForChildAndParentCriteria(searchRecordsRequest);
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForChildAndParentCriteria);
-        return queryResponse.getResults().getNumFound();
-    }
-
-    private void setCountsByItem(SearchRecordsRequest searchRecordsRequest, SolrDocumentList itemSolrDocuments) throws IOException, SolrServerException {
+    private void setCountsByItem(SearchRecordsRequest searchRecordsRequest, SolrDocumentList itemSolrDocuments, Future<Long> bibCount,
+                                 SearchQueryExecution searchQueryExecution) throws IOException, SolrServerException {
         long numFound = itemSolrDocuments.getNumFound();
         String totalItemCount = NumberFormat.getNumberInstance().format(numFound);
         searchRecordsRequest.setTotalItemRecordsCount(totalItemCount);
         searchRecordsRequest.setTotalRecordsCount(totalItemCount);
-        if(!searchRecordsRequest.getFieldName().equalsIgnoreCase(RecapConstants.ALL_FIELDS)) {
-            String totalBibCount = NumberFormat.getNumberInstance().format(getBibCountsForItem(searchRecordsRequest));
+        if(bibCount != null) {
+            String totalBibCount = NumberFormat.getNumberInstance().format(searchQueryExecution.get(bibCount));
             searchRecordsRequest.setTotalBibRecordsCount(totalBibCount);
         }
         int totalPagesCount = (int) Math.ceil((double) numFound / (double) searchRecordsRequest.getPageSize());
         searchRecordsRequest.setTotalPageCount(totalPagesCount);
     }
 
-    private long getBibCountsForItem(SearchRecordsRequest searchRecordsRequest) throws IOException, SolrServerException {
-        SolrQuery queryForParentAndChildCriteria = solrQueryBuilder.getCountQueryForParentAndChildCriteria(searchRecordsRequest);
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForParentAndChildCriteria);
-        return queryResponse.getResults().getNumFound();
-    }
-
     /**
      * Gets item for the give item solr document.
      *
@@ -270,18 +454,7 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
      */
     public Item getItem(SolrDocument itemSolrDocument) {
         Item item = new Item();
-        Collection<String> fieldNames = itemSolrDocument.getFieldNames();
-        List<ItemValueResolver> itemValueResolvers = getItemValueResolvers();
-        for (Iterator<String> iterator = fieldNames.iterator(); iterator.hasNext(); ) {
-            String fieldName = iterator.next();
-            Object fieldValue = itemSolrDocument.getFieldValue(fieldName);
-            for (Iterator<ItemValueResolver> itemValueResolverIterator = itemValueResolvers.iterator(); itemValueResolverIterator.hasNext(); ) {
-                ItemValueResolver itemValueResolver = itemValueResolverIterator.next();
-                if (itemValueResolver.isInterested(fieldName)) {
-                    itemValueResolver.setValue(item, fieldValue);
-                }
-            }
-        }
+        itemValueResolverDispatch.resolve(itemSolrDocument, (itemValueResolver, fieldValue) -> itemValueResolver.setValue(item, fieldValue));
         return item;
     }
 
@@ -293,18 +466,7 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
      */
     public Holdings getHoldings(SolrDocument holdingsSolrDocument) {
         Holdings holdings = new Holdings();
-        Collection<String> fieldNames = holdingsSolrDocument.getFieldNames();
-        List<HoldingsValueResolver> holdingsValueResolvers = getHoldingsValueResolvers();
-        for (Iterator<String> iterator = fieldNames.iterator(); iterator.hasNext(); ) {
-            String fieldName = iterator.next();
-            Object fieldValue = holdingsSolrDocument.getFieldValue(fieldName);
-            for (Iterator<HoldingsValueResolver> holdingsValueResolverIterator = holdingsValueResolvers.iterator(); holdingsValueResolverIterator.hasNext(); ) {
-                HoldingsValueResolver holdingsValueResolver = holdingsValueResolverIterator.next();
-                if(holdingsValueResolver.isInterested(fieldName)) {
-                    holdingsValueResolver.setValue(holdings, fieldValue);
-                }
-            }
-        }
+        holdingsValueResolverDispatch.resolve(holdingsSolrDocument, (holdingsValueResolver, fieldValue) -> holdingsValueResolver.setValue(holdings, fieldValue));
         return holdings;
     }
 
@@ -315,17 +477,7 @@ public class BibSolrDocumentRepositoryImpl implements CustomDocumentRepository {
      * @param bibItem      the bib item
      */
     public void populateBibItem(SolrDocument solrDocument, BibItem bibItem) {
-        Collection<String> fieldNames = solrDocument.getFieldNames();
-        for (Iterator<String> stringIterator = fieldNames.iterator(); stringIterator.hasNext(); ) {
-            String fieldName = stringIterator.next();
-            Object fieldValue = solrDocument.getFieldValue(fieldName);
-            for (Iterator<BibValueResolver> valueResolverIterator = getBibValueResolvers().iterator(); valueResolverIterator.hasNext(); ) {
-                BibValueResolver valueResolver = valueResolverIterator.next();
-                if (valueResolver.isInterested(fieldName)) {
-                    valueResolver.setValue(bibItem, fieldValue);
-                }
-            }
-        }
+        bibValueResolverDispatch.resolve(solrDocument, (valueResolver, fieldValue) -> valueResolver.setValue(bibItem, fieldValue));
     }
 
     /**
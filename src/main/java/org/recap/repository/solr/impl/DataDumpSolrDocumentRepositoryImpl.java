@@ -5,16 +5,21 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.map.HashedMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.io.stream.JSONTupleStream;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.recap.RecapConstants;
 import org.recap.model.jpa.BibliographicEntity;
 import org.recap.model.jpa.ItemEntity;
+import org.recap.model.search.DataDumpCursor;
 import org.recap.model.search.SearchRecordsRequest;
 import org.recap.model.search.resolver.BibValueResolver;
 import org.recap.model.search.resolver.ItemValueResolver;
+import org.recap.model.search.resolver.ValueResolverDispatch;
 import org.recap.model.search.resolver.impl.bib.*;
 import org.recap.model.search.resolver.impl.item.IsDeletedItemValueResolver;
 import org.recap.model.search.resolver.impl.item.ItemBibIdValueResolver;
@@ -24,7 +29,9 @@ import org.recap.model.solr.BibItem;
 import org.recap.model.solr.Item;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.solr.main.CustomDocumentRepository;
+import org.recap.repository.solr.main.DataDumpExportRepository;
 import org.recap.util.SolrQueryBuilder;
+import org.recap.util.SolrResultIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,10 +47,12 @@ import java.util.*;
  * Created by angelind on 26/10/16.
  */
 @Repository
-public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentRepository {
+public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentRepository, DataDumpExportRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(DataDumpSolrDocumentRepositoryImpl.class);
 
+    private static final String EXPORT_EXCEPTION = "EXCEPTION";
+
     private String and = " AND ";
 
     private String or = " OR ";
@@ -61,25 +70,164 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
 
     private List<ItemValueResolver> itemValueResolvers;
 
+    private final ValueResolverDispatch<BibValueResolver> bibValueResolverDispatch = new ValueResolverDispatch<>(getBibValueResolversForDataDump());
+
+    private final ValueResolverDispatch<ItemValueResolver> itemValueResolverDispatch = new ValueResolverDispatch<>(getItemValueResolversForDataDump());
+
     @Value("${datadump.deleted.type.onlyorphan.institution}")
     private String deletedOnlyOrphanInstitution;
 
     @Value("${datadump.incremental.type.nonfulltree.institution}")
     private String incrementalNonFullTreeInstitution;
 
+    @Value("${datadump.export.handler.enabled:false}")
+    private boolean exportHandlerEnabled;
+
+    /**
+     * Searches the records of the data dump. A request with a cursor mark is paged with the solr cursor, and a request without one
+     * is paged to its page number with a start offset.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the map
+     */
     @Override
     public Map<String, Object> search(SearchRecordsRequest searchRecordsRequest) {
-        List<BibItem> bibItems;
-        Map<String, Object> response = new HashMap<>();
+        return search(searchRecordsRequest, StringUtils.isBlank(searchRecordsRequest.getCursorMark()));
+    }
+
+    @Override
+    public Map<String, Object> searchByCursor(SearchRecordsRequest searchRecordsRequest) {
+        return search(searchRecordsRequest, false);
+    }
+
+    /**
+     * Streams the bibs of the data dump with their items to the sink. When the export handler is enabled, the bibs and the items are read
+     * from the export handler of solr as two streams sorted by the bib they belong to, and the items are matched to their bib as both streams
+     * are read, so only one bib with its items is held at a time. The export handler needs doc values on the _root_, BibId and ItemId fields
+     * of the schema, so it is enabled with datadump.export.handler.enabled only for cores whose schema has them. Otherwise, and for the deleted
+     * records, which are found with queries the export handler cannot run, the bibs are passed to the sink a cursor page at a time.
+     *
+     * @param searchRecordsRequest the search records request
+     * @param bibItemSink          the sink
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    @Override
+    public void export(SearchRecordsRequest searchRecordsRequest, BibItemSink bibItemSink) throws IOException, SolrServerException {
+        searchRecordsRequest.setFieldName(StringUtils.isEmpty(searchRecordsRequest.getFieldName()) ? RecapConstants.ALL_FIELDS : searchRecordsRequest.getFieldName());
+        if (exportHandlerEnabled && !searchRecordsRequest.isDeleted()) {
+            exportByStream(searchRecordsRequest, bibItemSink);
+        } else {
+            exportByCursor(searchRecordsRequest, bibItemSink);
+        }
+    }
+
+    private void exportByCursor(SearchRecordsRequest searchRecordsRequest, BibItemSink bibItemSink) throws IOException, SolrServerException {
+        String fieldName = searchRecordsRequest.getFieldName();
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        while (true) {
+            searchRecordsRequest.setFieldName(fieldName);
+            searchRecordsRequest.setCursorMark(cursorMark);
+            for (BibItem bibItem : searchBibItems(searchRecordsRequest, false)) {
+                bibItemSink.accept(bibItem);
+            }
+            String nextCursorMark = searchRecordsRequest.getNextCursorMark();
+            if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+                break;
+            }
+            cursorMark = nextCursorMark;
+        }
+    }
+
+    private void exportByStream(SearchRecordsRequest searchRecordsRequest, BibItemSink bibItemSink) throws IOException, SolrServerException {
+        SolrQuery queryForBibs = solrQueryBuilder.getQueryForParentAndChildCriteriaForDataDump(searchRecordsRequest);
+        SolrQuery queryForItems = new SolrQuery(getItemQueryString(searchRecordsRequest));
+        queryForItems.addFilterQuery(solrQueryBuilder.getChildQueryOfParentQuery(queryForBibs.getQuery()));
+        for (String bibFilterQuery : queryForBibs.getFilterQueries()) {
+            queryForItems.addFilterQuery(solrQueryBuilder.getChildQueryOfParentQuery(bibFilterQuery));
+        }
+        solrQueryBuilder.setExport(queryForBibs, RecapConstants.ROOT, RecapConstants.BIB_ID);
+        solrQueryBuilder.setExport(queryForItems, RecapConstants.ROOT, RecapConstants.ITEM_ID);
+        logger.info("Export bibs query : {}", queryForBibs);
+        logger.info("Export items query : {}", queryForItems);
+        JSONTupleStream bibStream = JSONTupleStream.create(solrTemplate.getSolrClient(), queryForBibs);
         try {
-            searchRecordsRequest.setShowTotalCount(true);
-            searchRecordsRequest.setFieldName(StringUtils.isEmpty(searchRecordsRequest.getFieldName()) ? RecapConstants.ALL_FIELDS : searchRecordsRequest.getFieldName());
-            if(searchRecordsRequest.isDeleted()) {
-                bibItems = searchByItemForDeleted(searchRecordsRequest);
-            } else {
-                bibItems = searchByBib(searchRecordsRequest);
+            JSONTupleStream itemStream = JSONTupleStream.create(solrTemplate.getSolrClient(), queryForItems);
+            try {
+                exportBibItems(bibStream, itemStream, bibItemSink);
+            } finally {
+                itemStream.close();
+            }
+        } finally {
+            bibStream.close();
+        }
+    }
+
+    /**
+     * Merges the bib stream with the item stream, both sorted by root, passing every bib with its items to the sink.
+     */
+    private void exportBibItems(JSONTupleStream bibStream, JSONTupleStream itemStream, BibItemSink bibItemSink) throws IOException {
+        int bibCount = 0;
+        Map<String, Object> itemTuple = readTuple(itemStream);
+        for (Map<String, Object> bibTuple = readTuple(bibStream); bibTuple != null; bibTuple = readTuple(bibStream)) {
+            BibItem bibItem = new BibItem();
+            bibItem.setRoot((String) bibTuple.get(RecapConstants.ROOT));
+            bibItem.setBibId(getInteger(bibTuple.get(RecapConstants.BIB_ID)));
+            while (itemTuple != null && compareRoot(itemTuple, bibItem.getRoot()) < 0) {
+                itemTuple = readTuple(itemStream);
             }
-            response.put(RecapConstants.SEARCH_SUCCESS_RESPONSE, bibItems);
+            while (itemTuple != null && compareRoot(itemTuple, bibItem.getRoot()) == 0) {
+                Item item = new Item();
+                item.setRoot(bibItem.getRoot());
+                item.setItemId(getInteger(itemTuple.get(RecapConstants.ITEM_ID)));
+                bibItem.addItem(item);
+                itemTuple = readTuple(itemStream);
+            }
+            bibItemSink.accept(bibItem);
+            bibCount++;
+        }
+        logger.info("Exported bibs : {}", bibCount);
+    }
+
+    private Map<String, Object> readTuple(JSONTupleStream tupleStream) throws IOException {
+        Map<String, Object> tuple = tupleStream.next();
+        if (tuple != null && tuple.containsKey(EXPORT_EXCEPTION)) {
+            throw new IOException(String.valueOf(tuple.get(EXPORT_EXCEPTION)));
+        }
+        return tuple;
+    }
+
+    /**
+     * Compares the root of the item with the root of the bib in the order the export handler sorts them, which is the order of their UTF-8 bytes
+     * and so the order of their code points.
+     */
+    private int compareRoot(Map<String, Object> itemTuple, String bibRoot) {
+        String itemRoot = (String) itemTuple.get(RecapConstants.ROOT);
+        if (itemRoot == null) {
+            return -1;
+        }
+        int itemIndex = 0;
+        int bibIndex = 0;
+        while (itemIndex < itemRoot.length() && bibIndex < bibRoot.length()) {
+            int itemCodePoint = itemRoot.codePointAt(itemIndex);
+            int bibCodePoint = bibRoot.codePointAt(bibIndex);
+            if (itemCodePoint != bibCodePoint) {
+                return Integer.compare(itemCodePoint, bibCodePoint);
+            }
+            itemIndex += Character.charCount(itemCodePoint);
+            bibIndex += Character.charCount(bibCodePoint);
+        }
+        return Integer.compare(itemRoot.length() - itemIndex, bibRoot.length() - bibIndex);
+    }
+
+    private Integer getInteger(Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    private Map<String, Object> search(SearchRecordsRequest searchRecordsRequest, boolean skipToPageNumber) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put(RecapConstants.SEARCH_SUCCESS_RESPONSE, searchBibItems(searchRecordsRequest, skipToPageNumber));
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
             response.put(RecapConstants.SEARCH_ERROR_RESPONSE, e.getMessage());
@@ -87,14 +235,25 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
         return response;
     }
 
-    private List<BibItem> searchByBib(SearchRecordsRequest searchRecordsRequest) throws SolrServerException, IOException {
+    private List<BibItem> searchBibItems(SearchRecordsRequest searchRecordsRequest, boolean skipToPageNumber) throws IOException, SolrServerException {
+        List<BibItem> bibItems;
+        searchRecordsRequest.setShowTotalCount(true);
+        searchRecordsRequest.setFieldName(StringUtils.isEmpty(searchRecordsRequest.getFieldName()) ? RecapConstants.ALL_FIELDS : searchRecordsRequest.getFieldName());
+        DataDumpCursor dataDumpCursor = new DataDumpCursor(searchRecordsRequest.getCursorMark(), skipToPageNumber);
+        if(searchRecordsRequest.isDeleted()) {
+            bibItems = searchByItemForDeleted(searchRecordsRequest, dataDumpCursor);
+        } else {
+            bibItems = searchByBib(searchRecordsRequest, dataDumpCursor);
+        }
+        searchRecordsRequest.setNextCursorMark(dataDumpCursor.getNextCursorMark());
+        return bibItems;
+    }
+
+    private List<BibItem> searchByBib(SearchRecordsRequest searchRecordsRequest, DataDumpCursor dataDumpCursor) throws SolrServerException, IOException {
         List<BibItem> bibItems = new ArrayList<>();
         SolrQuery queryForParentAndChildCriteria = solrQueryBuilder.getQueryForParentAndChildCriteriaForDataDump(searchRecordsRequest);
-        queryForParentAndChildCriteria.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
-        queryForParentAndChildCriteria.setRows(searchRecordsRequest.getPageSize());
-        queryForParentAndChildCriteria.setSort(RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+        QueryResponse queryResponse = queryByCursor(queryForParentAndChildCriteria, searchRecordsRequest, dataDumpCursor);
         logger.info("Search by bib query string : {}", queryForParentAndChildCriteria);
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForParentAndChildCriteria);
         SolrDocumentList bibSolrDocumentList = queryResponse.getResults();
         if(CollectionUtils.isNotEmpty(bibSolrDocumentList)) {
             long numFound = bibSolrDocumentList.getNumFound();
@@ -123,24 +282,25 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
      * Search by item for deleted list.
      *
      * @param searchRecordsRequest the search records request
+     * @param dataDumpCursor       the cursor marks of the queries
      * @return the list
      * @throws SolrServerException the solr server exception
      * @throws IOException         the io exception
      */
-    public List<BibItem> searchByItemForDeleted(SearchRecordsRequest searchRecordsRequest) throws SolrServerException, IOException {
+    public List<BibItem> searchByItemForDeleted(SearchRecordsRequest searchRecordsRequest, DataDumpCursor dataDumpCursor) throws SolrServerException, IOException {
         List<BibItem> bibItems = new ArrayList<>();
         boolean onlyOrphan = isDeletedOnlyOrphanInstitution(searchRecordsRequest);
         Map<Integer, BibItem> bibItemMap = new HashMap<>();
         if(onlyOrphan){
-            bibItems = searchByBibForDeleted(searchRecordsRequest);
+            bibItems = searchByBibForDeleted(searchRecordsRequest, dataDumpCursor);
             searchRecordsRequest.setFieldName(RecapConstants.ITEM_LASTUPDATED_DATE);
-            searchByItem(searchRecordsRequest, true, bibItemMap);
+            searchByItem(searchRecordsRequest, true, bibItemMap, dataDumpCursor);
             bibItemMap = eliminateNonOrphanRecords(bibItemMap);
         } else {
-            searchByItem(searchRecordsRequest, true, bibItemMap);
-            searchByItem(searchRecordsRequest, false, bibItemMap);
+            searchByItem(searchRecordsRequest, true, bibItemMap, dataDumpCursor);
+            searchByItem(searchRecordsRequest, false, bibItemMap, dataDumpCursor);
             searchRecordsRequest.setFieldName(RecapConstants.BIB_LASTUPDATED_DATE);
-            List<BibItem> bibItemForOrphanBib = searchByBibForDeleted(searchRecordsRequest);
+            List<BibItem> bibItemForOrphanBib = searchByBibForDeleted(searchRecordsRequest, dataDumpCursor);
             compareAndSetOnlyOrphanBibs(bibItemMap,bibItemForOrphanBib);
         }
         for(Integer bibId:bibItemMap.keySet()){
@@ -187,12 +347,10 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
         return false;
     }
 
-    private List<BibItem> searchByBibForDeleted(SearchRecordsRequest searchRecordsRequest) throws SolrServerException, IOException {
+    private List<BibItem> searchByBibForDeleted(SearchRecordsRequest searchRecordsRequest, DataDumpCursor dataDumpCursor) throws SolrServerException, IOException {
         List<BibItem> bibItems = new ArrayList<>();
         SolrQuery queryForParentAndChildCriteria = solrQueryBuilder.getQueryForParentAndChildCriteriaForDeletedDataDump(searchRecordsRequest);
-        queryForParentAndChildCriteria.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
-        queryForParentAndChildCriteria.setRows(searchRecordsRequest.getPageSize());
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForParentAndChildCriteria);
+        QueryResponse queryResponse = queryByCursor(queryForParentAndChildCriteria, searchRecordsRequest, dataDumpCursor);
         SolrDocumentList bibSolrDocumentList = queryResponse.getResults();
         if(CollectionUtils.isNotEmpty(bibSolrDocumentList)) {
             long numFound = bibSolrDocumentList.getNumFound();
@@ -216,17 +374,19 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
      *
      * @param searchRecordsRequest  the search records request
      * @param isCGDChangedToPrivate the is cgd changed to private
-     * @return the list
+     * @param bibItemMap            the bib items by bib id
      * @throws SolrServerException the solr server exception
      * @throws IOException         the io exception
      */
     public void searchByItem(SearchRecordsRequest searchRecordsRequest,boolean isCGDChangedToPrivate,Map<Integer, BibItem> bibItemMap) throws SolrServerException, IOException {
+        searchByItem(searchRecordsRequest, isCGDChangedToPrivate, bibItemMap, new DataDumpCursor(searchRecordsRequest.getCursorMark(), true));
+    }
+
+    private void searchByItem(SearchRecordsRequest searchRecordsRequest,boolean isCGDChangedToPrivate,Map<Integer, BibItem> bibItemMap,
+                              DataDumpCursor dataDumpCursor) throws SolrServerException, IOException {
         SolrQuery queryForChildAndParentCriteria = solrQueryBuilder.getDeletedQueryForDataDump(searchRecordsRequest,isCGDChangedToPrivate);
-        queryForChildAndParentCriteria.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
-        queryForChildAndParentCriteria.setRows(searchRecordsRequest.getPageSize());
-        queryForChildAndParentCriteria.setSort(RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+        QueryResponse queryResponse = queryByCursor(queryForChildAndParentCriteria, searchRecordsRequest, dataDumpCursor);
         logger.info("Search by item query string : {}", queryForChildAndParentCriteria);
-        QueryResponse queryResponse = solrTemplate.getSolrClient().query(queryForChildAndParentCriteria);
         SolrDocumentList itemSolrDocumentList = queryResponse.getResults();
         if(CollectionUtils.isNotEmpty(itemSolrDocumentList)) {
             long numFound = itemSolrDocumentList.getNumFound();
@@ -242,6 +402,26 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
         }
     }
 
+    /**
+     * Runs the query for the page of its cursor, sorted by title with the unique key as tie breaker, and keeps the cursor mark of the next page.
+     * Without a cursor mark the query starts from the first page, or from the page number of the request with a start offset, in which case
+     * there is no cursor mark of the next page.
+     */
+    private QueryResponse queryByCursor(SolrQuery solrQuery, SearchRecordsRequest searchRecordsRequest, DataDumpCursor dataDumpCursor) throws SolrServerException, IOException {
+        String cursorMark = dataDumpCursor.nextQueryCursorMark();
+        if (cursorMark == null && dataDumpCursor.isSkipToPageNumber()) {
+            solrQuery.setStart(searchRecordsRequest.getPageNumber() * searchRecordsRequest.getPageSize());
+            solrQuery.setRows(searchRecordsRequest.getPageSize());
+            solrQuery.setSort(RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc);
+            solrQuery.addSort(RecapConstants.UNIQUE_KEY, SolrQuery.ORDER.asc);
+            return solrTemplate.getSolrClient().query(solrQuery);
+        }
+        solrQueryBuilder.setCursorPage(solrQuery, RecapConstants.TITLE_SORT, SolrQuery.ORDER.asc, cursorMark, searchRecordsRequest.getPageSize());
+        QueryResponse queryResponse = solrTemplate.getSolrClient().query(solrQuery);
+        dataDumpCursor.addNextCursorMark(queryResponse.getNextCursorMark());
+        return queryResponse;
+    }
+
     /**
      * Populate item info for the given search request.
      *
@@ -249,42 +429,41 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
      * @param searchRecordsRequest the search records request
      */
     public void populateItemInfo(List<BibItem> bibItems, SearchRecordsRequest searchRecordsRequest) {
-        boolean nonFullTreeInst = isIncrementalNonFullTreeInstitution(searchRecordsRequest);
-        logger.info("nonFullTreeInst---->{}",nonFullTreeInst);
-        String queryStringForMatchParentReturnChild = solrQueryBuilder.getQueryStringForMatchParentReturnChild(searchRecordsRequest);
-        String querForItemString = "_root_:" + getRootIds(bibItems) + and + RecapConstants.DOCTYPE + ":" + RecapConstants.ITEM + and
-                + queryStringForMatchParentReturnChild + and + RecapConstants.IS_DELETED_ITEM + ":" + searchRecordsRequest.isDeleted() + and + RecapConstants.ITEM_CATALOGING_STATUS + ":"
-                + RecapConstants.COMPLETE_STATUS;
-        if((nonFullTreeInst && !isPartialFullDump(searchRecordsRequest.getFieldValue())) && searchRecordsRequest.getFieldName().contains(RecapConstants.BIBITEM_LASTUPDATED_DATE)){
-            querForItemString = querForItemString + and + RecapConstants.ITEM_LASTUPDATED_DATE + ":["+searchRecordsRequest.getFieldValue()+"]";
-        }
+        String querForItemString = "_root_:" + getRootIds(bibItems) + and + getItemQueryString(searchRecordsRequest);
         logger.info("query string for export--->{}",querForItemString);
         SolrQuery solrQueryForItem = solrQueryBuilder.getSolrQueryForBibItem(querForItemString) ;
-        QueryResponse queryResponse = null;
-        try {
-            queryResponse = solrTemplate.getSolrClient().query(solrQueryForItem);
-            SolrDocumentList solrDocuments = queryResponse.getResults();
-            if(solrDocuments.getNumFound() > 10 ) {
-                solrQueryForItem.setRows((int) solrDocuments.getNumFound());
-                queryResponse = solrTemplate.getSolrClient().query(solrQueryForItem);
-                solrDocuments = queryResponse.getResults();
+        Map<String, BibItem> bibItemsByRoot = new HashMap<>();
+        for (BibItem bibItem : bibItems) {
+            if (bibItem.getRoot() != null) {
+                bibItemsByRoot.putIfAbsent(bibItem.getRoot(), bibItem);
             }
-
-            for (Iterator<SolrDocument> iterator = solrDocuments.iterator(); iterator.hasNext(); ) {
-                SolrDocument solrDocument = iterator.next();
+        }
+        try {
+            SolrResultIterator.forEachDocument(solrTemplate.getSolrClient(), solrQueryForItem, SolrRequest.METHOD.POST, RecapConstants.SOLR_CURSOR_PAGE_SIZE, solrDocument -> {
                 Item item = getItem(solrDocument);
-                if (getRootIds(bibItems).contains(item.getRoot())) {
-                    BibItem bibItem = findBibItem(bibItems, item.getRoot());
-                    if (null != bibItem) {
-                        bibItem.addItem(item);
-                    }
+                BibItem bibItem = bibItemsByRoot.get(item.getRoot());
+                if (null != bibItem) {
+                    bibItem.addItem(item);
                 }
-            }
+            });
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
         }
     }
 
+    private String getItemQueryString(SearchRecordsRequest searchRecordsRequest) {
+        boolean nonFullTreeInst = isIncrementalNonFullTreeInstitution(searchRecordsRequest);
+        logger.info("nonFullTreeInst---->{}",nonFullTreeInst);
+        String queryStringForMatchParentReturnChild = solrQueryBuilder.getQueryStringForMatchParentReturnChild(searchRecordsRequest);
+        String querForItemString = RecapConstants.DOCTYPE + ":" + RecapConstants.ITEM + and
+                + queryStringForMatchParentReturnChild + and + RecapConstants.IS_DELETED_ITEM + ":" + searchRecordsRequest.isDeleted() + and + RecapConstants.ITEM_CATALOGING_STATUS + ":"
+                + RecapConstants.COMPLETE_STATUS;
+        if((nonFullTreeInst && !isPartialFullDump(searchRecordsRequest.getFieldValue())) && searchRecordsRequest.getFieldName().contains(RecapConstants.BIBITEM_LASTUPDATED_DATE)){
+            querForItemString = querForItemString + and + RecapConstants.ITEM_LASTUPDATED_DATE + ":["+searchRecordsRequest.getFieldValue()+"]";
+        }
+        return querForItemString;
+    }
+
     /**
      * Resolves a boolean by checking the date field value.
      *
@@ -298,16 +477,6 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
         return true;
     }
 
-    private BibItem findBibItem(List<BibItem> bibItems, String root) {
-        for (Iterator<BibItem> iterator = bibItems.iterator(); iterator.hasNext(); ) {
-            BibItem bibItem = iterator.next();
-            if(bibItem.getRoot() != null && bibItem.getRoot().equals(root)){
-                return bibItem;
-            }
-        }
-        return null;
-    }
-
     private String getRootIds(List<BibItem> bibItems) {
         StringBuilder rootIds = new StringBuilder();
         rootIds.append("(");
@@ -350,32 +519,12 @@ public class DataDumpSolrDocumentRepositoryImpl implements CustomDocumentReposit
      * @param bibItem      the bib item
      */
     public void populateBib(SolrDocument solrDocument, BibItem bibItem) {
-        Collection<String> fieldNames = solrDocument.getFieldNames();
-        for (Iterator<String> stringIterator = fieldNames.iterator(); stringIterator.hasNext(); ) {
-            String fieldName = stringIterator.next();
-            Object fieldValue = solrDocument.getFieldValue(fieldName);
-            for (Iterator<BibValueResolver> valueResolverIterator = getBibValueResolversForDataDump().iterator(); valueResolverIterator.hasNext(); ) {
-                BibValueResolver valueResolver = valueResolverIterator.next();
-                if (valueResolver.isInterested(fieldName)) {
-                    valueResolver.setValue(bibItem, fieldValue);
-                }
-            }
-        }
+        bibValueResolverDispatch.resolve(solrDocument, (valueResolver, fieldValue) -> valueResolver.setValue(bibItem, fieldValue));
     }
 
     private Item getItem(SolrDocument itemSolrDocument) {
         Item item = new Item();
-        Collection<String> fieldNames = itemSolrDocument.getFieldNames();
-        for (Iterator<String> iterator = fieldNames.iterator(); iterator.hasNext(); ) {
-            String fieldName = iterator.next();
-            Object fieldValue = itemSolrDocument.getFieldValue(fieldName);
-            for (Iterator<ItemValueResolver> itemValueResolverIterator = getItemValueResolversForDataDump().iterator(); itemValueResolverIterator.hasNext(); ) {
-                ItemValueResolver itemValueResolver = itemValueResolverIterator.next();
-                if (itemValueResolver.isInterested(fieldName)) {
-                    itemValueResolver.setValue(item, fieldValue);
-                }
-            }
-        }
+        itemValueResolverDispatch.resolve(itemSolrDocument, (itemValueResolver, fieldValue) -> itemValueResolver.setValue(item, fieldValue));
         return item;
     }
 
@@ -17,6 +17,17 @@ public interface CustomDocumentRepository {
      */
     Map<String,Object> search(SearchRecordsRequest searchRecordsRequest);
 
+    /**
+     * This method searches records like search, but pages with a solr cursor instead of the page number, so a late page of a large result
+     * costs the same as the first one. The records are sorted as the search sorts them, by title unless asked otherwise, with the unique key
+     * as tie breaker. The search starts from the cursor mark of the request, or from the first record if the request has none, and sets
+     * the cursor mark of the next page on the request.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the map
+     */
+    Map<String,Object> searchByCursor(SearchRecordsRequest searchRecordsRequest);
+
     /**
      * Gets page number on changing the page size in UI.
      *
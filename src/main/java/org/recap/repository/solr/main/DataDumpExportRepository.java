@@ -0,0 +1,39 @@
+package org.recap.repository.solr.main;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.recap.model.search.SearchRecordsRequest;
+import org.recap.model.solr.BibItem;
+
+import java.io.IOException;
+
+/**
+ * Streams all the records of a data dump to a sink instead of returning them a page at a time.
+ */
+public interface DataDumpExportRepository {
+
+    /**
+     * This method passes every bib of the data dump, with its items, to the sink as soon as it is read from solr, so the memory used
+     * does not grow with the size of the data dump.
+     *
+     * @param searchRecordsRequest the search records request
+     * @param bibItemSink          the sink
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    void export(SearchRecordsRequest searchRecordsRequest, BibItemSink bibItemSink) throws IOException, SolrServerException;
+
+    /**
+     * Takes the bibs of a data dump export.
+     */
+    @FunctionalInterface
+    interface BibItemSink {
+
+        /**
+         * Takes the bib with its items.
+         *
+         * @param bibItem the bib item
+         * @throws IOException the io exception
+         */
+        void accept(BibItem bibItem) throws IOException;
+    }
+}
@@ -8,5 +8,5 @@ import org.springframework.stereotype.Service;
  * Created by angelind on 26/10/16.
  */
 @Service
-public interface DataDumpSolrDocumentRepository extends CustomDocumentRepository, SolrCrudRepository<BibItem, String> {
+public interface DataDumpSolrDocumentRepository extends CustomDocumentRepository, DataDumpExportRepository, SolrCrudRepository<BibItem, String> {
 }
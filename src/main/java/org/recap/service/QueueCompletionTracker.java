@@ -0,0 +1,199 @@
+package org.recap.service;
+
+import org.apache.camel.Header;
+import org.apache.camel.ProducerTemplate;
+import org.recap.RecapConstants;
+import org.recap.util.ConcurrentIntBitSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the completion of the batches a step of the matching algorithm sends to a queue, so that the step waits exactly until the
+ * consumers have processed them instead of polling the queue depth. Each batch sent through a run carries the run id and a sequence
+ * number in its headers, the route consuming the queue acknowledges the batch to this tracker once it is processed, and the step blocks
+ * on the latch of the run, which is released when the run is awaited and all its batches are acknowledged.
+ */
+@Service
+public class QueueCompletionTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueCompletionTracker.class);
+
+    @Value("${matching.algorithm.queue.completion.timeout.minutes:120}")
+    private long timeoutMinutes;
+
+    private final ConcurrentMap<String, Run> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a run of batches sent to the given endpoint.
+     *
+     * @param endpointUri the endpoint uri of the queue
+     * @return the run
+     */
+    public Run startRun(String endpointUri) {
+        Run run = new Run(UUID.randomUUID().toString(), endpointUri);
+        runs.put(run.getId(), run);
+        return run;
+    }
+
+    /**
+     * Acknowledges a batch processed by the consumer of a queue. Batches which were not sent through a run, or whose run is no longer
+     * awaited, are ignored.
+     *
+     * @param runId    the run id
+     * @param sequence the sequence of the batch in the run
+     */
+    public void acknowledge(@Header(RecapConstants.QUEUE_RUN_ID) String runId, @Header(RecapConstants.QUEUE_RUN_SEQUENCE) Integer sequence) {
+        if (runId != null && sequence != null) {
+            Run run = runs.get(runId);
+            if (run != null) {
+                run.acknowledge(sequence);
+            }
+        }
+    }
+
+    /**
+     * Waits until all the batches sent through the run are processed, or the timeout elapses. No batch may be sent through the run once it
+     * is awaited.
+     *
+     * @param run the run
+     * @return true if all the batches were processed, false if the timeout elapsed first
+     * @throws InterruptedException the interrupted exception
+     */
+    public boolean awaitCompletion(Run run) throws InterruptedException {
+        try {
+            boolean completed = run.await(timeoutMinutes, TimeUnit.MINUTES);
+            if (completed) {
+                logger.info("Processed {} batches sent to {}", run.getSentCount(), run.getEndpointUri());
+            } else {
+                logger.error("Timed out after {} minutes with {} of {} batches sent to {} not processed", timeoutMinutes, run.getPendingCount(),
+                        run.getSentCount(), run.getEndpointUri());
+            }
+            return completed;
+        } finally {
+            runs.remove(run.getId());
+        }
+    }
+
+    /**
+     * The batches sent to a queue by a step of the matching algorithm. The run holds one pending count of its own until it is awaited, so
+     * the latch cannot be released while batches are still being sent.
+     */
+    public static class Run {
+
+        private final String id;
+
+        private final String endpointUri;
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private final ConcurrentIntBitSet acknowledged = new ConcurrentIntBitSet();
+
+        private final AtomicLong pending = new AtomicLong(1);
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        /**
+         * Instantiates a new run.
+         *
+         * @param id          the id
+         * @param endpointUri the endpoint uri
+         */
+        Run(String id, String endpointUri) {
+            this.id = id;
+            this.endpointUri = endpointUri;
+        }
+
+        /**
+         * Gets id.
+         *
+         * @return the id
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets endpoint uri.
+         *
+         * @return the endpoint uri
+         */
+        public String getEndpointUri() {
+            return endpointUri;
+        }
+
+        /**
+         * Sends a batch to the queue of the run, tagged with the run id and the next sequence number.
+         *
+         * @param producerTemplate the producer template
+         * @param body             the body
+         */
+        public void sendBody(ProducerTemplate producerTemplate, Object body) {
+            int batchSequence = sequence.getAndIncrement();
+            pending.incrementAndGet();
+            Map<String, Object> headers = new HashMap<>();
+            headers.put(RecapConstants.QUEUE_RUN_ID, id);
+            headers.put(RecapConstants.QUEUE_RUN_SEQUENCE, batchSequence);
+            try {
+                producerTemplate.sendBodyAndHeaders(endpointUri, body, headers);
+            } catch (RuntimeException e) {
+                acknowledge(batchSequence);
+                throw e;
+            }
+        }
+
+        /**
+         * Gets the number of batches sent.
+         *
+         * @return the sent count
+         */
+        public int getSentCount() {
+            return sequence.get();
+        }
+
+        /**
+         * Gets the number of batches sent and not yet processed.
+         *
+         * @return the pending count
+         */
+        public long getPendingCount() {
+            return closed.get() ? pending.get() : pending.get() - 1;
+        }
+
+        /**
+         * A batch redelivered by the broker is acknowledged again, so each sequence number only counts down once.
+         */
+        void acknowledge(int batchSequence) {
+            if (acknowledged.add(batchSequence)) {
+                countDown();
+            }
+        }
+
+        boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            if (closed.compareAndSet(false, true)) {
+                countDown();
+            }
+            return completed.await(timeout, unit);
+        }
+
+        private void countDown() {
+            if (pending.decrementAndGet() == 0) {
+                completed.countDown();
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.recap.model.jpa.BibliographicEntity;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
 import org.recap.util.BibJSONUtil;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +46,9 @@ public class SolrIndexService {
     @Autowired
     private SolrClient solrClient;
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     @Value("${submit.collection.owninginstbibidlist.partition.size}")
     private Integer submitCollectionOwnInstBibIdListPartitionSize;
 
@@ -76,6 +80,15 @@ public class SolrIndexService {
         return solrTemplate;
     }
 
+    /**
+     * Gets search result cache.
+     *
+     * @return the search result cache
+     */
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
     /**
      * Gets BibliographicDetailsRepository object.
      *
@@ -123,6 +136,7 @@ public class SolrIndexService {
             StopWatch stopWatchIndexDocument = new StopWatch();
             stopWatchIndexDocument.start();
             getSolrTemplate().saveDocument(solrInputDocument,1);
+            getSearchResultCache().indexUpdated();
             stopWatchIndexDocument.stop();
             logger.info("Time taken to index the doc--->{}sec",stopWatchIndexDocument.getTotalTimeSeconds());
         }
@@ -164,6 +178,7 @@ public class SolrIndexService {
     public void deleteByDocId(String docIdParam, String docIdValue) throws IOException, SolrServerException {
         solrTemplate.getSolrClient().deleteByQuery(docIdParam+":"+docIdValue,1);
         solrTemplate.commit();
+        getSearchResultCache().indexUpdated();
     }
 
     /**
@@ -176,5 +191,6 @@ public class SolrIndexService {
     public void deleteBySolrQuery(String query) throws IOException, SolrServerException {
         solrTemplate.getSolrClient().deleteByQuery(query,1);
         solrTemplate.commit();
+        getSearchResultCache().indexUpdated();
     }
 }
@@ -10,6 +10,7 @@ import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
 import org.recap.repository.jpa.ItemDetailsRepository;
 import org.recap.util.BibJSONUtil;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +41,9 @@ public class DeAccessSolrDocumentService {
     @Autowired
     private SolrTemplate solrTemplate;
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     /**
      * Gets bib json util.
      *
@@ -85,6 +89,15 @@ public class DeAccessSolrDocumentService {
         return solrTemplate;
     }
 
+    /**
+     * Gets search result cache.
+     *
+     * @return the search result cache
+     */
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
     /**
      * This method is used to update the documents for IsDeletedBib by using bib id in solr.
      *
@@ -102,6 +115,7 @@ public class DeAccessSolrDocumentService {
                 stopWatchIndexDocument.stop();
                 logger.info("Time taken to index the doc for updateIsDeletedBibByBibId--->{}sec",stopWatchIndexDocument.getTotalTimeSeconds());
             }
+            getSearchResultCache().indexUpdated();
             return "Bib documents updated successfully.";
         }catch(Exception ex){
             logger.error(RecapConstants.LOG_ERROR,ex);
@@ -130,6 +144,7 @@ public class DeAccessSolrDocumentService {
                     }
                 }
             }
+            getSearchResultCache().indexUpdated();
             return "Holdings documents updated successfully.";
         }catch(Exception ex){
             logger.error(RecapConstants.LOG_ERROR,ex);
@@ -158,6 +173,7 @@ public class DeAccessSolrDocumentService {
                     }
                 }
             }
+            getSearchResultCache().indexUpdated();
             return "Item documents updated successfully.";
         }catch(Exception ex){
             logger.error(RecapConstants.LOG_ERROR,ex);
@@ -26,6 +26,12 @@ public class BibJSONUtil extends MarcUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(BibJSONUtil.class);
 
+    private static final SolrDocumentWriter<Bib> BIB_DOCUMENT_WRITER = SolrDocumentWriter.forClass(Bib.class);
+
+    private static final SolrDocumentWriter<Holdings> HOLDINGS_DOCUMENT_WRITER = SolrDocumentWriter.forClass(Holdings.class);
+
+    private static final SolrDocumentWriter<Item> ITEM_DOCUMENT_WRITER = SolrDocumentWriter.forClass(Item.class);
+
     private ProducerTemplate producerTemplate;
 
     /**
@@ -46,23 +52,6 @@ public class BibJSONUtil extends MarcUtil {
         return null;
     }
 
-    /**
-     * This method is used to get the publication place value from record
-     * @param record
-     * @return
-     */
-    private String getPublicationPlaceValue(Record record) {
-        String publicationPlaceValue;
-        List<String> publicationPlaceDataFields = Arrays.asList("260", "261", "262", "264");
-        for (String publicationPlaceDataField : publicationPlaceDataFields) {
-            publicationPlaceValue = getDataFieldValue(record, publicationPlaceDataField, null, null, "a");
-            if (StringUtils.isNotBlank(publicationPlaceValue)) {
-                return publicationPlaceValue;
-            }
-        }
-        return null;
-    }
-
     /**
      * Gets publication date value from the record.
      *
@@ -96,14 +85,15 @@ public class BibJSONUtil extends MarcUtil {
     }
 
     /**
-     * This method is used to get OCLC numbers from the records.
-     * @param record
+     * This method is used to get OCLC numbers from the 035 values, or from the control number of NYPL records with an OCoLC control number identifier.
+     * @param oclcNumberList
      * @param institutionCode
+     * @param controlNumberIdentifier
+     * @param controlNumber
      * @return
      */
-    private List<String> getOCLCNumbers(Record record, String institutionCode) {
+    private List<String> getOCLCNumbers(List<String> oclcNumberList, String institutionCode, String controlNumberIdentifier, String controlNumber) {
         List<String> oclcNumbers = new ArrayList<>();
-        List<String> oclcNumberList = getMultiDataFieldValues(record, "035", null, null, "a");
         for (String oclcNumber : oclcNumberList) {
             if (StringUtils.isNotBlank(oclcNumber) && oclcNumber.contains("OCoLC")) {
                 String modifiedOclc = oclcNumber.replaceAll(RecapConstants.NUMBER_PATTERN, "");
@@ -112,9 +102,9 @@ public class BibJSONUtil extends MarcUtil {
             }
         }
         if (CollectionUtils.isEmpty(oclcNumbers) && StringUtils.isNotBlank(institutionCode) && "NYPL".equalsIgnoreCase(institutionCode)) {
-            String oclcTag = getControlFieldValue(record, "003");
+            String oclcTag = controlNumberIdentifier;
             if (StringUtils.isNotBlank(oclcTag) && "OCoLC".equalsIgnoreCase(oclcTag)) {
-                oclcTag = getControlFieldValue(record, "001");
+                oclcTag = controlNumber;
             }
             oclcTag = StringUtils.stripStart(oclcTag, "0");
             if (StringUtils.isNotBlank(oclcTag)) {
@@ -156,6 +146,7 @@ public class BibJSONUtil extends MarcUtil {
 
     /**
      * This method is used to generate bib and items for indexing.
+     * The documents are filled by the solr document writers of the beans instead of being converted by the solr template.
      *
      * @param bibliographicEntity            the bibliographic entity
      * @param solrTemplate                   the solr template
@@ -168,7 +159,7 @@ public class BibJSONUtil extends MarcUtil {
 
         Bib bib = generateBib(bibliographicEntity);
         if(bib != null) {
-        SolrInputDocument bibSolrInputDocument = generateBibSolrInputDocument(bib, solrTemplate);
+        SolrInputDocument bibSolrInputDocument = generateBibSolrInputDocument(bib);
         List<HoldingsEntity> holdingsEntities = bibliographicEntity.getHoldingsEntities();
         List<SolrInputDocument> holdingsSolrInputDocuments = new ArrayList<>();
         HoldingsJSONUtil holdingsJSONUtil = new HoldingsJSONUtil();
@@ -185,11 +176,11 @@ public class BibJSONUtil extends MarcUtil {
                     Item item = itemJSONUtil.generateItemForIndex(itemEntity);
                     if (item != null) {
                         item.setTitleSort(bib.getTitleSort());
-                        SolrInputDocument itemSolrInputDocument = generateItemSolrInputDocument(item, solrTemplate);
+                        SolrInputDocument itemSolrInputDocument = generateItemSolrInputDocument(item);
                         itemSolrInputDocuments.add(itemSolrInputDocument);
                     }
                 }
-                SolrInputDocument holdingsSolrInputDocument = generateHoldingsSolrInputDocument(holdings, solrTemplate);
+                SolrInputDocument holdingsSolrInputDocument = generateHoldingsSolrInputDocument(holdings);
                 if (!CollectionUtils.isEmpty(itemSolrInputDocuments))
                     holdingsSolrInputDocument.addChildDocuments(itemSolrInputDocuments);
                 holdingsSolrInputDocuments.add(holdingsSolrInputDocument);
@@ -202,16 +193,16 @@ public class BibJSONUtil extends MarcUtil {
         return null;
     }
 
-    private SolrInputDocument generateItemSolrInputDocument(Item item, SolrTemplate solrTemplate) {
-        return solrTemplate.convertBeanToSolrInputDocument(item);
+    private SolrInputDocument generateItemSolrInputDocument(Item item) {
+        return ITEM_DOCUMENT_WRITER.write(item);
     }
 
-    private SolrInputDocument generateHoldingsSolrInputDocument(Holdings holdings, SolrTemplate solrTemplate) {
-        return solrTemplate.convertBeanToSolrInputDocument(holdings);
+    private SolrInputDocument generateHoldingsSolrInputDocument(Holdings holdings) {
+        return HOLDINGS_DOCUMENT_WRITER.write(holdings);
     }
 
-    private SolrInputDocument generateBibSolrInputDocument(Bib bib, SolrTemplate solrTemplate) {
-        return solrTemplate.convertBeanToSolrInputDocument(bib);
+    private SolrInputDocument generateBibSolrInputDocument(Bib bib) {
+        return BIB_DOCUMENT_WRITER.write(bib);
     }
 
     /**
@@ -259,31 +250,14 @@ public class BibJSONUtil extends MarcUtil {
             bib.setDocType(RecapConstants.BIB);
             bib.setContentType("parent");
             bib.setId(bibliographicEntity.getOwningInstitutionId()+bibliographicEntity.getOwningInstitutionBibId());
-            String bibContent = new String(bibliographicEntity.getContent());
-            List<Record> records = convertMarcXmlToRecord(bibContent);
+            List<Record> records = convertMarcXmlToRecord(bibliographicEntity.getContent(), BibJSONUtil::readsBibTag);
             Record marcRecord = records.get(0);
 
             InstitutionEntity institutionEntity = bibliographicEntity.getInstitutionEntity();
             String institutionCode = null != institutionEntity ? institutionEntity.getInstitutionCode() : "";
 
             bib.setOwningInstitution(institutionCode);
-            bib.setTitle(getTitle(marcRecord));
-            bib.setTitleDisplay(getTitleDisplay(marcRecord));
-            bib.setTitleStartsWith(getTitleStartsWith(marcRecord));
-            bib.setTitleSort(getTitleSort(marcRecord, bib.getTitleDisplay()));
-            bib.setTitleSubFieldA(getDataFieldValue(marcRecord, "245", null, null, "a"));
-            bib.setAuthorDisplay(getAuthorDisplayValue(marcRecord));
-            bib.setAuthorSearch(getAuthorSearchValue(marcRecord));
-            bib.setPublisher(getPublisherValue(marcRecord));
-            bib.setPublicationPlace(getPublicationPlaceValue(marcRecord));
-            bib.setPublicationDate(getPublicationDateValue(marcRecord));
-            bib.setSubject(getDataFieldValueStartsWith(marcRecord, "6"));
-            bib.setIsbn(getISBNNumber(marcRecord));
-            bib.setIssn(getISSNNumber(marcRecord));
-            bib.setOclcNumber(getOCLCNumbers(marcRecord, institutionCode));
-            bib.setMaterialType(getDataFieldValue(marcRecord, "245", null, null, "h"));
-            bib.setNotes(getDataFieldValueStartsWith(marcRecord, "5"));
-            bib.setLccn(getLCCNValue(marcRecord));
+            setMarcFields(bib, marcRecord, institutionCode);
             bib.setOwningInstitutionBibId(bibliographicEntity.getOwningInstitutionBibId());
             bib.setLeaderMaterialType(getLeaderMaterialType(marcRecord.getLeader()));
             bib.setBibCreatedBy(bibliographicEntity.getCreatedBy());
@@ -302,6 +276,63 @@ public class BibJSONUtil extends MarcUtil {
         return null;
     }
 
+    /**
+     * This method sets the bib fields which come from the marc record. The fields are read in one pass over the record by the bib field plan,
+     * and each field gets the same value as the getter of this class for it.
+     *
+     * @param bib             the bib
+     * @param marcRecord      the marc record
+     * @param institutionCode the institution code
+     */
+    public void setMarcFields(Bib bib, Record marcRecord, String institutionCode) {
+        MarcFieldExtractionPlan.MarcFieldValues marcFieldValues = BibFieldPlan.PLAN.extract(marcRecord);
+
+        String titleDisplay = marcFieldValues.getJoined(BibFieldPlan.TITLE_DISPLAY);
+        bib.setTitle(marcFieldValues.getJoined(BibFieldPlan.TITLE_245) + " " + marcFieldValues.getJoined(BibFieldPlan.TITLE_246) + " "
+                + marcFieldValues.getJoined(BibFieldPlan.TITLE_130) + " " + marcFieldValues.getJoined(BibFieldPlan.TITLE_730) + " "
+                + marcFieldValues.getJoined(BibFieldPlan.TITLE_740) + " " + marcFieldValues.getJoined(BibFieldPlan.TITLE_830) + " ");
+        bib.setTitleDisplay(titleDisplay);
+        bib.setTitleStartsWith(titleDisplay.split(" ")[0]);
+        bib.setTitleSort(getTitleSort(titleDisplay, marcFieldValues.getSecondIndicator(BibFieldPlan.TITLE_SECOND_INDICATOR)));
+        bib.setTitleSubFieldA(marcFieldValues.getFirstValue(BibFieldPlan.TITLE_SUBFIELD_A));
+        bib.setAuthorDisplay(marcFieldValues.getJoined(BibFieldPlan.AUTHOR_DISPLAY_100) + " " + marcFieldValues.getJoined(BibFieldPlan.AUTHOR_DISPLAY_110) + " "
+                + marcFieldValues.getJoined(BibFieldPlan.AUTHOR_DISPLAY_111) + " " + marcFieldValues.getJoined(BibFieldPlan.AUTHOR_DISPLAY_130));
+        List<String> authorSearchValues = new ArrayList<>();
+        for (int authorSearchSlot : BibFieldPlan.AUTHOR_SEARCH) {
+            authorSearchValues.addAll(marcFieldValues.getValues(authorSearchSlot));
+        }
+        bib.setAuthorSearch(authorSearchValues);
+        bib.setPublisher(getFirstNonBlankValue(marcFieldValues, BibFieldPlan.PUBLISHER));
+        bib.setPublicationPlace(getFirstNonBlankValue(marcFieldValues, BibFieldPlan.PUBLICATION_PLACE));
+        bib.setPublicationDate(getFirstNonBlankValue(marcFieldValues, BibFieldPlan.PUBLICATION_DATE));
+        bib.setSubject(marcFieldValues.getJoined(BibFieldPlan.SUBJECT));
+        bib.setIsbn(stripNonNumbers(marcFieldValues.getValues(BibFieldPlan.ISBN)));
+        bib.setIssn(stripNonNumbers(marcFieldValues.getValues(BibFieldPlan.ISSN)));
+        bib.setOclcNumber(getOCLCNumbers(marcFieldValues.getValues(BibFieldPlan.OCLC), institutionCode,
+                marcFieldValues.getControlField(BibFieldPlan.CONTROL_NUMBER_IDENTIFIER), marcFieldValues.getControlField(BibFieldPlan.CONTROL_NUMBER)));
+        bib.setMaterialType(marcFieldValues.getFirstValue(BibFieldPlan.MATERIAL_TYPE));
+        bib.setNotes(marcFieldValues.getJoined(BibFieldPlan.NOTES));
+        bib.setLccn(marcFieldValues.getFirstValue(BibFieldPlan.LCCN).trim());
+    }
+
+    private String getFirstNonBlankValue(MarcFieldExtractionPlan.MarcFieldValues marcFieldValues, int[] slots) {
+        for (int slot : slots) {
+            String value = marcFieldValues.getFirstValue(slot);
+            if (StringUtils.isNotBlank(value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private List<String> stripNonNumbers(List<String> values) {
+        List<String> numbers = new ArrayList<>();
+        for (String value : values) {
+            numbers.add(value.replaceAll(RecapConstants.NUMBER_PATTERN, ""));
+        }
+        return numbers;
+    }
+
     /**
      * This method gets bib item's last updated date.
      *
@@ -429,21 +460,6 @@ public class BibJSONUtil extends MarcUtil {
         return title.toString();
     }
 
-    /**
-     * This method is used to get the title starting with from the marc record.
-     * @param marcRecord
-     * @return
-     */
-    private String getTitleStartsWith(Record marcRecord){
-        String title = getTitleDisplay(marcRecord);
-        String titleStartsWith = null;
-        if(title!=null){
-            String[] splitedTitle = title.split(" ");
-            titleStartsWith = splitedTitle[0];
-        }
-        return titleStartsWith;
-    }
-
     /**
      * This method gets title display from the marc record.
      *
@@ -518,7 +534,10 @@ public class BibJSONUtil extends MarcUtil {
      * @return the title sort
      */
     public String getTitleSort(Record marcRecord, String titleDisplay) {
-        Integer secondIndicatorForDataField = getSecondIndicatorForDataField(marcRecord, "245");
+        return getTitleSort(titleDisplay, getSecondIndicatorForDataField(marcRecord, "245"));
+    }
+
+    private String getTitleSort(String titleDisplay, int secondIndicatorForDataField) {
         if (StringUtils.isNotBlank(titleDisplay) && titleDisplay.length() >= secondIndicatorForDataField) {
             return titleDisplay.substring(secondIndicatorForDataField);
         }
@@ -542,4 +561,74 @@ public class BibJSONUtil extends MarcUtil {
     public void setProducerTemplate(ProducerTemplate producerTemplate) {
         this.producerTemplate = producerTemplate;
     }
+
+    /**
+     * This method tells whether the bib document reads any value from the marc fields of the given tag. It is the tag filter
+     * the marc xml of a bib is read with.
+     *
+     * @param tag the tag
+     * @return the boolean
+     */
+    public static boolean readsBibTag(String tag) {
+        return BibFieldPlan.PLAN.readsTag(tag);
+    }
+
+    /**
+     * The plan of the marc fields read for a bib, with the slot of each field.
+     */
+    private static class BibFieldPlan {
+
+        private static final MarcFieldExtractionPlan PLAN = new MarcFieldExtractionPlan();
+
+        private static final int TITLE_245 = PLAN.joinFirstSubfields("245", 'a', 'b', 'n', 'p');
+        private static final int TITLE_246 = PLAN.joinFirstSubfields("246", 'a', 'b');
+        private static final int TITLE_130 = PLAN.joinFirstSubfields("130", 'a');
+        private static final int TITLE_730 = PLAN.joinFirstSubfields("730", 'a');
+        private static final int TITLE_740 = PLAN.joinFirstSubfields("740", 'a');
+        private static final int TITLE_830 = PLAN.joinFirstSubfields("830", 'a');
+        private static final int TITLE_DISPLAY = PLAN.joinFirstSubfields("245", 'a', 'b', 'c', 'f', 'g', 'h', 'k', 'n', 'p', 's');
+        private static final int TITLE_SECOND_INDICATOR = PLAN.readSecondIndicator("245");
+        private static final int TITLE_SUBFIELD_A = PLAN.collectSubfieldValues("245", null, null, 'a');
+        private static final int MATERIAL_TYPE = PLAN.collectSubfieldValues("245", null, null, 'h');
+
+        private static final int AUTHOR_DISPLAY_100 = PLAN.joinFirstSubfields("100", 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'j', 'k', 'l', 'n', 'p', 'q', 't', 'u');
+        private static final int AUTHOR_DISPLAY_110 = PLAN.joinFirstSubfields("110", 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'k', 'l', 'n', 'p', 't', 'u');
+        private static final int AUTHOR_DISPLAY_111 = PLAN.joinFirstSubfields("111", 'a', 'c', 'd', 'e', 'f', 'g', 'j', 'k', 'l', 'n', 'p', 'q', 't', 'u');
+        private static final int AUTHOR_DISPLAY_130 = PLAN.joinFirstSubfields("130", 'a', 'd', 'f', 'g', 'h', 'k', 'l', 'm', 'n', 'o', 'p', 'r', 's', 't');
+
+        // In the order getAuthorSearchValue iterates its tags
+        private static final int[] AUTHOR_SEARCH = {
+                PLAN.collectFirstSubfieldValues("110", 'a', 'b'),
+                PLAN.collectFirstSubfieldValues("100", 'a', 'q'),
+                PLAN.collectFirstSubfieldValues("111", 'a'),
+                PLAN.collectFirstSubfieldValues("710", 'a', 'b'),
+                PLAN.collectFirstSubfieldValues("700", 'a'),
+                PLAN.collectFirstSubfieldValues("711", 'a')
+        };
+
+        private static final String[] PUBLICATION_TAGS = {"260", "261", "262", "264"};
+        private static final int[] PUBLISHER = collectSubfieldValues(PUBLICATION_TAGS, 'b');
+        private static final int[] PUBLICATION_PLACE = collectSubfieldValues(PUBLICATION_TAGS, 'a');
+        private static final int[] PUBLICATION_DATE = collectSubfieldValues(PUBLICATION_TAGS, 'c');
+
+        private static final int SUBJECT = PLAN.joinAllSubfields('6');
+        private static final int NOTES = PLAN.joinAllSubfields('5');
+        private static final int ISBN = PLAN.collectSubfieldValues("020", null, null, 'a');
+        private static final int ISSN = PLAN.collectSubfieldValues("022", null, null, 'a');
+        private static final int OCLC = PLAN.collectSubfieldValues("035", null, null, 'a');
+        private static final int LCCN = PLAN.collectSubfieldValues("010", null, null, 'a');
+        private static final int CONTROL_NUMBER = PLAN.readControlField("001");
+        private static final int CONTROL_NUMBER_IDENTIFIER = PLAN.readControlField("003");
+
+        private BibFieldPlan() {
+        }
+
+        private static int[] collectSubfieldValues(String[] tags, char subfieldCode) {
+            int[] slots = new int[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                slots[i] = PLAN.collectSubfieldValues(tags[i], null, null, subfieldCode);
+            }
+            return slots;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package org.recap.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread safe set of non negative int values, such as bib ids, held as bits. Adding a value is one compare and set on the word holding its
+ * bit, so threads adding values never lock. The bits are kept in pages of 64K values allocated as the first value of the page is added, so
+ * the set takes 8 KB for each range of 64K ids in use rather than a bit for every possible id.
+ */
+public class ConcurrentIntBitSet {
+
+    private static final int PAGE_BITS = 16;
+
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+
+    private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - PAGE_BITS));
+
+    /**
+     * Adds the value to the set.
+     *
+     * @param value the value
+     * @return true if the set did not already contain the value, for exactly one of the threads adding it
+     */
+    public boolean add(int value) {
+        AtomicLongArray page = getPage(value);
+        int word = (value & ((1 << PAGE_BITS) - 1)) >>> 6;
+        long bit = 1L << value;
+        long bits;
+        do {
+            bits = page.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, bits, bits | bit));
+        return true;
+    }
+
+    /**
+     * Tells whether the set contains the value.
+     *
+     * @param value the value
+     * @return the boolean
+     */
+    public boolean contains(int value) {
+        checkValue(value);
+        AtomicLongArray page = pages.get(value >>> PAGE_BITS);
+        return page != null && (page.get((value & ((1 << PAGE_BITS) - 1)) >>> 6) & (1L << value)) != 0;
+    }
+
+    private AtomicLongArray getPage(int value) {
+        checkValue(value);
+        int pageIndex = value >>> PAGE_BITS;
+        AtomicLongArray page = pages.get(pageIndex);
+        if (page == null) {
+            pages.compareAndSet(pageIndex, null, new AtomicLongArray(WORDS_PER_PAGE));
+            page = pages.get(pageIndex);
+        }
+        return page;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value : " + value);
+        }
+    }
+}
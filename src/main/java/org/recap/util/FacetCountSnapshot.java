@@ -0,0 +1,143 @@
+package org.recap.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.recap.RecapConstants;
+import org.recap.model.search.SearchRecordsRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+/**
+ * Keeps the bib and item counts of the searches without search text, by facet combination, so that the count query of such a search,
+ * the default search of the landing page above all, is answered from memory. The counts only change when the index changes, so a count
+ * is kept with the index generation it was counted at and is not used once the index has changed. The snapshot is refreshed after each
+ * indexing run, which counts the default search again. Searches with search text always count in solr. The number of counts kept is
+ * bounded, since the facet combinations come from the clients.
+ */
+@Component
+public class FacetCountSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetCountSnapshot.class);
+
+    @Resource
+    private SolrTemplate solrTemplate;
+
+    @Autowired
+    private SolrQueryBuilder solrQueryBuilder;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Value("${search.facet.count.snapshot.max.size:1000}")
+    private long maxSize;
+
+    private Cache<String, FacetCount> facetCounts;
+
+    /**
+     * This method builds the cache of the counts.
+     */
+    @PostConstruct
+    public void init() {
+        facetCounts = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Gets the key of the count of the bibs or items of the search, made of the facets of the search.
+     *
+     * @param docType              the doc type counted, bib or item
+     * @param searchRecordsRequest the search records request
+     * @return the key, or null if the search has search text and so is not counted from the snapshot
+     */
+    public String getKey(String docType, SearchRecordsRequest searchRecordsRequest) {
+        if (StringUtils.isNotBlank(searchRecordsRequest.getFieldValue())) {
+            return null;
+        }
+        return docType + ":" + searchResultCache.getFacetKey(searchRecordsRequest);
+    }
+
+    /**
+     * Gets the index generation, to be read before counting in solr and passed back with the count.
+     *
+     * @return the index generation
+     */
+    public long getIndexGeneration() {
+        return searchResultCache.getIndexGeneration();
+    }
+
+    /**
+     * Gets the count kept for the key.
+     *
+     * @param key the key
+     * @return the count, or null if no count is kept for the key or the index has changed since it was counted
+     */
+    public Long getCount(String key) {
+        if (key == null) {
+            return null;
+        }
+        FacetCount facetCount = facetCounts.getIfPresent(key);
+        if (facetCount == null) {
+            return null;
+        }
+        if (facetCount.indexGeneration != getIndexGeneration()) {
+            facetCounts.asMap().remove(key, facetCount);
+            return null;
+        }
+        return facetCount.count;
+    }
+
+    /**
+     * Keeps the count counted in solr for the key, unless the index has changed since the count started or too recently for the change
+     * to be visible to the count.
+     *
+     * @param key             the key, null for a search with search text
+     * @param indexGeneration the index generation when the count started
+     * @param count           the count
+     */
+    public void putCount(String key, long indexGeneration, long count) {
+        if (key != null && searchResultCache.isCurrent(indexGeneration)) {
+            facetCounts.put(key, new FacetCount(indexGeneration, count));
+        }
+    }
+
+    /**
+     * This method is called at the end of an indexing run, whether or not it completed. It drops the counts of the previous index and counts
+     * the default search again, so that the landing page does not wait for the count queries of the new index.
+     */
+    public void refresh() {
+        searchResultCache.indexUpdated();
+        long indexGeneration = getIndexGeneration();
+        facetCounts.invalidateAll();
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        try {
+            long bibCount = solrTemplate.getSolrClient().query(solrQueryBuilder.getCountQueryForParentAndChildCriteria(searchRecordsRequest)).getResults().getNumFound();
+            long itemCount = solrTemplate.getSolrClient().query(solrQueryBuilder.getCountQueryForChildAndParentCriteria(searchRecordsRequest)).getResults().getNumFound();
+            facetCounts.put(getKey(RecapConstants.BIB, searchRecordsRequest), new FacetCount(indexGeneration, bibCount));
+            facetCounts.put(getKey(RecapConstants.ITEM, searchRecordsRequest), new FacetCount(indexGeneration, itemCount));
+            logger.info("Facet count snapshot refreshed, bibs : {}, items : {}", bibCount, itemCount);
+        } catch (Exception e) {
+            logger.error(RecapConstants.LOG_ERROR, e);
+        }
+    }
+
+    private static final class FacetCount {
+
+        private final long indexGeneration;
+
+        private final long count;
+
+        private FacetCount(long indexGeneration, long count) {
+            this.indexGeneration = indexGeneration;
+            this.count = count;
+        }
+    }
+}
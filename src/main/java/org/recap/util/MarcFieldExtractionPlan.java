@@ -0,0 +1,331 @@
+package org.recap.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+
+import java.util.*;
+
+/**
+ * A precompiled plan of the marc fields to be read from a record. The fields to be read are registered once, each registration returns
+ * the slot its value is read into, and {@link #extract(Record)} then visits the fields of a record once and routes each subfield to every slot
+ * that needs it. Each kind of slot gives the same value as the {@link MarcUtil} method named in its registration method.
+ * The plan must be fully registered before it is shared between threads.
+ */
+public class MarcFieldExtractionPlan {
+
+    private static final int MAX_SUBFIELD_CODE = 128;
+
+    private final Map<String, List<FieldRule>> rulesByTag = new HashMap<>();
+
+    private final Map<Character, List<FieldRule>> rulesByTagPrefix = new HashMap<>();
+
+    private final Map<String, Integer> controlFieldSlots = new HashMap<>();
+
+    private final Map<String, Integer> secondIndicatorSlots = new HashMap<>();
+
+    private int joinedSlotCount;
+
+    private int valuesSlotCount;
+
+    /**
+     * Registers the subfields of the given tag to be joined as {@link MarcUtil#getDataFieldValueStartsWith(Record, String, List)} does,
+     * which takes the first subfield of every given code from every field of the tag.
+     *
+     * @param tag           the tag
+     * @param subfieldCodes the subfield codes
+     * @return the joined slot
+     */
+    public int joinFirstSubfields(String tag, char... subfieldCodes) {
+        int slot = joinedSlotCount++;
+        addRule(tag, new FieldRule() {
+            @Override
+            void endField(DataField dataField, Subfield[] firstSubfields, MarcFieldValues marcFieldValues) {
+                StringBuilder joined = marcFieldValues.joined[slot];
+                for (char subfieldCode : subfieldCodes) {
+                    Subfield subfield = firstSubfields[subfieldCode];
+                    if (subfield != null) {
+                        joined.append(subfield.getData());
+                        joined.append(" ");
+                    }
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Registers every non blank subfield of the fields whose tag starts with the given digit to be joined
+     * as {@link MarcUtil#getDataFieldValueStartsWith(Record, String)} does.
+     *
+     * @param tagPrefix the first digit of the tag
+     * @return the joined slot
+     */
+    public int joinAllSubfields(char tagPrefix) {
+        int slot = joinedSlotCount++;
+        rulesByTagPrefix.computeIfAbsent(tagPrefix, prefix -> new ArrayList<>()).add(new FieldRule() {
+            @Override
+            void subfield(Subfield subfield, MarcFieldValues marcFieldValues) {
+                if (StringUtils.isNotBlank(subfield.getData())) {
+                    marcFieldValues.joined[slot].append(subfield.getData());
+                    marcFieldValues.joined[slot].append(" ");
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Registers the non blank subfields of the given code from the fields of the given tag and indicators to be collected
+     * as {@link MarcUtil#getMultiDataFieldValues(Record, String, String, String, String)} does. A null indicator matches any indicator.
+     *
+     * @param tag          the tag
+     * @param ind1         the ind 1
+     * @param ind2         the ind 2
+     * @param subfieldCode the subfield code
+     * @return the values slot
+     */
+    public int collectSubfieldValues(String tag, Character ind1, Character ind2, char subfieldCode) {
+        int slot = valuesSlotCount++;
+        addRule(tag, new FieldRule() {
+            @Override
+            boolean matches(DataField dataField) {
+                return (ind1 == null || dataField.getIndicator1() == ind1) && (ind2 == null || dataField.getIndicator2() == ind2);
+            }
+
+            @Override
+            void subfield(Subfield subfield, MarcFieldValues marcFieldValues) {
+                if (subfield.getCode() == subfieldCode && StringUtils.isNotBlank(subfield.getData())) {
+                    marcFieldValues.values.get(slot).add(subfield.getData());
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Registers the first subfield of every given code from every field of the given tag to be collected when not blank,
+     * as {@link MarcUtil#getListOfDataFieldValuesStartsWith(Record, String, List)} does.
+     *
+     * @param tag           the tag
+     * @param subfieldCodes the subfield codes
+     * @return the values slot
+     */
+    public int collectFirstSubfieldValues(String tag, char... subfieldCodes) {
+        int slot = valuesSlotCount++;
+        addRule(tag, new FieldRule() {
+            @Override
+            void endField(DataField dataField, Subfield[] firstSubfields, MarcFieldValues marcFieldValues) {
+                for (char subfieldCode : subfieldCodes) {
+                    Subfield subfield = firstSubfields[subfieldCode];
+                    if (subfield != null && StringUtils.isNotBlank(subfield.getData())) {
+                        marcFieldValues.values.get(slot).add(subfield.getData());
+                    }
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Registers the data of the first control field of the given tag to be read, as {@link MarcUtil#getControlFieldValue(Record, String)} does.
+     *
+     * @param tag the tag
+     * @return the control field slot
+     */
+    public int readControlField(String tag) {
+        return controlFieldSlots.computeIfAbsent(tag, key -> controlFieldSlots.size());
+    }
+
+    /**
+     * Registers the second indicator of the first field of the given tag to be read, as {@link MarcUtil#getSecondIndicatorForDataField(Record, String)} does.
+     *
+     * @param tag the tag
+     * @return the second indicator slot
+     */
+    public int readSecondIndicator(String tag) {
+        return secondIndicatorSlots.computeIfAbsent(tag, key -> secondIndicatorSlots.size());
+    }
+
+    /**
+     * This method tells whether the plan reads any value from the fields of the given tag, so that the other fields need not be parsed.
+     *
+     * @param tag the tag
+     * @return the boolean
+     */
+    public boolean readsTag(String tag) {
+        return rulesByTag.containsKey(tag) || controlFieldSlots.containsKey(tag) || secondIndicatorSlots.containsKey(tag)
+                || (StringUtils.isNotBlank(tag) && rulesByTagPrefix.containsKey(tag.charAt(0)));
+    }
+
+    /**
+     * This method visits the fields of the record once and reads the values of every registered slot.
+     *
+     * @param record the record
+     * @return the marc field values
+     */
+    public MarcFieldValues extract(Record record) {
+        MarcFieldValues marcFieldValues = new MarcFieldValues(joinedSlotCount, valuesSlotCount, controlFieldSlots.size(), secondIndicatorSlots.size());
+        if (!controlFieldSlots.isEmpty()) {
+            for (ControlField controlField : record.getControlFields()) {
+                Integer slot = controlFieldSlots.get(controlField.getTag());
+                if (slot != null && marcFieldValues.controlFields[slot] == null) {
+                    marcFieldValues.controlFields[slot] = controlField.getData();
+                }
+            }
+        }
+        Subfield[] firstSubfields = new Subfield[MAX_SUBFIELD_CODE];
+        List<FieldRule> matchingRules = new ArrayList<>();
+        for (DataField dataField : record.getDataFields()) {
+            String tag = dataField.getTag();
+            if (StringUtils.isBlank(tag)) {
+                continue;
+            }
+            readSecondIndicator(dataField, tag, marcFieldValues);
+            addMatchingRules(rulesByTag.get(tag), dataField, matchingRules);
+            addMatchingRules(rulesByTagPrefix.get(tag.charAt(0)), dataField, matchingRules);
+            if (matchingRules.isEmpty()) {
+                continue;
+            }
+            for (Subfield subfield : dataField.getSubfields()) {
+                char code = subfield.getCode();
+                if (code < MAX_SUBFIELD_CODE && firstSubfields[code] == null) {
+                    firstSubfields[code] = subfield;
+                }
+                for (FieldRule fieldRule : matchingRules) {
+                    fieldRule.subfield(subfield, marcFieldValues);
+                }
+            }
+            for (FieldRule fieldRule : matchingRules) {
+                fieldRule.endField(dataField, firstSubfields, marcFieldValues);
+            }
+            Arrays.fill(firstSubfields, null);
+            matchingRules.clear();
+        }
+        return marcFieldValues;
+    }
+
+    private void readSecondIndicator(DataField dataField, String tag, MarcFieldValues marcFieldValues) {
+        Integer slot = secondIndicatorSlots.get(tag);
+        if (slot != null && !marcFieldValues.secondIndicatorRead[slot]) {
+            marcFieldValues.secondIndicatorRead[slot] = true;
+            char indicator2 = dataField.getIndicator2();
+            if (Character.isDigit(indicator2)) {
+                marcFieldValues.secondIndicators[slot] = Character.getNumericValue(indicator2);
+            }
+        }
+    }
+
+    private void addMatchingRules(List<FieldRule> fieldRules, DataField dataField, List<FieldRule> matchingRules) {
+        if (fieldRules != null) {
+            for (FieldRule fieldRule : fieldRules) {
+                if (fieldRule.matches(dataField)) {
+                    matchingRules.add(fieldRule);
+                }
+            }
+        }
+    }
+
+    private void addRule(String tag, FieldRule fieldRule) {
+        rulesByTag.computeIfAbsent(tag, key -> new ArrayList<>()).add(fieldRule);
+    }
+
+    /**
+     * Reads the subfields of a field into a slot. A rule sees every subfield of the field in order, and then the first subfield of every code.
+     */
+    private abstract static class FieldRule {
+
+        boolean matches(DataField dataField) {
+            return true;
+        }
+
+        void subfield(Subfield subfield, MarcFieldValues marcFieldValues) {
+        }
+
+        void endField(DataField dataField, Subfield[] firstSubfields, MarcFieldValues marcFieldValues) {
+        }
+    }
+
+    /**
+     * The values read from one record by the plan.
+     */
+    public static class MarcFieldValues {
+
+        private final StringBuilder[] joined;
+
+        private final List<List<String>> values;
+
+        private final String[] controlFields;
+
+        private final int[] secondIndicators;
+
+        private final boolean[] secondIndicatorRead;
+
+        MarcFieldValues(int joinedSlotCount, int valuesSlotCount, int controlFieldSlotCount, int secondIndicatorSlotCount) {
+            joined = new StringBuilder[joinedSlotCount];
+            for (int i = 0; i < joinedSlotCount; i++) {
+                joined[i] = new StringBuilder();
+            }
+            values = new ArrayList<>(valuesSlotCount);
+            for (int i = 0; i < valuesSlotCount; i++) {
+                values.add(new ArrayList<>());
+            }
+            controlFields = new String[controlFieldSlotCount];
+            secondIndicators = new int[secondIndicatorSlotCount];
+            secondIndicatorRead = new boolean[secondIndicatorSlotCount];
+        }
+
+        /**
+         * Gets the trimmed joined value of the slot.
+         *
+         * @param slot the joined slot
+         * @return the joined value
+         */
+        public String getJoined(int slot) {
+            return joined[slot].toString().trim();
+        }
+
+        /**
+         * Gets the values of the slot.
+         *
+         * @param slot the values slot
+         * @return the values
+         */
+        public List<String> getValues(int slot) {
+            return values.get(slot);
+        }
+
+        /**
+         * Gets the first value of the slot, or an empty string when there is none, as {@link MarcUtil#getDataFieldValue(Record, String, String, String, String)} does.
+         *
+         * @param slot the values slot
+         * @return the first value
+         */
+        public String getFirstValue(int slot) {
+            List<String> slotValues = values.get(slot);
+            return slotValues.isEmpty() ? "" : slotValues.get(0);
+        }
+
+        /**
+         * Gets the control field value of the slot.
+         *
+         * @param slot the control field slot
+         * @return the control field value
+         */
+        public String getControlField(int slot) {
+            return controlFields[slot];
+        }
+
+        /**
+         * Gets the second indicator of the slot as a number, or 0 when it is not a digit.
+         *
+         * @param slot the second indicator slot
+         * @return the second indicator
+         */
+        public int getSecondIndicator(int slot) {
+            return secondIndicators[slot];
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Created by pvsubrah on 6/15/16.
@@ -47,6 +48,27 @@ public class MarcUtil {
         return records;
     }
 
+    /**
+     * This method reads the records straight from the marc xml content bytes, without decoding the content to a string first.
+     *
+     * @param marcXml the marc xml content
+     * @return the list
+     */
+    public List<Record> convertMarcXmlToRecord(byte[] marcXml) {
+        return MarcXmlStreamReader.read(marcXml, null);
+    }
+
+    /**
+     * This method reads the records straight from the marc xml content bytes, keeping only the control and data fields of the tags accepted by the filter.
+     *
+     * @param marcXml   the marc xml content
+     * @param tagFilter the tag filter
+     * @return the list
+     */
+    public List<Record> convertMarcXmlToRecord(byte[] marcXml, Predicate<String> tagFilter) {
+        return MarcXmlStreamReader.read(marcXml, tagFilter);
+    }
+
     /**
      * This method gets data field value for the given data fields tag starts with.
      *
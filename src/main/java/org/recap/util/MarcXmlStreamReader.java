@@ -0,0 +1,163 @@
+package org.recap.util;
+
+import org.marc4j.MarcException;
+import org.marc4j.marc.*;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Reads marc xml records straight from the stored bytes with a StAX parser, without decoding the content to a string first.
+ * The encoding is taken from the xml declaration, defaulting to UTF-8. The records hold the same leader, fields, indicators and subfields
+ * as the ones read by marc4j's MarcXmlReader, and can be limited to the fields of the tags that are needed.
+ */
+public final class MarcXmlStreamReader {
+
+    private static final Set<String> RECORD_TYPES = new HashSet<>(Arrays.asList("Bibliographic", "Authority", "Holdings", "Classification", "Community"));
+
+    /**
+     * Creating an XMLInputFactory looks up the StAX implementation on the classpath, and the factories are not guaranteed to be thread safe,
+     * so every thread keeps and reuses its own factory.
+     */
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORIES = ThreadLocal.withInitial(MarcXmlStreamReader::newXmlInputFactory);
+
+    private MarcXmlStreamReader() {
+    }
+
+    /**
+     * This method reads the marc records from marc xml content.
+     *
+     * @param marcXml   the marc xml content
+     * @param tagFilter the tags of the control and data fields to be read, or null to read all fields
+     * @return the list of records
+     */
+    public static List<Record> read(byte[] marcXml, Predicate<String> tagFilter) {
+        XMLStreamReader xmlStreamReader = null;
+        try {
+            xmlStreamReader = XML_INPUT_FACTORIES.get().createXMLStreamReader(new ByteArrayInputStream(marcXml));
+            return read(xmlStreamReader, tagFilter, MarcFactory.newInstance());
+        } catch (XMLStreamException e) {
+            throw new MarcException("Error in reading marc xml", e);
+        } finally {
+            close(xmlStreamReader);
+        }
+    }
+
+    private static List<Record> read(XMLStreamReader xmlStreamReader, Predicate<String> tagFilter, MarcFactory marcFactory) throws XMLStreamException {
+        List<Record> records = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        Record record = null;
+        DataField dataField = null;
+        ControlField controlField = null;
+        Subfield subfield = null;
+        boolean readText = false;
+        while (xmlStreamReader.hasNext()) {
+            int event = xmlStreamReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String elementName = xmlStreamReader.getLocalName();
+                if ("record".equals(elementName)) {
+                    record = marcFactory.newRecord();
+                    String type = xmlStreamReader.getAttributeValue(null, "type");
+                    if (type != null && RECORD_TYPES.contains(type)) {
+                        record.setType(type);
+                    }
+                } else if ("leader".equals(elementName)) {
+                    readText = true;
+                } else if ("controlfield".equals(elementName)) {
+                    String tag = getRequiredAttribute(xmlStreamReader, "tag", "ControlField missing tag value");
+                    if (tagFilter == null || tagFilter.test(tag)) {
+                        controlField = marcFactory.newControlField(tag);
+                        readText = true;
+                    } else {
+                        skipElement(xmlStreamReader);
+                    }
+                } else if ("datafield".equals(elementName)) {
+                    String tag = getRequiredAttribute(xmlStreamReader, "tag", "DataField missing tag value");
+                    if (tagFilter == null || tagFilter.test(tag)) {
+                        char ind1 = getCharacter(getRequiredAttribute(xmlStreamReader, "ind1", "DataField (" + tag + ") missing first indicator"));
+                        char ind2 = getCharacter(getRequiredAttribute(xmlStreamReader, "ind2", "DataField (" + tag + ") missing second indicator"));
+                        dataField = marcFactory.newDataField(tag, ind1, ind2);
+                    } else {
+                        skipElement(xmlStreamReader);
+                    }
+                } else if ("subfield".equals(elementName)) {
+                    String code = getRequiredAttribute(xmlStreamReader, "code", "Subfield missing code attribute");
+                    subfield = marcFactory.newSubfield(getCharacter(code));
+                    readText = true;
+                }
+                text.setLength(0);
+            } else if (readText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE)) {
+                text.append(xmlStreamReader.getTextCharacters(), xmlStreamReader.getTextStart(), xmlStreamReader.getTextLength());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String elementName = xmlStreamReader.getLocalName();
+                if ("record".equals(elementName)) {
+                    records.add(record);
+                } else if ("leader".equals(elementName)) {
+                    record.setLeader(marcFactory.newLeader(text.toString()));
+                } else if ("controlfield".equals(elementName)) {
+                    controlField.setData(text.toString());
+                    record.addVariableField(controlField);
+                } else if ("datafield".equals(elementName)) {
+                    record.addVariableField(dataField);
+                } else if ("subfield".equals(elementName)) {
+                    subfield.setData(text.toString());
+                    dataField.addSubfield(subfield);
+                }
+                readText = false;
+            }
+        }
+        return records;
+    }
+
+    private static String getRequiredAttribute(XMLStreamReader xmlStreamReader, String attributeName, String message) {
+        String value = xmlStreamReader.getAttributeValue(null, attributeName);
+        if (value == null) {
+            throw new MarcException(message);
+        }
+        return value;
+    }
+
+    private static char getCharacter(String value) {
+        return value.length() > 0 ? value.charAt(0) : ' ';
+    }
+
+    private static void skipElement(XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xmlStreamReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void close(XMLStreamReader xmlStreamReader) {
+        if (xmlStreamReader != null) {
+            try {
+                xmlStreamReader.close();
+            } catch (XMLStreamException e) {
+                throw new MarcException("Error in closing marc xml reader", e);
+            }
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlInputFactory;
+    }
+}
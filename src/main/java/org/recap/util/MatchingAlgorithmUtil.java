@@ -8,7 +8,6 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.QueryResponse;
-import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.recap.RecapConstants;
 import org.recap.matchingalgorithm.MatchingCounter;
@@ -16,10 +15,13 @@ import org.recap.model.jpa.MatchingBibEntity;
 import org.recap.model.jpa.MatchingMatchPointsEntity;
 import org.recap.model.jpa.ReportDataEntity;
 import org.recap.model.jpa.ReportEntity;
+import org.recap.model.jpa.InstitutionEntity;
+import org.recap.repository.jpa.InstitutionDetailsRepository;
 import org.recap.repository.jpa.MatchingBibDetailsRepository;
 import org.recap.repository.jpa.MatchingMatchPointsDetailsRepository;
 import org.recap.repository.jpa.ReportDataDetailsRepository;
 import org.recap.repository.jpa.ReportDetailRepository;
+import org.recap.service.QueueCompletionTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +63,9 @@ public class MatchingAlgorithmUtil {
     @Autowired
     private ReportDataDetailsRepository reportDataDetailsRepository;
 
+    @Autowired
+    private InstitutionDetailsRepository institutionDetailsRepository;
+
     private String and = " AND ";
 
     private String coreParentFilterQuery = "{!parent which=\"ContentType:parent\"}";
@@ -77,77 +82,6 @@ public class MatchingAlgorithmUtil {
         return reportDetailRepository;
     }
 
-    /**
-     * This method populates and save the reports for single match bibs.
-     *
-     * @param batchSize the batch size
-     * @param matching  the matching
-     * @return the single match bibs and save report
-     */
-    public Map<String,Integer> getSingleMatchBibsAndSaveReport(Integer batchSize, String matching) {
-        Map<String, Set<Integer>> criteriaMap = new HashMap<>();
-        Map<Integer, MatchingBibEntity> bibEntityMap = new HashMap<>();
-        Integer pulMatchingCount = 0;
-        Integer culMatchingCount = 0;
-        Integer nyplMatchingCount = 0;
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        List<Integer> singleMatchBibIdsBasedOnMatching = matchingBibDetailsRepository.getSingleMatchBibIdsBasedOnMatching(matching);
-        stopWatch.stop();
-        logger.info("Time taken to fetch {} from db : {} ",matching,stopWatch.getTotalTimeSeconds());
-        logger.info("Total {}  : {} " ,matching ,singleMatchBibIdsBasedOnMatching.size());
-
-        if(org.apache.commons.collections.CollectionUtils.isNotEmpty(singleMatchBibIdsBasedOnMatching)) {
-            List<List<Integer>> bibIdLists = Lists.partition(singleMatchBibIdsBasedOnMatching, batchSize);
-            logger.info("Total {} list : {} ",matching, bibIdLists.size());
-            for (Iterator<List<Integer>> iterator = bibIdLists.iterator(); iterator.hasNext(); ) {
-                List<Integer> bibIds = iterator.next();
-                List<MatchingBibEntity> matchingBibEntities = matchingBibDetailsRepository.getBibEntityBasedOnBibIds(bibIds);
-                if(org.apache.commons.collections.CollectionUtils.isNotEmpty(matchingBibEntities)) {
-                    for (Iterator<MatchingBibEntity> matchingBibEntityIterator = matchingBibEntities.iterator(); matchingBibEntityIterator.hasNext(); ) {
-                        MatchingBibEntity matchingBibEntity = matchingBibEntityIterator.next();
-                        Integer bibId = matchingBibEntity.getBibId();
-                        String matchCriteriaValue = getMatchCriteriaValue(matching, matchingBibEntity);
-                        if(!bibEntityMap.containsKey(bibId)) {
-                            bibEntityMap.put(bibId, matchingBibEntity);
-                        }
-                        populateCriteriaMap(criteriaMap, bibId, matchCriteriaValue);
-                    }
-                }
-            }
-
-            Set<String> criteriaValueSet = new HashSet<>();
-            for (Iterator<String> iterator = criteriaMap.keySet().iterator(); iterator.hasNext(); ) {
-                String criteriaValue = iterator.next();
-                if (!criteriaValueSet.contains(criteriaValue) && criteriaMap.get(criteriaValue).size() > 1) {
-                    StringBuilder matchPointValue = new StringBuilder();
-                    criteriaValueSet.add(criteriaValue);
-                    Set<Integer> tempBibIds = new HashSet<>();
-                    List<Integer> tempBibIdList = new ArrayList<>();
-                    Set<Integer> bibIds = criteriaMap.get(criteriaValue);
-                    tempBibIds.addAll(bibIds);
-                    for (Integer bibId : bibIds) {
-                        MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                        matchPointValue.append(StringUtils.isNotBlank(matchPointValue.toString()) ? "," : "").append(getMatchCriteriaValue(matching, matchingBibEntity));
-                        String[] criteriaValueList = matchPointValue.toString().split(",");
-                        tempBibIds.addAll(getBibIdsForCriteriaValue(criteriaMap, criteriaValueSet, criteriaValue, matching, criteriaValueList, bibEntityMap, matchPointValue));
-                    }
-                    tempBibIdList.addAll(tempBibIds);
-                    Map<String, Integer> countsMap = saveReportForSingleMatch(matchPointValue.toString(), tempBibIdList, matching, bibEntityMap, false);
-                    pulMatchingCount = pulMatchingCount + countsMap.get("pulMatchingCount");
-                    culMatchingCount = culMatchingCount + countsMap.get("culMatchingCount");
-                    nyplMatchingCount = nyplMatchingCount + countsMap.get("nyplMatchingCount");
-                }
-            }
-        }
-
-        Map countsMap = new HashMap();
-        countsMap.put("pulMatchingCount", pulMatchingCount);
-        countsMap.put("culMatchingCount", culMatchingCount);
-        countsMap.put("nyplMatchingCount", nyplMatchingCount);
-        return countsMap;
-    }
-
     /**
      * Process pending matching bibs map.
      *
@@ -163,7 +97,6 @@ public class MatchingAlgorithmUtil {
         if(CollectionUtils.isNotEmpty(matchingBibEntityList)) {
             for(MatchingBibEntity matchingBibEntity : matchingBibEntityList) {
                 if(!matchingBibIds.contains(matchingBibEntity.getId())) {
-                    Map<Integer, MatchingBibEntity> matchingBibEntityMap = new HashMap<>();
                     String matchPointValue = "";
                     String query = "";
                     if(matchingBibEntity.getMatching().equalsIgnoreCase(RecapConstants.MATCH_POINT_FIELD_OCLC)) {
@@ -186,10 +119,9 @@ public class MatchingAlgorithmUtil {
                     if(bibIds.size() > 1) {
                         List<MatchingBibEntity> bibEntities = matchingBibDetailsRepository.findByMatchingAndBibIdIn(matchingBibEntity.getMatching(), bibIds);
                         for(MatchingBibEntity bibEntity : bibEntities) {
-                            matchingBibEntityMap.put(bibEntity.getBibId(), bibEntity);
                             matchingBibIds.add(bibEntity.getId());
                         }
-                        Map<String, Integer> countsMap = saveReportForSingleMatch(matchPointValue, bibIds, matchingBibEntity.getMatching(), matchingBibEntityMap, true);
+                        Map<String, Integer> countsMap = saveReportForSingleMatch(matchPointValue, bibEntities, matchingBibEntity.getMatching(), true, null);
                         pulMatchingCount = pulMatchingCount + countsMap.get("pulMatchingCount");
                         culMatchingCount = culMatchingCount + countsMap.get("culMatchingCount");
                         nyplMatchingCount = nyplMatchingCount + countsMap.get("nyplMatchingCount");
@@ -210,63 +142,14 @@ public class MatchingAlgorithmUtil {
         try {
             SolrQuery solrQuery = new SolrQuery(query);
             solrQuery.setFields(RecapConstants.BIB_ID);
-            QueryResponse queryResponse = solrTemplate.getSolrClient().query(solrQuery);
-            SolrDocumentList solrDocumentList = queryResponse.getResults();
-            long numFound = solrDocumentList.getNumFound();
-            if(numFound > solrDocumentList.size()) {
-                solrQuery.setRows((int) numFound);
-                queryResponse = solrTemplate.getSolrClient().query(solrQuery);
-                solrDocumentList = queryResponse.getResults();
-            }
-            for (Iterator<SolrDocument> iterator = solrDocumentList.iterator(); iterator.hasNext(); ) {
-                SolrDocument solrDocument = iterator.next();
-                Integer bibId = (Integer) solrDocument.getFieldValue(RecapConstants.BIB_ID);
-                bibIds.add(bibId);
-            }
+            SolrResultIterator.forEachDocument(solrTemplate.getSolrClient(), solrQuery,
+                    solrDocument -> bibIds.add((Integer) solrDocument.getFieldValue(RecapConstants.BIB_ID)));
         } catch (Exception e) {
             logger.error(RecapConstants.LOG_ERROR,e);
         }
         return bibIds;
     }
 
-    /**
-     * This method gets bib ids for the given criteria values.
-     *
-     * @param criteriaMap       the criteria map
-     * @param criteriaValueSet  the criteria value set
-     * @param criteriaValue     the criteria value
-     * @param matching          the matching
-     * @param criteriaValueList the criteria value list
-     * @param bibEntityMap      the bib entity map
-     * @param matchPointValue   the match point value
-     * @return the bib ids for criteria value
-     */
-    public Set<Integer> getBibIdsForCriteriaValue(Map<String, Set<Integer>> criteriaMap, Set<String> criteriaValueSet, String criteriaValue,
-                                                   String matching, String[] criteriaValueList, Map<Integer, MatchingBibEntity> bibEntityMap, StringBuilder matchPointValue) {
-        Set<Integer> tempBibIdSet = new HashSet<>();
-        for (String value : criteriaValueList) {
-            criteriaValueSet.add(value);
-            if (!value.equalsIgnoreCase(criteriaValue)) {
-                Set<Integer> bibIdSet = criteriaMap.get(value);
-                if (org.apache.commons.collections.CollectionUtils.isNotEmpty(bibIdSet)) {
-                    for(Integer bibId : bibIdSet) {
-                        MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
-                        String matchCriteriaValue = getMatchCriteriaValue(matching, matchingBibEntity);
-                        String[] matchCriteriaValueList = matchCriteriaValue.split(",");
-                        for(String matchingValue : matchCriteriaValueList) {
-                            if(!criteriaValueSet.contains(matchingValue)) {
-                                matchPointValue.append(StringUtils.isNotBlank(matchPointValue.toString()) ? "," : "").append(matchingValue);
-                                criteriaValueSet.add(matchingValue);
-                            }
-                        }
-                    }
-                    tempBibIdSet.addAll(bibIdSet);
-                }
-            }
-        }
-        return tempBibIdSet;
-    }
-
     /**
      * This method replaces diacritics(~= accents) characters by replacing them to normal characters in title.
      *
@@ -283,14 +166,15 @@ public class MatchingAlgorithmUtil {
     /**
      * This method saves report for single match based on the criteria values (oclc,isbn,issn and lccn).
      *
-     * @param criteriaValue        the criteria value
-     * @param bibIdList            the bib id list
-     * @param criteria             the criteria
-     * @param matchingBibEntityMap the matching bib entity map
-     * @param isPendingBibs        the is pending bibs
+     * @param criteriaValue         the criteria value
+     * @param matchingBibEntities   the matching bib entities, one for each bib
+     * @param criteria              the criteria
+     * @param isPendingBibs         the is pending bibs
+     * @param updateMatchingBibsRun the run the status updates of the matching bibs are sent through, when the bibs are not pending bibs
      * @return the map
      */
-    public Map<String, Integer> saveReportForSingleMatch(String criteriaValue, List<Integer> bibIdList, String criteria, Map<Integer, MatchingBibEntity> matchingBibEntityMap, boolean isPendingBibs) {
+    public Map<String, Integer> saveReportForSingleMatch(String criteriaValue, List<MatchingBibEntity> matchingBibEntities, String criteria, boolean isPendingBibs,
+                                                         QueueCompletionTracker.Run updateMatchingBibsRun) {
         List<ReportDataEntity> reportDataEntities = new ArrayList<>();
         Set<String> owningInstSet = new HashSet<>();
         Set<String> materialTypeSet = new HashSet<>();
@@ -305,13 +189,11 @@ public class MatchingAlgorithmUtil {
         Integer nyplMatchingCount = 0;
 
         int index=0;
-        for (Iterator<Integer> iterator = bibIdList.iterator(); iterator.hasNext(); ) {
-            Integer bibId = iterator.next();
-            MatchingBibEntity matchingBibEntity = matchingBibEntityMap.get(bibId);
+        for (MatchingBibEntity matchingBibEntity : matchingBibEntities) {
             owningInstSet.add(matchingBibEntity.getOwningInstitution());
             owningInstList.add(matchingBibEntity.getOwningInstitution());
             owningInstBibIds.add(matchingBibEntity.getOwningInstBibId());
-            bibIds.add(bibId);
+            bibIds.add(matchingBibEntity.getBibId());
             materialTypeList.add(matchingBibEntity.getMaterialType());
             materialTypeSet.add(matchingBibEntity.getMaterialType());
             index = index + 1;
@@ -367,7 +249,7 @@ public class MatchingAlgorithmUtil {
                 Map matchingBibMap = new HashMap();
                 matchingBibMap.put(RecapConstants.STATUS, RecapConstants.COMPLETE_STATUS);
                 matchingBibMap.put(RecapConstants.MATCHING_BIB_IDS, bibIds);
-                producerTemplate.sendBody("scsbactivemq:queue:updateMatchingBibEntityQ", matchingBibMap);
+                updateMatchingBibsRun.sendBody(producerTemplate, matchingBibMap);
             }
         }
         if(CollectionUtils.isNotEmpty(reportEntitiesToSave)) {
@@ -521,56 +403,6 @@ public class MatchingAlgorithmUtil {
         }
     }
 
-    /**
-     * This method populates bib id with matching criteria values.
-     *
-     * @param criteria1Map        the criteria 1 map
-     * @param matchingBibEntities the matching bib entities
-     * @param matchCriteria1      the match criteria 1
-     * @param bibEntityMap        the bib entity map
-     */
-    public void populateBibIdWithMatchingCriteriaValue(Map<String, Set<Integer>> criteria1Map, List<MatchingBibEntity> matchingBibEntities, String matchCriteria1, Map<Integer, MatchingBibEntity> bibEntityMap) {
-        for (Iterator<MatchingBibEntity> iterator = matchingBibEntities.iterator(); iterator.hasNext(); ) {
-            MatchingBibEntity matchingBibEntity = iterator.next();
-            Integer bibId = matchingBibEntity.getBibId();
-            String matching = matchingBibEntity.getMatching();
-            if(!bibEntityMap.containsKey(bibId)) {
-                bibEntityMap.put(bibId, matchingBibEntity);
-            }
-            if(matching.equalsIgnoreCase(matchCriteria1)) {
-                String criteriaValue1 = getMatchCriteriaValue(matchCriteria1, matchingBibEntity);
-                populateCriteriaMap(criteria1Map, bibId, criteriaValue1);
-            }
-        }
-    }
-
-    /**
-     * This method populates the bib ids for matching match point values.
-     *
-     * @param criteriaMap the criteria map
-     * @param bibId       the bib id
-     * @param value       the value
-     */
-    public void populateCriteriaMap(Map<String, Set<Integer>> criteriaMap, Integer bibId, String value) {
-
-        String[] criteriaValues = value.split(",");
-        for(String criteriaValue : criteriaValues) {
-            if(StringUtils.isNotBlank(criteriaValue)) {
-                if(criteriaMap.containsKey(criteriaValue)) {
-                    Set<Integer> bibIdSet = new HashSet<>();
-                    Set<Integer> bibIds = criteriaMap.get(criteriaValue);
-                    bibIdSet.addAll(bibIds);
-                    bibIdSet.add(bibId);
-                    criteriaMap.put(criteriaValue, bibIdSet);
-                } else {
-                    Set<Integer> bibIdSet = new HashSet<>();
-                    bibIdSet.add(bibId);
-                    criteriaMap.put(criteriaValue,bibIdSet);
-                }
-            }
-        }
-    }
-
     /**
      * This method gets match point criteria value.
      *
@@ -594,15 +426,16 @@ public class MatchingAlgorithmUtil {
     /**
      * This method populates and save report entity for multi match scenario in matching algorithm.
      *
-     * @param bibIds       the bib ids
-     * @param bibEntityMap the bib entity map
-     * @param header1      the header 1
-     * @param header2      the header 2
-     * @param oclcNumbers  the oclc numbers
-     * @param isbns        the isbns
+     * @param matchingBibEntities   the matching bib entities, one for each bib
+     * @param header1               the header 1
+     * @param header2               the header 2
+     * @param oclcNumbers           the oclc numbers
+     * @param isbns                 the isbns
+     * @param updateMatchingBibsRun the run the status updates of the matching bibs are sent through
      * @return the map
      */
-    public Map<String,Integer> populateAndSaveReportEntity(Set<Integer> bibIds, Map<Integer, MatchingBibEntity> bibEntityMap, String header1, String header2, String oclcNumbers, String isbns) {
+    public Map<String,Integer> populateAndSaveReportEntity(List<MatchingBibEntity> matchingBibEntities, String header1, String header2, String oclcNumbers, String isbns,
+                                                           QueueCompletionTracker.Run updateMatchingBibsRun) {
         ReportEntity reportEntity = new ReportEntity();
         Set<String> owningInstSet = new HashSet<>();
         List<ReportDataEntity> reportDataEntities = new ArrayList<>();
@@ -618,9 +451,7 @@ public class MatchingAlgorithmUtil {
         Integer culMatchingCount = 0;
         Integer nyplMatchingCount = 0;
 
-        for (Iterator<Integer> integerIterator = bibIds.iterator(); integerIterator.hasNext(); ) {
-            Integer bibId = integerIterator.next();
-            MatchingBibEntity matchingBibEntity = bibEntityMap.get(bibId);
+        for (MatchingBibEntity matchingBibEntity : matchingBibEntities) {
             owningInstSet.add(matchingBibEntity.getOwningInstitution());
             owningInstList.add(matchingBibEntity.getOwningInstitution());
             bibIdList.add(matchingBibEntity.getBibId());
@@ -657,7 +488,7 @@ public class MatchingAlgorithmUtil {
             Map matchingBibMap = new HashMap();
             matchingBibMap.put(RecapConstants.STATUS, RecapConstants.COMPLETE_STATUS);
             matchingBibMap.put(RecapConstants.MATCHING_BIB_IDS, bibIdList);
-            producerTemplate.sendBody("scsbactivemq:queue:updateMatchingBibEntityQ", matchingBibMap);
+            updateMatchingBibsRun.sendBody(producerTemplate, matchingBibMap);
             producerTemplate.sendBody("scsbactivemq:queue:saveMatchingReportsQ", Arrays.asList(reportEntity));
         }
 
@@ -807,15 +638,16 @@ public class MatchingAlgorithmUtil {
      * This method saves matching match point entities by using activemq.
      *
      * @param matchingMatchPointsEntities the matching match points entities
+     * @param saveMatchPointsRun          the run the batches are sent through
      */
-    public void saveMatchingMatchPointEntities(List<MatchingMatchPointsEntity> matchingMatchPointsEntities) {
+    public void saveMatchingMatchPointEntities(List<MatchingMatchPointsEntity> matchingMatchPointsEntities, QueueCompletionTracker.Run saveMatchPointsRun) {
         int batchSize = 1000;
         int size = 0;
         if (CollectionUtils.isNotEmpty(matchingMatchPointsEntities)) {
             for (int i = 0; i < matchingMatchPointsEntities.size(); i += batchSize) {
                 List<MatchingMatchPointsEntity> matchingMatchPointsEntityList = new ArrayList<>();
                 matchingMatchPointsEntityList.addAll(matchingMatchPointsEntities.subList(i, Math.min(i + batchSize, matchingMatchPointsEntities.size())));
-                producerTemplate.sendBody("scsbactivemq:queue:saveMatchingMatchPointsQ", matchingMatchPointsEntityList);
+                saveMatchPointsRun.sendBody(producerTemplate, matchingMatchPointsEntityList);
                 size = size + matchingMatchPointsEntityList.size();
             }
         }
@@ -887,45 +719,56 @@ public class MatchingAlgorithmUtil {
     /**
      * This method saves the summary report for the counts of the CGD in each institutions.
      *
-     * @param type the type
+     * @param type            the type
+     * @param matchingCounter the matching counter of the run
      */
-    public void saveCGDUpdatedSummaryReport(String type) {
+    public void saveCGDUpdatedSummaryReport(String type, MatchingCounter matchingCounter) {
         ReportEntity reportEntity = new ReportEntity();
         reportEntity.setType(type);
         reportEntity.setFileName(RecapConstants.SUMMARY_REPORT_FILE_NAME);
         reportEntity.setCreatedDate(new Date());
         reportEntity.setInstitutionName(RecapConstants.ALL_INST);
         List<ReportDataEntity> reportDataEntities = new ArrayList<>();
-        getReportDataEntity("PULSharedCount", String.valueOf(MatchingCounter.getPulCGDUpdatedSharedCount()), reportDataEntities);
-        getReportDataEntity("CULSharedCount", String.valueOf(MatchingCounter.getCulCGDUpdatedSharedCount()), reportDataEntities);
-        getReportDataEntity("NYPLSharedCount", String.valueOf(MatchingCounter.getNyplCGDUpdatedSharedCount()), reportDataEntities);
-        getReportDataEntity("PULOpenCount", String.valueOf(MatchingCounter.getPulCGDUpdatedOpenCount()), reportDataEntities);
-        getReportDataEntity("CULOpenCount", String.valueOf(MatchingCounter.getCulCGDUpdatedOpenCount()), reportDataEntities);
-        getReportDataEntity("NYPLOpenCount", String.valueOf(MatchingCounter.getNyplCGDUpdatedOpenCount()), reportDataEntities);
+        for (Map.Entry<String, Long> sharedCount : matchingCounter.snapshot(MatchingCounter.Kind.CGD_UPDATED_SHARED).entrySet()) {
+            getReportDataEntity(sharedCount.getKey() + "SharedCount", String.valueOf(sharedCount.getValue()), reportDataEntities);
+        }
+        for (Map.Entry<String, Long> openCount : matchingCounter.snapshot(MatchingCounter.Kind.CGD_UPDATED_OPEN).entrySet()) {
+            getReportDataEntity(openCount.getKey() + "OpenCount", String.valueOf(openCount.getValue()), reportDataEntities);
+        }
         reportEntity.addAll(reportDataEntities);
         getReportDetailRepository().save(reportEntity);
     }
 
     /**
-     * This method populates matching counter to process the CGD update in the matching algorithm.
+     * This method gets a new matching counter for the partner institutions, with all counts at zero.
      *
+     * @return the matching counter
+     */
+    public MatchingCounter getMatchingCounter() {
+        Map<Integer, String> institutionCodes = new TreeMap<>();
+        for (InstitutionEntity institutionEntity : institutionDetailsRepository.findByInstitutionCodeNotIn(Arrays.asList("HTC"))) {
+            institutionCodes.put(institutionEntity.getInstitutionId(), institutionEntity.getInstitutionCode());
+        }
+        return new MatchingCounter(institutionCodes);
+    }
+
+    /**
+     * This method populates a new matching counter with the shared and open items of each partner institution, to process the CGD update
+     * in the matching algorithm.
+     *
+     * @return the matching counter of the run
      * @throws IOException         the io exception
      * @throws SolrServerException the solr server exception
      */
-    public void populateMatchingCounter() throws IOException, SolrServerException {
-        MatchingCounter.reset();
-
-        MatchingCounter.setPulSharedCount(getCGDCountBasedOnInst(RecapConstants.PRINCETON, RecapConstants.SHARED_CGD));
-        MatchingCounter.setCulSharedCount(getCGDCountBasedOnInst(RecapConstants.COLUMBIA, RecapConstants.SHARED_CGD));
-        MatchingCounter.setNyplSharedCount(getCGDCountBasedOnInst(RecapConstants.NYPL, RecapConstants.SHARED_CGD));
-
-        MatchingCounter.setPulOpenCount(getCGDCountBasedOnInst(RecapConstants.PRINCETON, RecapConstants.REPORTS_OPEN));
-        MatchingCounter.setCulOpenCount(getCGDCountBasedOnInst(RecapConstants.COLUMBIA, RecapConstants.REPORTS_OPEN));
-        MatchingCounter.setNyplOpenCount(getCGDCountBasedOnInst(RecapConstants.NYPL, RecapConstants.REPORTS_OPEN));
-
-        logger.info("PUL Initial Counter Value: " + MatchingCounter.getPulSharedCount());
-        logger.info("CUL Initial Counter Value: " + MatchingCounter.getCulSharedCount());
-        logger.info("NYPL Initial Counter Value: " + MatchingCounter.getNyplSharedCount());
+    public MatchingCounter populateMatchingCounter() throws IOException, SolrServerException {
+        MatchingCounter matchingCounter = getMatchingCounter();
+        for (Map.Entry<Integer, String> institution : matchingCounter.getInstitutionCodes().entrySet()) {
+            Integer sharedCount = getCGDCountBasedOnInst(institution.getValue(), RecapConstants.SHARED_CGD);
+            matchingCounter.set(institution.getKey(), MatchingCounter.Kind.SHARED, sharedCount);
+            matchingCounter.set(institution.getKey(), MatchingCounter.Kind.OPEN, getCGDCountBasedOnInst(institution.getValue(), RecapConstants.REPORTS_OPEN));
+            logger.info("{} Initial Counter Value: {}", institution.getValue(), sharedCount);
+        }
+        return matchingCounter;
     }
 
 }
@@ -10,10 +10,12 @@ import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.recap.RecapConstants;
 import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
+import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.matchingalgorithm.service.OngoingMatchingReportsService;
 import org.recap.model.jpa.*;
 import org.recap.model.matchingReports.MatchingSummaryReport;
 import org.recap.model.search.resolver.BibValueResolver;
+import org.recap.model.search.resolver.ValueResolverDispatch;
 import org.recap.model.search.resolver.impl.Bib.TitleSubFieldAValueResolver;
 import org.recap.model.search.resolver.impl.bib.*;
 import org.recap.model.solr.BibItem;
@@ -73,6 +75,8 @@ public class OngoingMatchingAlgorithmUtil {
     private OngoingMatchingReportsService ongoingMatchingReportsService;
 
     private List<BibValueResolver> bibValueResolvers;
+
+    private final ValueResolverDispatch<BibValueResolver> bibValueResolverDispatch = new ValueResolverDispatch<>(getBibValueResolvers());
     private Map collectionGroupMap;
     private Map institutionMap;
 
@@ -87,8 +91,8 @@ public class OngoingMatchingAlgorithmUtil {
      */
     public String fetchUpdatedRecordsAndStartProcess(Date date, Integer rows) throws IOException, SolrServerException {
         String status;
-        matchingAlgorithmUtil.populateMatchingCounter();
-        List<MatchingSummaryReport> matchingSummaryReports = ongoingMatchingReportsService.populateSummaryReport();
+        MatchingCounter matchingCounter = matchingAlgorithmUtil.populateMatchingCounter();
+        List<MatchingSummaryReport> matchingSummaryReports = ongoingMatchingReportsService.populateSummaryReport(matchingCounter);
         List<Integer> serialMvmBibIds = new ArrayList<>();
         String formattedDate = getFormattedDateString(date);
         Integer start = 0;
@@ -96,20 +100,20 @@ public class OngoingMatchingAlgorithmUtil {
         Integer totalNumFound = Math.toIntExact(queryResponse.getResults().getNumFound());
         int totalPages = Math.toIntExact(totalNumFound / rows);
         SolrDocumentList solrDocumentList = queryResponse.getResults();
-        status = processOngoingMatchingAlgorithm(solrDocumentList, serialMvmBibIds);
+        status = processOngoingMatchingAlgorithm(solrDocumentList, serialMvmBibIds, matchingCounter);
 
         for(int pageNum=1; pageNum<totalPages; pageNum++) {
             start = pageNum * rows;
             queryResponse = fetchDataForOngoingMatchingBasedOnDate(formattedDate, rows, start);
             solrDocumentList = queryResponse.getResults();
-            status = processOngoingMatchingAlgorithm(solrDocumentList, serialMvmBibIds);
+            status = processOngoingMatchingAlgorithm(solrDocumentList, serialMvmBibIds, matchingCounter);
         }
         if(CollectionUtils.isNotEmpty(serialMvmBibIds)) {
             ongoingMatchingReportsService.generateSerialAndMVMsReport(serialMvmBibIds);
         }
         ongoingMatchingReportsService.generateTitleExceptionReport(date, rows);
 
-        ongoingMatchingReportsService.generateSummaryReport(matchingSummaryReports);
+        ongoingMatchingReportsService.generateSummaryReport(matchingSummaryReports, matchingCounter);
         return status;
     }
 
@@ -141,16 +145,17 @@ public class OngoingMatchingAlgorithmUtil {
      *
      * @param solrDocumentList the solr document list
      * @param serialMvmBibIds  the serial mvm bib ids
+     * @param matchingCounter  the matching counter of the run
      * @return the string
      */
-    public String processOngoingMatchingAlgorithm(SolrDocumentList solrDocumentList, List<Integer> serialMvmBibIds) {
+    public String processOngoingMatchingAlgorithm(SolrDocumentList solrDocumentList, List<Integer> serialMvmBibIds, MatchingCounter matchingCounter) {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
         String status = RecapConstants.SUCCESS;
         if(CollectionUtils.isNotEmpty(solrDocumentList)) {
             for (Iterator<SolrDocument> iterator = solrDocumentList.iterator(); iterator.hasNext(); ) {
                 SolrDocument solrDocument = iterator.next();
-                status = processMatchingForBib(solrDocument, serialMvmBibIds);
+                status = processMatchingForBib(solrDocument, serialMvmBibIds, matchingCounter);
             }
         }
         stopWatch.stop();
@@ -163,9 +168,10 @@ public class OngoingMatchingAlgorithmUtil {
      *
      * @param solrDocument    the solr document
      * @param serialMvmBibIds the serial mvm bib ids
+     * @param matchingCounter the matching counter of the run
      * @return the string
      */
-    public String processMatchingForBib(SolrDocument solrDocument, List<Integer> serialMvmBibIds) {
+    public String processMatchingForBib(SolrDocument solrDocument, List<Integer> serialMvmBibIds, MatchingCounter matchingCounter) {
         String status = RecapConstants.SUCCESS;
         logger.info("Ongoing Matching Started");
         Map<Integer, BibItem> bibItemMap = new HashMap<>();
@@ -177,7 +183,7 @@ public class OngoingMatchingAlgorithmUtil {
                 // Multi Match
                 logger.info("Multi Match Found.");
                 try {
-                    itemIds = saveReportAndUpdateCGDForMultiMatch(bibItemMap, serialMvmBibIds);
+                    itemIds = saveReportAndUpdateCGDForMultiMatch(bibItemMap, serialMvmBibIds, matchingCounter);
                 } catch (IOException | SolrServerException e) {
                     logger.error(RecapConstants.LOG_ERROR,e);
                     status = RecapConstants.FAILURE;
@@ -186,7 +192,7 @@ public class OngoingMatchingAlgorithmUtil {
                 // Single Match
                 logger.info("Single Match Found.");
                 try {
-                    itemIds = saveReportAndUpdateCGDForSingleMatch(bibItemMap, matchPointString.iterator().next(), serialMvmBibIds);
+                    itemIds = saveReportAndUpdateCGDForSingleMatch(bibItemMap, matchPointString.iterator().next(), serialMvmBibIds, matchingCounter);
                 } catch (Exception e) {
                     logger.error(RecapConstants.LOG_ERROR,e);
                     status = RecapConstants.FAILURE;
@@ -244,7 +250,7 @@ public class OngoingMatchingAlgorithmUtil {
         }
     }
 
-    private List<Integer> saveReportAndUpdateCGDForSingleMatch(Map<Integer, BibItem> bibItemMap, String matchPointString, List<Integer> serialMvmBibIds) {
+    private List<Integer> saveReportAndUpdateCGDForSingleMatch(Map<Integer, BibItem> bibItemMap, String matchPointString, List<Integer> serialMvmBibIds, MatchingCounter matchingCounter) {
         List<ReportDataEntity> reportDataEntities = new ArrayList<>();
         Set<String> owningInstSet = new HashSet<>();
         Set<String> materialTypeSet = new HashSet<>();
@@ -300,7 +306,7 @@ public class OngoingMatchingAlgorithmUtil {
                 parameterMap.put(RecapConstants.CRITERIA_VALUES, criteriaValueString);
                 parameterMap.put(RecapConstants.MATCH_POINT, matchPointString);
                 try {
-                    itemIds = updateCGDBasedOnMaterialTypes(reportEntity, materialTypeSet, serialMvmBibIds, RecapConstants.SINGLE_MATCH, parameterMap, reportEntitiesToSave, titleMap);
+                    itemIds = updateCGDBasedOnMaterialTypes(reportEntity, materialTypeSet, serialMvmBibIds, RecapConstants.SINGLE_MATCH, parameterMap, reportEntitiesToSave, titleMap, matchingCounter);
                     materialTypeList = (List<String>) parameterMap.get(RecapConstants.MATERIAL_TYPE);
                 } catch (Exception e) {
                     logger.error(RecapConstants.LOG_ERROR,e);
@@ -364,7 +370,7 @@ public class OngoingMatchingAlgorithmUtil {
      * @throws IOException
      * @throws SolrServerException
      */
-    private List<Integer> saveReportAndUpdateCGDForMultiMatch(Map<Integer, BibItem> bibItemMap, List<Integer> serialMvmBibIds) throws IOException, SolrServerException {
+    private List<Integer> saveReportAndUpdateCGDForMultiMatch(Map<Integer, BibItem> bibItemMap, List<Integer> serialMvmBibIds, MatchingCounter matchingCounter) throws IOException, SolrServerException {
         ReportEntity reportEntity = new ReportEntity();
         reportEntity.setFileName(RecapConstants.ONGOING_MATCHING_ALGORITHM);
         reportEntity.setCreatedDate(new Date());
@@ -405,7 +411,7 @@ public class OngoingMatchingAlgorithmUtil {
             Map parameterMap = new HashMap();
             parameterMap.put(RecapConstants.BIB_ID, bibIdList);
             parameterMap.put(RecapConstants.MATERIAL_TYPE, materialTypeList);
-            itemIds = updateCGDBasedOnMaterialTypes(reportEntity, materialTypes, serialMvmBibIds, RecapConstants.MULTI_MATCH, parameterMap, new ArrayList<>(), null);
+            itemIds = updateCGDBasedOnMaterialTypes(reportEntity, materialTypes, serialMvmBibIds, RecapConstants.MULTI_MATCH, parameterMap, new ArrayList<>(), null, matchingCounter);
             materialTypeList = (List<String>) parameterMap.get(RecapConstants.MATERIAL_TYPE);
             matchingAlgorithmUtil.getReportDataEntityList(reportDataEntities, owningInstList, bibIdList, materialTypeList, owningInstBibIds);
 
@@ -441,17 +447,18 @@ public class OngoingMatchingAlgorithmUtil {
      * @param parameterMap     the parameter map
      * @param reportEntityList the report entity list
      * @param titleMap         the title map
+     * @param matchingCounter  the matching counter of the run
      * @return the list
      * @throws IOException         the io exception
      * @throws SolrServerException the solr server exception
      */
     private List<Integer> updateCGDBasedOnMaterialTypes(ReportEntity reportEntity, Set<String> materialTypes, List<Integer> serialMvmBibIds, String matchType, Map parameterMap,
-                                                        List<ReportEntity> reportEntityList, Map<String,String> titleMap) throws IOException, SolrServerException {
+                                                        List<ReportEntity> reportEntityList, Map<String,String> titleMap, MatchingCounter matchingCounter) throws IOException, SolrServerException {
         List<Integer> itemIds = new ArrayList<>();
         List<String> materialTypeList = (List<String>) parameterMap.get(RecapConstants.MATERIAL_TYPE);
         List<Integer> bibIdList = (List<Integer>) parameterMap.get(RecapConstants.BIB_ID);
         MatchingAlgorithmCGDProcessor matchingAlgorithmCGDProcessor = new MatchingAlgorithmCGDProcessor(bibliographicDetailsRepository, producerTemplate,
-                getCollectionGroupMap(), getInstitutionEntityMap(), itemChangeLogDetailsRepository, RecapConstants.ONGOING_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository);
+                getCollectionGroupMap(), getInstitutionEntityMap(), itemChangeLogDetailsRepository, RecapConstants.ONGOING_MATCHING_OPERATION_TYPE, collectionGroupDetailsRepository, itemDetailsRepository, matchingCounter, null);
         if(materialTypes.size() == 1) {
             reportEntity.setType(matchType);
             Map<Integer, Map<Integer, List<ItemEntity>>> useRestrictionMap = new HashMap<>();
@@ -554,21 +561,14 @@ public class OngoingMatchingAlgorithmUtil {
         Map<Integer, BibItem> bibItemMap = new HashMap<>();
         SolrQuery solrQuery = new SolrQuery(query);
         try {
-            QueryResponse queryResponse = solrTemplate.getSolrClient().query(solrQuery);
-            SolrDocumentList solrDocumentList = queryResponse.getResults();
-            long numFound = solrDocumentList.getNumFound();
+            long numFound = SolrResultIterator.forEachDocument(solrTemplate.getSolrClient(), solrQuery, solrDocument -> {
+                BibItem bibItem = populateBibItem(solrDocument);
+                bibItemMap.put(bibItem.getBibId(), bibItem);
+            });
             if(numFound > 1) {
                 matchPointString.add(fieldName);
-                if(numFound > solrDocumentList.size()) {
-                    solrQuery.setRows((int) numFound);
-                    queryResponse = solrTemplate.getSolrClient().query(solrQuery);
-                    solrDocumentList = queryResponse.getResults();
-                }
-                for (Iterator<SolrDocument> iterator = solrDocumentList.iterator(); iterator.hasNext(); ) {
-                    SolrDocument solrDocument = iterator.next();
-                    BibItem bibItem = populateBibItem(solrDocument);
-                    bibItemMap.put(bibItem.getBibId(), bibItem);
-                }
+            } else {
+                bibItemMap.clear();
             }
         } catch (IOException|SolrServerException e) {
             logger.error(RecapConstants.LOG_ERROR,e);
@@ -609,18 +609,8 @@ public class OngoingMatchingAlgorithmUtil {
      * @return the bib item
      */
     public BibItem populateBibItem(SolrDocument solrDocument) {
-        Collection<String> fieldNames = solrDocument.getFieldNames();
         BibItem bibItem = new BibItem();
-        for (Iterator<String> stringIterator = fieldNames.iterator(); stringIterator.hasNext(); ) {
-            String fieldName = stringIterator.next();
-            Object fieldValue = solrDocument.getFieldValue(fieldName);
-            for (Iterator<BibValueResolver> valueResolverIterator = getBibValueResolvers().iterator(); valueResolverIterator.hasNext(); ) {
-                BibValueResolver valueResolver = valueResolverIterator.next();
-                if (valueResolver.isInterested(fieldName)) {
-                    valueResolver.setValue(bibItem, fieldValue);
-                }
-            }
-        }
+        bibValueResolverDispatch.resolve(solrDocument, (valueResolver, fieldValue) -> valueResolver.setValue(bibItem, fieldValue));
         return bibItem;
     }
 
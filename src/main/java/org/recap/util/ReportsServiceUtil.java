@@ -20,6 +20,7 @@ import org.recap.model.reports.ReportsResponse;
 import org.recap.model.search.DeaccessionItemResultsRow;
 import org.recap.model.search.IncompleteReportResultsRow;
 import org.recap.model.search.resolver.ItemValueResolver;
+import org.recap.model.search.resolver.ValueResolverDispatch;
 import org.recap.model.search.resolver.impl.item.*;
 import org.recap.model.solr.Item;
 import org.recap.repository.jpa.DeaccesionItemChangeLogDetailsRepository;
@@ -51,6 +52,8 @@ public class ReportsServiceUtil {
 
     private List<ItemValueResolver> itemValueResolvers;
 
+    private final ValueResolverDispatch<ItemValueResolver> itemValueResolverDispatch = new ValueResolverDispatch<>(getItemValueResolvers());
+
     @Autowired
     private BibSolrDocumentRepositoryImpl bibSolrDocumentRepository;
 
@@ -436,18 +439,7 @@ public class ReportsServiceUtil {
      */
     public Item getItem(SolrDocument itemSolrDocument) {
         Item item = new Item();
-        Collection<String> fieldNames = itemSolrDocument.getFieldNames();
-        List<ItemValueResolver> itemValueResolvers = getItemValueResolvers();
-        for (Iterator<String> iterator = fieldNames.iterator(); iterator.hasNext(); ) {
-            String fieldName = iterator.next();
-            Object fieldValue = itemSolrDocument.getFieldValue(fieldName);
-            for (Iterator<ItemValueResolver> itemValueResolverIterator = itemValueResolvers.iterator(); itemValueResolverIterator.hasNext(); ) {
-                ItemValueResolver itemValueResolver = itemValueResolverIterator.next();
-                if (itemValueResolver.isInterested(fieldName)) {
-                    itemValueResolver.setValue(item, fieldValue);
-                }
-            }
-        }
+        itemValueResolverDispatch.resolve(itemSolrDocument, (itemValueResolver, fieldValue) -> itemValueResolver.setValue(item, fieldValue));
         return item;
     }
 
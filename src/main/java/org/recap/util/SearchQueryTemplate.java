@@ -0,0 +1,109 @@
+package org.recap.util;
+
+import org.apache.solr.client.solrj.SolrQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The solr queries of a search request, compiled once from the request and rendered into the bib and item result queries and the bib and
+ * item count queries of the search. The search text is compiled into one query, which the count queries refer to through a request
+ * parameter instead of rebuilding it inside their block join, and the facets into filter queries shared by the result and count queries.
+ */
+public class SearchQueryTemplate {
+
+    /**
+     * The request parameter holding the search text query, for the block join of the count queries.
+     */
+    public static final String SEARCH_QUERY_PARAMETER = "searchQuery";
+
+    private static final String ALL_DOCUMENTS = "*:*";
+
+    private final SolrQueryNode searchQuery;
+
+    private final String renderedSearchQuery;
+
+    private final List<String> bibFilterQueries;
+
+    private final List<String> itemFilterQueries;
+
+    /**
+     * Instantiates a new search query template.
+     *
+     * @param searchQuery       the search text query, or null for a search without search text
+     * @param bibFilterQueries  the filter queries of the bib queries
+     * @param itemFilterQueries the filter queries of the item queries
+     */
+    public SearchQueryTemplate(SolrQueryNode searchQuery, List<String> bibFilterQueries, List<String> itemFilterQueries) {
+        this.searchQuery = searchQuery;
+        this.renderedSearchQuery = searchQuery == null ? "" : searchQuery.toString();
+        this.bibFilterQueries = Collections.unmodifiableList(new ArrayList<>(bibFilterQueries));
+        this.itemFilterQueries = Collections.unmodifiableList(new ArrayList<>(itemFilterQueries));
+    }
+
+    /**
+     * Gets the search text query.
+     *
+     * @return the query string, blank for a search without search text
+     */
+    public String getSearchQuery() {
+        return renderedSearchQuery;
+    }
+
+    /**
+     * Gets the query for the bibs matching the search.
+     *
+     * @return the solr query
+     */
+    public SolrQuery getQueryForBibs() {
+        return getQuery(searchQuery == null ? ALL_DOCUMENTS : renderedSearchQuery, bibFilterQueries);
+    }
+
+    /**
+     * Gets the query for the items matching the search.
+     *
+     * @return the solr query
+     */
+    public SolrQuery getQueryForItems() {
+        return getQuery(searchQuery == null ? ALL_DOCUMENTS : renderedSearchQuery, itemFilterQueries);
+    }
+
+    /**
+     * Gets the query counting the bibs of the items matching the search text, for a search on an item field.
+     *
+     * @return the solr query
+     */
+    public SolrQuery getCountQueryForBibs() {
+        return getCountQuery(SolrQueryNode.parentOfParameter(SEARCH_QUERY_PARAMETER), bibFilterQueries);
+    }
+
+    /**
+     * Gets the query counting the items of the bibs matching the search text, for a search on a bib field.
+     *
+     * @return the solr query
+     */
+    public SolrQuery getCountQueryForItems() {
+        return getCountQuery(SolrQueryNode.childOfParameter(SEARCH_QUERY_PARAMETER), itemFilterQueries);
+    }
+
+    private SolrQuery getCountQuery(SolrQueryNode blockJoin, List<String> filterQueries) {
+        SolrQuery solrQuery;
+        if (searchQuery == null) {
+            solrQuery = getQuery(ALL_DOCUMENTS, filterQueries);
+        } else {
+            solrQuery = getQuery(blockJoin.toString(), filterQueries);
+            solrQuery.set(SEARCH_QUERY_PARAMETER, renderedSearchQuery);
+        }
+        solrQuery.setRows(0);
+        return solrQuery;
+    }
+
+    private SolrQuery getQuery(String query, List<String> filterQueries) {
+        SolrQuery solrQuery = new SolrQuery(query);
+        for (String filterQuery : filterQueries) {
+            solrQuery.addFilterQuery(filterQuery);
+        }
+        return solrQuery;
+    }
+}
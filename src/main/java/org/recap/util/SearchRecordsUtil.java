@@ -14,6 +14,7 @@ import org.recap.repository.solr.main.DataDumpSolrDocumentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -45,9 +46,22 @@ public final class SearchRecordsUtil {
      * @throws Exception the exception
      */
     public List<SearchResultRow> searchRecords(SearchRecordsRequest searchRecordsRequest) throws Exception{
+        return searchRecords(searchRecordsRequest, new LinkedHashMap<>());
+    }
+
+    /**
+     * This method searches records in solr based on the given search records request and returns a list of SearchResultRow. The time each
+     * solr query of the search took is put in the given query timings.
+     *
+     * @param searchRecordsRequest the SearchResultRow
+     * @param queryTimings         the query timings, in milliseconds by query name
+     * @return the SearchResultRow list
+     * @throws Exception the exception
+     */
+    public List<SearchResultRow> searchRecords(SearchRecordsRequest searchRecordsRequest, Map<String, Long> queryTimings) throws Exception{
 
         if (!isEmptySearch(searchRecordsRequest)) {
-            return searchAndBuildResults(searchRecordsRequest);
+            return searchAndBuildResults(searchRecordsRequest, queryTimings);
         }
         searchRecordsRequest.setErrorMessage(RecapConstants.EMPTY_FACET_ERROR_MSG);
         return new ArrayList<>();
@@ -62,7 +76,28 @@ public final class SearchRecordsUtil {
      * @throws Exception the exception
      */
     public List<SearchResultRow> searchAndBuildResults(SearchRecordsRequest searchRecordsRequest) throws Exception{
+        return searchAndBuildResults(searchRecordsRequest, new LinkedHashMap<>());
+    }
+
+    /**
+     * This method is used to search BibItems from the solr based on the given searchRecordsRequest and sets the reponse to SearchResultRow
+     * and returns a list of SearchResultRow. The time each solr query of the search took is put in the given query timings.
+     *
+     * @param searchRecordsRequest the SearchResultRow
+     * @param queryTimings         the query timings, in milliseconds by query name
+     * @return the SearchResultRow list
+     * @throws Exception the exception
+     */
+    public List<SearchResultRow> searchAndBuildResults(SearchRecordsRequest searchRecordsRequest, Map<String, Long> queryTimings) throws Exception{
         Map<String, Object> searchResponse = bibSolrDocumentRepository.search(searchRecordsRequest);
+        Object searchQueryTimings = searchResponse.get(RecapConstants.SEARCH_QUERY_TIMINGS);
+        if (searchQueryTimings instanceof Map) {
+            for (Map.Entry<?, ?> queryTiming : ((Map<?, ?>) searchQueryTimings).entrySet()) {
+                if (queryTiming.getValue() instanceof Long) {
+                    queryTimings.put(String.valueOf(queryTiming.getKey()), (Long) queryTiming.getValue());
+                }
+            }
+        }
         String errorResponse = (String) searchResponse.get(RecapConstants.SEARCH_ERROR_RESPONSE);
         if(errorResponse != null) {
             searchRecordsRequest.setErrorMessage(RecapConstants.SERVER_ERROR_MSG);
@@ -96,6 +131,22 @@ public final class SearchRecordsUtil {
         return new ArrayList<>();
     }
 
+    /**
+     * Exports all the records of the data dump for the given search records request, passing the DataDumpSearchResult of every bib to
+     * the sink as soon as the bib is read from solr.
+     *
+     * @param searchRecordsRequest the search records request
+     * @param resultSink           the sink
+     * @throws Exception the exception
+     */
+    public void exportRecordsForDataDump(SearchRecordsRequest searchRecordsRequest, DataDumpResultSink resultSink) throws Exception {
+        if (isEmptySearch(searchRecordsRequest)) {
+            searchRecordsRequest.setErrorMessage(RecapConstants.EMPTY_FACET_ERROR_MSG);
+            return;
+        }
+        getDataDumpSolrDocumentRepository().export(searchRecordsRequest, bibItem -> resultSink.accept(buildResultForDataDump(bibItem)));
+    }
+
     /**
      * Builds search result rows from the bib and items.
      *
@@ -202,23 +253,33 @@ public final class SearchRecordsUtil {
         List<DataDumpSearchResult> dataDumpSearchResults = new ArrayList<>();
         if (!CollectionUtils.isEmpty(bibItems)) {
             for (BibItem bibItem : bibItems) {
-                DataDumpSearchResult dataDumpSearchResult = new DataDumpSearchResult();
-                dataDumpSearchResult.setBibId(bibItem.getBibId());
-                if (!CollectionUtils.isEmpty(bibItem.getItems())) {
-                    List<Integer> itemIds = new ArrayList<>();
-                    for (Item item : bibItem.getItems()) {
-                        if (null != item) {
-                            itemIds.add(item.getItemId());
-                        }
-                    }
-                    dataDumpSearchResult.setItemIds(itemIds);
-                }
-                dataDumpSearchResults.add(dataDumpSearchResult);
+                dataDumpSearchResults.add(buildResultForDataDump(bibItem));
             }
         }
         return dataDumpSearchResults;
     }
 
+    /**
+     * Builds the data dump search result of a bib, with the bib id and the item ids.
+     *
+     * @param bibItem the bib item
+     * @return the DataDumpSearchResult
+     */
+    public DataDumpSearchResult buildResultForDataDump(BibItem bibItem) {
+        DataDumpSearchResult dataDumpSearchResult = new DataDumpSearchResult();
+        dataDumpSearchResult.setBibId(bibItem.getBibId());
+        if (!CollectionUtils.isEmpty(bibItem.getItems())) {
+            List<Integer> itemIds = new ArrayList<>();
+            for (Item item : bibItem.getItems()) {
+                if (null != item) {
+                    itemIds.add(item.getItemId());
+                }
+            }
+            dataDumpSearchResult.setItemIds(itemIds);
+        }
+        return dataDumpSearchResult;
+    }
+
     /**
      * Returns true if no field is specified in the search records request.
      *
@@ -237,4 +298,19 @@ public final class SearchRecordsUtil {
         }
         return emptySearch;
     }
+
+    /**
+     * Takes the results of a data dump export.
+     */
+    @FunctionalInterface
+    public interface DataDumpResultSink {
+
+        /**
+         * Takes the result of a bib.
+         *
+         * @param dataDumpSearchResult the data dump search result
+         * @throws IOException the io exception
+         */
+        void accept(DataDumpSearchResult dataDumpSearchResult) throws IOException;
+    }
 }
@@ -0,0 +1,209 @@
+package org.recap.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.StringUtils;
+import org.recap.model.search.SearchRecordsRequest;
+import org.recap.model.solr.BibItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bib item pages of the recent searches, with the counts the search set on the request, so that a search repeated while paging
+ * back and forth or reloading the same view is answered without going to solr. The pages are keyed on a canonical form of the search request
+ * and the cache is bounded in size and in the time a page is kept. Every write to the index bumps the index generation and drops all the
+ * pages. A page searched while the index changed, or just after it changed, when the change may not be visible yet, is not kept.
+ * The index generation is counted in this process rather than read from solr: the services which write to the index, the indexing runs
+ * included, call indexUpdated. A write by another process is only seen once the pages it makes stale expire.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private static final String KEY_SEPARATOR = "|";
+
+    @Value("${search.result.cache.max.size:1000}")
+    private long maxSize;
+
+    @Value("${search.result.cache.ttl.seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${search.result.cache.settle.millis:2000}")
+    private long settleMillis;
+
+    private Cache<String, SearchResultPage> cache;
+
+    private final AtomicLong indexGeneration = new AtomicLong();
+
+    private volatile long lastIndexUpdateTime;
+
+    /**
+     * This method builds the cache.
+     */
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the canonical key of the search request. The facet values are sorted and repeated values dropped, so the same search gets the same key
+     * whatever order the facets were selected in.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the key
+     */
+    public String getKey(SearchRecordsRequest searchRecordsRequest) {
+        return StringUtils.join(Arrays.asList(
+                StringUtils.trimToEmpty(searchRecordsRequest.getFieldName()),
+                StringUtils.trimToEmpty(searchRecordsRequest.getFieldValue()),
+                getFacetKey(searchRecordsRequest),
+                searchRecordsRequest.isSortIncompleteRecords(),
+                searchRecordsRequest.getPageNumber(),
+                searchRecordsRequest.getPageSize(),
+                StringUtils.trimToEmpty(searchRecordsRequest.getCursorMark())), KEY_SEPARATOR);
+    }
+
+    /**
+     * Gets the canonical key of the facets of the search request, with the deleted flag and the cataloging status.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the key
+     */
+    public String getFacetKey(SearchRecordsRequest searchRecordsRequest) {
+        return StringUtils.join(Arrays.asList(
+                getSortedValues(searchRecordsRequest.getOwningInstitutions()),
+                getSortedValues(searchRecordsRequest.getCollectionGroupDesignations()),
+                getSortedValues(searchRecordsRequest.getAvailability()),
+                getSortedValues(searchRecordsRequest.getMaterialTypes()),
+                getSortedValues(searchRecordsRequest.getUseRestrictions()),
+                searchRecordsRequest.isDeleted(),
+                searchRecordsRequest.getCatalogingStatus()), KEY_SEPARATOR);
+    }
+
+    /**
+     * Gets the index generation, which is bumped on every write to the index.
+     *
+     * @return the index generation
+     */
+    public long getIndexGeneration() {
+        return indexGeneration.get();
+    }
+
+    /**
+     * Gets the cached bib items of the search and sets the counts of the cached search on the request.
+     *
+     * @param key                  the key
+     * @param searchRecordsRequest the search records request
+     * @return the bib items, or null if the search is not cached
+     */
+    public List<BibItem> get(String key, SearchRecordsRequest searchRecordsRequest) {
+        SearchResultPage searchResultPage = cache.getIfPresent(key);
+        if (searchResultPage == null) {
+            return null;
+        }
+        searchRecordsRequest.setTotalBibRecordsCount(searchResultPage.totalBibRecordsCount);
+        searchRecordsRequest.setTotalItemRecordsCount(searchResultPage.totalItemRecordsCount);
+        searchRecordsRequest.setTotalRecordsCount(searchResultPage.totalRecordsCount);
+        searchRecordsRequest.setTotalPageCount(searchResultPage.totalPageCount);
+        searchRecordsRequest.setShowTotalCount(searchResultPage.showTotalCount);
+        searchRecordsRequest.setNextCursorMark(searchResultPage.nextCursorMark);
+        return new ArrayList<>(searchResultPage.bibItems);
+    }
+
+    /**
+     * Keeps the bib items of the search with the counts the search set on the request, unless the index has changed since the search started
+     * or has changed too recently for the change to be visible to the search.
+     *
+     * @param key                  the key
+     * @param indexGeneration      the index generation when the search started
+     * @param searchRecordsRequest the search records request
+     * @param bibItems             the bib items
+     */
+    public void put(String key, long indexGeneration, SearchRecordsRequest searchRecordsRequest, List<BibItem> bibItems) {
+        if (isCurrent(indexGeneration)) {
+            cache.put(key, new SearchResultPage(searchRecordsRequest, bibItems));
+        }
+    }
+
+    /**
+     * Tells whether a search started at the index generation sees the current index, that is the index has not changed since the search
+     * started nor changed too recently for the change to be visible to the search.
+     *
+     * @param indexGeneration the index generation when the search started
+     * @return the boolean
+     */
+    public boolean isCurrent(long indexGeneration) {
+        return indexGeneration == this.indexGeneration.get() && System.currentTimeMillis() - lastIndexUpdateTime >= settleMillis;
+    }
+
+    /**
+     * This method is called after every write to the index. It bumps the index generation and drops all the cached pages.
+     */
+    public void indexUpdated() {
+        lastIndexUpdateTime = System.currentTimeMillis();
+        indexGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts of the cache, with its size and the index generation.
+     *
+     * @return the stats
+     */
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hitCount", cacheStats.hitCount());
+        stats.put("missCount", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictionCount", cacheStats.evictionCount());
+        stats.put("size", cache.size());
+        stats.put("indexGeneration", indexGeneration.get());
+        logger.info("Search result cache stats : {}", stats);
+        return stats;
+    }
+
+    private String getSortedValues(List<String> values) {
+        return values == null ? "" : StringUtils.join(new TreeSet<>(values), ",");
+    }
+
+    private static final class SearchResultPage {
+
+        private final List<BibItem> bibItems;
+
+        private final String totalBibRecordsCount;
+
+        private final String totalItemRecordsCount;
+
+        private final String totalRecordsCount;
+
+        private final Integer totalPageCount;
+
+        private final boolean showTotalCount;
+
+        private final String nextCursorMark;
+
+        private SearchResultPage(SearchRecordsRequest searchRecordsRequest, List<BibItem> bibItems) {
+            this.bibItems = Collections.unmodifiableList(new ArrayList<>(bibItems));
+            this.totalBibRecordsCount = searchRecordsRequest.getTotalBibRecordsCount();
+            this.totalItemRecordsCount = searchRecordsRequest.getTotalItemRecordsCount();
+            this.totalRecordsCount = searchRecordsRequest.getTotalRecordsCount();
+            this.totalPageCount = searchRecordsRequest.getTotalPageCount();
+            this.showTotalCount = searchRecordsRequest.isShowTotalCount();
+            this.nextCursorMark = searchRecordsRequest.getNextCursorMark();
+        }
+    }
+}
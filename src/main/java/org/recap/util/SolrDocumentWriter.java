@@ -0,0 +1,98 @@
+package org.recap.util;
+
+import org.apache.solr.client.solrj.beans.DocumentObjectBinder;
+import org.apache.solr.client.solrj.beans.Field;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Writes the {@link Field} annotated fields of a solr bean straight into a solr input document. The annotated fields of the class are looked up
+ * once when the writer is built and are read through method handles, so writing a document does no reflection and no type conversion.
+ * The documents hold the same fields and values as the ones converted by SolrTemplate.convertBeanToSolrInputDocument, except that the null values
+ * and empty lists, which solr does not index, are left out. A writer is immutable and can be shared between threads.
+ *
+ * @param <T> the bean type
+ */
+public final class SolrDocumentWriter<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String[] fieldNames;
+
+    private final MethodHandle[] getters;
+
+    private final int initialCapacity;
+
+    private SolrDocumentWriter(List<String> fieldNames, List<MethodHandle> getters) {
+        this.fieldNames = fieldNames.toArray(new String[fieldNames.size()]);
+        this.getters = getters.toArray(new MethodHandle[getters.size()]);
+        this.initialCapacity = (int) (this.fieldNames.length / 0.75f) + 1;
+    }
+
+    /**
+     * This method builds the writer of the given solr bean class from the {@link Field} annotations of its fields and of its super classes.
+     *
+     * @param <T>       the bean type
+     * @param beanClass the bean class
+     * @return the solr document writer
+     */
+    public static <T> SolrDocumentWriter<T> forClass(Class<T> beanClass) {
+        List<String> fieldNames = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (java.lang.reflect.Field field : type.getDeclaredFields()) {
+                Field solrField = field.getAnnotation(Field.class);
+                if (solrField == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                String fieldName = DocumentObjectBinder.DEFAULT.equals(solrField.value()) ? field.getName() : solrField.value();
+                if (fieldName.contains("*")) {
+                    throw new IllegalArgumentException("Dynamic field " + fieldName + " of " + beanClass.getName() + " is not supported");
+                }
+                field.setAccessible(true);
+                try {
+                    getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException("Field " + field.getName() + " of " + beanClass.getName() + " cannot be read", e);
+                }
+                fieldNames.add(fieldName);
+            }
+        }
+        return new SolrDocumentWriter<>(fieldNames, getters);
+    }
+
+    /**
+     * This method writes the bean into a new solr input document.
+     *
+     * @param bean the bean
+     * @return the solr input document
+     */
+    public SolrInputDocument write(T bean) {
+        SolrInputDocument solrInputDocument = new SolrInputDocument(new LinkedHashMap<String, SolrInputField>(initialCapacity));
+        for (int i = 0; i < getters.length; i++) {
+            Object value = getValue(getters[i], bean);
+            if (value != null && !(value instanceof Collection && ((Collection) value).isEmpty())) {
+                solrInputDocument.setField(fieldNames[i], value);
+            }
+        }
+        return solrInputDocument;
+    }
+
+    private Object getValue(MethodHandle getter, T bean) {
+        try {
+            return (Object) getter.invokeExact((Object) bean);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Error in reading solr field of " + bean.getClass().getName(), throwable);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.recap.RecapConstants;
 import org.recap.model.jpa.MatchingMatchPointsEntity;
 import org.recap.model.search.SearchRecordsRequest;
@@ -14,8 +16,9 @@ import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collection;
 import java.util.List;
+import java.util.TreeSet;
 
 /**
  * Created by peris on 9/30/16.
@@ -31,6 +34,8 @@ public class SolrQueryBuilder {
 
     private String coreChildFilterQuery = "{!child of=\"ContentType:parent\"}";
 
+    private String parentDocumentFilter = "ContentType:parent";
+
     /**
      * Gets query string for item criteria for parent.
      *
@@ -38,45 +43,19 @@ public class SolrQueryBuilder {
      * @return the query string for item criteria for parent
      */
     public String getQueryStringForItemCriteriaForParent(SearchRecordsRequest searchRecordsRequest) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        List<String> availability = searchRecordsRequest.getAvailability();
-        List<String> collectionGroupDesignations = searchRecordsRequest.getCollectionGroupDesignations();
-        List<String> useRestrictions = searchRecordsRequest.getUseRestrictions();
-
-        if (CollectionUtils.isNotEmpty(availability)) {
-            stringBuilder.append(buildQueryForFilterGivenChild(RecapConstants.AVAILABILITY, availability));
-        }
-        if (StringUtils.isNotBlank(stringBuilder.toString()) && CollectionUtils.isNotEmpty(collectionGroupDesignations)) {
-            stringBuilder.append(and).append(buildQueryForFilterGivenChild(RecapConstants.COLLECTION_GROUP_DESIGNATION, collectionGroupDesignations));
-        } else if (CollectionUtils.isNotEmpty(collectionGroupDesignations)) {
-            stringBuilder.append(buildQueryForFilterGivenChild(RecapConstants.COLLECTION_GROUP_DESIGNATION, collectionGroupDesignations));
-        }
-        if (StringUtils.isNotBlank(stringBuilder.toString()) && CollectionUtils.isNotEmpty(useRestrictions)) {
-            stringBuilder.append(and).append(buildQueryForFilterGivenChild(RecapConstants.USE_RESTRICTION, useRestrictions));
-        } else if (CollectionUtils.isNotEmpty(useRestrictions)) {
-            stringBuilder.append(buildQueryForFilterGivenChild(RecapConstants.USE_RESTRICTION, useRestrictions));
-        }
-        stringBuilder
-                .append(and)
-                .append(RecapConstants.IS_DELETED_ITEM).append(":").append(searchRecordsRequest.isDeleted())
-                .append(and)
-                .append(RecapConstants.ITEM_CATALOGING_STATUS).append(":").append(searchRecordsRequest.getCatalogingStatus());
-
-        return coreParentFilterQuery + "(" + stringBuilder.toString() + ")";
+        List<SolrQueryNode> clauses = new ArrayList<>();
+        addAnyPhrase(clauses, RecapConstants.AVAILABILITY, searchRecordsRequest.getAvailability());
+        addAnyPhrase(clauses, RecapConstants.COLLECTION_GROUP_DESIGNATION, searchRecordsRequest.getCollectionGroupDesignations());
+        addAnyPhrase(clauses, RecapConstants.USE_RESTRICTION, searchRecordsRequest.getUseRestrictions());
+        clauses.add(SolrQueryNode.term(RecapConstants.IS_DELETED_ITEM, searchRecordsRequest.isDeleted()));
+        clauses.add(SolrQueryNode.term(RecapConstants.ITEM_CATALOGING_STATUS, searchRecordsRequest.getCatalogingStatus()));
+        return SolrQueryNode.parentOf(SolrQueryNode.and(clauses)).toString();
     }
 
-    private String buildQueryForFilterGivenChild(String fieldName, List<String> values) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        for (Iterator<String> iterator = values.iterator(); iterator.hasNext(); ) {
-            String value = iterator.next();
-            stringBuilder.append(fieldName).append(":").append(value);
-            if (iterator.hasNext()) {
-                stringBuilder.append(or);
-            }
+    private void addAnyPhrase(List<SolrQueryNode> clauses, String fieldName, List<String> values) {
+        if (CollectionUtils.isNotEmpty(values)) {
+            clauses.add(SolrQueryNode.anyPhrase(fieldName, getSortedValues(values)));
         }
-        return "(" + stringBuilder.toString() + ")";
     }
 
     /**
@@ -103,12 +82,12 @@ public class SolrQueryBuilder {
         List<String> materialTypes = searchRecordsRequest.getMaterialTypes();
 
         if (CollectionUtils.isNotEmpty(owningInstitutions)) {
-            stringBuilder.append(buildQueryForParentGivenChild(RecapConstants.BIB_OWNING_INSTITUTION, owningInstitutions, coreChildFilterQuery));
+            stringBuilder.append("(").append(buildQueryForChildGivenParent(RecapConstants.BIB_OWNING_INSTITUTION, owningInstitutions)).append(")");
         }
         if (StringUtils.isNotBlank(stringBuilder.toString()) && CollectionUtils.isNotEmpty(materialTypes)) {
-            stringBuilder.append(and).append(buildQueryForParentGivenChild(RecapConstants.LEADER_MATERIAL_TYPE, materialTypes, coreChildFilterQuery));
+            stringBuilder.append(and).append("(").append(buildQueryForChildGivenParent(RecapConstants.LEADER_MATERIAL_TYPE, materialTypes)).append(")");
         } else if (CollectionUtils.isNotEmpty(materialTypes)) {
-            stringBuilder.append(buildQueryForParentGivenChild(RecapConstants.LEADER_MATERIAL_TYPE, materialTypes, coreChildFilterQuery));
+            stringBuilder.append("(").append(buildQueryForChildGivenParent(RecapConstants.LEADER_MATERIAL_TYPE, materialTypes)).append(")");
         }
         return stringBuilder.toString();
     }
@@ -176,23 +155,13 @@ public class SolrQueryBuilder {
     }
 
     /**
-     * This method is used to build query for parent using the given field name,list of values and child query.
+     * This method is used to build query for the children of the parents holding any of the given values in the given field.
      * @param fieldName
      * @param values
-     * @param parentQuery
      * @return
      */
-    private String buildQueryForParentGivenChild(String fieldName, List<String> values, String parentQuery) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        for (Iterator<String> iterator = values.iterator(); iterator.hasNext(); ) {
-            String value = iterator.next();
-            stringBuilder.append(parentQuery).append(fieldName).append(":").append(value);
-            if (iterator.hasNext()) {
-                stringBuilder.append(or);
-            }
-        }
-        return "(" + stringBuilder.toString() + ")";
+    private String buildQueryForChildGivenParent(String fieldName, List<String> values) {
+        return SolrQueryNode.childOf(SolrQueryNode.anyPhrase(fieldName, getSortedValues(values))).toString();
     }
 
     /**
@@ -202,124 +171,67 @@ public class SolrQueryBuilder {
      * @return
      */
     private String buildQueryForMatchChildReturnParent(String fieldName, List<String> values) {
-        List<String> modifiedValues = new ArrayList<>();
-        if (CollectionUtils.isNotEmpty(values)) {
-            for (String value : values) {
-                modifiedValues.add("\"" + value.trim() + "\"");
-            }
-        }
-        return fieldName + ":" + "(" + StringUtils.join(modifiedValues, " ") + ")";
+        return SolrQueryNode.anyPhrase(fieldName, values == null ? new ArrayList<>() : values).toString();
     }
 
     /**
      * IF the getQueryForFieldCriteria() is called with Item field/value combination, the query would still return
      * only Bib Criteria. You will need to call getItemSolrQueryForCriteria()
      *
+     * The query is rendered as a clause to be spliced into the data dump queries, so a barcode list is a nested terms query. A barcode
+     * cannot hold a comma, as the search text is split into barcodes on commas.
+     *
      * @param searchRecordsRequest the search records request
      * @return the query for field criteria
      * @throws Exception
      */
     public String getQueryForFieldCriteria(SearchRecordsRequest searchRecordsRequest) {
-        StringBuilder stringBuilder = new StringBuilder();
-        String fieldValue = parseSearchRequest(searchRecordsRequest.getFieldValue().trim());
-        String fieldName = searchRecordsRequest.getFieldName();
-
-        if (StringUtils.isNotBlank(fieldName) && StringUtils.isNotBlank(fieldValue)) {
-            //The following "if" condition is for exact match (i.e string data type fields in Solr)
-            //Author, Title, Publisher, Publication Place, Publication date, Subjet & Notes.
-            if(!(fieldName.equalsIgnoreCase(RecapConstants.BARCODE) || fieldName.equalsIgnoreCase(RecapConstants.CALL_NUMBER) || fieldName.equalsIgnoreCase(RecapConstants.CUSTOMER_CODE)
-                    || fieldName.equalsIgnoreCase(RecapConstants.ISBN_CRITERIA) || fieldName.equalsIgnoreCase(RecapConstants.OCLC_NUMBER) || fieldName.equalsIgnoreCase(RecapConstants.ISSN_CRITERIA))) {
-
-                if(fieldName.contains(RecapConstants.DATE) && !fieldName.equalsIgnoreCase(RecapConstants.PUBLICATION_DATE)){
-                    stringBuilder.append(fieldName).append(":").append("[");
-                    stringBuilder.append(fieldValue).append("]");
-                    return stringBuilder.toString();
-                }
-
-                String[] fieldValues = fieldValue.split("\\s+");
-
-                if(fieldName.equalsIgnoreCase(RecapConstants.TITLE_STARTS_WITH)) {
-                    stringBuilder.append(fieldName).append(":").append("(");
-                    stringBuilder.append("\"").append(fieldValues[0]).append("\"").append(")");
-                } else {
-                    if(fieldValues.length > 1) {
-                        List<String> fieldValuesList = Arrays.asList(fieldValues);
-                        for (Iterator<String> iterator = fieldValuesList.iterator(); iterator.hasNext(); ) {
-                            String value = iterator.next();
-                            stringBuilder.append(fieldName).append(":").append("(").append("\"");
-                            stringBuilder.append(value).append("\"").append(")");
-                            if (iterator.hasNext()) {
-                                stringBuilder.append(and);
-                            }
-                        }
-                    } else {
-                        stringBuilder.append(fieldName).append(":").append("(");
-                        stringBuilder.append("\"").append(fieldValue).append("\"").append(")");
-                    }
-                }
-            } else {
-                //Check for item fields.
-                if(fieldName.equalsIgnoreCase(RecapConstants.CALL_NUMBER)){
-                    fieldValue = fieldValue.replaceAll(" ", "");
-                }
-                if (fieldName.equalsIgnoreCase(RecapConstants.BARCODE)) {
-                    String[] fieldValues = fieldValue.split(",");
-                    if (ArrayUtils.isNotEmpty(fieldValues)) {
-                        stringBuilder.append(buildQueryForMatchChildReturnParent(fieldName, Arrays.asList(fieldValues)));
-                    }
-                }
-                //Check for Bib fields.
-                else {
-                    stringBuilder.append(fieldName).append(":").append("(");
-                    stringBuilder.append("\"").append(fieldValue).append("\"").append(")");
-                }
-            }
-            return stringBuilder.toString();
-        }
-        return "";
+        SolrQueryNode fieldQuery = compileFieldCriteria(searchRecordsRequest);
+        return fieldQuery == null ? "" : fieldQuery.toClauseString();
     }
 
     /**
-     * Gets count query for field criteria.
+     * Compiles the search field and search text of the request into a query. Barcodes, which can be a long comma separated list, are
+     * matched with the terms query parser, dates as a range and the other fields as phrases.
      *
      * @param searchRecordsRequest the search records request
-     * @param parentQuery          the parent query
-     * @return the count query for field criteria
+     * @return the query, or null if the request has no search field or no search text
      */
-    public String getCountQueryForFieldCriteria(SearchRecordsRequest searchRecordsRequest, String parentQuery) {
-        StringBuilder stringBuilder = new StringBuilder();
-        String fieldValue = parseSearchRequest(searchRecordsRequest.getFieldValue().trim());
+    private SolrQueryNode compileFieldCriteria(SearchRecordsRequest searchRecordsRequest) {
+        String fieldValue = StringUtils.trimToEmpty(searchRecordsRequest.getFieldValue());
         String fieldName = searchRecordsRequest.getFieldName();
-        if (StringUtils.isNotBlank(fieldName) && StringUtils.isNotBlank(fieldValue)) {
-            if(!(fieldName.equalsIgnoreCase(RecapConstants.BARCODE) || fieldName.equalsIgnoreCase(RecapConstants.CALL_NUMBER) || fieldName.equalsIgnoreCase(RecapConstants.CUSTOMER_CODE)
-                    || fieldName.equalsIgnoreCase(RecapConstants.ISBN_CRITERIA) || fieldName.equalsIgnoreCase(RecapConstants.OCLC_NUMBER) || fieldName.equalsIgnoreCase(RecapConstants.ISSN_CRITERIA))) {
-                String[] fieldValues = fieldValue.split("\\s+");
-                if(fieldName.equalsIgnoreCase(RecapConstants.TITLE_STARTS_WITH)) {
-                    stringBuilder.append(parentQuery).append(fieldName).append(":").append(fieldValues[0]);
-                } else {
-                    if(fieldValues.length > 1) {
-                        List<String> fieldValuesList = Arrays.asList(fieldValues);
-                        stringBuilder.append(parentQuery);
-                        for (Iterator<String> iterator = fieldValuesList.iterator(); iterator.hasNext(); ) {
-                            String value = iterator.next();
-                            stringBuilder.append(fieldName).append(":").append(value);
-                            if (iterator.hasNext()) {
-                                stringBuilder.append(and);
-                            }
-                        }
-                    } else {
-                        stringBuilder.append(parentQuery).append(fieldName).append(":").append(fieldValue);
-                    }
-                }
-            } else {
-                if(fieldName.equalsIgnoreCase(RecapConstants.CALL_NUMBER)) {
-                    fieldValue = fieldValue.replaceAll(" ", "");
+        if (StringUtils.isBlank(fieldName) || StringUtils.isBlank(fieldValue)) {
+            return null;
+        }
+        if (fieldName.equalsIgnoreCase(RecapConstants.BARCODE)) {
+            List<String> barcodes = new ArrayList<>();
+            for (String barcode : fieldValue.split(",")) {
+                if (StringUtils.isNotBlank(barcode)) {
+                    barcodes.add(barcode.trim());
                 }
-                stringBuilder.append(parentQuery).append(fieldName).append(":").append(fieldValue);
             }
-            return stringBuilder.toString();
+            return barcodes.isEmpty() ? null : SolrQueryNode.terms(fieldName, barcodes);
         }
-        return "";
+        if (fieldName.equalsIgnoreCase(RecapConstants.CALL_NUMBER)) {
+            return SolrQueryNode.phrase(fieldName, fieldValue.replaceAll(" ", ""));
+        }
+        //Customer code and the standard numbers are matched as a whole, the text fields word by word.
+        if (fieldName.equalsIgnoreCase(RecapConstants.CUSTOMER_CODE) || fieldName.equalsIgnoreCase(RecapConstants.ISBN_CRITERIA)
+                || fieldName.equalsIgnoreCase(RecapConstants.OCLC_NUMBER) || fieldName.equalsIgnoreCase(RecapConstants.ISSN_CRITERIA)) {
+            return SolrQueryNode.phrase(fieldName, fieldValue);
+        }
+        if (fieldName.contains(RecapConstants.DATE) && !fieldName.equalsIgnoreCase(RecapConstants.PUBLICATION_DATE)) {
+            return SolrQueryNode.range(fieldName, fieldValue);
+        }
+        String[] fieldValues = fieldValue.split("\\s+");
+        if (fieldName.equalsIgnoreCase(RecapConstants.TITLE_STARTS_WITH)) {
+            return SolrQueryNode.phrase(fieldName, fieldValues[0]);
+        }
+        List<SolrQueryNode> clauses = new ArrayList<>();
+        for (String value : fieldValues) {
+            clauses.add(SolrQueryNode.phrase(fieldName, value));
+        }
+        return SolrQueryNode.and(clauses);
     }
 
     /**
@@ -334,6 +246,121 @@ public class SolrQueryBuilder {
         return new SolrQuery(stringBuilder.toString());
     }
 
+    /**
+     * Gets the filter for the holdings and item children of a bib which are shown with the bib in the search results,
+     * which are the holdings with the given deleted flag and the items with the given deleted flag and cataloging status.
+     *
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     * @return the child document filter
+     */
+    public String getChildDocumentFilter(boolean isDeleted, String catalogingStatus) {
+        return "(" + RecapConstants.DOCTYPE + ":" + RecapConstants.ITEM + and + RecapConstants.IS_DELETED_ITEM + ":" + isDeleted
+                + and + RecapConstants.ITEM_CATALOGING_STATUS + ":" + catalogingStatus + ")" + or
+                + "(" + RecapConstants.DOCTYPE + ":" + RecapConstants.HOLDINGS + and + RecapConstants.IS_DELETED_HOLDINGS + ":" + isDeleted + ")";
+    }
+
+    /**
+     * Gets the [child] document transformer which returns the filtered holdings and item children of every bib along with the bib.
+     *
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     * @param limit            the maximum number of children returned for a bib
+     * @return the child document transformer
+     */
+    public String getChildDocumentTransformer(boolean isDeleted, String catalogingStatus, int limit) {
+        return "[child parentFilter=" + parentDocumentFilter + " childFilter='" + getChildDocumentFilter(isDeleted, catalogingStatus)
+                + "' limit=" + limit + "]";
+    }
+
+    /**
+     * Gets the query for the filtered holdings and item children of all the given bibs at once.
+     *
+     * @param rootIds          the ids of the bibs
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     * @return the solr query
+     */
+    public SolrQuery getSolrQueryForBibChildren(Collection<String> rootIds, boolean isDeleted, String catalogingStatus) {
+        SolrQuery solrQuery = getSolrQueryForRootIds(rootIds);
+        solrQuery.addFilterQuery(getChildDocumentFilter(isDeleted, catalogingStatus));
+        return solrQuery;
+    }
+
+    /**
+     * Gets the query for the bibs with the given deleted flag and cataloging status and for their holdings with the given deleted flag,
+     * for all the given bibs at once.
+     *
+     * @param rootIds          the ids of the bibs
+     * @param isDeleted        the is deleted
+     * @param catalogingStatus the cataloging status
+     * @return the solr query
+     */
+    public SolrQuery getSolrQueryForBibsAndHoldings(Collection<String> rootIds, boolean isDeleted, String catalogingStatus) {
+        SolrQuery solrQuery = getSolrQueryForRootIds(rootIds);
+        solrQuery.addFilterQuery("(" + RecapConstants.DOCTYPE + ":" + RecapConstants.BIB + and + RecapConstants.IS_DELETED_BIB + ":" + isDeleted
+                + and + RecapConstants.BIB_CATALOGING_STATUS + ":" + catalogingStatus + ")" + or
+                + "(" + RecapConstants.DOCTYPE + ":" + RecapConstants.HOLDINGS + and + RecapConstants.IS_DELETED_HOLDINGS + ":" + isDeleted + ")");
+        return solrQuery;
+    }
+
+    /**
+     * Sets the query to fetch the page after the given solr cursor mark instead of the page at a start offset, so a late page costs
+     * the same as the first one. The query is sorted by the given field and then by the unique key, which the cursor needs as tie breaker.
+     *
+     * @param solrQuery  the solr query
+     * @param sortField  the sort field
+     * @param order      the sort order
+     * @param cursorMark the cursor mark, or blank for the first page
+     * @param rows       the page size
+     * @return the solr query
+     */
+    public SolrQuery setCursorPage(SolrQuery solrQuery, String sortField, SolrQuery.ORDER order, String cursorMark, int rows) {
+        solrQuery.setStart(null);
+        solrQuery.setRows(rows);
+        solrQuery.setSort(sortField, order);
+        solrQuery.addSort(RecapConstants.UNIQUE_KEY, SolrQuery.ORDER.asc);
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, StringUtils.isBlank(cursorMark) ? CursorMarkParams.CURSOR_MARK_START : cursorMark);
+        return solrQuery;
+    }
+
+    /**
+     * Sets the query to stream all its matches from the export handler, sorted by the given field. The export handler returns only fields
+     * with doc values.
+     *
+     * @param solrQuery the solr query
+     * @param sortField the sort field, which is returned too
+     * @param fields    the other returned fields
+     * @return the solr query
+     */
+    public SolrQuery setExport(SolrQuery solrQuery, String sortField, String... fields) {
+        solrQuery.setRequestHandler(RecapConstants.EXPORT_REQUEST_HANDLER);
+        solrQuery.setFields(ArrayUtils.add(fields, 0, sortField));
+        solrQuery.setSort(sortField, SolrQuery.ORDER.asc);
+        return solrQuery;
+    }
+
+    /**
+     * Gets the query for the children of the parents matching the given query.
+     *
+     * @param parentQuery the parent query
+     * @return the child query
+     */
+    public String getChildQueryOfParentQuery(String parentQuery) {
+        return "{!child of=\"" + parentDocumentFilter + "\" v='" + parentQuery.replace("\\", "\\\\").replace("'", "\\'") + "'}";
+    }
+
+    private SolrQuery getSolrQueryForRootIds(Collection<String> rootIds) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (String rootId : rootIds) {
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(or);
+            }
+            stringBuilder.append(ClientUtils.escapeQueryChars(rootId));
+        }
+        return new SolrQuery(RecapConstants.ROOT + ":(" + stringBuilder.toString() + ")");
+    }
+
     /**
      * Gets query for parent and child criteria.
      *
@@ -341,15 +368,7 @@ public class SolrQueryBuilder {
      * @return the query for parent and child criteria
      */
     public SolrQuery getQueryForParentAndChildCriteria(SearchRecordsRequest searchRecordsRequest) {
-        String queryForFieldCriteria = getQueryForFieldCriteria(searchRecordsRequest);
-        String queryStringForBibCriteria = getQueryStringForMatchChildReturnParent(searchRecordsRequest);
-        String queryStringForItemCriteriaForParent = getQueryStringForItemCriteriaForParent(searchRecordsRequest);
-        SolrQuery solrQuery = new SolrQuery(queryStringForBibCriteria
-                + and + RecapConstants.IS_DELETED_BIB + ":" + searchRecordsRequest.isDeleted()
-                + and + RecapConstants.BIB_CATALOGING_STATUS + ":" + searchRecordsRequest.getCatalogingStatus()
-                + (StringUtils.isNotBlank(queryForFieldCriteria) ? and + queryForFieldCriteria : ""));
-        solrQuery.setFilterQueries(queryStringForItemCriteriaForParent);
-        return solrQuery;
+        return compileSearchQuery(searchRecordsRequest).getQueryForBibs();
     }
 
     /**
@@ -387,13 +406,7 @@ public class SolrQueryBuilder {
      * @return the query for child and parent criteria
      */
     public SolrQuery getQueryForChildAndParentCriteria(SearchRecordsRequest searchRecordsRequest) {
-        String queryForFieldCriteria = getQueryForFieldCriteria(searchRecordsRequest);
-        String queryStringForItemCriteria = getQueryStringForMatchParentReturnChild(searchRecordsRequest);
-        String queryStringForParentCriteriaForChild = getQueryStringForParentCriteriaForChild(searchRecordsRequest);
-        return new SolrQuery(queryStringForItemCriteria
-                + and + RecapConstants.IS_DELETED_ITEM + ":" + searchRecordsRequest.isDeleted()
-                + and + RecapConstants.ITEM_CATALOGING_STATUS + ":" + searchRecordsRequest.getCatalogingStatus()
-                + and + queryForFieldCriteria + queryStringForParentCriteriaForChild);
+        return compileSearchQuery(searchRecordsRequest).getQueryForItems();
     }
 
     /**
@@ -430,14 +443,7 @@ public class SolrQueryBuilder {
      * @return the count query for parent and child criteria
      */
     public SolrQuery getCountQueryForParentAndChildCriteria(SearchRecordsRequest searchRecordsRequest) {
-        String countQueryForFieldCriteria = getCountQueryForFieldCriteria(searchRecordsRequest, coreParentFilterQuery);
-        String queryStringForBibCriteria = getQueryStringForMatchChildReturnParent(searchRecordsRequest);
-        String queryStringForItemCriteriaForParent = getQueryStringForItemCriteriaForParent(searchRecordsRequest);
-        SolrQuery solrQuery = new SolrQuery(queryStringForBibCriteria
-                + and + RecapConstants.IS_DELETED_BIB + ":" + searchRecordsRequest.isDeleted()
-                + and + RecapConstants.BIB_CATALOGING_STATUS + ":" + searchRecordsRequest.getCatalogingStatus());
-        solrQuery.setFilterQueries(queryStringForItemCriteriaForParent, countQueryForFieldCriteria);
-        return solrQuery;
+        return compileSearchQuery(searchRecordsRequest).getCountQueryForBibs();
     }
 
     /**
@@ -447,15 +453,77 @@ public class SolrQueryBuilder {
      * @return the count query for child and parent criteria
      */
     public SolrQuery getCountQueryForChildAndParentCriteria(SearchRecordsRequest searchRecordsRequest) {
-        String countQueryForFieldCriteria = getCountQueryForFieldCriteria(searchRecordsRequest, coreChildFilterQuery);
-        String queryStringForItemCriteria = getQueryStringForMatchParentReturnChild(searchRecordsRequest);
-        String queryStringForParentCriteriaForChild = getQueryStringForParentCriteriaForChild(searchRecordsRequest);
-        SolrQuery solrQuery = new SolrQuery(queryStringForItemCriteria
-                + and + RecapConstants.IS_DELETED_ITEM + ":" + searchRecordsRequest.isDeleted()
-                + and + RecapConstants.ITEM_CATALOGING_STATUS + ":" + searchRecordsRequest.getCatalogingStatus()
-                + and + queryStringForParentCriteriaForChild);
-        solrQuery.setFilterQueries(countQueryForFieldCriteria);
-        return solrQuery;
+        return compileSearchQuery(searchRecordsRequest).getCountQueryForItems();
+    }
+
+    /**
+     * Compiles the search request once into the result and count queries of the search.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the search query template
+     */
+    public SearchQueryTemplate compileSearchQuery(SearchRecordsRequest searchRecordsRequest) {
+        List<String> bibFilterQueries = getBibFilterQueries(searchRecordsRequest);
+        bibFilterQueries.add(getQueryStringForItemCriteriaForParent(searchRecordsRequest));
+        List<String> itemFilterQueries = getItemFilterQueries(searchRecordsRequest);
+        itemFilterQueries.addAll(getBibFilterQueriesForChild(searchRecordsRequest));
+        return new SearchQueryTemplate(compileFieldCriteria(searchRecordsRequest), bibFilterQueries, itemFilterQueries);
+    }
+
+    /**
+     * This method gets the facets and flags of the bib search, each as its own filter query, so that solr caches every one of them on its own
+     * in the filter cache and reuses it across pages, count queries and searches which share the facet.
+     *
+     * @param searchRecordsRequest the search records request
+     * @return the bib filter queries
+     */
+    private List<String> getBibFilterQueries(SearchRecordsRequest searchRecordsRequest) {
+        List<String> filterQueries = new ArrayList<>();
+        addFilterQuery(filterQueries, RecapConstants.BIB_OWNING_INSTITUTION, searchRecordsRequest.getOwningInstitutions());
+        addFilterQuery(filterQueries, RecapConstants.LEADER_MATERIAL_TYPE, searchRecordsRequest.getMaterialTypes());
+        filterQueries.add(SolrQueryNode.term(RecapConstants.IS_DELETED_BIB, searchRecordsRequest.isDeleted()).toString());
+        filterQueries.add(SolrQueryNode.term(RecapConstants.BIB_CATALOGING_STATUS, searchRecordsRequest.getCatalogingStatus()).toString());
+        return filterQueries;
+    }
+
+    private List<String> getItemFilterQueries(SearchRecordsRequest searchRecordsRequest) {
+        List<String> filterQueries = new ArrayList<>();
+        addFilterQuery(filterQueries, RecapConstants.AVAILABILITY, searchRecordsRequest.getAvailability());
+        addFilterQuery(filterQueries, RecapConstants.COLLECTION_GROUP_DESIGNATION, searchRecordsRequest.getCollectionGroupDesignations());
+        addFilterQuery(filterQueries, RecapConstants.USE_RESTRICTION, searchRecordsRequest.getUseRestrictions());
+        filterQueries.add(SolrQueryNode.term(RecapConstants.IS_DELETED_ITEM, searchRecordsRequest.isDeleted()).toString());
+        filterQueries.add(SolrQueryNode.term(RecapConstants.ITEM_CATALOGING_STATUS, searchRecordsRequest.getCatalogingStatus()).toString());
+        return filterQueries;
+    }
+
+    private List<String> getBibFilterQueriesForChild(SearchRecordsRequest searchRecordsRequest) {
+        List<String> filterQueries = new ArrayList<>();
+        if (CollectionUtils.isNotEmpty(searchRecordsRequest.getOwningInstitutions())) {
+            filterQueries.add(buildQueryForChildGivenParent(RecapConstants.BIB_OWNING_INSTITUTION, searchRecordsRequest.getOwningInstitutions()));
+        }
+        if (CollectionUtils.isNotEmpty(searchRecordsRequest.getMaterialTypes())) {
+            filterQueries.add(buildQueryForChildGivenParent(RecapConstants.LEADER_MATERIAL_TYPE, searchRecordsRequest.getMaterialTypes()));
+        }
+        filterQueries.add(SolrQueryNode.childOf(SolrQueryNode.term(RecapConstants.IS_DELETED_BIB, searchRecordsRequest.isDeleted())).toString());
+        filterQueries.add(SolrQueryNode.childOf(SolrQueryNode.term(RecapConstants.BIB_CATALOGING_STATUS, searchRecordsRequest.getCatalogingStatus())).toString());
+        return filterQueries;
+    }
+
+    private void addFilterQuery(List<String> filterQueries, String fieldName, List<String> values) {
+        if (CollectionUtils.isNotEmpty(values)) {
+            filterQueries.add(buildQueryForMatchChildReturnParent(fieldName, getSortedValues(values)));
+        }
+    }
+
+    /**
+     * The facet values are sorted and repeated values dropped, so that the same facet selection always gives the same filter query
+     * and hits the same filter cache entry, whatever order the values were selected in.
+     *
+     * @param values the facet values
+     * @return the sorted values
+     */
+    private List<String> getSortedValues(List<String> values) {
+        return new ArrayList<>(new TreeSet<>(values));
     }
 
     /**
@@ -535,11 +603,7 @@ public class SolrQueryBuilder {
     public SolrQuery solrQueryToFetchBibDetails(List<MatchingMatchPointsEntity> matchingMatchPointsEntities, List<String> matchCriteriaValues, String matchingCriteria) {
         Integer rows = 0;
         for (MatchingMatchPointsEntity matchingMatchPointsEntity : matchingMatchPointsEntities) {
-            String criteriaValue = matchingMatchPointsEntity.getCriteriaValue();
-            if(criteriaValue.contains("\\")) {
-                criteriaValue = criteriaValue.replaceAll("\\\\", "\\\\\\\\");
-            }
-            matchCriteriaValues.add(criteriaValue);
+            matchCriteriaValues.add(matchingMatchPointsEntity.getCriteriaValue());
             rows = rows + matchingMatchPointsEntity.getCriteriaValueCount();
         }
         StringBuilder query = new StringBuilder();
@@ -583,10 +647,7 @@ public class SolrQueryBuilder {
      */
     public String solrQueryForOngoingMatching(String fieldName, String matchingPointValue) {
         StringBuilder query = new StringBuilder();
-        if(matchingPointValue.contains("\\")) {
-            matchingPointValue = matchingPointValue.replaceAll("\\\\", "\\\\\\\\");
-        }
-        query.append(fieldName).append(":").append("\"").append(matchingPointValue).append("\"");
+        query.append(SolrQueryNode.phrase(fieldName, matchingPointValue));
         query.append(and).append(RecapConstants.IS_DELETED_BIB).append(":").append(RecapConstants.FALSE)
                 .append(and).append(RecapConstants.BIB_CATALOGING_STATUS).append(":").append(RecapConstants.COMPLETE_STATUS)
                 .append(and).append(coreParentFilterQuery).append(RecapConstants.COLLECTION_GROUP_DESIGNATION).append(":").append(RecapConstants.SHARED_CGD)
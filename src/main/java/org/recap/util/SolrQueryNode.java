@@ -0,0 +1,358 @@
+package org.recap.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.client.solrj.util.ClientUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A node of a solr query. A search is built as a tree of nodes and the tree is rendered into query syntax only when a query string is needed,
+ * with every value escaped, so a value holding query syntax is searched as it is instead of breaking the query. A list of ids is rendered
+ * with the terms query parser, which is not bound by the boolean clause limit, and a block join can refer to its inner query by a request
+ * parameter, so the same compiled query serves the result query and the count query of a search.
+ */
+public abstract class SolrQueryNode {
+
+    private static final String PARENT_DOCUMENT_FILTER = "ContentType:parent";
+
+    private static final String AND = " AND ";
+
+    private static final String OR = " OR ";
+
+    /**
+     * Renders the node into the builder.
+     *
+     * @param stringBuilder the string builder
+     */
+    abstract void render(StringBuilder stringBuilder);
+
+    /**
+     * Tells whether the node has to be put in parentheses when it is a clause of another node.
+     *
+     * @return the boolean
+     */
+    boolean isCompound() {
+        return false;
+    }
+
+    /**
+     * Tells whether the node is rendered as a query starting with local params, which takes all the rest of the query string as its value.
+     *
+     * @return the boolean
+     */
+    boolean hasLocalParams() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        render(stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Renders the node so that it can be spliced into a query string as one of its clauses. A node starting with local params is rendered
+     * as a nested query, with its query string escaped between the quotes, so the clauses spliced after it are not read as its value.
+     *
+     * @return the clause string
+     */
+    public String toClauseString() {
+        String query = toString();
+        if (hasLocalParams()) {
+            return "_query_:\"" + escapePhrase(query) + "\"";
+        }
+        return isCompound() ? "(" + query + ")" : query;
+    }
+
+    /**
+     * Gets the node matching the field holding the value.
+     *
+     * @param fieldName the field name
+     * @param value     the value, for a boolean or keyword field
+     * @return the node
+     */
+    public static SolrQueryNode term(String fieldName, Object value) {
+        return new Term(fieldName, String.valueOf(value));
+    }
+
+    /**
+     * Gets the node matching the field holding the value as a phrase.
+     *
+     * @param fieldName the field name
+     * @param value     the value
+     * @return the node
+     */
+    public static SolrQueryNode phrase(String fieldName, String value) {
+        return new Phrases(fieldName, Collections.singletonList(value));
+    }
+
+    /**
+     * Gets the node matching the field holding any of the values as a phrase.
+     *
+     * @param fieldName the field name
+     * @param values    the values
+     * @return the node
+     */
+    public static SolrQueryNode anyPhrase(String fieldName, Collection<String> values) {
+        return new Phrases(fieldName, new ArrayList<>(values));
+    }
+
+    /**
+     * Gets the node matching the field holding any of the values, with the terms query parser. The values are matched exactly, so this is
+     * meant for lists of ids, which can be longer than the boolean clause limit.
+     *
+     * @param fieldName the field name
+     * @param values    the values, which must not hold a comma
+     * @return the node
+     */
+    public static SolrQueryNode terms(String fieldName, Collection<String> values) {
+        return new Terms(fieldName, new ArrayList<>(values));
+    }
+
+    /**
+     * Gets the node matching the field in the range.
+     *
+     * @param fieldName the field name
+     * @param range     the range, as the lower and upper bound joined by TO
+     * @return the node
+     */
+    public static SolrQueryNode range(String fieldName, String range) {
+        return new Range(fieldName, range);
+    }
+
+    /**
+     * Gets the node matching all the clauses.
+     *
+     * @param clauses the clauses
+     * @return the node
+     */
+    public static SolrQueryNode and(List<SolrQueryNode> clauses) {
+        return clauses.size() == 1 ? clauses.get(0) : new Junction(AND, clauses);
+    }
+
+    /**
+     * Gets the node matching any of the clauses.
+     *
+     * @param clauses the clauses
+     * @return the node
+     */
+    public static SolrQueryNode or(SolrQueryNode... clauses) {
+        return clauses.length == 1 ? clauses[0] : new Junction(OR, Arrays.asList(clauses));
+    }
+
+    /**
+     * Gets the node matching the bibs of the holdings and items matching the child node.
+     *
+     * @param child the child node
+     * @return the node
+     */
+    public static SolrQueryNode parentOf(SolrQueryNode child) {
+        return new BlockJoin("{!parent which=\"" + PARENT_DOCUMENT_FILTER + "\"", child, null);
+    }
+
+    /**
+     * Gets the node matching the holdings and items of the bibs matching the parent node.
+     *
+     * @param parent the parent node
+     * @return the node
+     */
+    public static SolrQueryNode childOf(SolrQueryNode parent) {
+        return new BlockJoin("{!child of=\"" + PARENT_DOCUMENT_FILTER + "\"", parent, null);
+    }
+
+    /**
+     * Gets the node matching the bibs of the holdings and items matching the query held by the request parameter.
+     *
+     * @param parameterName the request parameter name
+     * @return the node
+     */
+    public static SolrQueryNode parentOfParameter(String parameterName) {
+        return new BlockJoin("{!parent which=\"" + PARENT_DOCUMENT_FILTER + "\"", null, parameterName);
+    }
+
+    /**
+     * Gets the node matching the holdings and items of the bibs matching the query held by the request parameter.
+     *
+     * @param parameterName the request parameter name
+     * @return the node
+     */
+    public static SolrQueryNode childOfParameter(String parameterName) {
+        return new BlockJoin("{!child of=\"" + PARENT_DOCUMENT_FILTER + "\"", null, parameterName);
+    }
+
+    /**
+     * Escapes a value to be put between the quotes of a phrase.
+     *
+     * @param value the value
+     * @return the escaped value
+     */
+    static String escapePhrase(String value) {
+        return value.trim().replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void renderClause(StringBuilder stringBuilder, SolrQueryNode clause) {
+        if (clause.isCompound()) {
+            stringBuilder.append("(");
+            clause.render(stringBuilder);
+            stringBuilder.append(")");
+        } else {
+            clause.render(stringBuilder);
+        }
+    }
+
+    private static final class Term extends SolrQueryNode {
+
+        private final String fieldName;
+
+        private final String value;
+
+        private Term(String fieldName, String value) {
+            this.fieldName = fieldName;
+            this.value = value;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            stringBuilder.append(fieldName).append(":").append(ClientUtils.escapeQueryChars(value));
+        }
+    }
+
+    private static final class Phrases extends SolrQueryNode {
+
+        private final String fieldName;
+
+        private final List<String> values;
+
+        private Phrases(String fieldName, List<String> values) {
+            this.fieldName = fieldName;
+            this.values = values;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            stringBuilder.append(fieldName).append(":(");
+            for (int index = 0; index < values.size(); index++) {
+                if (index > 0) {
+                    stringBuilder.append(" ");
+                }
+                stringBuilder.append("\"").append(escapePhrase(values.get(index))).append("\"");
+            }
+            stringBuilder.append(")");
+        }
+    }
+
+    private static final class Terms extends SolrQueryNode {
+
+        private final String fieldName;
+
+        private final List<String> values;
+
+        private Terms(String fieldName, List<String> values) {
+            this.fieldName = fieldName;
+            this.values = values;
+        }
+
+        @Override
+        boolean hasLocalParams() {
+            return true;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            stringBuilder.append("{!terms f=").append(fieldName).append("}").append(StringUtils.join(values, ","));
+        }
+    }
+
+    private static final class Range extends SolrQueryNode {
+
+        private static final String TO = " TO ";
+
+        private final String fieldName;
+
+        private final String range;
+
+        private Range(String fieldName, String range) {
+            this.fieldName = fieldName;
+            this.range = range;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            stringBuilder.append(fieldName).append(":[");
+            String[] bounds = StringUtils.splitByWholeSeparator(range.trim(), TO);
+            for (int index = 0; index < bounds.length; index++) {
+                if (index > 0) {
+                    stringBuilder.append(TO);
+                }
+                String bound = bounds[index].trim();
+                stringBuilder.append("*".equals(bound) ? bound : ClientUtils.escapeQueryChars(bound));
+            }
+            stringBuilder.append("]");
+        }
+    }
+
+    private static final class Junction extends SolrQueryNode {
+
+        private final String operator;
+
+        private final List<SolrQueryNode> clauses;
+
+        private Junction(String operator, List<SolrQueryNode> clauses) {
+            this.operator = operator;
+            this.clauses = clauses;
+        }
+
+        @Override
+        boolean isCompound() {
+            return true;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            for (int index = 0; index < clauses.size(); index++) {
+                if (index > 0) {
+                    stringBuilder.append(operator);
+                }
+                renderClause(stringBuilder, clauses.get(index));
+            }
+        }
+    }
+
+    /**
+     * A block join takes all the rest of the query string as its inner query, so it is put in parentheses when it is a clause of another node.
+     */
+    private static final class BlockJoin extends SolrQueryNode {
+
+        private final String localParams;
+
+        private final SolrQueryNode inner;
+
+        private final String parameterName;
+
+        private BlockJoin(String localParams, SolrQueryNode inner, String parameterName) {
+            this.localParams = localParams;
+            this.inner = inner;
+            this.parameterName = parameterName;
+        }
+
+        @Override
+        boolean isCompound() {
+            return inner != null;
+        }
+
+        @Override
+        void render(StringBuilder stringBuilder) {
+            if (parameterName != null) {
+                stringBuilder.append(localParams).append(" v=$").append(parameterName).append("}");
+            } else {
+                stringBuilder.append(localParams).append("}");
+                renderClause(stringBuilder, inner);
+            }
+        }
+    }
+}
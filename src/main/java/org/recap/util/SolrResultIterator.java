@@ -0,0 +1,95 @@
+package org.recap.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.recap.RecapConstants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs a solr query over all its matches, a page at a time with a solr cursor, and passes every document to a consumer as its page arrives.
+ * Only one page is held at a time, so the memory used does not grow with the number of matches, and no count query is needed before
+ * fetching the matches. The sort of the query is kept, with the unique key added as the tie breaker the cursor needs.
+ */
+public final class SolrResultIterator {
+
+    private SolrResultIterator() {
+    }
+
+    /**
+     * Passes every document matching the query to the consumer, fetching the pages with the default page size.
+     *
+     * @param solrClient       the solr client
+     * @param solrQuery        the solr query
+     * @param documentConsumer the document consumer
+     * @return the number of matches
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    public static long forEachDocument(SolrClient solrClient, SolrQuery solrQuery, Consumer<SolrDocument> documentConsumer) throws IOException, SolrServerException {
+        return forEachDocument(solrClient, solrQuery, SolrRequest.METHOD.GET, RecapConstants.SOLR_CURSOR_PAGE_SIZE, documentConsumer);
+    }
+
+    /**
+     * Passes every document matching the query to the consumer.
+     *
+     * @param solrClient       the solr client
+     * @param solrQuery        the solr query, which is not changed
+     * @param method           the http method of the page requests, post for a query holding a long list of ids
+     * @param pageSize         the page size
+     * @param documentConsumer the document consumer
+     * @return the number of matches
+     * @throws IOException         the io exception
+     * @throws SolrServerException the solr server exception
+     */
+    public static long forEachDocument(SolrClient solrClient, SolrQuery solrQuery, SolrRequest.METHOD method, int pageSize,
+                                       Consumer<SolrDocument> documentConsumer) throws IOException, SolrServerException {
+        SolrQuery cursorQuery = solrQuery.getCopy();
+        cursorQuery.setStart(null);
+        cursorQuery.setRows(pageSize);
+        setCursorSort(solrQuery, cursorQuery);
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        while (true) {
+            cursorQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse queryResponse = solrClient.query(cursorQuery, method);
+            SolrDocumentList solrDocuments = queryResponse.getResults();
+            for (SolrDocument solrDocument : solrDocuments) {
+                documentConsumer.accept(solrDocument);
+            }
+            String nextCursorMark = queryResponse.getNextCursorMark();
+            if (solrDocuments.size() < pageSize || nextCursorMark == null || cursorMark.equals(nextCursorMark)) {
+                return solrDocuments.getNumFound();
+            }
+            cursorMark = nextCursorMark;
+        }
+    }
+
+    /**
+     * Copies the sort of the query, which the copy of a solr query does not keep, and adds the unique key to it unless it is already sorted on.
+     */
+    private static void setCursorSort(SolrQuery solrQuery, SolrQuery cursorQuery) {
+        List<SolrQuery.SortClause> sortClauses = new ArrayList<>(solrQuery.getSorts());
+        if (sortClauses.isEmpty() && StringUtils.isNotBlank(solrQuery.get(CommonParams.SORT))) {
+            String sort = solrQuery.get(CommonParams.SORT);
+            boolean sortedByUniqueKey = Arrays.stream(sort.split(",")).anyMatch(sortClause -> sortClause.trim().startsWith(RecapConstants.UNIQUE_KEY + " "));
+            cursorQuery.set(CommonParams.SORT, sortedByUniqueKey ? sort : sort + "," + RecapConstants.UNIQUE_KEY + " " + SolrQuery.ORDER.asc);
+            return;
+        }
+        if (sortClauses.stream().noneMatch(sortClause -> RecapConstants.UNIQUE_KEY.equals(sortClause.getItem()))) {
+            sortClauses.add(SolrQuery.SortClause.asc(RecapConstants.UNIQUE_KEY));
+        }
+        cursorQuery.setSorts(sortClauses);
+    }
+}
@@ -55,6 +55,9 @@ public class UpdateCgdUtil {
     @Autowired
     private ProducerTemplate producerTemplate;
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     /**
      * This method updates cgd for item in both solr and database based on the given input parameters and sends email on successful cgd updation.
      *
@@ -112,6 +115,7 @@ public class UpdateCgdUtil {
                         stopWatchIndexDocument.start();
                         SolrInputDocument bibSolrInputDocument = bibJSONUtil.generateBibAndItemsForIndex(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository);
                         solrTemplate.saveDocument(bibSolrInputDocument,1);
+                        searchResultCache.indexUpdated();
                         stopWatchIndexDocument.stop();
                         logger.info("Time taken to index the doc for updateCGDForItemInSolr--->{}sec",stopWatchIndexDocument.getTotalTimeSeconds());
                     }
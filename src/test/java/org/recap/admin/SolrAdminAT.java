@@ -56,4 +56,14 @@ public class SolrAdminAT extends BaseTestCase {
         boolean isCoreExists = solrAdmin.isCoreExist(solrCore);
         assertTrue(isCoreExists);
     }
+
+    @Test
+    public void mergeCoresAsync() throws Exception {
+        List<String> tempCores = asList(tempCoreName1, tempCoreName2);
+        solrAdmin.createSolrCores(tempCores);
+        String requestId = solrAdmin.mergeCoresAsync(tempCores);
+        assertNotNull(requestId);
+        assertTrue(solrAdmin.awaitMerge(requestId));
+        solrAdmin.unLoadCores(tempCores);
+    }
 }
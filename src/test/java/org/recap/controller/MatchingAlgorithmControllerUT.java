@@ -7,15 +7,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.recap.RecapConstants;
 import org.recap.executors.MatchingBibItemIndexExecutorService;
+import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.matchingalgorithm.service.MatchingAlgorithmHelperService;
 import org.recap.matchingalgorithm.service.MatchingAlgorithmUpdateCGDService;
 import org.recap.matchingalgorithm.service.MatchingBibInfoDetailService;
 import org.recap.model.jpa.*;
 import org.recap.report.ReportGenerator;
 import org.recap.repository.jpa.*;
-import org.recap.service.ActiveMqQueuesInfo;
+import org.recap.service.QueueCompletionTracker;
 import org.recap.util.MatchingAlgorithmUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -92,8 +94,8 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
     @Mock
     ReportDetailRepository reportDetailRepository;
 
-    @Mock
-    private ActiveMqQueuesInfo activeMqQueuesInfo;
+    @Spy
+    private QueueCompletionTracker queueCompletionTracker = new QueueCompletionTracker();
 
     @Mock
     private MatchingBibInfoDetailRepository matchingBibInfoDetailRepository;
@@ -140,13 +142,7 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         Mockito.when(matchingAlgoController.getMatchingAlgorithmHelperService()).thenReturn(matchingAlgorithmHelperService);
         Mockito.when(matchingAlgorithmHelperService.findMatchingAndPopulateMatchPointsEntities()).thenReturn(new Long(10));
         Mockito.when(matchingAlgorithmHelperService.populateMatchingBibEntities()).thenReturn(new Long(10));
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCandISBN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCAndISSN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISBNAndISSN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISBNAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISSNAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForSingleMatch(batchSize)).thenReturn(matchingAlgoMap);
+        Mockito.when(matchingAlgorithmHelperService.populateReportsForMatchingBibClusters(batchSize)).thenReturn(matchingAlgoMap);
         Mockito.when(matchingAlgoController.matchingAlgorithmFindMatchingAndReports()).thenCallRealMethod();
         String response = matchingAlgoController.matchingAlgorithmFindMatchingAndReports();
         assertTrue(response.contains(RecapConstants.STATUS_DONE));
@@ -159,13 +155,7 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         matchingAlgoMap.put("culMatchingCount", 2);
         matchingAlgoMap.put("nyplMatchingCount", 3);
         Mockito.when(matchingAlgoController.getMatchingAlgorithmHelperService()).thenReturn(matchingAlgorithmHelperService);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCandISBN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCAndISSN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForOCLCAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISBNAndISSN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISBNAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForISSNAndLCCN(batchSize)).thenReturn(matchingAlgoMap);
-        Mockito.when(matchingAlgorithmHelperService.populateReportsForSingleMatch(batchSize)).thenReturn(matchingAlgoMap);
+        Mockito.when(matchingAlgorithmHelperService.populateReportsForMatchingBibClusters(batchSize)).thenReturn(matchingAlgoMap);
         Mockito.when(matchingAlgoController.matchingAlgorithmOnlyReports()).thenCallRealMethod();
         String response = matchingAlgoController.matchingAlgorithmOnlyReports();
         assertTrue(response.contains(RecapConstants.STATUS_DONE));
@@ -190,13 +180,13 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         Mockito.when(matchingAlgorithmUpdateCGDService.getCollectionGroupDetailsRepository()).thenReturn(collectionGroupDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemChangeLogDetailsRepository()).thenReturn(itemChangeLogDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemDetailsRepository()).thenReturn(itemDetailsRepository);
-        Mockito.when(matchingAlgorithmUpdateCGDService.getActiveMqQueuesInfo()).thenReturn(activeMqQueuesInfo);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getQueueCompletionTracker()).thenReturn(queueCompletionTracker);
         Mockito.when(matchingAlgorithmUtil.getReportDetailRepository()).thenReturn(reportDetailRepository);
         Mockito.when(reportDataDetailsRepository.getCountOfRecordNumForMatchingMonograph(RecapConstants.BIB_ID)).thenReturn(new Long(10000));
         Mockito.doCallRealMethod().when(matchingAlgorithmUpdateCGDService).updateCGDProcessForMonographs(Mockito.any());
         Mockito.doCallRealMethod().when(matchingAlgorithmUtil).updateMonographicSetRecords(Mockito.any(),Mockito.any());
         Mockito.doCallRealMethod().when(matchingAlgorithmUtil).updateExceptionRecords(Mockito.any(),Mockito.any());
-        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any());
+        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any(), Mockito.any());
         Mockito.when(matchingAlgoController.updateMonographCGDInDB()).thenCallRealMethod();
         String response = matchingAlgoController.updateMonographCGDInDB();
         assertTrue(response.contains(RecapConstants.STATUS_DONE));
@@ -221,10 +211,10 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         Mockito.when(matchingAlgorithmUpdateCGDService.getCollectionGroupDetailsRepository()).thenReturn(collectionGroupDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemChangeLogDetailsRepository()).thenReturn(itemChangeLogDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemDetailsRepository()).thenReturn(itemDetailsRepository);
-        Mockito.when(matchingAlgorithmUpdateCGDService.getActiveMqQueuesInfo()).thenReturn(activeMqQueuesInfo);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getQueueCompletionTracker()).thenReturn(queueCompletionTracker);
         Mockito.when(matchingAlgorithmUtil.getReportDetailRepository()).thenReturn(reportDetailRepository);
         Mockito.when(reportDataDetailsRepository.getCountOfRecordNumForMatchingSerials(RecapConstants.BIB_ID)).thenReturn(new Long(10000));
-        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any());
+        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any(), Mockito.any());
         Mockito.when(matchingAlgoController.getMatchingAlgorithmUpdateCGDService()).thenReturn(matchingAlgorithmUpdateCGDService);
         Mockito.doCallRealMethod().when(matchingAlgorithmUpdateCGDService).updateCGDProcessForSerials(batchSize);
         Mockito.when(matchingAlgoController.updateSerialCGDInDB()).thenCallRealMethod();
@@ -251,10 +241,10 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         Mockito.when(matchingAlgorithmUpdateCGDService.getCollectionGroupDetailsRepository()).thenReturn(collectionGroupDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemChangeLogDetailsRepository()).thenReturn(itemChangeLogDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemDetailsRepository()).thenReturn(itemDetailsRepository);
-        Mockito.when(matchingAlgorithmUpdateCGDService.getActiveMqQueuesInfo()).thenReturn(activeMqQueuesInfo);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getQueueCompletionTracker()).thenReturn(queueCompletionTracker);
         Mockito.when(matchingAlgorithmUtil.getReportDetailRepository()).thenReturn(reportDetailRepository);
         Mockito.when(reportDataDetailsRepository.getCountOfRecordNumForMatchingMVMs(RecapConstants.BIB_ID)).thenReturn(new Long(10000));
-        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any());
+        Mockito.doCallRealMethod().when(matchingAlgorithmUtil).saveCGDUpdatedSummaryReport(Mockito.any(), Mockito.any());
         Mockito.doCallRealMethod().when(matchingAlgorithmUpdateCGDService).updateCGDProcessForMVMs(batchSize);
         Mockito.when(matchingAlgoController.updateMvmCGDInDB()).thenCallRealMethod();
         String response = matchingAlgoController.updateMvmCGDInDB();
@@ -306,7 +296,7 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
     @Test
     public void itemCountForSerials() throws Exception {
         Mockito.when(matchingAlgoController.getMatchingAlgorithmUpdateCGDService()).thenReturn(matchingAlgorithmUpdateCGDService);
-        Mockito.doNothing().when(matchingAlgorithmUpdateCGDService).getItemsCountForSerialsMatching(batchSize);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getItemsCountForSerialsMatching(batchSize)).thenReturn(getMatchingCounter());
         Mockito.when(matchingAlgoController.itemCountForSerials()).thenCallRealMethod();
         String response = matchingAlgoController.itemCountForSerials();
         assertTrue(response.contains("Items Count"));
@@ -319,6 +309,8 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
         int totalPagesCount = 1;
         Mockito.when(matchingAlgoController.getMatchingAlgorithmUpdateCGDService()).thenReturn(matchingAlgorithmUpdateCGDService);
         Mockito.doCallRealMethod().when(matchingAlgorithmUpdateCGDService).getItemsCountForSerialsMatching(batchSize);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getMatchingAlgorithmUtil()).thenReturn(matchingAlgorithmUtil);
+        Mockito.when(matchingAlgorithmUtil.getMatchingCounter()).thenReturn(getMatchingCounter());
         Mockito.when(matchingAlgorithmUpdateCGDService.getReportDataDetailsRepository()).thenReturn(reportDataDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getBibliographicDetailsRepository()).thenReturn(mockedBibliographicDetailsRepository);
         Mockito.when(matchingAlgorithmUpdateCGDService.getCollectionGroupMap()).thenReturn(collectionGroupMap);
@@ -489,4 +481,12 @@ public class MatchingAlgorithmControllerUT extends BaseControllerUT {
 
     }
 
+    private MatchingCounter getMatchingCounter() {
+        Map<Integer, String> institutionCodes = new LinkedHashMap<>();
+        institutionCodes.put(1, RecapConstants.PRINCETON);
+        institutionCodes.put(2, RecapConstants.COLUMBIA);
+        institutionCodes.put(3, RecapConstants.NYPL);
+        return new MatchingCounter(institutionCodes);
+    }
+
 }
\ No newline at end of file
@@ -69,9 +69,9 @@ public class OngoingMatchingAlgorithmJobControllerUT extends BaseControllerUT{
         Mockito.when(ongoingMatchingAlgorithmUtil.fetchUpdatedRecordsAndStartProcess(dateUtil.getFromDate(date), rows)).thenReturn("Success");
         Mockito.when(ongoingMatchingAlgorithmUtil.fetchDataForOngoingMatchingBasedOnDate(processDate.toString(), Integer.valueOf(100), Integer.valueOf(0))).thenReturn(queryResponse);
         Mockito.when(queryResponse.getResults()).thenReturn(solrDocumentList);
-        Mockito.when(ongoingMatchingAlgorithmUtil.processMatchingForBib(solrDocument, bibIds)).thenReturn(RecapConstants.SUCCESS);
+        Mockito.when(ongoingMatchingAlgorithmUtil.processMatchingForBib(Mockito.eq(solrDocument), Mockito.eq(bibIds), Mockito.any())).thenReturn(RecapConstants.SUCCESS);
         Mockito.when(ongoingMatchingAlgoJobController.startMatchingAlgorithmJob(solrIndexRequest)).thenCallRealMethod();
-        Mockito.when(ongoingMatchingAlgorithmUtil.processOngoingMatchingAlgorithm(solrDocumentList, new ArrayList<>())).thenCallRealMethod();
+        Mockito.when(ongoingMatchingAlgorithmUtil.processOngoingMatchingAlgorithm(Mockito.eq(solrDocumentList), Mockito.eq(new ArrayList<>()), Mockito.any())).thenCallRealMethod();
         String status = ongoingMatchingAlgoJobController.startMatchingAlgorithmJob(solrIndexRequest);
         assertTrue(status.contains(RecapConstants.SUCCESS));
         Mockito.when(ongoingMatchingAlgoJobController.getOngoingMatchingAlgorithmUtil()).thenCallRealMethod();
@@ -12,18 +12,23 @@ import org.recap.model.search.SearchRecordsRequest;
 import org.recap.model.search.SearchResultRow;
 import org.recap.model.solr.BibItem;
 import org.recap.model.solr.Item;
+import org.recap.repository.solr.main.DataDumpExportRepository;
 import org.recap.repository.solr.main.DataDumpSolrDocumentRepository;
 import org.recap.util.SearchRecordsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -183,6 +188,49 @@ public class SearchRecordRestControllerUT extends BaseControllerUT {
     }
 
 
+    @Test
+    public void exportRecordsEndsWithCompleteLine() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        getExportController(2, null).exportRecords(getExportRequest(), response);
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"complete\":true}", lines[2]);
+    }
+
+    @Test
+    public void exportRecordsEndsWithErrorLineWhenFailingAfterCommit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        getExportController(5000, new IOException("Solr unavailable")).exportRecords(getExportRequest(), response);
+        assertEquals(200, response.getStatus());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals("{\"complete\":false,\"error\":\"Solr unavailable\"}", lines[lines.length - 1]);
+    }
+
+    private SearchRecordsRequest getExportRequest() {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList("PUL"));
+        searchRecordsRequest.setCollectionGroupDesignations(Arrays.asList("Shared"));
+        return searchRecordsRequest;
+    }
+
+    private SearchRecordRestController getExportController(int bibCount, IOException failure) throws Exception {
+        Mockito.doAnswer(invocation -> {
+            DataDumpExportRepository.BibItemSink bibItemSink = (DataDumpExportRepository.BibItemSink) invocation.getArguments()[1];
+            for (int bibId = 0; bibId < bibCount; bibId++) {
+                BibItem bibItem = new BibItem();
+                bibItem.setBibId(bibId);
+                bibItemSink.accept(bibItem);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }).when(dataDumpSolrDocumentRepository).export(Mockito.any(SearchRecordsRequest.class), Mockito.any(DataDumpExportRepository.BibItemSink.class));
+        SearchRecordRestController exportController = new SearchRecordRestController();
+        ReflectionTestUtils.setField(exportController.getSearchRecordsUtil(), "dataDumpSolrDocumentRepository", dataDumpSolrDocumentRepository);
+        return exportController;
+    }
+
     String solrClientUrl="http://localhost:9090/";
 //    http://localhost:9090/searchService/search?requestJson
     @Test
@@ -7,6 +7,7 @@ import org.recap.BaseTestCase;
 import org.recap.model.jpa.BibliographicEntity;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
+import org.recap.util.BibJSONUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -43,9 +44,17 @@ public class BibItemIndexCallableUT extends BaseTestCase {
         int page = 1;
         int size = 1;
         Page<BibliographicEntity> bibliographicEntities = new SolrResultPage<>(getBibliographicEntityList());
-        BibItemIndexCallable mockBibItemIndexCallable = new BibItemIndexCallable("","",1,1,bibliographicDetailsRepository,holdingsDetailsRepository,1,new Date(),producerTemplate,solrTemplate, null, null);
+        SolrCoreClientRegistry solrCoreClientRegistry = new SolrCoreClientRegistry("", 1);
+        IndexingPipeline indexingPipeline = new IndexingPipeline(solrCoreClientRegistry, bibliographicEntity -> {
+            BibJSONUtil bibJSONUtil = new BibJSONUtil();
+            bibJSONUtil.setProducerTemplate(producerTemplate);
+            return bibJSONUtil.generateBibAndItemsForIndex(bibliographicEntity, solrTemplate, bibliographicDetailsRepository, holdingsDetailsRepository);
+        }, 1, 1);
+        BibItemIndexCallable mockBibItemIndexCallable = new BibItemIndexCallable(indexingPipeline,"",1,1,bibliographicDetailsRepository,1,new Date(), null, null);
         //when(bibliographicDetailsRepository.findAll(new PageRequest(page, size))).thenReturn(bibliographicEntities);
         int response = (int) mockBibItemIndexCallable.call();
+        indexingPipeline.close();
+        solrCoreClientRegistry.close();
         assertNotNull(response);
     }
 
@@ -9,7 +9,10 @@ import org.recap.BaseTestCase;
 import org.recap.admin.SolrAdmin;
 import org.recap.model.solr.SolrIndexRequest;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
+import org.recap.repository.solr.main.BibSolrCrudRepository;
 import org.recap.repository.solr.temp.BibCrudRepositoryMultiCoreSupport;
+import org.recap.util.FacetCountSnapshot;
+import org.recap.util.SearchResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +20,10 @@ import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 /**
  * Created by premkb on 29/7/16.
  */
@@ -36,6 +43,15 @@ public class BibItemIndexExecutorServiceUT extends BaseTestCase{
     @Mock
     BibCrudRepositoryMultiCoreSupport mockBibCrudRepositoryMultiCoreSupport;
 
+    @Mock
+    BibSolrCrudRepository mockBibSolrCrudRepository;
+
+    @Mock
+    FacetCountSnapshot mockFacetCountSnapshot;
+
+    @Mock
+    SearchResultCache mockSearchResultCache;
+
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
@@ -58,9 +74,72 @@ public class BibItemIndexExecutorServiceUT extends BaseTestCase{
         bibItemIndexExecutorService.index(solrIndexRequest);
     }
 
+    @Test
+    public void indexWithKeysetPaging() throws Exception {
+        Mockito.when(mockBibliographicDetailsRepository.getMinBibliographicId(null, null)).thenReturn(1);
+        Mockito.when(mockBibliographicDetailsRepository.getMaxBibliographicId(null, null)).thenReturn(10000);
+        Mockito.when(mockSolrAdmin.mergeCoresAsync(Mockito.anyList())).thenReturn("merge");
+        Mockito.when(mockSolrAdmin.awaitMerge("merge")).thenReturn(true);
+        Mockito.when(mockBibItemIndexCallable.call()).thenReturn(1000);
+
+        BibItemIndexExecutorService bibItemIndexExecutorService = new MockBibItemIndexExecutorService();
+        bibItemIndexExecutorService.setBibliographicDetailsRepository(mockBibliographicDetailsRepository);
+        bibItemIndexExecutorService.setSolrAdmin(mockSolrAdmin);
+        SolrIndexRequest solrIndexRequest = new SolrIndexRequest();
+        solrIndexRequest.setNumberOfThreads(5);
+        solrIndexRequest.setNumberOfDocs(1000);
+        solrIndexRequest.setOwningInstitutionCode(null);
+        solrIndexRequest.setCommitInterval(10000);
+        solrIndexRequest.setKeysetPaging(true);
+        solrIndexRequest.setBibIdSplitStep(1000);
+        Integer totalBibsProcessed = bibItemIndexExecutorService.index(solrIndexRequest);
+        assertEquals(new Integer(10000), totalBibsProcessed);
+        Mockito.verify(mockSearchResultCache, Mockito.atLeastOnce()).indexUpdated();
+    }
+
+    @Test
+    public void keepsTempCoresWhenMergeFails() throws Exception {
+        Mockito.when(mockBibliographicDetailsRepository.count()).thenReturn(20000L);
+        Mockito.when(mockSolrAdmin.mergeCoresAsync(Mockito.anyList())).thenReturn("merge");
+        Mockito.when(mockSolrAdmin.awaitMerge("merge")).thenReturn(false);
+        Mockito.when(mockBibItemIndexCallable.call()).thenReturn(1000);
+
+        BibItemIndexExecutorService bibItemIndexExecutorService = new MockBibItemIndexExecutorService();
+        bibItemIndexExecutorService.setBibliographicDetailsRepository(mockBibliographicDetailsRepository);
+        bibItemIndexExecutorService.setSolrAdmin(mockSolrAdmin);
+        SolrIndexRequest solrIndexRequest = new SolrIndexRequest();
+        solrIndexRequest.setNumberOfThreads(5);
+        solrIndexRequest.setNumberOfDocs(1000);
+        solrIndexRequest.setOwningInstitutionCode(null);
+        solrIndexRequest.setCommitInterval(10000);
+        try {
+            bibItemIndexExecutorService.index(solrIndexRequest);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("did not complete"));
+        }
+        Mockito.verify(mockBibCrudRepositoryMultiCoreSupport, Mockito.never()).deleteAll();
+        Mockito.verify(mockSolrAdmin, Mockito.never()).unLoadCores(Mockito.anyList());
+        Mockito.verify(mockFacetCountSnapshot).refresh();
+    }
+
     private class MockBibItemIndexExecutorService extends BibItemIndexExecutorService {
+
+        private MockBibItemIndexExecutorService() {
+            bibSolrCrudRepository = mockBibSolrCrudRepository;
+            facetCountSnapshot = mockFacetCountSnapshot;
+            searchResultCache = mockSearchResultCache;
+        }
+
+        @Override
+        public Callable getCallable(String coreName, int startingPage, int numRecordsPerPage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap,
+                                    IndexingPipeline indexingPipeline) {
+            return mockBibItemIndexCallable;
+        }
+
         @Override
-        public Callable getCallable(String coreName, int startingPage, int numRecordsPerPage, Integer owningInstitutionId, Date fromDate, String partialIndexType, Map<String, Object> partialIndexMap) {
+        public Callable<Integer> getBibIdRangeCallable(String coreName, int docsPerPage, Integer fromBibId, Integer toBibId, Integer owningInstitutionId, Date fromDate,
+                                                       IndexingPipeline indexingPipeline) {
             return mockBibItemIndexCallable;
         }
 
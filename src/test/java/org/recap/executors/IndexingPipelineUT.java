@@ -0,0 +1,101 @@
+package org.recap.executors;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.recap.model.jpa.BibliographicEntity;
+
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the staged indexing pipeline.
+ */
+public class IndexingPipelineUT {
+
+    @Mock
+    private SolrCoreClientRegistry solrCoreClientRegistry;
+
+    @Mock
+    private SolrClient solrClient;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(solrCoreClientRegistry.getSolrClient(Mockito.anyString())).thenReturn(solrClient);
+    }
+
+    @Test
+    public void submitsEveryGeneratedDocument() throws Exception {
+        IndexingPipeline indexingPipeline = new IndexingPipeline(solrCoreClientRegistry, this::getSolrInputDocument, 2, 5);
+        for (int bibId = 1; bibId <= 100; bibId++) {
+            indexingPipeline.put(bibId % 2 == 0 ? "temp0" : "temp1", getBibliographicEntity(bibId));
+        }
+        indexingPipeline.awaitCompletion();
+        assertEquals(100, indexingPipeline.getSubmittedCount());
+        assertEquals(100, getSubmittedDocumentCount());
+        indexingPipeline.close();
+        Mockito.verify(solrCoreClientRegistry, Mockito.atLeastOnce()).getSolrClient("temp0");
+        Mockito.verify(solrCoreClientRegistry, Mockito.atLeastOnce()).getSolrClient("temp1");
+    }
+
+    @Test
+    public void skipsBibsWhichFailToGenerate() throws Exception {
+        IndexingPipeline indexingPipeline = new IndexingPipeline(solrCoreClientRegistry, bibliographicEntity -> {
+            if (bibliographicEntity.getBibliographicId() % 10 == 0) {
+                throw new IllegalStateException("Invalid marc content");
+            }
+            return bibliographicEntity.getBibliographicId() % 5 == 0 ? null : getSolrInputDocument(bibliographicEntity);
+        }, 2, 5);
+        for (int bibId = 1; bibId <= 50; bibId++) {
+            indexingPipeline.put("temp0", getBibliographicEntity(bibId));
+        }
+        indexingPipeline.close();
+        assertEquals(40, indexingPipeline.getSubmittedCount());
+        assertEquals(40, getSubmittedDocumentCount());
+        assertEquals(0, indexingPipeline.getFailedCount());
+    }
+
+    @Test
+    public void countsDocumentsWhichFailToSubmit() throws Exception {
+        SolrClient failingSolrClient = Mockito.mock(SolrClient.class);
+        Mockito.when(failingSolrClient.add(Mockito.anyCollection())).thenThrow(new SolrServerException("Core unavailable"));
+        Mockito.when(solrCoreClientRegistry.getSolrClient("temp1")).thenReturn(failingSolrClient);
+        IndexingPipeline indexingPipeline = new IndexingPipeline(solrCoreClientRegistry, this::getSolrInputDocument, 2, 5);
+        for (int bibId = 1; bibId <= 20; bibId++) {
+            indexingPipeline.put(bibId % 2 == 0 ? "temp0" : "temp1", getBibliographicEntity(bibId));
+        }
+        indexingPipeline.close();
+        assertEquals(10, indexingPipeline.getSubmittedCount());
+        assertEquals(10, indexingPipeline.getFailedCount());
+    }
+
+    private int getSubmittedDocumentCount() throws Exception {
+        ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(solrClient, Mockito.atLeastOnce()).add(captor.capture());
+        int count = 0;
+        for (Collection solrInputDocuments : captor.getAllValues()) {
+            count += solrInputDocuments.size();
+        }
+        return count;
+    }
+
+    private SolrInputDocument getSolrInputDocument(BibliographicEntity bibliographicEntity) {
+        SolrInputDocument solrInputDocument = new SolrInputDocument();
+        solrInputDocument.setField("BibId", bibliographicEntity.getBibliographicId());
+        return solrInputDocument;
+    }
+
+    private BibliographicEntity getBibliographicEntity(int bibId) {
+        BibliographicEntity bibliographicEntity = new BibliographicEntity();
+        bibliographicEntity.setBibliographicId(bibId);
+        return bibliographicEntity;
+    }
+}
@@ -12,6 +12,7 @@ import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
 import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.*;
 import org.recap.repository.jpa.*;
+import org.recap.service.QueueCompletionTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.persistence.EntityManager;
@@ -41,6 +42,7 @@ public class MatchingAlgorithmMVMsCGDCallableUT extends BaseTestCase{
     ProducerTemplate producerTemplate;
     @Mock
     private Map collectionGroupMap;
+    private MatchingCounter matchingCounter;
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -59,7 +61,7 @@ public class MatchingAlgorithmMVMsCGDCallableUT extends BaseTestCase{
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
         from = pageNum * Long.valueOf(batchSize);
-        MatchingCounter.reset();
+        matchingCounter = new MatchingCounter(new HashMap<>());
         bibliographicEntity = saveBibSingleHoldingsSingleItem();
         collectionGroupId = bibliographicEntity.getItemEntities().get(0).getCollectionGroupId();
         Mockito.when(reportDataDetailsRepository.getReportDataEntityForMatchingMVMs(RecapConstants.BIB_ID, from, batchSize)).thenReturn(getReportDataEntity(bibliographicEntity.getBibliographicId()));
@@ -80,7 +82,7 @@ public class MatchingAlgorithmMVMsCGDCallableUT extends BaseTestCase{
     public void testMatchingAlgorithmMVMsCGDCallable() throws Exception {
         Map institutionMap = new HashMap();
         MatchingAlgorithmMVMsCGDCallable matchingAlgorithmMVMsCGDCallable = new MatchingAlgorithmMVMsCGDCallable(reportDataDetailsRepository, mockedBibliographicDetailsRepository,pageNum,batchSize,producerTemplate,
-                collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository);
+                collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository,matchingCounter,new QueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ"));
         Object object = matchingAlgorithmMVMsCGDCallable.call();
         assertEquals(collectionGroupId,1);
         Thread.sleep(1000);
@@ -9,11 +9,13 @@ import org.mockito.MockitoAnnotations;
 import org.recap.BaseTestCase;
 import org.recap.RecapConstants;
 import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
+import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.BibliographicEntity;
 import org.recap.model.jpa.HoldingsEntity;
 import org.recap.model.jpa.ItemEntity;
 import org.recap.model.jpa.ReportDataEntity;
 import org.recap.repository.jpa.*;
+import org.recap.service.QueueCompletionTracker;
 
 import java.util.*;
 
@@ -56,7 +58,7 @@ public class MatchingAlgorithmMonographCGDCallableUT extends BaseTestCase{
         Map institutionMap = new HashMap();
 
         MatchingAlgorithmMonographCGDCallable matchingAlgorithmMonographCGDCallable = new MatchingAlgorithmMonographCGDCallable(reportDataDetailsRepository,bibliographicDetailsRepository,pageNum,batchSize,producerTemplate,
-                                                                                        collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository,true);
+                                                                                        collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository,true,new MatchingCounter(new HashMap<>()),new QueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ"));
         Object object = matchingAlgorithmMonographCGDCallable.call();
         assertNotNull(object);
     }
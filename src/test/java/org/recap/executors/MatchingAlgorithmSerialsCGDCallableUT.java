@@ -12,6 +12,7 @@ import org.recap.matchingalgorithm.MatchingAlgorithmCGDProcessor;
 import org.recap.matchingalgorithm.MatchingCounter;
 import org.recap.model.jpa.*;
 import org.recap.repository.jpa.*;
+import org.recap.service.QueueCompletionTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.persistence.EntityManager;
@@ -43,6 +44,7 @@ public class MatchingAlgorithmSerialsCGDCallableUT extends BaseTestCase{
     private EntityManager entityManager;
     @Mock
     private Map collectionGroupMap;
+    private MatchingCounter matchingCounter;
 
     long from = new Long(0);
     int pageNum = 1;
@@ -54,7 +56,7 @@ public class MatchingAlgorithmSerialsCGDCallableUT extends BaseTestCase{
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
         from = pageNum * Long.valueOf(batchSize);
-        MatchingCounter.reset();
+        matchingCounter = new MatchingCounter(new HashMap<>());
         bibliographicEntity = saveBibSingleHoldingsSingleItem();
         collectionGroupId = bibliographicEntity.getItemEntities().get(0).getCollectionGroupId();
         Mockito.when((Integer) collectionGroupMap.get(RecapConstants.REPORTS_OPEN)).thenReturn(2);
@@ -68,7 +70,7 @@ public class MatchingAlgorithmSerialsCGDCallableUT extends BaseTestCase{
         Map institutionMap = new HashMap();
 
         MatchingAlgorithmSerialsCGDCallable matchingAlgorithmSerialsCGDCallable = new MatchingAlgorithmSerialsCGDCallable(reportDataDetailsRepository,mockedBibliographicDetailsRepository,pageNum,batchSize,producerTemplate,
-                collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository);
+                collectionGroupMap,institutionMap,itemChangeLogDetailsRepository,collectionGroupDetailsRepository,itemDetailsRepository,matchingCounter,new QueueCompletionTracker().startRun("scsbactivemq:queue:updateItemsQ"));
         Object object = matchingAlgorithmSerialsCGDCallable.call();
         assertEquals(collectionGroupId,1);
         Thread.sleep(1000);
@@ -16,12 +16,9 @@ import org.recap.model.jpa.ItemEntity;
 import org.recap.repository.jpa.BibliographicDetailsRepository;
 import org.recap.repository.jpa.HoldingsDetailsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.convert.converter.Converter;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.data.util.CloseableIterator;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -60,7 +57,8 @@ public class MatchingBibItemIndexCallableUT extends BaseTestCase {
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
         bibliographicEntity = saveBibSingleHoldingsSingleItem();
-        Mockito.when(mockedBibliographicDetailsRepository.getBibliographicEntitiesForChangedItems(new PageRequest(pageNum, docsPerPage), operationType, from, to)).thenReturn(getBibliographicPagableObject(Arrays.asList(bibliographicEntity)));
+        Mockito.when(mockedBibliographicDetailsRepository.getBibliographicIdsForChangedItems(new PageRequest(pageNum, docsPerPage), operationType, from, to)).thenReturn(Arrays.asList(bibliographicEntity.getBibliographicId()));
+        Mockito.when(mockedBibliographicDetailsRepository.streamBibsByBibIds(Arrays.asList(bibliographicEntity.getBibliographicId()), docsPerPage)).thenReturn(getBibliographicCloseableIterator(Arrays.asList(bibliographicEntity)));
         Mockito.when(mockedBibliographicDetailsRepository.getCountOfBibliographicEntitiesForChangedItems(operationType, from, to)).thenReturn(new Long(1));
     }
 
@@ -143,91 +141,24 @@ public class MatchingBibItemIndexCallableUT extends BaseTestCase {
     }
 
 
-    public Page<BibliographicEntity> getBibliographicPagableObject(List<BibliographicEntity> bibliographicEntityList) {
-        Page<BibliographicEntity> bibliographicEntityPageObject = new Page<BibliographicEntity>() {
-            @Override
-            public int getTotalPages() {
-                return 0;
-            }
-
-            @Override
-            public long getTotalElements() {
-                return 0;
-            }
-
-            @Override
-            public <S> Page<S> map(Converter<? super BibliographicEntity, ? extends S> converter) {
-                return null;
-            }
-
-            @Override
-            public int getNumber() {
-                return 0;
-            }
-
-            @Override
-            public int getSize() {
-                return 0;
-            }
-
-            @Override
-            public int getNumberOfElements() {
-                return 0;
-            }
-
-            @Override
-            public List<BibliographicEntity> getContent() {
-                return bibliographicEntityList;
-            }
-
-            @Override
-            public boolean hasContent() {
-                return false;
-            }
-
-            @Override
-            public Sort getSort() {
-                return null;
-            }
-
-            @Override
-            public boolean isFirst() {
-                return false;
-            }
-
-            @Override
-            public boolean isLast() {
-                return false;
-            }
-
+    public CloseableIterator<BibliographicEntity> getBibliographicCloseableIterator(List<BibliographicEntity> bibliographicEntityList) {
+        Iterator<BibliographicEntity> bibliographicEntityIterator = bibliographicEntityList.iterator();
+        return new CloseableIterator<BibliographicEntity>() {
             @Override
             public boolean hasNext() {
-                return false;
-            }
-
-            @Override
-            public boolean hasPrevious() {
-                return false;
+                return bibliographicEntityIterator.hasNext();
             }
 
             @Override
-            public Pageable nextPageable() {
-                return null;
+            public BibliographicEntity next() {
+                return bibliographicEntityIterator.next();
             }
 
             @Override
-            public Pageable previousPageable() {
-                return null;
-            }
-
-            @Override
-            public Iterator<BibliographicEntity> iterator() {
-                Iterator<BibliographicEntity> bibliographicEntityIterator = bibliographicEntityList.iterator();
-                return bibliographicEntityIterator;
+            public void close() {
+                //Do nothing
             }
         };
-        return bibliographicEntityPageObject;
-
     }
 
 
@@ -0,0 +1,101 @@
+package org.recap.executors;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the query execution of a search.
+ */
+public class SearchQueryExecutionUT {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void runsSubmittedQueriesConcurrently() throws Exception {
+        SearchQueryExecution searchQueryExecution = new SearchQueryExecution(executorService, 5000);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Future<String> bibs = searchQueryExecution.submit("bibs", () -> awaitOther(bothStarted, "bibs"));
+        Future<String> itemCount = searchQueryExecution.submit("itemCount", () -> awaitOther(bothStarted, "itemCount"));
+        assertEquals("bibs", searchQueryExecution.get(bibs));
+        assertEquals("itemCount", searchQueryExecution.get(itemCount));
+        assertEquals("children", searchQueryExecution.call("bibChildren", () -> "children"));
+        Map<String, Long> queryTimings = searchQueryExecution.getQueryTimings();
+        assertEquals(3, queryTimings.size());
+        assertTrue(queryTimings.keySet().containsAll(Arrays.asList("bibs", "itemCount", "bibChildren")));
+    }
+
+    @Test(expected = SolrServerException.class)
+    public void failsAfterTheDeadline() throws Exception {
+        SearchQueryExecution searchQueryExecution = new SearchQueryExecution(executorService, 50);
+        Future<String> bibs = searchQueryExecution.submit("bibs", () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "bibs";
+        });
+        searchQueryExecution.get(bibs);
+    }
+
+    @Test(expected = SolrServerException.class)
+    public void failsCalledQueryAfterTheDeadline() throws Exception {
+        SearchQueryExecution searchQueryExecution = new SearchQueryExecution(executorService, 50);
+        searchQueryExecution.call("bibChildren", () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "children";
+        });
+    }
+
+    @Test(expected = IOException.class)
+    public void rethrowsTheQueryException() throws Exception {
+        SearchQueryExecution searchQueryExecution = new SearchQueryExecution(executorService, 5000);
+        Future<String> bibs = searchQueryExecution.submit("bibs", () -> {
+            throw new IOException("Connection refused");
+        });
+        try {
+            searchQueryExecution.get(bibs);
+        } finally {
+            assertTrue(searchQueryExecution.getQueryTimings().containsKey("bibs"));
+        }
+    }
+
+    private String awaitOther(CountDownLatch bothStarted, String result) throws IOException {
+        bothStarted.countDown();
+        try {
+            if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IOException("Queries did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package org.recap.executors;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the solr core client registry.
+ */
+public class SolrCoreClientRegistryUT {
+
+    @Test
+    public void failsCommitOfCoreWithUpdateErrors() throws Exception {
+        SolrCoreClientRegistry solrCoreClientRegistry = new SolrCoreClientRegistry("http://localhost:1/solr", 1);
+        try {
+            SolrInputDocument solrInputDocument = new SolrInputDocument();
+            solrInputDocument.addField("id", "1");
+            solrCoreClientRegistry.getSolrClient("temp0").add(solrInputDocument);
+            try {
+                solrCoreClientRegistry.commit();
+                fail();
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().endsWith("core temp0"));
+            }
+            assertTrue(solrCoreClientRegistry.getErrorCount("temp0") > 0);
+            assertEquals(0, solrCoreClientRegistry.getErrorCount("temp1"));
+        } finally {
+            solrCoreClientRegistry.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.recap.matchingalgorithm;
+
+import org.junit.Test;
+import org.recap.RecapConstants;
+import org.recap.model.jpa.MatchingBibEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the clustering of the matching bibs.
+ */
+public class MatchingBibClustersUT {
+
+    @Test
+    public void clustersSingleMatchBibsTransitively() throws Exception {
+        MatchingBibClusters matchingBibClusters = new MatchingBibClusters();
+        matchingBibClusters.add(getMatchingBibEntity(1, RecapConstants.MATCH_POINT_FIELD_OCLC, "100", null));
+        matchingBibClusters.add(getMatchingBibEntity(2, RecapConstants.MATCH_POINT_FIELD_OCLC, "100,200", null));
+        matchingBibClusters.add(getMatchingBibEntity(3, RecapConstants.MATCH_POINT_FIELD_OCLC, "300", null));
+        matchingBibClusters.add(getMatchingBibEntity(4, RecapConstants.MATCH_POINT_FIELD_OCLC, "200", null));
+        matchingBibClusters.add(getMatchingBibEntity(5, RecapConstants.MATCH_POINT_FIELD_ISBN, null, "100"));
+        matchingBibClusters.add(getMatchingBibEntity(6, RecapConstants.MATCH_POINT_FIELD_ISBN, null, "100"));
+
+        List<MatchingBibClusters.MatchingBibCluster> clusters = getClusters(matchingBibClusters);
+
+        assertEquals(6, matchingBibClusters.size());
+        assertEquals(2, clusters.size());
+        assertFalse(clusters.get(0).isMultiMatch());
+        assertEquals(Arrays.asList(RecapConstants.MATCH_POINT_FIELD_OCLC), clusters.get(0).getMatchPoints());
+        assertEquals(Arrays.asList(1, 2, 4), clusters.get(0).getBibIds());
+        assertEquals("100,200", clusters.get(0).getMatchPointValues(0));
+        assertEquals(Arrays.asList(RecapConstants.MATCH_POINT_FIELD_ISBN), clusters.get(1).getMatchPoints());
+        assertEquals(Arrays.asList(5, 6), clusters.get(1).getBibIds());
+    }
+
+    @Test
+    public void groupsBibsByTheirMatchPoints() throws Exception {
+        MatchingBibClusters matchingBibClusters = new MatchingBibClusters();
+        for (int bibId : new int[]{1, 2}) {
+            matchingBibClusters.add(getMatchingBibEntity(bibId, RecapConstants.MATCH_POINT_FIELD_OCLC, "100", "9780" + bibId));
+            matchingBibClusters.add(getMatchingBibEntity(bibId, RecapConstants.MATCH_POINT_FIELD_ISBN, "100", "9780" + bibId));
+        }
+        matchingBibClusters.add(getMatchingBibEntity(3, RecapConstants.MATCH_POINT_FIELD_OCLC, "100", null));
+
+        List<MatchingBibClusters.MatchingBibCluster> clusters = getClusters(matchingBibClusters);
+
+        assertEquals(3, matchingBibClusters.size());
+        assertEquals(1, clusters.size());
+        MatchingBibClusters.MatchingBibCluster cluster = clusters.get(0);
+        assertTrue(cluster.isMultiMatch());
+        assertEquals(Arrays.asList(RecapConstants.MATCH_POINT_FIELD_OCLC, RecapConstants.MATCH_POINT_FIELD_ISBN), cluster.getMatchPoints());
+        assertEquals(Arrays.asList(1, 2), cluster.getBibIds());
+        assertEquals("100", cluster.getMatchPointValues(0));
+        assertEquals("97801,97802", cluster.getMatchPointValues(1));
+    }
+
+    private List<MatchingBibClusters.MatchingBibCluster> getClusters(MatchingBibClusters matchingBibClusters) {
+        List<MatchingBibClusters.MatchingBibCluster> clusters = new ArrayList<>();
+        matchingBibClusters.forEachCluster(clusters::add);
+        return clusters;
+    }
+
+    private MatchingBibEntity getMatchingBibEntity(Integer bibId, String matching, String oclc, String isbn) {
+        MatchingBibEntity matchingBibEntity = new MatchingBibEntity();
+        matchingBibEntity.setBibId(bibId);
+        matchingBibEntity.setMatching(matching);
+        matchingBibEntity.setOclc(oclc);
+        matchingBibEntity.setIsbn(isbn);
+        matchingBibEntity.setOwningInstitution("PUL");
+        matchingBibEntity.setMaterialType("Monograph");
+        return matchingBibEntity;
+    }
+}
@@ -0,0 +1,75 @@
+package org.recap.matchingalgorithm;
+
+import org.junit.Test;
+import org.recap.RecapConstants;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the matching counter.
+ */
+public class MatchingCounterUT {
+
+    @Test
+    public void setAndGet() throws Exception {
+        MatchingCounter matchingCounter = new MatchingCounter(getInstitutionCodes());
+        matchingCounter.set(1, MatchingCounter.Kind.SHARED, 10);
+        matchingCounter.set(1, MatchingCounter.Kind.OPEN, 4);
+        matchingCounter.updateCounter(1, true);
+        matchingCounter.updateCounter(1, false);
+        assertEquals(9, matchingCounter.get(1, MatchingCounter.Kind.SHARED));
+        assertEquals(5, matchingCounter.get(RecapConstants.PRINCETON, MatchingCounter.Kind.OPEN));
+        assertEquals(1, matchingCounter.get("pul", MatchingCounter.Kind.CGD_UPDATED_OPEN));
+        assertEquals(1, matchingCounter.get(1, MatchingCounter.Kind.CGD_UPDATED_SHARED));
+        assertEquals(0, matchingCounter.get(RecapConstants.COLUMBIA, MatchingCounter.Kind.OPEN));
+        assertEquals(0, matchingCounter.get("HTC", MatchingCounter.Kind.OPEN));
+    }
+
+    @Test
+    public void snapshotInInstitutionOrder() throws Exception {
+        MatchingCounter matchingCounter = new MatchingCounter(getInstitutionCodes());
+        matchingCounter.set(3, MatchingCounter.Kind.SHARED, 7);
+        Map<String, Long> snapshot = matchingCounter.snapshot(MatchingCounter.Kind.SHARED);
+        assertEquals(Arrays.asList(RecapConstants.PRINCETON, RecapConstants.COLUMBIA, RecapConstants.NYPL), new ArrayList<>(snapshot.keySet()));
+        assertEquals(Arrays.asList(0L, 0L, 7L), new ArrayList<>(snapshot.values()));
+    }
+
+    @Test
+    public void countsAcrossThreads() throws Exception {
+        MatchingCounter matchingCounter = new MatchingCounter(getInstitutionCodes());
+        matchingCounter.set(2, MatchingCounter.Kind.SHARED, 800000);
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int count = 0; count < 100000; count++) {
+                    matchingCounter.updateCounter(2, count % 2 == 0);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        assertEquals(400000, matchingCounter.get(2, MatchingCounter.Kind.CGD_UPDATED_OPEN));
+        assertEquals(400000, matchingCounter.get(2, MatchingCounter.Kind.CGD_UPDATED_SHARED));
+        assertEquals(400000, matchingCounter.get(2, MatchingCounter.Kind.OPEN));
+        assertEquals(400000, matchingCounter.get(2, MatchingCounter.Kind.SHARED));
+    }
+
+    private Map<Integer, String> getInstitutionCodes() {
+        Map<Integer, String> institutionCodes = new LinkedHashMap<>();
+        institutionCodes.put(1, RecapConstants.PRINCETON);
+        institutionCodes.put(2, RecapConstants.COLUMBIA);
+        institutionCodes.put(3, RecapConstants.NYPL);
+        return institutionCodes;
+    }
+}
@@ -13,6 +13,7 @@ import org.recap.model.jpa.ItemEntity;
 import org.recap.model.solr.Item;
 import org.recap.repository.jpa.CollectionGroupDetailsRepository;
 import org.recap.repository.jpa.ReportDataDetailsRepository;
+import org.recap.util.MatchingAlgorithmUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ import org.springframework.util.StopWatch;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +46,9 @@ public class MatchingAlgoReportUT extends BaseTestCase {
     @Mock
     ReportDataDetailsRepository reportDataDetailsRepository;
 
+    @Mock
+    MatchingAlgorithmUtil matchingAlgorithmUtil;
+
     private Integer batchSize=10000;
     private Map collectionGroupMap = new HashMap();
 
@@ -76,20 +81,24 @@ public class MatchingAlgoReportUT extends BaseTestCase {
     public void getMatchingItemCountsForSerial() throws Exception {
         StopWatch stopwatch = new StopWatch();
         stopwatch.start();
-        MatchingCounter.reset();
+        Map<Integer, String> institutionCodes = new LinkedHashMap<>();
+        institutionCodes.put(1, RecapConstants.PRINCETON);
+        institutionCodes.put(2, RecapConstants.COLUMBIA);
+        institutionCodes.put(3, RecapConstants.NYPL);
+        MatchingCounter matchingCounter = new MatchingCounter(institutionCodes);
+        Mockito.when(matchingAlgorithmUtil.getMatchingCounter()).thenReturn(matchingCounter);
+        Mockito.when(matchingAlgorithmUpdateCGDService.getMatchingAlgorithmUtil()).thenReturn(matchingAlgorithmUtil);
         Mockito.when(matchingAlgorithmUpdateCGDService.getReportDataDetailsRepository()).thenReturn(reportDataDetailsRepository);
         Mockito.when(reportDataDetailsRepository.getCountOfRecordNumForMatchingSerials(RecapConstants.BIB_ID)).thenReturn(new Long(0));
         Mockito.doCallRealMethod().when(matchingAlgorithmUpdateCGDService).getItemsCountForSerialsMatching(batchSize);
-        MatchingCounter.updateCounter(1, false);
-        MatchingCounter.updateCounter(2, false);
-        MatchingCounter.updateCounter(3, false);
-        matchingAlgorithmUpdateCGDService.getItemsCountForSerialsMatching(batchSize);
-        assertTrue(MatchingCounter.getPulCGDUpdatedSharedCount() > 0);
-        assertTrue(MatchingCounter.getCulCGDUpdatedSharedCount() > 0);
-        assertTrue(MatchingCounter.getNyplCGDUpdatedSharedCount() > 0);
-        logger.info("Total PUL Shared Serial Items in Matching : " + MatchingCounter.getPulCGDUpdatedSharedCount());
-        logger.info("Total CUL Shared Serial Items in Matching : " + MatchingCounter.getCulCGDUpdatedSharedCount());
-        logger.info("Total NYPL Shared Serial Items in Matching : " + MatchingCounter.getNyplCGDUpdatedSharedCount());
+        matchingCounter.updateCounter(1, false);
+        matchingCounter.updateCounter(2, false);
+        matchingCounter.updateCounter(3, false);
+        MatchingCounter serialsMatchingCounter = matchingAlgorithmUpdateCGDService.getItemsCountForSerialsMatching(batchSize);
+        assertTrue(serialsMatchingCounter.get(1, MatchingCounter.Kind.CGD_UPDATED_SHARED) > 0);
+        assertTrue(serialsMatchingCounter.get(2, MatchingCounter.Kind.CGD_UPDATED_SHARED) > 0);
+        assertTrue(serialsMatchingCounter.get(3, MatchingCounter.Kind.CGD_UPDATED_SHARED) > 0);
+        logger.info("Total Shared Serial Items in Matching : " + serialsMatchingCounter.snapshot(MatchingCounter.Kind.CGD_UPDATED_SHARED));
         stopwatch.stop();
         logger.info("Total Time taken to get the serial items count : " + stopwatch.getTotalTimeSeconds() + " seconds");
     }
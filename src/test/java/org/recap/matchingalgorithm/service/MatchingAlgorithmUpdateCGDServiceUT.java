@@ -8,7 +8,7 @@ import org.recap.BaseTestCase;
 import org.recap.model.jpa.CollectionGroupEntity;
 import org.recap.model.jpa.InstitutionEntity;
 import org.recap.repository.jpa.*;
-import org.recap.service.ActiveMqQueuesInfo;
+import org.recap.service.QueueCompletionTracker;
 import org.recap.util.MatchingAlgorithmUtil;
 
 import java.util.ArrayList;
@@ -47,7 +47,7 @@ public class MatchingAlgorithmUpdateCGDServiceUT extends BaseTestCase{
     private ItemChangeLogDetailsRepository itemChangeLogDetailsRepository;
 
     @Mock
-    private ActiveMqQueuesInfo activeMqQueuesInfo;
+    private QueueCompletionTracker queueCompletionTracker;
 
     @Mock
     private MatchingAlgorithmUtil matchingAlgorithmUtil;
@@ -100,7 +100,7 @@ public class MatchingAlgorithmUpdateCGDServiceUT extends BaseTestCase{
         Mockito.when(matchingAlgorithmUpdateCGDService.getInstitutionDetailsRepository()).thenCallRealMethod();
         Mockito.when(matchingAlgorithmUpdateCGDService.getReportDataDetailsRepository()).thenCallRealMethod();
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemChangeLogDetailsRepository()).thenCallRealMethod();
-        Mockito.when(matchingAlgorithmUpdateCGDService.getActiveMqQueuesInfo()).thenCallRealMethod();
+        Mockito.when(matchingAlgorithmUpdateCGDService.getQueueCompletionTracker()).thenCallRealMethod();
         Mockito.when(matchingAlgorithmUpdateCGDService.getMatchingAlgorithmUtil()).thenCallRealMethod();
         Mockito.when(matchingAlgorithmUpdateCGDService.getItemDetailsRepository()).thenCallRealMethod();
         assertNotEquals(bibliographicDetailsRepository,matchingAlgorithmUpdateCGDService.getBibliographicDetailsRepository());
@@ -109,7 +109,7 @@ public class MatchingAlgorithmUpdateCGDServiceUT extends BaseTestCase{
         assertNotEquals(institutionDetailsRepository,matchingAlgorithmUpdateCGDService.getInstitutionDetailsRepository());
         assertNotEquals(reportDataDetailsRepository,matchingAlgorithmUpdateCGDService.getReportDataDetailsRepository());
         assertNotEquals(itemChangeLogDetailsRepository,matchingAlgorithmUpdateCGDService.getItemChangeLogDetailsRepository());
-        assertNotEquals(activeMqQueuesInfo,matchingAlgorithmUpdateCGDService.getActiveMqQueuesInfo());
+        assertNotEquals(queueCompletionTracker,matchingAlgorithmUpdateCGDService.getQueueCompletionTracker());
         assertNotEquals(matchingAlgorithmUtil,matchingAlgorithmUpdateCGDService.getMatchingAlgorithmUtil());
         assertNotEquals(itemDetailsRepository,matchingAlgorithmUpdateCGDService.getItemDetailsRepository());
     }
@@ -0,0 +1,40 @@
+package org.recap.model.search;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Unit tests of the data dump cursor.
+ */
+public class DataDumpCursorUT {
+
+    @Test
+    public void withoutCursorMark() throws Exception {
+        DataDumpCursor dataDumpCursor = new DataDumpCursor(null, true);
+        assertTrue(dataDumpCursor.isSkipToPageNumber());
+        assertNull(dataDumpCursor.nextQueryCursorMark());
+        assertNull(dataDumpCursor.getNextCursorMark());
+        dataDumpCursor.addNextCursorMark("AoEi");
+        assertNull(dataDumpCursor.nextQueryCursorMark());
+        dataDumpCursor.addNextCursorMark("AoEj");
+        assertEquals("AoEi,AoEj", dataDumpCursor.getNextCursorMark());
+    }
+
+    @Test
+    public void cursorMarkPerQuery() throws Exception {
+        DataDumpCursor dataDumpCursor = new DataDumpCursor("AoEi,AoEj,*", false);
+        assertFalse(dataDumpCursor.isSkipToPageNumber());
+        assertEquals("AoEi", dataDumpCursor.nextQueryCursorMark());
+        dataDumpCursor.addNextCursorMark("AoEk");
+        assertEquals("AoEj", dataDumpCursor.nextQueryCursorMark());
+        dataDumpCursor.addNextCursorMark("AoEj");
+        assertEquals("*", dataDumpCursor.nextQueryCursorMark());
+        dataDumpCursor.addNextCursorMark("AoEl");
+        assertNull(dataDumpCursor.nextQueryCursorMark());
+        assertEquals("AoEk,AoEj,AoEl", dataDumpCursor.getNextCursorMark());
+    }
+}
@@ -0,0 +1,90 @@
+package org.recap.model.search.resolver;
+
+import org.apache.solr.common.SolrDocument;
+import org.junit.Test;
+import org.recap.model.solr.BibItem;
+import org.recap.model.solr.Holdings;
+import org.recap.model.solr.Item;
+import org.recap.repository.solr.impl.BibSolrDocumentRepositoryImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests comparing the value resolver dispatch with asking every resolver of the set.
+ */
+public class ValueResolverDispatchUT {
+
+    private static final List<String> FIELD_NAMES = Arrays.asList("id", "ID", "_root_", "_version_", "DocType", "doctype", "BibId", "Title_display",
+            "title_display", "Author_search", "ISBN", "Notes", "notes", "IsDeletedBib", "isdeletedbib", "Barcode", "barcode", "ItemId", "HoldingsId",
+            "HoldingId", "SummaryHoldings", "IsDeletedItem", "IsDeletedHoldings", "OwningInstitutionBibId", "OwningInstitutionItemId", "score", "Unknown");
+
+    private BibSolrDocumentRepositoryImpl bibSolrDocumentRepository = new BibSolrDocumentRepositoryImpl();
+
+    @Test
+    public void getValueResolvers() throws Exception {
+        assertSameResolvers(bibSolrDocumentRepository.getBibValueResolvers());
+        assertSameResolvers(bibSolrDocumentRepository.getItemValueResolvers());
+        assertSameResolvers(bibSolrDocumentRepository.getHoldingsValueResolvers());
+    }
+
+    @Test
+    public void resolve() throws Exception {
+        SolrDocument solrDocument = new SolrDocument();
+        solrDocument.setField("id", "PUL1421");
+        solrDocument.setField("_root_", "PUL1421");
+        solrDocument.setField("_version_", 1L);
+        solrDocument.setField("DocType", "Bib");
+        solrDocument.setField("BibId", 1421);
+        solrDocument.setField("Title_display", "Accommodating Muslims under common law");
+        solrDocument.setField("ISBN", new ArrayList<>(Arrays.asList("9780415710466", "0415710464")));
+        solrDocument.setField("notes", "Includes bibliographical references.");
+        solrDocument.setField("IsDeletedBib", false);
+        solrDocument.setField("BibCreatedDate", new Date(0));
+
+        BibItem bibItem = new BibItem();
+        bibSolrDocumentRepository.populateBibItem(solrDocument, bibItem);
+        assertEquals("PUL1421", bibItem.getId());
+        assertEquals("PUL1421", bibItem.getRoot());
+        assertEquals("Bib", bibItem.getDocType());
+        assertEquals(Integer.valueOf(1421), bibItem.getBibId());
+        assertEquals("Accommodating Muslims under common law", bibItem.getTitleDisplay());
+        assertEquals(Arrays.asList("9780415710466", "0415710464"), bibItem.getIsbn());
+        assertEquals("Includes bibliographical references.", bibItem.getNotes());
+
+        SolrDocument itemSolrDocument = new SolrDocument();
+        itemSolrDocument.setField("id", "PUL7453441");
+        itemSolrDocument.setField("ItemId", 7453441);
+        itemSolrDocument.setField("Barcode", "32101095533293");
+        itemSolrDocument.setField("HoldingsId", new ArrayList<>(Arrays.asList(1, 2)));
+        Item item = bibSolrDocumentRepository.getItem(itemSolrDocument);
+        assertEquals("PUL7453441", item.getId());
+        assertEquals(Integer.valueOf(7453441), item.getItemId());
+        assertEquals("32101095533293", item.getBarcode());
+        assertEquals(Arrays.asList(1, 2), item.getHoldingsIdList());
+
+        SolrDocument holdingsSolrDocument = new SolrDocument();
+        holdingsSolrDocument.setField("HoldingId", 9734816);
+        holdingsSolrDocument.setField("SummaryHoldings", "Vol1, Vol2");
+        Holdings holdings = bibSolrDocumentRepository.getHoldings(holdingsSolrDocument);
+        assertEquals(Integer.valueOf(9734816), holdings.getHoldingsId());
+        assertEquals("Vol1, Vol2", holdings.getSummaryHoldings());
+    }
+
+    private <R extends ValueResolver> void assertSameResolvers(List<R> valueResolvers) {
+        ValueResolverDispatch<R> valueResolverDispatch = new ValueResolverDispatch<>(valueResolvers);
+        for (String fieldName : FIELD_NAMES) {
+            List<R> expected = new ArrayList<>();
+            for (R valueResolver : valueResolvers) {
+                if (valueResolver.isInterested(fieldName)) {
+                    expected.add(valueResolver);
+                }
+            }
+            assertEquals(fieldName, expected, valueResolverDispatch.getValueResolvers(fieldName));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.recap.repository.jpa;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.recap.model.jpa.BibliographicEntity;
+import org.recap.model.jpa.HoldingsEntity;
+import org.recap.model.jpa.ItemEntity;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for assembling bibliographic entities from joined bib, holdings and item rows.
+ */
+public class BibliographicEntityScrollIteratorUT {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private ScrollableResults scrollableResults;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(entityManager.unwrap(Session.class)).thenReturn(session);
+    }
+
+    @Test
+    public void assembleBibsFromJoinedRows() throws Exception {
+        BibliographicEntity bib1 = getBibliographicEntity(1);
+        BibliographicEntity bib2 = getBibliographicEntity(2);
+        HoldingsEntity holdings1 = getHoldingsEntity(10);
+        HoldingsEntity holdings2 = getHoldingsEntity(11);
+        ItemEntity item1 = getItemEntity(100);
+        ItemEntity item2 = getItemEntity(101);
+        ItemEntity item3 = getItemEntity(102);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{bib1, holdings1, item1});
+        rows.add(new Object[]{bib1, holdings1, item2});
+        rows.add(new Object[]{bib1, holdings2, item3});
+        rows.add(new Object[]{bib2, null, null});
+        mockRows(rows);
+
+        List<Object[]> itemLinks = new ArrayList<>();
+        itemLinks.add(new Object[]{100, 1, 10});
+        itemLinks.add(new Object[]{101, 1, 10});
+        itemLinks.add(new Object[]{102, 1, 11});
+        itemLinks.add(new Object[]{102, 3, 11});
+        itemLinks.add(new Object[]{102, 3, 30});
+        List<Collection<Integer>> loadedItemIds = new ArrayList<>();
+        BibliographicEntityScrollIterator iterator = new BibliographicEntityScrollIterator(entityManager, scrollableResults, itemIds -> {
+            loadedItemIds.add(new ArrayList<>(itemIds));
+            return itemLinks;
+        });
+        assertTrue(iterator.hasNext());
+        BibliographicEntity bibliographicEntity = iterator.next();
+        assertEquals(bib1, bibliographicEntity);
+        assertEquals(2, bibliographicEntity.getHoldingsEntities().size());
+        assertEquals(2, bibliographicEntity.getHoldingsEntities().get(0).getItemEntities().size());
+        assertEquals(1, bibliographicEntity.getHoldingsEntities().get(1).getItemEntities().size());
+        assertEquals(Arrays.asList(item1, item2, item3), bibliographicEntity.getItemEntities());
+        assertEquals(Collections.singletonList(bib1), item1.getBibliographicEntities());
+        assertEquals(Collections.singletonList(holdings1), item1.getHoldingsEntities());
+        assertEquals(2, item3.getBibliographicEntities().size());
+        assertSame(bib1, item3.getBibliographicEntities().get(0));
+        assertEquals(Integer.valueOf(3), item3.getBibliographicEntities().get(1).getBibliographicId());
+        assertEquals(2, item3.getHoldingsEntities().size());
+        assertSame(holdings2, item3.getHoldingsEntities().get(0));
+        assertEquals(Integer.valueOf(30), item3.getHoldingsEntities().get(1).getHoldingsId());
+        assertEquals(Collections.singletonList(Arrays.asList(100, 101, 102)), loadedItemIds);
+
+        assertTrue(iterator.hasNext());
+        bibliographicEntity = iterator.next();
+        assertEquals(bib2, bibliographicEntity);
+        assertTrue(bibliographicEntity.getHoldingsEntities().isEmpty());
+        assertTrue(bibliographicEntity.getItemEntities().isEmpty());
+        assertEquals(1, loadedItemIds.size());
+
+        assertFalse(iterator.hasNext());
+        Mockito.verify(scrollableResults).close();
+        Mockito.verify(entityManager).close();
+    }
+
+    @Test
+    public void noRows() throws Exception {
+        mockRows(new ArrayList<>());
+        BibliographicEntityScrollIterator iterator = new BibliographicEntityScrollIterator(entityManager, scrollableResults, itemIds -> {
+            throw new IllegalStateException("No items to load");
+        });
+        assertFalse(iterator.hasNext());
+        Mockito.verify(scrollableResults).close();
+    }
+
+    private void mockRows(List<Object[]> rows) {
+        int[] position = {-1};
+        Mockito.when(scrollableResults.next()).thenAnswer(invocation -> ++position[0] < rows.size());
+        Mockito.when(scrollableResults.get()).thenAnswer(invocation -> rows.get(position[0]));
+    }
+
+    private BibliographicEntity getBibliographicEntity(Integer bibliographicId) {
+        BibliographicEntity bibliographicEntity = new BibliographicEntity();
+        bibliographicEntity.setBibliographicId(bibliographicId);
+        return bibliographicEntity;
+    }
+
+    private HoldingsEntity getHoldingsEntity(Integer holdingsId) {
+        HoldingsEntity holdingsEntity = new HoldingsEntity();
+        holdingsEntity.setHoldingsId(holdingsId);
+        return holdingsEntity;
+    }
+
+    private ItemEntity getItemEntity(Integer itemId) {
+        ItemEntity itemEntity = new ItemEntity();
+        itemEntity.setItemId(itemId);
+        return itemEntity;
+    }
+}
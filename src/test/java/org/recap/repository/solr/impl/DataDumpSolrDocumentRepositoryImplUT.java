@@ -0,0 +1,139 @@
+package org.recap.repository.solr.impl;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.recap.model.search.SearchRecordsRequest;
+import org.recap.model.solr.BibItem;
+import org.recap.util.SolrQueryBuilder;
+import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of the streaming export of the data dump, with the export handler and query responses of solr mocked.
+ */
+public class DataDumpSolrDocumentRepositoryImplUT {
+
+    private static final String BIB_TUPLES = "{\"responseHeader\":{\"status\":0},\"response\":{\"numFound\":3,\"docs\":["
+            + "{\"_root_\":\"CUL12\",\"BibId\":12},{\"_root_\":\"PUL1421\",\"BibId\":1421},{\"_root_\":\"PUL17\",\"BibId\":17}]}}";
+
+    private static final String ITEM_TUPLES = "{\"responseHeader\":{\"status\":0},\"response\":{\"numFound\":4,\"docs\":["
+            + "{\"_root_\":\"CUL12\",\"ItemId\":120},{\"_root_\":\"PUL1421\",\"ItemId\":14210},{\"_root_\":\"PUL1421\",\"ItemId\":14211},"
+            + "{\"_root_\":\"PUL17\",\"ItemId\":170}]}}";
+
+    @Test
+    public void exportByStream() throws Exception {
+        SolrClient solrClient = Mockito.mock(SolrClient.class);
+        List<SolrParams> requestParams = new ArrayList<>();
+        Mockito.when(solrClient.request(Mockito.any(SolrRequest.class), Mockito.anyString())).thenAnswer(invocation -> {
+            SolrParams solrParams = ((SolrRequest) invocation.getArguments()[0]).getParams();
+            requestParams.add(solrParams);
+            String tuples = solrParams.get("fl").contains("ItemId") ? ITEM_TUPLES : BIB_TUPLES;
+            NamedList<Object> response = new NamedList<>();
+            response.add("stream", new ByteArrayInputStream(tuples.getBytes(StandardCharsets.UTF_8)));
+            return response;
+        });
+        DataDumpSolrDocumentRepositoryImpl dataDumpSolrDocumentRepository = new DataDumpSolrDocumentRepositoryImpl();
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "solrTemplate", new SolrTemplate(solrClient));
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "solrQueryBuilder", new SolrQueryBuilder());
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "incrementalNonFullTreeInstitution", "NYPL");
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "exportHandlerEnabled", true);
+
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList("CUL", "PUL"));
+        searchRecordsRequest.setCollectionGroupDesignations(Arrays.asList("Shared"));
+        searchRecordsRequest.setRequestingInstitution("PUL");
+        List<BibItem> bibItems = new ArrayList<>();
+        dataDumpSolrDocumentRepository.export(searchRecordsRequest, bibItems::add);
+
+        assertEquals(3, bibItems.size());
+        assertEquals(Integer.valueOf(12), bibItems.get(0).getBibId());
+        assertEquals(Integer.valueOf(120), bibItems.get(0).getItems().get(0).getItemId());
+        assertEquals(Integer.valueOf(1421), bibItems.get(1).getBibId());
+        assertEquals(2, bibItems.get(1).getItems().size());
+        assertEquals(Integer.valueOf(14211), bibItems.get(1).getItems().get(1).getItemId());
+        assertEquals(Integer.valueOf(17), bibItems.get(2).getBibId());
+        assertEquals(1, bibItems.get(2).getItems().size());
+
+        assertEquals(2, requestParams.size());
+        for (SolrParams solrParams : requestParams) {
+            assertEquals("_root_ asc", solrParams.get("sort"));
+        }
+        for (String filterQuery : requestParams.get(1).getParams("fq")) {
+            assertTrue(filterQuery, filterQuery.startsWith("{!child of=\"ContentType:parent\" v='"));
+        }
+    }
+
+    @Test
+    public void exportByCursor() throws Exception {
+        SolrClient solrClient = Mockito.mock(SolrClient.class, Mockito.CALLS_REAL_METHODS);
+        List<String> bibCursorMarks = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            SolrParams solrParams = ((SolrRequest) invocation.getArguments()[0]).getParams();
+            String cursorMark = solrParams.get(CursorMarkParams.CURSOR_MARK_PARAM);
+            NamedList<Object> response = new NamedList<>();
+            if (solrParams.get("q").startsWith("_root_:")) {
+                response.add("response", getSolrDocumentList(getSolrDocument("CUL12", "ItemId", 120), getSolrDocument("PUL17", "ItemId", 170),
+                        getSolrDocument("PUL17", "ItemId", 171)));
+                response.add(CursorMarkParams.CURSOR_MARK_NEXT, cursorMark);
+            } else {
+                bibCursorMarks.add(cursorMark);
+                if (CursorMarkParams.CURSOR_MARK_START.equals(cursorMark)) {
+                    response.add("response", getSolrDocumentList(getSolrDocument("CUL12", "BibId", 12), getSolrDocument("PUL17", "BibId", 17)));
+                    response.add(CursorMarkParams.CURSOR_MARK_NEXT, "AoE17");
+                } else {
+                    response.add("response", getSolrDocumentList());
+                    response.add(CursorMarkParams.CURSOR_MARK_NEXT, cursorMark);
+                }
+            }
+            return response;
+        }).when(solrClient).request(Mockito.any(SolrRequest.class), Mockito.anyString());
+        DataDumpSolrDocumentRepositoryImpl dataDumpSolrDocumentRepository = new DataDumpSolrDocumentRepositoryImpl();
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "solrTemplate", new SolrTemplate(solrClient));
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "solrQueryBuilder", new SolrQueryBuilder());
+        ReflectionTestUtils.setField(dataDumpSolrDocumentRepository, "incrementalNonFullTreeInstitution", "NYPL");
+
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList("CUL", "PUL"));
+        searchRecordsRequest.setCollectionGroupDesignations(Arrays.asList("Shared"));
+        searchRecordsRequest.setRequestingInstitution("PUL");
+        List<BibItem> bibItems = new ArrayList<>();
+        dataDumpSolrDocumentRepository.export(searchRecordsRequest, bibItems::add);
+
+        assertEquals(Arrays.asList(CursorMarkParams.CURSOR_MARK_START, "AoE17"), bibCursorMarks);
+        assertEquals(2, bibItems.size());
+        assertEquals(Integer.valueOf(12), bibItems.get(0).getBibId());
+        assertEquals(Integer.valueOf(120), bibItems.get(0).getItems().get(0).getItemId());
+        assertEquals(Integer.valueOf(17), bibItems.get(1).getBibId());
+        assertEquals(2, bibItems.get(1).getItems().size());
+    }
+
+    private SolrDocumentList getSolrDocumentList(SolrDocument... solrDocuments) {
+        SolrDocumentList solrDocumentList = new SolrDocumentList();
+        solrDocumentList.addAll(Arrays.asList(solrDocuments));
+        solrDocumentList.setNumFound(solrDocuments.length);
+        return solrDocumentList;
+    }
+
+    private SolrDocument getSolrDocument(String root, String idFieldName, int id) {
+        SolrDocument solrDocument = new SolrDocument();
+        solrDocument.setField("_root_", root);
+        solrDocument.setField(idFieldName, id);
+        return solrDocument;
+    }
+}
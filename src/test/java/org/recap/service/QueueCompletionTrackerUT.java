@@ -0,0 +1,92 @@
+package org.recap.service;
+
+import org.apache.camel.ProducerTemplate;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.recap.RecapConstants;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the queue completion tracker.
+ */
+public class QueueCompletionTrackerUT {
+
+    private static final String ENDPOINT_URI = "scsbactivemq:queue:updateItemsQ";
+
+    @Test
+    public void completesWhenAllBatchesAreAcknowledged() throws Exception {
+        QueueCompletionTracker queueCompletionTracker = getQueueCompletionTracker(1);
+        ProducerTemplate producerTemplate = Mockito.mock(ProducerTemplate.class);
+        List<Map<String, Object>> sentHeaders = new ArrayList<>();
+        Mockito.doAnswer(invocation -> sentHeaders.add((Map<String, Object>) invocation.getArguments()[2]))
+                .when(producerTemplate).sendBodyAndHeaders(Mockito.eq(ENDPOINT_URI), Mockito.any(), Mockito.anyMap());
+        QueueCompletionTracker.Run run = queueCompletionTracker.startRun(ENDPOINT_URI);
+        for (int batch = 0; batch < 3; batch++) {
+            run.sendBody(producerTemplate, batch);
+        }
+        assertEquals(3, run.getSentCount());
+        assertEquals(3, run.getPendingCount());
+        assertEquals(run.getId(), sentHeaders.get(0).get(RecapConstants.QUEUE_RUN_ID));
+        assertEquals(2, sentHeaders.get(2).get(RecapConstants.QUEUE_RUN_SEQUENCE));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        executorService.submit(() -> {
+            for (Map<String, Object> headers : sentHeaders) {
+                queueCompletionTracker.acknowledge((String) headers.get(RecapConstants.QUEUE_RUN_ID), (Integer) headers.get(RecapConstants.QUEUE_RUN_SEQUENCE));
+            }
+        });
+        assertTrue(queueCompletionTracker.awaitCompletion(run));
+        assertEquals(0, run.getPendingCount());
+        executorService.shutdown();
+    }
+
+    @Test
+    public void countsRedeliveredBatchesOnce() throws Exception {
+        QueueCompletionTracker queueCompletionTracker = getQueueCompletionTracker(0);
+        QueueCompletionTracker.Run run = queueCompletionTracker.startRun(ENDPOINT_URI);
+        ProducerTemplate producerTemplate = Mockito.mock(ProducerTemplate.class);
+        run.sendBody(producerTemplate, "first");
+        run.sendBody(producerTemplate, "second");
+        queueCompletionTracker.acknowledge(run.getId(), 0);
+        queueCompletionTracker.acknowledge(run.getId(), 0);
+        queueCompletionTracker.acknowledge(null, null);
+        queueCompletionTracker.acknowledge("unknown", 1);
+        assertFalse(queueCompletionTracker.awaitCompletion(run));
+        assertEquals(1, run.getPendingCount());
+    }
+
+    @Test
+    public void completesRunWithoutBatches() throws Exception {
+        QueueCompletionTracker queueCompletionTracker = getQueueCompletionTracker(0);
+        assertTrue(queueCompletionTracker.awaitCompletion(queueCompletionTracker.startRun(ENDPOINT_URI)));
+    }
+
+    @Test
+    public void releasesBatchWhichFailedToSend() throws Exception {
+        QueueCompletionTracker queueCompletionTracker = getQueueCompletionTracker(0);
+        QueueCompletionTracker.Run run = queueCompletionTracker.startRun(ENDPOINT_URI);
+        ProducerTemplate producerTemplate = Mockito.mock(ProducerTemplate.class);
+        Mockito.doThrow(new IllegalStateException("Broker down")).when(producerTemplate).sendBodyAndHeaders(Mockito.anyString(), Mockito.any(), Mockito.anyMap());
+        try {
+            run.sendBody(producerTemplate, "batch");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Broker down", e.getMessage());
+        }
+        assertTrue(queueCompletionTracker.awaitCompletion(run));
+    }
+
+    private QueueCompletionTracker getQueueCompletionTracker(long timeoutMinutes) {
+        QueueCompletionTracker queueCompletionTracker = new QueueCompletionTracker();
+        ReflectionTestUtils.setField(queueCompletionTracker, "timeoutMinutes", timeoutMinutes);
+        return queueCompletionTracker;
+    }
+}
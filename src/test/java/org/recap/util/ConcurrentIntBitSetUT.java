@@ -0,0 +1,63 @@
+package org.recap.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the concurrent int bit set.
+ */
+public class ConcurrentIntBitSetUT {
+
+    @Test
+    public void addAndContains() throws Exception {
+        ConcurrentIntBitSet bitSet = new ConcurrentIntBitSet();
+        assertTrue(bitSet.add(0));
+        assertTrue(bitSet.add(63));
+        assertTrue(bitSet.add(65536));
+        assertTrue(bitSet.add(Integer.MAX_VALUE));
+        assertFalse(bitSet.add(63));
+        assertTrue(bitSet.contains(0));
+        assertTrue(bitSet.contains(65536));
+        assertTrue(bitSet.contains(Integer.MAX_VALUE));
+        assertFalse(bitSet.contains(64));
+        assertFalse(bitSet.contains(1 << 20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeValues() throws Exception {
+        new ConcurrentIntBitSet().add(-1);
+    }
+
+    @Test
+    public void addsEachValueOnceAcrossThreads() throws Exception {
+        ConcurrentIntBitSet bitSet = new ConcurrentIntBitSet();
+        AtomicInteger added = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int value = 0; value < 200000; value++) {
+                    if (bitSet.add(value)) {
+                        added.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        assertEquals(200000, added.get());
+    }
+}
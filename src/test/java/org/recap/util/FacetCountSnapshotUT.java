@@ -0,0 +1,117 @@
+package org.recap.util;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.recap.RecapConstants;
+import org.recap.model.search.SearchRecordsRequest;
+import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the facet count snapshot.
+ */
+public class FacetCountSnapshotUT {
+
+    private FacetCountSnapshot facetCountSnapshot;
+
+    private SearchResultCache searchResultCache;
+
+    private SolrClient solrClient;
+
+    @Before
+    public void setUp() throws Exception {
+        searchResultCache = new SearchResultCache();
+        ReflectionTestUtils.setField(searchResultCache, "maxSize", 10L);
+        ReflectionTestUtils.setField(searchResultCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(searchResultCache, "settleMillis", 0L);
+        searchResultCache.init();
+        solrClient = Mockito.mock(SolrClient.class);
+        facetCountSnapshot = new FacetCountSnapshot();
+        ReflectionTestUtils.setField(facetCountSnapshot, "solrTemplate", new SolrTemplate(solrClient));
+        ReflectionTestUtils.setField(facetCountSnapshot, "solrQueryBuilder", new SolrQueryBuilder());
+        ReflectionTestUtils.setField(facetCountSnapshot, "searchResultCache", searchResultCache);
+        ReflectionTestUtils.setField(facetCountSnapshot, "maxSize", 2L);
+        facetCountSnapshot.init();
+    }
+
+    @Test
+    public void countsSearchesWithoutSearchText() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        String key = facetCountSnapshot.getKey(RecapConstants.ITEM, searchRecordsRequest);
+        facetCountSnapshot.putCount(key, facetCountSnapshot.getIndexGeneration(), 42);
+
+        SearchRecordsRequest reorderedRequest = new SearchRecordsRequest();
+        reorderedRequest.setOwningInstitutions(Arrays.asList("PUL", "NYPL", "CUL"));
+        reorderedRequest.setPageNumber(3);
+        assertEquals(Long.valueOf(42), facetCountSnapshot.getCount(facetCountSnapshot.getKey(RecapConstants.ITEM, reorderedRequest)));
+        assertNull(facetCountSnapshot.getCount(facetCountSnapshot.getKey(RecapConstants.BIB, reorderedRequest)));
+
+        reorderedRequest.setFieldValue("history");
+        assertNull(facetCountSnapshot.getKey(RecapConstants.ITEM, reorderedRequest));
+        assertNull(facetCountSnapshot.getCount(null));
+    }
+
+    @Test
+    public void boundsCountsInSize() throws Exception {
+        long indexGeneration = facetCountSnapshot.getIndexGeneration();
+        for (String owningInstitution : Arrays.asList("PUL", "CUL", "NYPL")) {
+            facetCountSnapshot.putCount(getOwningInstitutionKey(owningInstitution), indexGeneration, 1);
+        }
+        int keptCount = 0;
+        for (String owningInstitution : Arrays.asList("PUL", "CUL", "NYPL")) {
+            if (facetCountSnapshot.getCount(getOwningInstitutionKey(owningInstitution)) != null) {
+                keptCount++;
+            }
+        }
+        assertEquals(2, keptCount);
+    }
+
+    @Test
+    public void dropsCountsOnIndexUpdate() throws Exception {
+        String key = facetCountSnapshot.getKey(RecapConstants.BIB, new SearchRecordsRequest());
+        long indexGeneration = facetCountSnapshot.getIndexGeneration();
+        facetCountSnapshot.putCount(key, indexGeneration, 7);
+        searchResultCache.indexUpdated();
+        assertNull(facetCountSnapshot.getCount(key));
+        facetCountSnapshot.putCount(key, indexGeneration, 7);
+        assertNull(facetCountSnapshot.getCount(key));
+    }
+
+    @Test
+    public void refresh() throws Exception {
+        QueryResponse bibCountResponse = getQueryResponse(3);
+        QueryResponse itemCountResponse = getQueryResponse(5);
+        Mockito.when(solrClient.query(Mockito.any(SolrParams.class))).thenReturn(bibCountResponse, itemCountResponse);
+        long indexGeneration = facetCountSnapshot.getIndexGeneration();
+
+        facetCountSnapshot.refresh();
+
+        assertTrue(facetCountSnapshot.getIndexGeneration() > indexGeneration);
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        assertEquals(Long.valueOf(3), facetCountSnapshot.getCount(facetCountSnapshot.getKey(RecapConstants.BIB, searchRecordsRequest)));
+        assertEquals(Long.valueOf(5), facetCountSnapshot.getCount(facetCountSnapshot.getKey(RecapConstants.ITEM, searchRecordsRequest)));
+    }
+
+    private String getOwningInstitutionKey(String owningInstitution) {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList(owningInstitution));
+        return facetCountSnapshot.getKey(RecapConstants.BIB, searchRecordsRequest);
+    }
+
+    private QueryResponse getQueryResponse(long numFound) {
+        SolrDocumentList solrDocuments = new SolrDocumentList();
+        solrDocuments.setNumFound(numFound);
+        QueryResponse queryResponse = Mockito.mock(QueryResponse.class);
+        Mockito.when(queryResponse.getResults()).thenReturn(solrDocuments);
+        return queryResponse;
+    }
+}
@@ -0,0 +1,176 @@
+package org.recap.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.marc4j.marc.Record;
+import org.recap.RecapConstants;
+import org.recap.model.solr.Bib;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for reading marc fields through a precompiled extraction plan.
+ */
+public class MarcFieldExtractionPlanUT {
+
+    private static final String[] MARC_XML_RESOURCES = {
+            "/org/recap/converter/sampleRecord.xml",
+            "/org/recap/util/singleRecord.xml",
+            "/org/recap/util/BibContent.xml",
+            "/org/recap/model/solr/UnicodeBibContent.xml",
+            "/org/recap/repository/jpa/PUL-BibContent.xml",
+            "/org/recap/service/accession/CUL-BibContent.xml",
+            "/org/recap/service/accession/MarcRecord.xml",
+            "/org/recap/service/accession/ValidBoundWithMarc.xml"
+    };
+
+    private String marcXml = "<collection xmlns=\"http://www.loc.gov/MARC21/slim\">\n" +
+            "  <record>\n" +
+            "    <leader>00777cam a2200229 i 4500</leader>\n" +
+            "    <controlfield tag=\"001\">1000011</controlfield>\n" +
+            "    <controlfield tag=\"003\">OCoLC</controlfield>\n" +
+            "    <datafield ind1=\" \" ind2=\" \" tag=\"010\">\n" +
+            "      <subfield code=\"a\">  79971032 </subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\"1\" ind2=\" \" tag=\"100\">\n" +
+            "      <subfield code=\"a\">Rumayhi,</subfield>\n" +
+            "      <subfield code=\"q\">Muhammad</subfield>\n" +
+            "      <subfield code=\"a\">Ghanim</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\"1\" ind2=\"4\" tag=\"245\">\n" +
+            "      <subfield code=\"a\">The Bahrayn :</subfield>\n" +
+            "      <subfield code=\"h\"> </subfield>\n" +
+            "      <subfield code=\"b\">mushkilat al-taghyir /</subfield>\n" +
+            "      <subfield code=\"a\">second a</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\" \" ind2=\"1\" tag=\"264\">\n" +
+            "      <subfield code=\"b\">Dar Ibn Khaldun,</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\" \" ind2=\" \" tag=\"260\">\n" +
+            "      <subfield code=\"a\">Bayrut :</subfield>\n" +
+            "      <subfield code=\"c\">1976.</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\" \" ind2=\" \" tag=\"504\">\n" +
+            "      <subfield code=\"a\">Includes bibliographies.</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\" \" ind2=\"0\" tag=\"651\">\n" +
+            "      <subfield code=\"a\">Bahrain</subfield>\n" +
+            "      <subfield code=\"x\">History</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\"1\" ind2=\" \" tag=\"700\">\n" +
+            "      <subfield code=\"a\">Yusuf, Sabir.</subfield>\n" +
+            "    </datafield>\n" +
+            "    <datafield ind1=\"2\" ind2=\" \" tag=\"710\">\n" +
+            "      <subfield code=\"b\">Division</subfield>\n" +
+            "      <subfield code=\"a\">Agency</subfield>\n" +
+            "    </datafield>\n" +
+            "  </record>\n" +
+            "</collection>";
+
+    @Test
+    public void collectSubfieldValuesWithIndicators() throws Exception {
+        MarcFieldExtractionPlan marcFieldExtractionPlan = new MarcFieldExtractionPlan();
+        int anyIndicator = marcFieldExtractionPlan.collectSubfieldValues("245", null, null, 'a');
+        int secondIndicator4 = marcFieldExtractionPlan.collectSubfieldValues("245", null, '4', 'a');
+        int secondIndicator0 = marcFieldExtractionPlan.collectSubfieldValues("245", null, '0', 'a');
+        int controlNumber = marcFieldExtractionPlan.readControlField("001");
+        int titleSecondIndicator = marcFieldExtractionPlan.readSecondIndicator("245");
+
+        MarcFieldExtractionPlan.MarcFieldValues marcFieldValues = marcFieldExtractionPlan.extract(getRecords(marcXml).get(0));
+        assertEquals(Arrays.asList("The Bahrayn :", "second a"), marcFieldValues.getValues(anyIndicator));
+        assertEquals(Arrays.asList("The Bahrayn :", "second a"), marcFieldValues.getValues(secondIndicator4));
+        assertEquals("", marcFieldValues.getFirstValue(secondIndicator0));
+        assertEquals("1000011", marcFieldValues.getControlField(controlNumber));
+        assertEquals(4, marcFieldValues.getSecondIndicator(titleSecondIndicator));
+    }
+
+    @Test
+    public void joinSubfields() throws Exception {
+        MarcFieldExtractionPlan marcFieldExtractionPlan = new MarcFieldExtractionPlan();
+        int title = marcFieldExtractionPlan.joinFirstSubfields("245", 'b', 'a');
+        int notesAndSubjects = marcFieldExtractionPlan.joinAllSubfields('6');
+
+        MarcFieldExtractionPlan.MarcFieldValues marcFieldValues = marcFieldExtractionPlan.extract(getRecords(marcXml).get(0));
+        assertEquals("mushkilat al-taghyir / The Bahrayn :", marcFieldValues.getJoined(title));
+        assertEquals("Bahrain History", marcFieldValues.getJoined(notesAndSubjects));
+    }
+
+    @Test
+    public void bibMarcFieldsMatchFieldGetters() throws Exception {
+        List<Record> records = new ArrayList<>(getRecords(marcXml));
+        for (String resource : MARC_XML_RESOURCES) {
+            URL url = getClass().getResource(resource);
+            records.addAll(getRecords(FileUtils.readFileToString(new File(url.toURI()), "UTF-8")));
+        }
+        BibJSONUtil bibJSONUtil = new BibJSONUtil();
+        for (Record record : records) {
+            for (String institutionCode : Arrays.asList("NYPL", "PUL")) {
+                Bib bib = new Bib();
+                bibJSONUtil.setMarcFields(bib, record, institutionCode);
+                assertBibMarcFields(bibJSONUtil, record, institutionCode, bib);
+            }
+        }
+    }
+
+    private void assertBibMarcFields(BibJSONUtil bibJSONUtil, Record record, String institutionCode, Bib bib) {
+        String titleDisplay = bibJSONUtil.getTitleDisplay(record);
+        assertEquals(bibJSONUtil.getTitle(record), bib.getTitle());
+        assertEquals(titleDisplay, bib.getTitleDisplay());
+        assertEquals(titleDisplay.split(" ")[0], bib.getTitleStartsWith());
+        assertEquals(bibJSONUtil.getTitleSort(record, titleDisplay), bib.getTitleSort());
+        assertEquals(bibJSONUtil.getDataFieldValue(record, "245", null, null, "a"), bib.getTitleSubFieldA());
+        assertEquals(bibJSONUtil.getAuthorDisplayValue(record), bib.getAuthorDisplay());
+        assertEquals(bibJSONUtil.getAuthorSearchValue(record), bib.getAuthorSearch());
+        assertEquals(bibJSONUtil.getPublisherValue(record), bib.getPublisher());
+        assertEquals(getPublicationPlaceValue(bibJSONUtil, record), bib.getPublicationPlace());
+        assertEquals(bibJSONUtil.getPublicationDateValue(record), bib.getPublicationDate());
+        assertEquals(bibJSONUtil.getDataFieldValueStartsWith(record, "6"), bib.getSubject());
+        assertEquals(bibJSONUtil.getISBNNumber(record), bib.getIsbn());
+        assertEquals(bibJSONUtil.getISSNNumber(record), bib.getIssn());
+        assertEquals(getOCLCNumbers(bibJSONUtil, record, institutionCode), bib.getOclcNumber());
+        assertEquals(bibJSONUtil.getDataFieldValue(record, "245", null, null, "h"), bib.getMaterialType());
+        assertEquals(bibJSONUtil.getDataFieldValueStartsWith(record, "5"), bib.getNotes());
+        assertEquals(bibJSONUtil.getLCCNValue(record), bib.getLccn());
+    }
+
+    private String getPublicationPlaceValue(BibJSONUtil bibJSONUtil, Record record) {
+        for (String tag : Arrays.asList("260", "261", "262", "264")) {
+            String publicationPlaceValue = bibJSONUtil.getDataFieldValue(record, tag, null, null, "a");
+            if (StringUtils.isNotBlank(publicationPlaceValue)) {
+                return publicationPlaceValue;
+            }
+        }
+        return null;
+    }
+
+    private List<String> getOCLCNumbers(BibJSONUtil bibJSONUtil, Record record, String institutionCode) {
+        List<String> oclcNumbers = new ArrayList<>();
+        for (String oclcNumber : bibJSONUtil.getMultiDataFieldValues(record, "035", null, null, "a")) {
+            if (StringUtils.isNotBlank(oclcNumber) && oclcNumber.contains("OCoLC")) {
+                oclcNumbers.add(StringUtils.stripStart(oclcNumber.replaceAll(RecapConstants.NUMBER_PATTERN, ""), "0"));
+            }
+        }
+        if (oclcNumbers.isEmpty() && "NYPL".equalsIgnoreCase(institutionCode)) {
+            String oclcTag = bibJSONUtil.getControlFieldValue(record, "003");
+            if (StringUtils.isNotBlank(oclcTag) && "OCoLC".equalsIgnoreCase(oclcTag)) {
+                oclcTag = bibJSONUtil.getControlFieldValue(record, "001");
+            }
+            oclcTag = StringUtils.stripStart(oclcTag, "0");
+            if (StringUtils.isNotBlank(oclcTag)) {
+                oclcNumbers.add(oclcTag);
+            }
+        }
+        return oclcNumbers;
+    }
+
+    private List<Record> getRecords(String marcXml) {
+        return new MarcUtil().convertMarcXmlToRecord(marcXml);
+    }
+}
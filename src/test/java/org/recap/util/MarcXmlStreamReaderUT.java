@@ -0,0 +1,90 @@
+package org.recap.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.marc4j.MarcException;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.VariableField;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for reading marc xml records with the StAX reader.
+ */
+public class MarcXmlStreamReaderUT {
+
+    static final String[] MARC_XML_RESOURCES = {
+            "/org/recap/converter/sampleRecord.xml",
+            "/org/recap/util/singleRecord.xml",
+            "/org/recap/util/BibContent.xml",
+            "/org/recap/util/HoldingsContent.xml",
+            "/org/recap/model/solr/UnicodeBibContent.xml",
+            "/org/recap/repository/jpa/PUL-BibContent.xml",
+            "/org/recap/repository/jpa/PUL-HoldingsContent.xml",
+            "/org/recap/service/accession/CUL-BibContent.xml",
+            "/org/recap/service/accession/MarcRecord.xml",
+            "/org/recap/service/accession/ValidBoundWithMarc.xml"
+    };
+
+    @Test
+    public void readsSameRecordsAsMarcXmlReader() throws Exception {
+        MarcUtil marcUtil = new MarcUtil();
+        for (byte[] marcXml : getMarcXmlContents()) {
+            List<Record> expectedRecords = marcUtil.convertMarcXmlToRecord(new String(marcXml, "UTF-8"));
+            List<Record> records = marcUtil.convertMarcXmlToRecord(marcXml);
+            assertEquals(expectedRecords.size(), records.size());
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(expectedRecords.get(i).toString(), records.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void readsOnlyFilteredTags() throws Exception {
+        MarcUtil marcUtil = new MarcUtil();
+        for (byte[] marcXml : getMarcXmlContents()) {
+            List<Record> expectedRecords = marcUtil.convertMarcXmlToRecord(new String(marcXml, "UTF-8"));
+            List<Record> records = marcUtil.convertMarcXmlToRecord(marcXml, tag -> tag.equals("001") || tag.startsWith("2"));
+            for (int i = 0; i < records.size(); i++) {
+                List<String> expectedFields = new ArrayList<>();
+                for (VariableField variableField : expectedRecords.get(i).getVariableFields()) {
+                    if (variableField.getTag().equals("001") || variableField.getTag().startsWith("2")) {
+                        expectedFields.add(variableField.toString());
+                    }
+                }
+                List<String> fields = new ArrayList<>();
+                for (VariableField variableField : records.get(i).getVariableFields()) {
+                    fields.add(variableField.toString());
+                }
+                assertEquals(expectedFields, fields);
+                assertEquals(String.valueOf(expectedRecords.get(i).getLeader()), String.valueOf(records.get(i).getLeader()));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsMalformedContent() throws Exception {
+        boolean failed = false;
+        try {
+            new MarcUtil().convertMarcXmlToRecord("<collection><record><datafield tag=\"245\">".getBytes("UTF-8"));
+        } catch (MarcException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+    }
+
+    static List<byte[]> getMarcXmlContents() throws Exception {
+        List<byte[]> marcXmlContents = new ArrayList<>();
+        for (String resource : MARC_XML_RESOURCES) {
+            URL url = MarcXmlStreamReaderUT.class.getResource(resource);
+            marcXmlContents.add(FileUtils.readFileToByteArray(new File(url.toURI())));
+        }
+        return marcXmlContents;
+    }
+}
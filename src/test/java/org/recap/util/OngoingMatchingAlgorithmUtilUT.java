@@ -5,8 +5,10 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.recap.BaseTestCase;
+import org.recap.matchingalgorithm.MatchingCounter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import static org.junit.Assert.assertEquals;
 
@@ -21,8 +23,9 @@ public class OngoingMatchingAlgorithmUtilUT extends BaseTestCase{
     @Test
     public void processMatchingForBibTest() {
         SolrDocument solrDocument = new SolrDocument();
-        Mockito.when(ongoingMatchingAlgorithmUtil.processMatchingForBib(solrDocument, new ArrayList<>())).thenReturn("Success");
-        String status = ongoingMatchingAlgorithmUtil.processMatchingForBib(solrDocument, new ArrayList<>());
+        MatchingCounter matchingCounter = new MatchingCounter(new HashMap<>());
+        Mockito.when(ongoingMatchingAlgorithmUtil.processMatchingForBib(solrDocument, new ArrayList<>(), matchingCounter)).thenReturn("Success");
+        String status = ongoingMatchingAlgorithmUtil.processMatchingForBib(solrDocument, new ArrayList<>(), matchingCounter);
         assertEquals("Success", status);
     }
 
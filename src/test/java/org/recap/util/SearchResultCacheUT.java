@@ -0,0 +1,98 @@
+package org.recap.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.recap.model.search.SearchRecordsRequest;
+import org.recap.model.solr.BibItem;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the search result cache.
+ */
+public class SearchResultCacheUT {
+
+    private SearchResultCache searchResultCache;
+
+    @Before
+    public void setUp() throws Exception {
+        searchResultCache = new SearchResultCache();
+        ReflectionTestUtils.setField(searchResultCache, "maxSize", 10L);
+        ReflectionTestUtils.setField(searchResultCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(searchResultCache, "settleMillis", 0L);
+        searchResultCache.init();
+    }
+
+    @Test
+    public void getKeyIgnoresFacetOrder() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = getSearchRecordsRequest(Arrays.asList("PUL", "CUL"));
+        SearchRecordsRequest reorderedRequest = getSearchRecordsRequest(Arrays.asList("CUL", "PUL", "CUL"));
+        assertEquals(searchResultCache.getKey(searchRecordsRequest), searchResultCache.getKey(reorderedRequest));
+
+        reorderedRequest.setPageNumber(1);
+        assertNotEquals(searchResultCache.getKey(searchRecordsRequest), searchResultCache.getKey(reorderedRequest));
+    }
+
+    @Test
+    public void putAndGet() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = getSearchRecordsRequest(Arrays.asList("PUL"));
+        String key = searchResultCache.getKey(searchRecordsRequest);
+        assertNull(searchResultCache.get(key, searchRecordsRequest));
+
+        searchRecordsRequest.setTotalBibRecordsCount("1");
+        searchRecordsRequest.setTotalPageCount(1);
+        searchResultCache.put(key, searchResultCache.getIndexGeneration(), searchRecordsRequest, getBibItems());
+
+        SearchRecordsRequest repeatedRequest = getSearchRecordsRequest(Arrays.asList("PUL"));
+        List<BibItem> bibItems = searchResultCache.get(key, repeatedRequest);
+        assertNotNull(bibItems);
+        assertEquals(1, bibItems.size());
+        assertEquals("1", repeatedRequest.getTotalBibRecordsCount());
+        assertEquals(Integer.valueOf(1), repeatedRequest.getTotalPageCount());
+        assertEquals(1L, searchResultCache.getStats().get("hitCount"));
+        assertEquals(1L, searchResultCache.getStats().get("missCount"));
+    }
+
+    @Test
+    public void indexUpdatedDropsPages() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = getSearchRecordsRequest(Arrays.asList("PUL"));
+        String key = searchResultCache.getKey(searchRecordsRequest);
+        long indexGeneration = searchResultCache.getIndexGeneration();
+        searchResultCache.put(key, indexGeneration, searchRecordsRequest, getBibItems());
+
+        searchResultCache.indexUpdated();
+        assertNull(searchResultCache.get(key, searchRecordsRequest));
+
+        searchResultCache.put(key, indexGeneration, searchRecordsRequest, getBibItems());
+        assertNull(searchResultCache.get(key, searchRecordsRequest));
+    }
+
+    @Test
+    public void noPutWithinSettleWindow() throws Exception {
+        ReflectionTestUtils.setField(searchResultCache, "settleMillis", 60000L);
+        searchResultCache.indexUpdated();
+        SearchRecordsRequest searchRecordsRequest = getSearchRecordsRequest(Arrays.asList("PUL"));
+        String key = searchResultCache.getKey(searchRecordsRequest);
+        searchResultCache.put(key, searchResultCache.getIndexGeneration(), searchRecordsRequest, getBibItems());
+        assertNull(searchResultCache.get(key, searchRecordsRequest));
+    }
+
+    private SearchRecordsRequest getSearchRecordsRequest(List<String> owningInstitutions) {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setFieldName("Title_search");
+        searchRecordsRequest.setFieldValue("History");
+        searchRecordsRequest.setOwningInstitutions(owningInstitutions);
+        return searchRecordsRequest;
+    }
+
+    private List<BibItem> getBibItems() {
+        BibItem bibItem = new BibItem();
+        bibItem.setBibId(1);
+        return Collections.singletonList(bibItem);
+    }
+}
@@ -0,0 +1,174 @@
+package org.recap.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.client.solrj.beans.Field;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.junit.Before;
+import org.junit.Test;
+import org.recap.model.jpa.*;
+import org.recap.model.solr.Bib;
+import org.recap.model.solr.Holdings;
+import org.recap.model.solr.Item;
+import org.springframework.data.solr.core.SolrTemplate;
+
+import java.io.File;
+import java.net.URL;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests comparing the documents written by the solr document writers with the ones converted by the solr template.
+ */
+public class SolrDocumentWriterUT {
+
+    private SolrTemplate solrTemplate;
+
+    @Before
+    public void setUp() throws Exception {
+        solrTemplate = new SolrTemplate(new HttpSolrClient("http://localhost:8983/solr"));
+        solrTemplate.afterPropertiesSet();
+    }
+
+    @Test
+    public void writeBeansWithEveryFieldSet() throws Exception {
+        assertSameDocument(fillFields(new Bib()), SolrDocumentWriter.forClass(Bib.class));
+        assertSameDocument(fillFields(new Holdings()), SolrDocumentWriter.forClass(Holdings.class));
+        assertSameDocument(fillFields(new Item()), SolrDocumentWriter.forClass(Item.class));
+    }
+
+    @Test
+    public void writeBeansWithNullAndEmptyFields() throws Exception {
+        Bib bib = new Bib();
+        bib.setId("1");
+        bib.setTitle("");
+        bib.setIsbn(new ArrayList<>());
+        Item item = new Item();
+        item.setItemBibIdList(new ArrayList<>());
+        assertSameDocument(bib, SolrDocumentWriter.forClass(Bib.class));
+        assertSameDocument(new Holdings(), SolrDocumentWriter.forClass(Holdings.class));
+        assertSameDocument(item, SolrDocumentWriter.forClass(Item.class));
+
+        SolrInputDocument solrInputDocument = SolrDocumentWriter.forClass(Bib.class).write(bib);
+        assertEquals("", solrInputDocument.getFieldValue("Title_search"));
+        assertFalse(solrInputDocument.containsKey("ISBN"));
+        assertFalse(solrInputDocument.containsKey("Author_display"));
+    }
+
+    @Test
+    public void writeIndexedBeans() throws Exception {
+        BibliographicEntity bibliographicEntity = getBibliographicEntity();
+        BibJSONUtil bibJSONUtil = new BibJSONUtil();
+        Bib bib = bibJSONUtil.generateBibForIndex(bibliographicEntity, null, null);
+        Holdings holdings = new HoldingsJSONUtil().generateHoldingsForIndex(bibliographicEntity.getHoldingsEntities().get(0));
+        Item item = new ItemJSONUtil().generateItemForIndex(bibliographicEntity.getItemEntities().get(0));
+        assertSameDocument(bib, SolrDocumentWriter.forClass(Bib.class));
+        assertSameDocument(holdings, SolrDocumentWriter.forClass(Holdings.class));
+        assertSameDocument(item, SolrDocumentWriter.forClass(Item.class));
+
+        SolrInputDocument bibSolrInputDocument = bibJSONUtil.generateBibAndItemsForIndex(bibliographicEntity, solrTemplate, null, null);
+        assertNotNull(bibSolrInputDocument);
+        assertEquals(bib.getTitleDisplay(), bibSolrInputDocument.getFieldValue("Title_display"));
+        SolrInputDocument holdingsSolrInputDocument = bibSolrInputDocument.getChildDocuments().get(0);
+        assertEquals(holdings.getSummaryHoldings(), holdingsSolrInputDocument.getFieldValue("SummaryHoldings"));
+        assertEquals(item.getBarcode(), holdingsSolrInputDocument.getChildDocuments().get(0).getFieldValue("Barcode"));
+    }
+
+    private <T> void assertSameDocument(T bean, SolrDocumentWriter<T> solrDocumentWriter) {
+        SolrInputDocument expected = solrTemplate.convertBeanToSolrInputDocument(bean);
+        SolrInputDocument actual = solrDocumentWriter.write(bean);
+        for (SolrInputField expectedField : expected) {
+            SolrInputField actualField = actual.getField(expectedField.getName());
+            if (expectedField.getValue() == null) {
+                assertNull(expectedField.getName(), actualField);
+            } else {
+                assertNotNull(expectedField.getName(), actualField);
+                assertEquals(expectedField.getName(), new ArrayList<>(expectedField.getValues()), new ArrayList<>(actualField.getValues()));
+                assertEquals(expectedField.getName(), expectedField.getBoost(), actualField.getBoost(), 0);
+            }
+        }
+        for (String fieldName : actual.getFieldNames()) {
+            assertTrue(fieldName, expected.containsKey(fieldName));
+        }
+        assertEquals(expected.getDocumentBoost(), actual.getDocumentBoost(), 0);
+    }
+
+    private <T> T fillFields(T bean) throws Exception {
+        int value = 1;
+        for (java.lang.reflect.Field field : bean.getClass().getDeclaredFields()) {
+            if (field.getAnnotation(Field.class) == null) {
+                continue;
+            }
+            field.setAccessible(true);
+            Class<?> type = field.getType();
+            if (type == String.class) {
+                field.set(bean, field.getName() + " value");
+            } else if (type == Integer.class) {
+                field.set(bean, value);
+            } else if (type == boolean.class) {
+                field.set(bean, true);
+            } else if (type == Date.class) {
+                field.set(bean, new Date(value * 1000L));
+            } else if (type == List.class) {
+                field.set(bean, Arrays.asList(value, value + 1));
+            } else {
+                fail("No test value for " + field.getName() + " of type " + type.getName());
+            }
+            value++;
+        }
+        return bean;
+    }
+
+    private BibliographicEntity getBibliographicEntity() throws Exception {
+        InstitutionEntity institutionEntity = new InstitutionEntity();
+        institutionEntity.setInstitutionCode("PUL");
+
+        BibliographicEntity bibliographicEntity = new BibliographicEntity();
+        bibliographicEntity.setBibliographicId(1);
+        bibliographicEntity.setOwningInstitutionId(1);
+        bibliographicEntity.setOwningInstitutionBibId("1421");
+        bibliographicEntity.setContent(readResource("BibContent.xml"));
+        bibliographicEntity.setInstitutionEntity(institutionEntity);
+        bibliographicEntity.setCreatedDate(new Date());
+        bibliographicEntity.setLastUpdatedDate(new Date());
+
+        HoldingsEntity holdingsEntity = new HoldingsEntity();
+        holdingsEntity.setHoldingsId(1);
+        holdingsEntity.setOwningInstitutionId(1);
+        holdingsEntity.setOwningInstitutionHoldingsId("1621");
+        holdingsEntity.setContent(readResource("HoldingsContent.xml"));
+        holdingsEntity.setInstitutionEntity(institutionEntity);
+        holdingsEntity.setLastUpdatedDate(new Date());
+
+        ItemStatusEntity itemStatusEntity = new ItemStatusEntity();
+        itemStatusEntity.setStatusCode("Available");
+        CollectionGroupEntity collectionGroupEntity = new CollectionGroupEntity();
+        collectionGroupEntity.setCollectionGroupCode("Shared");
+
+        ItemEntity itemEntity = new ItemEntity();
+        itemEntity.setItemId(1);
+        itemEntity.setOwningInstitutionId(1);
+        itemEntity.setOwningInstitutionItemId("6320902");
+        itemEntity.setBarcode("32101086866140");
+        itemEntity.setCallNumber("JFL 81-165");
+        itemEntity.setCustomerCode("PA");
+        itemEntity.setInstitutionEntity(institutionEntity);
+        itemEntity.setItemStatusEntity(itemStatusEntity);
+        itemEntity.setCollectionGroupEntity(collectionGroupEntity);
+        itemEntity.setLastUpdatedDate(new Date());
+        itemEntity.setHoldingsEntities(Collections.singletonList(holdingsEntity));
+        itemEntity.setBibliographicEntities(Collections.singletonList(bibliographicEntity));
+
+        holdingsEntity.setItemEntities(Collections.singletonList(itemEntity));
+        bibliographicEntity.setHoldingsEntities(Collections.singletonList(holdingsEntity));
+        bibliographicEntity.setItemEntities(Collections.singletonList(itemEntity));
+        return bibliographicEntity;
+    }
+
+    private byte[] readResource(String resource) throws Exception {
+        URL url = getClass().getResource(resource);
+        return FileUtils.readFileToByteArray(new File(url.toURI()));
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.Test;
 import org.recap.model.search.SearchRecordsRequest;
 
 import java.util.Arrays;
+import java.util.List;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
 
 /**
  * Created by peris on 9/30/16.
@@ -127,5 +130,142 @@ public class SolrQueryBuilderUT {
         assertNotNull(queryForAllFieldsNoValue);
     }
 
+    @Test
+    public void getChildDocumentTransformer() throws Exception {
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        String childDocumentTransformer = solrQueryBuilder.getChildDocumentTransformer(false, "Complete", 1000);
+        assertEquals("[child parentFilter=ContentType:parent childFilter='(DocType:Item AND IsDeletedItem:false AND ItemCatalogingStatus:Complete)"
+                + " OR (DocType:Holdings AND IsDeletedHoldings:false)' limit=1000]", childDocumentTransformer);
+    }
+
+    @Test
+    public void getSolrQueryForBibChildren() throws Exception {
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SolrQuery solrQuery = solrQueryBuilder.getSolrQueryForBibChildren(Arrays.asList("PUL1421", "CUL-22"), true, "Incomplete");
+        assertEquals("_root_:(PUL1421 OR CUL\\-22)", solrQuery.getQuery());
+        assertEquals(Arrays.asList("(DocType:Item AND IsDeletedItem:true AND ItemCatalogingStatus:Incomplete) OR (DocType:Holdings AND IsDeletedHoldings:true)"),
+                Arrays.asList(solrQuery.getFilterQueries()));
+    }
+
+    @Test
+    public void getSolrQueryForBibsAndHoldings() throws Exception {
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SolrQuery solrQuery = solrQueryBuilder.getSolrQueryForBibsAndHoldings(Arrays.asList("PUL1421", "NYPL 7"), false, "Complete");
+        assertEquals("_root_:(PUL1421 OR NYPL\\ 7)", solrQuery.getQuery());
+        assertEquals(Arrays.asList("(DocType:Bib AND IsDeletedBib:false AND BibCatalogingStatus:Complete) OR (DocType:Holdings AND IsDeletedHoldings:false)"),
+                Arrays.asList(solrQuery.getFilterQueries()));
+    }
+
+    @Test
+    public void facetsAsFilterQueries() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setFieldName("Title_search");
+        searchRecordsRequest.setFieldValue("Scotland");
+        searchRecordsRequest.setCatalogingStatus("Complete");
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList("PUL", "NYPL", "PUL"));
+        searchRecordsRequest.setMaterialTypes(Arrays.asList("Monograph"));
+        searchRecordsRequest.setAvailability(Arrays.asList("Available"));
+        searchRecordsRequest.setCollectionGroupDesignations(Arrays.asList("Shared", "Open"));
+        searchRecordsRequest.setUseRestrictions(Arrays.asList());
+
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SolrQuery queryForBibs = solrQueryBuilder.getQueryForParentAndChildCriteria(searchRecordsRequest);
+        assertEquals("Title_search:(\"Scotland\")", queryForBibs.getQuery());
+        List<String> bibFilterQueries = Arrays.asList(queryForBibs.getFilterQueries());
+        assertTrue(bibFilterQueries.contains("BibOwningInstitution:(\"NYPL\" \"PUL\")"));
+        assertTrue(bibFilterQueries.contains("LeaderMaterialType:(\"Monograph\")"));
+        assertTrue(bibFilterQueries.contains("IsDeletedBib:false"));
+        assertTrue(bibFilterQueries.contains("BibCatalogingStatus:Complete"));
+        assertEquals(5, bibFilterQueries.size());
+
+        SolrQuery queryForItems = solrQueryBuilder.getQueryForChildAndParentCriteria(searchRecordsRequest);
+        assertEquals("Title_search:(\"Scotland\")", queryForItems.getQuery());
+        List<String> itemFilterQueries = Arrays.asList(queryForItems.getFilterQueries());
+        assertTrue(itemFilterQueries.contains("Availability_search:(\"Available\")"));
+        assertTrue(itemFilterQueries.contains("CollectionGroupDesignation:(\"Open\" \"Shared\")"));
+        assertTrue(itemFilterQueries.contains("IsDeletedItem:false"));
+        assertTrue(itemFilterQueries.contains("ItemCatalogingStatus:Complete"));
+        assertTrue(itemFilterQueries.contains("{!child of=\"ContentType:parent\"}IsDeletedBib:false"));
+        assertEquals(8, itemFilterQueries.size());
+
+        searchRecordsRequest.setFieldName("");
+        searchRecordsRequest.setFieldValue("");
+        SolrQuery countQueryForItems = solrQueryBuilder.getCountQueryForChildAndParentCriteria(searchRecordsRequest);
+        assertEquals("*:*", countQueryForItems.getQuery());
+        assertEquals(Integer.valueOf(0), countQueryForItems.getRows());
+        assertEquals(itemFilterQueries, Arrays.asList(countQueryForItems.getFilterQueries()));
+    }
+
+    @Test
+    public void setCursorPage() throws Exception {
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SolrQuery solrQuery = new SolrQuery("Title_search:History");
+        solrQuery.setStart(100);
+        solrQueryBuilder.setCursorPage(solrQuery, "Title_sort", SolrQuery.ORDER.asc, null, 10);
+        assertEquals(null, solrQuery.getStart());
+        assertEquals(Integer.valueOf(10), solrQuery.getRows());
+        assertEquals("Title_sort asc,id asc", solrQuery.getSortField());
+        assertEquals("*", solrQuery.get("cursorMark"));
 
-}
\ No newline at end of file
+        solrQueryBuilder.setCursorPage(solrQuery, "Title_sort", SolrQuery.ORDER.asc, "AoE", 10);
+        assertEquals("Title_sort asc,id asc", solrQuery.getSortField());
+        assertEquals("AoE", solrQuery.get("cursorMark"));
+    }
+
+    @Test
+    public void barcodeListAsTermsQuery() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setFieldName("Barcode");
+        searchRecordsRequest.setFieldValue("CU54519993, 33433(01)\\7 ,,PULTST\"1");
+
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SearchQueryTemplate searchQueryTemplate = solrQueryBuilder.compileSearchQuery(searchRecordsRequest);
+        SolrQuery queryForItems = searchQueryTemplate.getQueryForItems();
+        assertEquals("{!terms f=Barcode}CU54519993,33433(01)\\7,PULTST\"1", queryForItems.getQuery());
+
+        SolrQuery countQueryForBibs = searchQueryTemplate.getCountQueryForBibs();
+        assertEquals("{!parent which=\"ContentType:parent\" v=$searchQuery}", countQueryForBibs.getQuery());
+        assertEquals(queryForItems.getQuery(), countQueryForBibs.get(SearchQueryTemplate.SEARCH_QUERY_PARAMETER));
+        assertEquals(Integer.valueOf(0), countQueryForBibs.getRows());
+        assertEquals(Arrays.asList(searchQueryTemplate.getQueryForBibs().getFilterQueries()), Arrays.asList(countQueryForBibs.getFilterQueries()));
+
+        assertEquals("_query_:\"{!terms f=Barcode}CU54519993,33433(01)\\\\7,PULTST\\\"1\"", solrQueryBuilder.getQueryForFieldCriteria(searchRecordsRequest));
+        searchRecordsRequest.setDeleted(false);
+        assertTrue(solrQueryBuilder.getQueryForParentAndChildCriteriaForDeletedDataDump(searchRecordsRequest).getQuery()
+                .endsWith(" AND BibCatalogingStatus:Complete AND _query_:\"{!terms f=Barcode}CU54519993,33433(01)\\\\7,PULTST\\\"1\""));
+    }
+
+    @Test
+    public void searchTextEscaped() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setFieldName("Title_search");
+        searchRecordsRequest.setFieldValue("Scotland \"1745\" AND (jacobites");
+        searchRecordsRequest.setOwningInstitutions(Arrays.asList("P\"UL"));
+
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        SearchQueryTemplate searchQueryTemplate = solrQueryBuilder.compileSearchQuery(searchRecordsRequest);
+        String searchQuery = "Title_search:(\"Scotland\") AND Title_search:(\"\\\"1745\\\"\") AND Title_search:(\"AND\") AND Title_search:(\"(jacobites\")";
+        assertEquals(searchQuery, searchQueryTemplate.getQueryForBibs().getQuery());
+        assertTrue(Arrays.asList(searchQueryTemplate.getQueryForBibs().getFilterQueries()).contains("BibOwningInstitution:(\"P\\\"UL\")"));
+
+        SolrQuery countQueryForItems = searchQueryTemplate.getCountQueryForItems();
+        assertEquals("{!child of=\"ContentType:parent\" v=$searchQuery}", countQueryForItems.getQuery());
+        assertEquals(searchQuery, countQueryForItems.get(SearchQueryTemplate.SEARCH_QUERY_PARAMETER));
+        assertTrue(Arrays.asList(countQueryForItems.getFilterQueries()).contains("{!child of=\"ContentType:parent\"}BibOwningInstitution:(\"P\\\"UL\")"));
+    }
+
+    @Test
+    public void dateRangeAndItemCriteriaForParent() throws Exception {
+        SearchRecordsRequest searchRecordsRequest = new SearchRecordsRequest();
+        searchRecordsRequest.setFieldName("BibLastUpdatedDate");
+        searchRecordsRequest.setFieldValue("2016-10-21T14:30:00Z TO NOW");
+        searchRecordsRequest.setAvailability(Arrays.asList("NotAvailable", "Available"));
+        searchRecordsRequest.setCollectionGroupDesignations(Arrays.asList("Shared"));
+        searchRecordsRequest.setUseRestrictions(Arrays.asList());
+
+        SolrQueryBuilder solrQueryBuilder = new SolrQueryBuilder();
+        assertEquals("BibLastUpdatedDate:[2016\\-10\\-21T14\\:30\\:00Z TO NOW]", solrQueryBuilder.getQueryForFieldCriteria(searchRecordsRequest));
+        assertEquals("{!parent which=\"ContentType:parent\"}(Availability_search:(\"Available\" \"NotAvailable\") AND CollectionGroupDesignation:(\"Shared\")"
+                + " AND IsDeletedItem:false AND ItemCatalogingStatus:Complete)", solrQueryBuilder.getQueryStringForItemCriteriaForParent(searchRecordsRequest));
+    }
+}
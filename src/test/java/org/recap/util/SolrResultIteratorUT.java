@@ -0,0 +1,88 @@
+package org.recap.util;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests of the cursor paging of solr queries, with the solr responses mocked.
+ */
+public class SolrResultIteratorUT {
+
+    @Test
+    public void forEachDocument() throws Exception {
+        SolrClient solrClient = Mockito.mock(SolrClient.class);
+        List<SolrParams> requestParams = new ArrayList<>();
+        Mockito.when(solrClient.query(Mockito.any(SolrParams.class), Mockito.any(SolrRequest.METHOD.class))).thenAnswer(invocation -> {
+            SolrParams solrParams = ((SolrQuery) invocation.getArguments()[0]).getCopy();
+            requestParams.add(solrParams);
+            String cursorMark = solrParams.get(CursorMarkParams.CURSOR_MARK_PARAM);
+            if (CursorMarkParams.CURSOR_MARK_START.equals(cursorMark)) {
+                return getQueryResponse("AoE1", 1, 2);
+            }
+            return getQueryResponse("AoE2", 3);
+        });
+        SolrQuery solrQuery = new SolrQuery("DocType:Item");
+        solrQuery.setStart(20);
+        solrQuery.setSort("DocType", SolrQuery.ORDER.asc);
+        List<Object> ids = new ArrayList<>();
+
+        long numFound = SolrResultIterator.forEachDocument(solrClient, solrQuery, SolrRequest.METHOD.POST, 2,
+                solrDocument -> ids.add(solrDocument.getFieldValue("id")));
+
+        assertEquals(3, numFound);
+        assertEquals(3, ids.size());
+        assertEquals(3, ids.get(2));
+        assertEquals(2, requestParams.size());
+        assertEquals("AoE1", requestParams.get(1).get(CursorMarkParams.CURSOR_MARK_PARAM));
+        for (SolrParams solrParams : requestParams) {
+            assertEquals("DocType asc,id asc", solrParams.get("sort"));
+            assertEquals("2", solrParams.get("rows"));
+            assertNull(solrParams.get("start"));
+        }
+        assertNull(solrQuery.get(CursorMarkParams.CURSOR_MARK_PARAM));
+    }
+
+    @Test
+    public void stopsWhenCursorMarkIsUnchanged() throws Exception {
+        SolrClient solrClient = Mockito.mock(SolrClient.class);
+        QueryResponse queryResponse = getQueryResponse(CursorMarkParams.CURSOR_MARK_START, 1, 2);
+        Mockito.when(solrClient.query(Mockito.any(SolrParams.class), Mockito.any(SolrRequest.METHOD.class))).thenReturn(queryResponse);
+        SolrQuery solrQuery = new SolrQuery("DocType:Bib");
+        solrQuery.setSort("id", SolrQuery.ORDER.desc);
+        List<Object> ids = new ArrayList<>();
+
+        SolrResultIterator.forEachDocument(solrClient, solrQuery, SolrRequest.METHOD.GET, 2, solrDocument -> ids.add(solrDocument.getFieldValue("id")));
+
+        assertEquals(2, ids.size());
+        Mockito.verify(solrClient, Mockito.times(1)).query(Mockito.any(SolrParams.class), Mockito.any(SolrRequest.METHOD.class));
+        assertEquals("id desc", solrQuery.get("sort"));
+    }
+
+    private QueryResponse getQueryResponse(String nextCursorMark, int... ids) {
+        SolrDocumentList solrDocuments = new SolrDocumentList();
+        solrDocuments.setNumFound(3);
+        for (int id : ids) {
+            SolrDocument solrDocument = new SolrDocument();
+            solrDocument.setField("id", id);
+            solrDocuments.add(solrDocument);
+        }
+        QueryResponse queryResponse = Mockito.mock(QueryResponse.class);
+        Mockito.when(queryResponse.getResults()).thenReturn(solrDocuments);
+        Mockito.when(queryResponse.getNextCursorMark()).thenReturn(nextCursorMark);
+        return queryResponse;
+    }
+}